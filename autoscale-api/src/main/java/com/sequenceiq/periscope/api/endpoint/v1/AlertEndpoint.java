@@ -4,6 +4,7 @@ import static com.sequenceiq.periscope.doc.ApiDescription.ALERT_DESCRIPTION;
 import static com.sequenceiq.periscope.doc.ApiDescription.AlertNotes.METRIC_BASED_NOTES;
 import static com.sequenceiq.periscope.doc.ApiDescription.AlertNotes.PROMETHEUS_BASED_NOTES;
 import static com.sequenceiq.periscope.doc.ApiDescription.AlertNotes.TIME_BASED_NOTES;
+import static com.sequenceiq.periscope.doc.ApiDescription.AlertNotes.TREND_BASED_NOTES;
 import static com.sequenceiq.periscope.doc.ApiDescription.AlertOpDescription.PROMETHEUS_BASED_DEFINITIONS;
 import static com.sequenceiq.periscope.doc.ApiDescription.JSON;
 
@@ -30,6 +31,8 @@ import com.sequenceiq.periscope.api.model.PrometheusAlertResponse;
 import com.sequenceiq.periscope.api.model.TimeAlertRequest;
 import com.sequenceiq.periscope.api.model.TimeAlertResponse;
 import com.sequenceiq.periscope.api.model.TimeAlertValidationRequest;
+import com.sequenceiq.periscope.api.model.TrendAlertRequest;
+import com.sequenceiq.periscope.api.model.TrendAlertResponse;
 import com.sequenceiq.periscope.doc.ApiDescription.AlertOpDescription;
 
 import io.swagger.annotations.Api;
@@ -133,4 +136,28 @@ public interface AlertEndpoint {
     @ApiOperation(value = AlertOpDescription.METRIC_BASED_DEFINITIONS, produces = JSON, notes = PROMETHEUS_BASED_DEFINITIONS)
     List<AlertRuleDefinitionEntry> getPrometheusDefinitions(@PathParam("clusterId") Long clusterId);
 
+    @POST
+    @Path("trend")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = AlertOpDescription.TREND_BASED_POST, produces = JSON, notes = TREND_BASED_NOTES)
+    TrendAlertResponse createTrendAlert(@PathParam("clusterId") Long clusterId, @Valid TrendAlertRequest json);
+
+    @PUT
+    @Path("trend/{alertId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = AlertOpDescription.TREND_BASED_PUT, produces = JSON, notes = TREND_BASED_NOTES)
+    TrendAlertResponse updateTrendAlert(@PathParam("clusterId") Long clusterId, @PathParam("alertId") Long alertId, @Valid TrendAlertRequest json);
+
+    @GET
+    @Path("trend")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = AlertOpDescription.TREND_BASED_GET, produces = JSON, notes = TREND_BASED_NOTES)
+    List<TrendAlertResponse> getTrendAlerts(@PathParam("clusterId") Long clusterId);
+
+    @DELETE
+    @Path("trend/{alertId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = AlertOpDescription.TREND_BASED_DELETE, produces = JSON, notes = TREND_BASED_NOTES)
+    void deleteTrendAlert(@PathParam("clusterId") Long clusterId, @PathParam("alertId") Long alertId);
+
 }
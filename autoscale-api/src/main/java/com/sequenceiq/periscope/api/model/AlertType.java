@@ -1,5 +1,5 @@
 package com.sequenceiq.periscope.api.model;
 
 public enum AlertType {
-    METRIC, TIME, PROMETHEUS
+    METRIC, TIME, PROMETHEUS, TREND
 }
@@ -0,0 +1,8 @@
+package com.sequenceiq.periscope.api.model;
+
+public enum HostAggregation {
+    SINGLE_HOST,
+    ANY,
+    ALL,
+    PERCENTAGE
+}
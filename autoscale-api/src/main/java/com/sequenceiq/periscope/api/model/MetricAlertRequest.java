@@ -1,5 +1,8 @@
 package com.sequenceiq.periscope.api.model;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
 import com.sequenceiq.periscope.doc.ApiDescription.BaseAlertJsonProperties;
 import com.sequenceiq.periscope.doc.ApiDescription.MetricAlertJsonProperties;
 
@@ -18,6 +21,14 @@ public class MetricAlertRequest extends AbstractAlertJson {
     @ApiModelProperty(MetricAlertJsonProperties.ALERTSTATE)
     private AlertState alertState;
 
+    @ApiModelProperty(MetricAlertJsonProperties.HOSTAGGREGATION)
+    private HostAggregation hostAggregation;
+
+    @Min(0)
+    @Max(100)
+    @ApiModelProperty(MetricAlertJsonProperties.HOSTPERCENTAGE)
+    private Integer hostPercentage;
+
     @ApiModelProperty(BaseAlertJsonProperties.SCALINGPOLICYID)
     private ScalingPolicyRequest scalingPolicy;
 
@@ -45,6 +56,22 @@ public class MetricAlertRequest extends AbstractAlertJson {
         this.alertState = alertState;
     }
 
+    public HostAggregation getHostAggregation() {
+        return hostAggregation;
+    }
+
+    public void setHostAggregation(HostAggregation hostAggregation) {
+        this.hostAggregation = hostAggregation;
+    }
+
+    public Integer getHostPercentage() {
+        return hostPercentage;
+    }
+
+    public void setHostPercentage(Integer hostPercentage) {
+        this.hostPercentage = hostPercentage;
+    }
+
     public ScalingPolicyRequest getScalingPolicy() {
         return scalingPolicy;
     }
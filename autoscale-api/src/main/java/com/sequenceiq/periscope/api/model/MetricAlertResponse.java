@@ -21,6 +21,12 @@ public class MetricAlertResponse extends AbstractAlertJson {
     @ApiModelProperty(MetricAlertJsonProperties.ALERTSTATE)
     private AlertState alertState;
 
+    @ApiModelProperty(MetricAlertJsonProperties.HOSTAGGREGATION)
+    private HostAggregation hostAggregation;
+
+    @ApiModelProperty(MetricAlertJsonProperties.HOSTPERCENTAGE)
+    private Integer hostPercentage;
+
     @ApiModelProperty(BaseAlertJsonProperties.SCALINGPOLICYID)
     private Long scalingPolicyId;
 
@@ -51,6 +57,22 @@ public class MetricAlertResponse extends AbstractAlertJson {
         this.alertState = alertState;
     }
 
+    public HostAggregation getHostAggregation() {
+        return hostAggregation;
+    }
+
+    public void setHostAggregation(HostAggregation hostAggregation) {
+        this.hostAggregation = hostAggregation;
+    }
+
+    public Integer getHostPercentage() {
+        return hostPercentage;
+    }
+
+    public void setHostPercentage(Integer hostPercentage) {
+        this.hostPercentage = hostPercentage;
+    }
+
     public Long getId() {
         return id;
     }
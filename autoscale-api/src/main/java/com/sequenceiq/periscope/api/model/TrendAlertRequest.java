@@ -0,0 +1,64 @@
+package com.sequenceiq.periscope.api.model;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import com.sequenceiq.periscope.doc.ApiDescription.BaseAlertJsonProperties;
+import com.sequenceiq.periscope.doc.ApiDescription.TrendAlertJsonProperties;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel("TrendAlertRequest")
+public class TrendAlertRequest extends AbstractAlertJson {
+
+    private static final int DEFAULT_HORIZON = 10;
+
+    @NotNull
+    @ApiModelProperty(TrendAlertJsonProperties.METRIC)
+    private TrendMetric metric;
+
+    @Min(1)
+    @ApiModelProperty(TrendAlertJsonProperties.HORIZON)
+    private int horizon = DEFAULT_HORIZON;
+
+    @DecimalMin(value = "0", inclusive = false)
+    @ApiModelProperty(TrendAlertJsonProperties.CAPACITY_PER_NODE)
+    private double capacityPerNode;
+
+    @ApiModelProperty(BaseAlertJsonProperties.SCALINGPOLICYID)
+    private ScalingPolicyRequest scalingPolicy;
+
+    public TrendMetric getMetric() {
+        return metric;
+    }
+
+    public void setMetric(TrendMetric metric) {
+        this.metric = metric;
+    }
+
+    public int getHorizon() {
+        return horizon;
+    }
+
+    public void setHorizon(int horizon) {
+        this.horizon = horizon;
+    }
+
+    public double getCapacityPerNode() {
+        return capacityPerNode;
+    }
+
+    public void setCapacityPerNode(double capacityPerNode) {
+        this.capacityPerNode = capacityPerNode;
+    }
+
+    public ScalingPolicyRequest getScalingPolicy() {
+        return scalingPolicy;
+    }
+
+    public void setScalingPolicy(ScalingPolicyRequest scalingPolicy) {
+        this.scalingPolicy = scalingPolicy;
+    }
+}
@@ -0,0 +1,77 @@
+package com.sequenceiq.periscope.api.model;
+
+import com.sequenceiq.periscope.doc.ApiDescription.BaseAlertJsonProperties;
+import com.sequenceiq.periscope.doc.ApiDescription.TrendAlertJsonProperties;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel("TrendAlertResponse")
+public class TrendAlertResponse extends AbstractAlertJson {
+
+    @ApiModelProperty(BaseAlertJsonProperties.ID)
+    private Long id;
+
+    @ApiModelProperty(TrendAlertJsonProperties.METRIC)
+    private TrendMetric metric;
+
+    @ApiModelProperty(TrendAlertJsonProperties.HORIZON)
+    private int horizon;
+
+    @ApiModelProperty(TrendAlertJsonProperties.CAPACITY_PER_NODE)
+    private double capacityPerNode;
+
+    @ApiModelProperty(BaseAlertJsonProperties.SCALINGPOLICYID)
+    private Long scalingPolicyId;
+
+    @ApiModelProperty(BaseAlertJsonProperties.SCALINGPOLICYID)
+    private ScalingPolicyRequest scalingPolicy;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public TrendMetric getMetric() {
+        return metric;
+    }
+
+    public void setMetric(TrendMetric metric) {
+        this.metric = metric;
+    }
+
+    public int getHorizon() {
+        return horizon;
+    }
+
+    public void setHorizon(int horizon) {
+        this.horizon = horizon;
+    }
+
+    public double getCapacityPerNode() {
+        return capacityPerNode;
+    }
+
+    public void setCapacityPerNode(double capacityPerNode) {
+        this.capacityPerNode = capacityPerNode;
+    }
+
+    public Long getScalingPolicyId() {
+        return scalingPolicyId;
+    }
+
+    public void setScalingPolicyId(Long scalingPolicyId) {
+        this.scalingPolicyId = scalingPolicyId;
+    }
+
+    public ScalingPolicyRequest getScalingPolicy() {
+        return scalingPolicy;
+    }
+
+    public void setScalingPolicy(ScalingPolicyRequest scalingPolicy) {
+        this.scalingPolicy = scalingPolicy;
+    }
+}
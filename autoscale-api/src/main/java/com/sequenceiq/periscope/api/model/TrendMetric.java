@@ -0,0 +1,7 @@
+package com.sequenceiq.periscope.api.model;
+
+public enum TrendMetric {
+    PENDING_CONTAINERS,
+    PENDING_MEMORY,
+    PENDING_VCORES
+}
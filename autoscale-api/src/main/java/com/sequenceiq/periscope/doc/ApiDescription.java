@@ -28,6 +28,11 @@ public class ApiDescription {
         public static final String PROMETHEUS_BASED_GET = "retrieve alert which prometheus based";
         public static final String PROMETHEUS_BASED_DELETE = "delete alert which prometheus based";
         public static final String PROMETHEUS_BASED_DEFINITIONS = "retrieve Prometheus alert rule definitions";
+
+        public static final String TREND_BASED_POST = "create alert which trend based";
+        public static final String TREND_BASED_PUT = "modify alert which trend based";
+        public static final String TREND_BASED_GET = "retrieve alert which trend based";
+        public static final String TREND_BASED_DELETE = "delete alert which trend based";
     }
 
     public static class AlertNotes {
@@ -38,6 +43,9 @@ public class ApiDescription {
                 + "nevertheless these thresholds can be configured, changed or altered in Ambari. In order to change the default threshold for a metric "
                 + "please go to Ambari UI and select the Alerts tab and the metric. The values can be changed in the Threshold section. ";
         public static final String PROMETHEUS_BASED_NOTES = "Prometheus based alerts are using Prometheus under the hood. ";
+        public static final String TREND_BASED_NOTES = "Trend based alerts sample a YARN metric of the cluster from Prometheus, fit a linear trend on "
+                + "the recent samples and scale up ahead of time by the number of nodes the forecasted value needs at the end of the horizon. "
+                + "The adjustment is kept within the cluster size min. and max. and the cooldown period is respected.";
     }
 
     public static class ConfigurationOpDescription {
@@ -139,6 +147,11 @@ public class ApiDescription {
         public static final String ALERTDEFINITION = "Definition of the alert";
         public static final String PERIOD = "Period of the alert";
         public static final String ALERTSTATE = "State of the alert";
+        public static final String HOSTAGGREGATION = "Number of hosts that have to be in the alert state for host level alerts: ANY, ALL or "
+                + "PERCENTAGE of them. SINGLE_HOST alerts are only evaluated if a single host reports them, like the alerts created before host "
+                + "aggregation. Defaults to ALL on creation, the current value is kept on update if it is not set";
+        public static final String HOSTPERCENTAGE = "Percentage of the hosts (0-100) that have to be in the alert state, required if the host aggregation "
+                + "is PERCENTAGE";
     }
 
     public static class PrometheusAlertJsonProperties {
@@ -149,6 +162,12 @@ public class ApiDescription {
         public static final String ALERTOPERATOR = "Operator of the alert's query.";
     }
 
+    public static class TrendAlertJsonProperties {
+        public static final String METRIC = "YARN metric of the cluster that is sampled: PENDING_CONTAINERS, PENDING_MEMORY (MB) or PENDING_VCORES";
+        public static final String HORIZON = "Minutes ahead the metric is forecasted, it should cover the time an upscale takes";
+        public static final String CAPACITY_PER_NODE = "Amount of the metric one node of the scaled host group absorbs";
+    }
+
     public static class BaseAlertJsonProperties {
         public static final String ID = "Id of the alert";
         public static final String ALERTNAME = "Name of the alert";
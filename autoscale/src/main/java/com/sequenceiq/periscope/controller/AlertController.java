@@ -20,15 +20,20 @@ import com.sequenceiq.periscope.api.model.PrometheusAlertResponse;
 import com.sequenceiq.periscope.api.model.TimeAlertRequest;
 import com.sequenceiq.periscope.api.model.TimeAlertResponse;
 import com.sequenceiq.periscope.api.model.TimeAlertValidationRequest;
+import com.sequenceiq.periscope.api.model.TrendAlertRequest;
+import com.sequenceiq.periscope.api.model.TrendAlertResponse;
 import com.sequenceiq.periscope.converter.MetricAlertRequestConverter;
 import com.sequenceiq.periscope.converter.MetricAlertResponseConverter;
 import com.sequenceiq.periscope.converter.PrometheusAlertRequestConverter;
 import com.sequenceiq.periscope.converter.PrometheusAlertResponseConverter;
 import com.sequenceiq.periscope.converter.TimeAlertRequestConverter;
 import com.sequenceiq.periscope.converter.TimeAlertResponseConverter;
+import com.sequenceiq.periscope.converter.TrendAlertRequestConverter;
+import com.sequenceiq.periscope.converter.TrendAlertResponseConverter;
 import com.sequenceiq.periscope.domain.MetricAlert;
 import com.sequenceiq.periscope.domain.PrometheusAlert;
 import com.sequenceiq.periscope.domain.TimeAlert;
+import com.sequenceiq.periscope.domain.TrendAlert;
 import com.sequenceiq.periscope.service.AlertService;
 import com.sequenceiq.periscope.service.DateService;
 
@@ -56,6 +61,12 @@ public class AlertController implements AlertEndpoint {
     @Inject
     private PrometheusAlertResponseConverter prometheusAlertResponseConverter;
 
+    @Inject
+    private TrendAlertRequestConverter trendAlertRequestConverter;
+
+    @Inject
+    private TrendAlertResponseConverter trendAlertResponseConverter;
+
     @Inject
     private DateService dateService;
 
@@ -144,6 +155,28 @@ public class AlertController implements AlertEndpoint {
         return alertService.getPrometheusAlertDefinitions();
     }
 
+    @Override
+    public TrendAlertResponse createTrendAlert(Long clusterId, TrendAlertRequest json) {
+        TrendAlert trendAlert = trendAlertRequestConverter.convert(json);
+        return trendAlertResponseConverter.convert(alertService.createTrendAlert(clusterId, trendAlert));
+    }
+
+    @Override
+    public TrendAlertResponse updateTrendAlert(Long clusterId, Long alertId, TrendAlertRequest json) {
+        TrendAlert trendAlert = trendAlertRequestConverter.convert(json);
+        return trendAlertResponseConverter.convert(alertService.updateTrendAlert(clusterId, alertId, trendAlert));
+    }
+
+    @Override
+    public List<TrendAlertResponse> getTrendAlerts(Long clusterId) {
+        return trendAlertResponseConverter.convertAllToJson(alertService.getTrendAlerts(clusterId));
+    }
+
+    @Override
+    public void deleteTrendAlert(Long clusterId, Long alertId) {
+        alertService.deleteTrendAlert(clusterId, alertId);
+    }
+
     private TimeAlert validateTimeAlert(TimeAlertRequest json) throws ParseException {
         TimeAlert alert = timeAlertRequestConverter.convert(json);
         dateService.getCronExpression(alert.getCron());
@@ -21,6 +21,8 @@ public class MetricAlertRequestConverter extends AbstractConverter<MetricAlertRe
         alert.setDefinitionName(source.getAlertDefinition());
         alert.setPeriod(source.getPeriod());
         alert.setAlertState(source.getAlertState());
+        alert.setHostAggregation(source.getHostAggregation());
+        alert.setHostPercentage(source.getHostPercentage());
         if (source.getScalingPolicy() != null) {
             alert.setScalingPolicy(scalingPolicyRequestConverter.convert(source.getScalingPolicy()));
         }
@@ -35,6 +37,8 @@ public class MetricAlertRequestConverter extends AbstractConverter<MetricAlertRe
         json.setPeriod(source.getPeriod());
         json.setAlertDefinition(source.getDefinitionName());
         json.setAlertState(source.getAlertState());
+        json.setHostAggregation(source.getHostAggregation());
+        json.setHostPercentage(source.getHostPercentage());
         return json;
     }
 
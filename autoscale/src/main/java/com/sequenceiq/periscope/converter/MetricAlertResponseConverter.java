@@ -21,6 +21,10 @@ public class MetricAlertResponseConverter extends AbstractConverter<MetricAlertR
         alert.setDefinitionName(source.getAlertDefinition());
         alert.setPeriod(source.getPeriod());
         alert.setAlertState(source.getAlertState());
+        if (source.getHostAggregation() != null) {
+            alert.setHostAggregation(source.getHostAggregation());
+        }
+        alert.setHostPercentage(source.getHostPercentage());
         if (source.getScalingPolicy() != null) {
             alert.setScalingPolicy(scalingPolicyRequestConverter.convert(source.getScalingPolicy()));
         }
@@ -37,6 +41,8 @@ public class MetricAlertResponseConverter extends AbstractConverter<MetricAlertR
         json.setPeriod(source.getPeriod());
         json.setAlertDefinition(source.getDefinitionName());
         json.setAlertState(source.getAlertState());
+        json.setHostAggregation(source.getHostAggregation());
+        json.setHostPercentage(source.getHostPercentage());
         if (source.getScalingPolicy() != null) {
             json.setScalingPolicy(scalingPolicyRequestConverter.convert(source.getScalingPolicy()));
         }
@@ -0,0 +1,43 @@
+package com.sequenceiq.periscope.converter;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.periscope.api.model.TrendAlertRequest;
+import com.sequenceiq.periscope.domain.TrendAlert;
+
+@Component
+public class TrendAlertRequestConverter extends AbstractConverter<TrendAlertRequest, TrendAlert> {
+
+    @Inject
+    private ScalingPolicyRequestConverter scalingPolicyRequestConverter;
+
+    @Override
+    public TrendAlert convert(TrendAlertRequest source) {
+        TrendAlert alert = new TrendAlert();
+        alert.setName(source.getAlertName());
+        alert.setDescription(source.getDescription());
+        alert.setMetric(source.getMetric());
+        alert.setHorizon(source.getHorizon());
+        alert.setCapacityPerNode(source.getCapacityPerNode());
+        if (source.getScalingPolicy() != null) {
+            alert.setScalingPolicy(scalingPolicyRequestConverter.convert(source.getScalingPolicy()));
+        }
+        return alert;
+    }
+
+    @Override
+    public TrendAlertRequest convert(TrendAlert source) {
+        TrendAlertRequest json = new TrendAlertRequest();
+        json.setAlertName(source.getName());
+        json.setDescription(source.getDescription());
+        json.setMetric(source.getMetric());
+        json.setHorizon(source.getHorizon());
+        json.setCapacityPerNode(source.getCapacityPerNode());
+        if (source.getScalingPolicy() != null) {
+            json.setScalingPolicy(scalingPolicyRequestConverter.convert(source.getScalingPolicy()));
+        }
+        return json;
+    }
+}
@@ -0,0 +1,31 @@
+package com.sequenceiq.periscope.converter;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.periscope.api.model.TrendAlertResponse;
+import com.sequenceiq.periscope.domain.TrendAlert;
+
+@Component
+public class TrendAlertResponseConverter extends AbstractConverter<TrendAlertResponse, TrendAlert> {
+
+    @Inject
+    private ScalingPolicyRequestConverter scalingPolicyRequestConverter;
+
+    @Override
+    public TrendAlertResponse convert(TrendAlert source) {
+        TrendAlertResponse json = new TrendAlertResponse();
+        json.setId(source.getId());
+        json.setAlertName(source.getName());
+        json.setDescription(source.getDescription());
+        json.setMetric(source.getMetric());
+        json.setHorizon(source.getHorizon());
+        json.setCapacityPerNode(source.getCapacityPerNode());
+        json.setScalingPolicyId(source.getScalingPolicyId());
+        if (source.getScalingPolicy() != null) {
+            json.setScalingPolicy(scalingPolicyRequestConverter.convert(source.getScalingPolicy()));
+        }
+        return json;
+    }
+}
@@ -57,6 +57,10 @@ public class Cluster {
     @OneToMany(mappedBy = "cluster", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     private Set<PrometheusAlert> prometheusAlerts = new HashSet<>();
 
+    // lazy, unlike the other alerts: only the trend evaluator needs them and it queries them itself
+    @OneToMany(mappedBy = "cluster", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    private Set<TrendAlert> trendAlerts = new HashSet<>();
+
     @Column(name = "min_size")
     private int minSize = DEFAULT_MIN_SIZE;
 
@@ -236,6 +240,14 @@ public class Cluster {
         prometheusAlerts.add(alert);
     }
 
+    public Set<TrendAlert> getTrendAlerts() {
+        return trendAlerts;
+    }
+
+    public void setTrendAlerts(Set<TrendAlert> trendAlerts) {
+        this.trendAlerts = trendAlerts;
+    }
+
     public boolean isAutoscalingEnabled() {
         return autoscalingEnabled;
     }
@@ -44,6 +44,12 @@ public class History {
 
     public static final String PARAMETERS = "parameters";
 
+    public static final String TREND_METRIC = "trendMetric";
+
+    public static final String HORIZON = "horizon";
+
+    public static final String CAPACITY_PER_NODE = "capacityPerNode";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO, generator = "history_generator")
     @SequenceGenerator(name = "history_generator", sequenceName = "history_id_seq", allocationSize = 1)
@@ -123,6 +129,12 @@ public class History {
             properties.put(PERIOD, "" + pa.getPeriod());
             properties.put(ALERT_STATE, pa.getAlertState().name());
             properties.put(PARAMETERS, pa.getParameters().getValue());
+        } else if (alert instanceof TrendAlert) {
+            TrendAlert ta = (TrendAlert) alert;
+            properties.put(TREND_METRIC, ta.getMetric().name());
+            properties.put(HORIZON, String.valueOf(ta.getHorizon()));
+            properties.put(CAPACITY_PER_NODE, String.valueOf(ta.getCapacityPerNode()));
+            alertType = AlertType.TREND;
         }
         properties.put(ALERT_DESCRIPTION, alert.getDescription());
         return this;
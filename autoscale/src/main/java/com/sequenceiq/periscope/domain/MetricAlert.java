@@ -10,6 +10,7 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 
 import com.sequenceiq.periscope.api.model.AlertState;
+import com.sequenceiq.periscope.api.model.HostAggregation;
 
 @Entity
 @DiscriminatorValue("METRIC")
@@ -31,6 +32,13 @@ public class MetricAlert extends BaseAlert {
     @Column(name = "alert_state")
     private AlertState alertState;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "host_aggregation")
+    private HostAggregation hostAggregation = HostAggregation.ALL;
+
+    @Column(name = "host_percentage")
+    private Integer hostPercentage;
+
     public String getDefinitionName() {
         return definitionName;
     }
@@ -63,4 +71,20 @@ public class MetricAlert extends BaseAlert {
     public void setAlertState(AlertState alertState) {
         this.alertState = alertState;
     }
-}
\ No newline at end of file
+
+    public HostAggregation getHostAggregation() {
+        return hostAggregation;
+    }
+
+    public void setHostAggregation(HostAggregation hostAggregation) {
+        this.hostAggregation = hostAggregation;
+    }
+
+    public Integer getHostPercentage() {
+        return hostPercentage;
+    }
+
+    public void setHostPercentage(Integer hostPercentage) {
+        this.hostPercentage = hostPercentage;
+    }
+}
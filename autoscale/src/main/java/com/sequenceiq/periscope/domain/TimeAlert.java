@@ -11,7 +11,8 @@ import javax.persistence.NamedQuery;
 @DiscriminatorValue("TIME")
 @NamedQueries({
         @NamedQuery(name = "TimeAlert.findByCluster", query = "SELECT c FROM TimeAlert c WHERE c.cluster.id= :clusterId AND c.id= :alertId"),
-        @NamedQuery(name = "TimeAlert.findAllByCluster", query = "SELECT c FROM TimeAlert c WHERE c.cluster.id= :clusterId")
+        @NamedQuery(name = "TimeAlert.findAllByCluster", query = "SELECT c FROM TimeAlert c WHERE c.cluster.id= :clusterId"),
+        @NamedQuery(name = "TimeAlert.findAllByClusters", query = "SELECT c FROM TimeAlert c WHERE c.cluster.id IN :clusterIds")
 })
 public class TimeAlert extends BaseAlert {
 
@@ -0,0 +1,65 @@
+package com.sequenceiq.periscope.domain;
+
+import javax.persistence.Column;
+import javax.persistence.DiscriminatorValue;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+
+import com.sequenceiq.periscope.api.model.TrendMetric;
+
+@Entity
+@DiscriminatorValue("TREND")
+@NamedQueries({
+        @NamedQuery(name = "TrendAlert.findByCluster", query = "SELECT c FROM TrendAlert c WHERE c.cluster.id= :clusterId AND c.id= :alertId"),
+        @NamedQuery(name = "TrendAlert.findAllByCluster", query = "SELECT c FROM TrendAlert c WHERE c.cluster.id= :clusterId")
+})
+public class TrendAlert extends BaseAlert {
+
+    @ManyToOne
+    private Cluster cluster;
+
+    @Enumerated(EnumType.STRING)
+    private TrendMetric metric;
+
+    private int horizon;
+
+    @Column(name = "capacity_per_node")
+    private double capacityPerNode;
+
+    @Override
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public void setCluster(Cluster cluster) {
+        this.cluster = cluster;
+    }
+
+    public TrendMetric getMetric() {
+        return metric;
+    }
+
+    public void setMetric(TrendMetric metric) {
+        this.metric = metric;
+    }
+
+    public int getHorizon() {
+        return horizon;
+    }
+
+    public void setHorizon(int horizon) {
+        this.horizon = horizon;
+    }
+
+    public double getCapacityPerNode() {
+        return capacityPerNode;
+    }
+
+    public void setCapacityPerNode(double capacityPerNode) {
+        this.capacityPerNode = capacityPerNode;
+    }
+}
@@ -0,0 +1,88 @@
+package com.sequenceiq.periscope.model;
+
+/**
+ * Fixed size ring buffer of the latest samples of a cluster metric, kept in primitive arrays so sampling does not allocate. When the
+ * buffer is full the oldest sample is overwritten. The samples are written by the evaluator of the cluster and read when the trend is
+ * forecasted, the methods are synchronized as the evaluators of consecutive ticks may run on different threads.
+ */
+public class MetricRingBuffer {
+
+    private final double[] timestamps;
+
+    private final double[] values;
+
+    private int next;
+
+    private int size;
+
+    public MetricRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("At least two samples are needed to fit a trend, capacity: " + capacity);
+        }
+        timestamps = new double[capacity];
+        values = new double[capacity];
+    }
+
+    /**
+     * Adds a sample, timestamps are in seconds. Samples that are not newer than the latest one and non finite values are ignored.
+     */
+    public synchronized void add(double timestamp, double value) {
+        if (!Double.isFinite(value) || (size > 0 && timestamp <= timestamps[index(size - 1)])) {
+            return;
+        }
+        timestamps[next] = timestamp;
+        values[next] = value;
+        next = (next + 1) % timestamps.length;
+        size = Math.min(size + 1, timestamps.length);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized double getLastValue() {
+        return size == 0 ? Double.NaN : values[index(size - 1)];
+    }
+
+    public synchronized double getLastTimestamp() {
+        return size == 0 ? Double.NaN : timestamps[index(size - 1)];
+    }
+
+    /**
+     * Fits a line on the samples with least squares and returns its value at the given time, or NaN if there are less than two samples.
+     * The times are taken relative to the latest sample, so epoch seconds do not cost precision.
+     */
+    public synchronized double forecast(double timestamp) {
+        if (size < 2) {
+            return Double.NaN;
+        }
+        double origin = timestamps[index(size - 1)];
+        double sumT = 0.0;
+        double sumV = 0.0;
+        for (int i = 0; i < size; i++) {
+            sumT += timestamps[index(i)] - origin;
+            sumV += values[index(i)];
+        }
+        double meanT = sumT / size;
+        double meanV = sumV / size;
+        double covariance = 0.0;
+        double variance = 0.0;
+        for (int i = 0; i < size; i++) {
+            double dt = timestamps[index(i)] - origin - meanT;
+            covariance += dt * (values[index(i)] - meanV);
+            variance += dt * dt;
+        }
+        double slope = covariance / variance;
+        return meanV + slope * (timestamp - origin - meanT);
+    }
+
+    public synchronized void clear() {
+        next = 0;
+        size = 0;
+    }
+
+    private int index(int i) {
+        // i-th oldest sample
+        return (next - size + i + timestamps.length) % timestamps.length;
+    }
+}
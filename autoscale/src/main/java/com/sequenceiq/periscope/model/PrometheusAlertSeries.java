@@ -0,0 +1,38 @@
+package com.sequenceiq.periscope.model;
+
+/**
+ * A series of the Prometheus {@code ALERTS} metric, reduced to its labels and its latest sample.
+ */
+public class PrometheusAlertSeries {
+
+    private final String alertName;
+
+    private final String alertState;
+
+    private final double lastTimestamp;
+
+    private final String lastValue;
+
+    public PrometheusAlertSeries(String alertName, String alertState, double lastTimestamp, String lastValue) {
+        this.alertName = alertName;
+        this.alertState = alertState;
+        this.lastTimestamp = lastTimestamp;
+        this.lastValue = lastValue;
+    }
+
+    public String getAlertName() {
+        return alertName;
+    }
+
+    public String getAlertState() {
+        return alertState;
+    }
+
+    public double getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+}
@@ -0,0 +1,139 @@
+package com.sequenceiq.periscope.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads the {@code ALERTS} series of a Prometheus query response with the streaming Jackson parser. Only the labels and the latest
+ * sample of a series are kept, so long range vectors are not materialized.
+ */
+public class PrometheusResponseReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String SUCCESS = "success";
+
+    private PrometheusResponseReader() {
+    }
+
+    /**
+     * Returns the series of the response grouped by their alert name.
+     */
+    public static Map<String, List<PrometheusAlertSeries>> readAlertSeries(InputStream inputStream) throws IOException {
+        Map<String, List<PrometheusAlertSeries>> seriesByAlert = new HashMap<>();
+        String status = null;
+        String error = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "status":
+                        status = parser.getText();
+                        break;
+                    case "error":
+                        error = parser.getText();
+                        break;
+                    case "data":
+                        readData(parser, seriesByAlert);
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+        }
+        if (!SUCCESS.equals(status)) {
+            throw new IOException(String.format("Prometheus query failed with status '%s': %s", status, error));
+        }
+        return seriesByAlert;
+    }
+
+    /**
+     * Returns the sum of the latest samples of the series of the response, or NaN if it has none. Meant for the response of an
+     * aggregated instant query, which has a single series.
+     */
+    public static double readValue(InputStream inputStream) throws IOException {
+        return readAlertSeries(inputStream).values().stream()
+                .flatMap(List::stream)
+                .mapToDouble(series -> Double.parseDouble(series.getLastValue()))
+                .reduce(Double::sum)
+                .orElse(Double.NaN);
+    }
+
+    private static void readData(JsonParser parser, Map<String, List<PrometheusAlertSeries>> seriesByAlert) throws IOException {
+        expect(parser, parser.getCurrentToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("result".equals(field)) {
+                expect(parser, parser.getCurrentToken(), JsonToken.START_ARRAY);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    PrometheusAlertSeries series = readSeries(parser);
+                    seriesByAlert.computeIfAbsent(series.getAlertName(), name -> new ArrayList<>()).add(series);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static PrometheusAlertSeries readSeries(JsonParser parser) throws IOException {
+        Map<String, String> labels = new HashMap<>();
+        Sample lastSample = new Sample();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("metric".equals(field)) {
+                expect(parser, token, JsonToken.START_OBJECT);
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String label = parser.getCurrentName();
+                    parser.nextToken();
+                    labels.put(label, parser.getText());
+                }
+            } else if ("values".equals(field)) {
+                // range vector: the samples are ordered by their timestamp, so only the last one is kept
+                expect(parser, token, JsonToken.START_ARRAY);
+                while (parser.nextToken() == JsonToken.START_ARRAY) {
+                    lastSample.read(parser);
+                }
+            } else if ("value".equals(field)) {
+                expect(parser, token, JsonToken.START_ARRAY);
+                lastSample.read(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new PrometheusAlertSeries(labels.get("alertname"), labels.get("alertstate"), lastSample.timestamp, lastSample.value);
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException(String.format("Unexpected token %s instead of %s at %s", actual, expected, parser.getCurrentLocation()));
+        }
+    }
+
+    private static class Sample {
+
+        private double timestamp;
+
+        private String value;
+
+        private void read(JsonParser parser) throws IOException {
+            parser.nextToken();
+            timestamp = parser.getDoubleValue();
+            parser.nextToken();
+            value = parser.getText();
+            expect(parser, parser.nextToken(), JsonToken.END_ARRAY);
+        }
+    }
+}
@@ -1,17 +1,18 @@
 package com.sequenceiq.periscope.monitor;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 
 import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.springframework.context.ApplicationContext;
 
-import com.sequenceiq.periscope.api.model.ClusterState;
 import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.log.MDCBuilder;
 import com.sequenceiq.periscope.monitor.evaluator.EvaluatorExecutor;
 import com.sequenceiq.periscope.service.ClusterService;
+import com.sequenceiq.periscope.service.ha.ClusterAssignmentService;
 import com.sequenceiq.periscope.service.ha.PeriscopeNodeConfig;
 
 public abstract class AbstractMonitor implements Monitor {
@@ -20,29 +21,42 @@ public abstract class AbstractMonitor implements Monitor {
 
     private ClusterService clusterService;
 
+    private ClusterAssignmentService clusterAssignmentService;
+
     private ApplicationContext applicationContext;
 
-    private ExecutorService executorService;
+    private EvaluatorDispatcher evaluatorDispatcher;
 
     @Override
     public void execute(JobExecutionContext context) {
         MDCBuilder.buildMdcContext();
         evalContext(context);
-        for (Cluster cluster : getClusters()) {
+        List<Cluster> clusters = getClusters();
+        List<EvaluatorExecutor> evaluators = new ArrayList<>(clusters.size());
+        List<Long> clusterIds = new ArrayList<>(clusters.size());
+        for (Cluster cluster : clusters) {
             EvaluatorExecutor evaluatorExecutor = applicationContext.getBean(getEvaluatorType().getSimpleName(), EvaluatorExecutor.class);
             evaluatorExecutor.setContext(getContext(cluster));
-            executorService.submit(evaluatorExecutor);
-            cluster.setLastEvaulated(System.currentTimeMillis());
-            clusterService.save(cluster);
+            evaluators.add(evaluatorExecutor);
+            clusterIds.add(cluster.getId());
+        }
+        evaluatorDispatcher.dispatch(getIdentifier(), evaluators);
+        if (!clusterIds.isEmpty()) {
+            clusterService.updateLastEvaluated(clusterIds, System.currentTimeMillis());
         }
     }
 
     void evalContext(JobExecutionContext context) {
         JobDataMap monitorContext = context.getJobDetail().getJobDataMap();
         applicationContext = (ApplicationContext) monitorContext.get(MonitorContext.APPLICATION_CONTEXT.name());
-        executorService = applicationContext.getBean(ExecutorService.class);
+        evaluatorDispatcher = applicationContext.getBean(EvaluatorDispatcher.class);
         clusterService = applicationContext.getBean(ClusterService.class);
         periscopeNodeConfig = applicationContext.getBean(PeriscopeNodeConfig.class);
+        clusterAssignmentService = applicationContext.getBean(ClusterAssignmentService.class);
+    }
+
+    ApplicationContext getApplicationContext() {
+        return applicationContext;
     }
 
     PeriscopeNodeConfig getPeriscopeNodeConfig() {
@@ -53,7 +67,11 @@ public abstract class AbstractMonitor implements Monitor {
         return clusterService;
     }
 
+    List<Cluster> getAssignedClusters() {
+        return clusterAssignmentService.getAssignedClusters();
+    }
+
     List<Cluster> getClusters() {
-        return clusterService.findAllForNode(ClusterState.RUNNING, true, periscopeNodeConfig.getId());
+        return getAssignedClusters().stream().filter(c -> c.isRunning() && c.isAutoscalingEnabled()).collect(Collectors.toList());
     }
 }
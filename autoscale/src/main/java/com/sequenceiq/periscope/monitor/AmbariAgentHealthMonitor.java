@@ -3,10 +3,10 @@ package com.sequenceiq.periscope.monitor;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
 
-import com.sequenceiq.periscope.api.model.ClusterState;
 import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.monitor.evaluator.AmbariAgentHealthEvaluator;
 import com.sequenceiq.periscope.monitor.evaluator.EvaluatorContext;
@@ -36,6 +36,6 @@ public class AmbariAgentHealthMonitor extends AbstractMonitor {
 
     @Override
     List<Cluster> getClusters() {
-        return getClusterService().findAllByStateAndNode(ClusterState.RUNNING, getPeriscopeNodeConfig().getId());
+        return getAssignedClusters().stream().filter(Cluster::isRunning).collect(Collectors.toList());
     }
 }
@@ -0,0 +1,43 @@
+package com.sequenceiq.periscope.monitor;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+
+import javax.inject.Inject;
+
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.service.Clock;
+import com.sequenceiq.periscope.monitor.evaluator.EvaluatorExecutor;
+
+/**
+ * Submits the evaluators of a monitor tick to the shared executor and reports how long they wait in its queue. The wait is submitted
+ * as the {@code periscope.evaluator.queue.wait.<monitor>} gauge in milliseconds when an evaluator starts, a growing value means the
+ * executor cannot keep up with the clusters of this node.
+ */
+@Component
+public class EvaluatorDispatcher {
+
+    static final String QUEUE_WAIT_METRIC = "periscope.evaluator.queue.wait.";
+
+    @Inject
+    private ExecutorService executorService;
+
+    @Inject
+    private GaugeService gaugeService;
+
+    @Inject
+    private Clock clock;
+
+    public void dispatch(String monitor, Collection<EvaluatorExecutor> evaluators) {
+        String metric = QUEUE_WAIT_METRIC + monitor;
+        long submitted = clock.getCurrentTime();
+        for (EvaluatorExecutor evaluator : evaluators) {
+            executorService.submit(() -> {
+                gaugeService.submit(metric, clock.getCurrentTime() - submitted);
+                evaluator.run();
+            });
+        }
+    }
+}
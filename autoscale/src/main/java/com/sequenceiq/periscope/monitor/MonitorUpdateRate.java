@@ -27,6 +27,11 @@ public final class MonitorUpdateRate {
      */
     public static final String TIME_UPDATE_RATE_CRON = "0/10 * * * * ?";
 
+    /**
+     * Every 30 seconds.
+     */
+    public static final String TREND_UPDATE_RATE_CRON = "0/30 * * * * ?";
+
     /**
      * Every minutes.
      */
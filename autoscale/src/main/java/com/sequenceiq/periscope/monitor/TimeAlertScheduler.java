@@ -0,0 +1,234 @@
+package com.sequenceiq.periscope.monitor;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.support.CronSequenceGenerator;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sequenceiq.cloudbreak.service.Clock;
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.domain.TimeAlert;
+import com.sequenceiq.periscope.log.MDCBuilder;
+import com.sequenceiq.periscope.monitor.event.ScalingEvent;
+import com.sequenceiq.periscope.repository.TimeAlertRepository;
+import com.sequenceiq.periscope.service.ClusterService;
+import com.sequenceiq.periscope.service.DateService;
+import com.sequenceiq.periscope.service.ha.PeriscopeNodeConfig;
+
+/**
+ * Fires the time alerts of the clusters of this node when they are due. The cron expression of an alert is parsed once, when the alert is
+ * scheduled, and only its next firing is queued, so the alerts are not evaluated between their firings. The scheduled alerts are
+ * synchronized with the clusters of the node by the {@link TimeMonitor}, which picks up the clusters taken over from a failed node and
+ * the alerts changed on the other nodes.
+ */
+@Component
+public class TimeAlertScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimeAlertScheduler.class);
+
+    @Inject
+    private ClusterService clusterService;
+
+    @Inject
+    private TimeAlertRepository timeAlertRepository;
+
+    @Inject
+    private DateService dateService;
+
+    @Inject
+    private PeriscopeNodeConfig periscopeNodeConfig;
+
+    @Inject
+    private ApplicationEventPublisher eventPublisher;
+
+    @Inject
+    private ExecutorService executorService;
+
+    @Inject
+    private Clock clock;
+
+    private final Map<Long, ScheduledAlert> scheduledAlerts = new ConcurrentHashMap<>();
+
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNameFormat("time-alert-scheduler-%d").setDaemon(true).build());
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Schedules the next firing of the alert. The cron expression is parsed again only if the cron or the time zone of the alert has
+     * changed since it was scheduled. A firing that happened within the last monitor interval is still fired, as the time monitor did.
+     */
+    public void schedule(TimeAlert alert) {
+        scheduledAlerts.compute(alert.getId(), (alertId, current) -> {
+            if (current != null && current.isSameSchedule(alert)) {
+                return current;
+            }
+            if (current != null) {
+                current.cancel();
+            }
+            ScheduledAlert scheduledAlert = new ScheduledAlert(alert, parse(alert));
+            if (scheduledAlert.cronExpression != null) {
+                scheduleNext(scheduledAlert, clock.getCurrentTime() - MonitorUpdateRate.CLUSTER_UPDATE_RATE);
+            }
+            return scheduledAlert;
+        });
+    }
+
+    public void unschedule(Long alertId) {
+        ScheduledAlert scheduledAlert = scheduledAlerts.remove(alertId);
+        if (scheduledAlert != null) {
+            scheduledAlert.cancel();
+        }
+    }
+
+    /**
+     * Schedules the time alerts of the given clusters and drops every other scheduled alert.
+     */
+    public void synchronize(Collection<Cluster> clusters) {
+        Set<Long> clusterIds = clusters.stream().map(Cluster::getId).collect(Collectors.toSet());
+        List<TimeAlert> alerts = clusterIds.isEmpty() ? Collections.emptyList() : timeAlertRepository.findAllByClusters(clusterIds);
+        Set<Long> alertIds = new HashSet<>();
+        for (TimeAlert alert : alerts) {
+            schedule(alert);
+            alertIds.add(alert.getId());
+        }
+        for (Long alertId : new ArrayList<>(scheduledAlerts.keySet())) {
+            if (!alertIds.contains(alertId)) {
+                unschedule(alertId);
+            }
+        }
+    }
+
+    int getScheduledAlertCount() {
+        return scheduledAlerts.size();
+    }
+
+    Long getNextFireTime(Long alertId) {
+        ScheduledAlert scheduledAlert = scheduledAlerts.get(alertId);
+        return scheduledAlert == null ? null : scheduledAlert.nextFireTime;
+    }
+
+    private CronSequenceGenerator parse(TimeAlert alert) {
+        try {
+            return dateService.getCronExpression(alert.getCron(), alert.getTimeZone());
+        } catch (ParseException e) {
+            LOGGER.warn("Time alert '{}' is not scheduled, invalid cron expression '{}': {}", alert.getName(), alert.getCron(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void scheduleNext(ScheduledAlert scheduledAlert, long after) {
+        Date next;
+        try {
+            next = scheduledAlert.cronExpression.next(new Date(after));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Time alert {} has no next firing with cron expression '{}': {}", scheduledAlert.alertId, scheduledAlert.cron, e.getMessage());
+            return;
+        }
+        scheduledAlert.nextFireTime = next.getTime();
+        long delay = Math.max(0L, next.getTime() - clock.getCurrentTime());
+        scheduledAlert.future = scheduler.schedule(() -> onDue(scheduledAlert), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void onDue(ScheduledAlert scheduledAlert) {
+        boolean[] current = new boolean[1];
+        scheduledAlerts.computeIfPresent(scheduledAlert.alertId, (alertId, scheduled) -> {
+            if (scheduled == scheduledAlert) {
+                current[0] = true;
+                scheduleNext(scheduledAlert, scheduledAlert.nextFireTime);
+            }
+            return scheduled;
+        });
+        if (current[0]) {
+            executorService.submit(() -> fire(scheduledAlert.clusterId, scheduledAlert.alertId));
+        }
+    }
+
+    void fire(long clusterId, long alertId) {
+        Cluster cluster = clusterService.find(clusterId);
+        if (cluster == null || !isMonitoredByThisNode(cluster)) {
+            LOGGER.info("Cluster {} is not monitored by this node anymore, its time alert {} is unscheduled", clusterId, alertId);
+            unschedule(alertId);
+            return;
+        }
+        MDCBuilder.buildMdcContext(cluster);
+        Optional<TimeAlert> alert = timeAlertRepository.findAllByCluster(clusterId).stream().filter(a -> a.getId() == alertId).findFirst();
+        if (!alert.isPresent()) {
+            unschedule(alertId);
+        } else if (alert.get().getScalingPolicy() != null) {
+            LOGGER.info("Time alert '{}' triggers the '{}' scaling policy", alert.get().getName(), alert.get().getScalingPolicy().getName());
+            eventPublisher.publishEvent(new ScalingEvent(alert.get()));
+        }
+    }
+
+    private boolean isMonitoredByThisNode(Cluster cluster) {
+        return cluster.isRunning() && cluster.isAutoscalingEnabled() && Objects.equals(cluster.getPeriscopeNodeId(), periscopeNodeConfig.getId());
+    }
+
+    private static class ScheduledAlert {
+
+        private final long alertId;
+
+        private final long clusterId;
+
+        private final String cron;
+
+        private final String timeZone;
+
+        private final CronSequenceGenerator cronExpression;
+
+        private volatile long nextFireTime;
+
+        private volatile ScheduledFuture<?> future;
+
+        ScheduledAlert(TimeAlert alert, CronSequenceGenerator cronExpression) {
+            alertId = alert.getId();
+            clusterId = alert.getCluster().getId();
+            cron = alert.getCron();
+            timeZone = alert.getTimeZone();
+            this.cronExpression = cronExpression;
+        }
+
+        private boolean isSameSchedule(TimeAlert alert) {
+            return Objects.equals(cron, alert.getCron()) && Objects.equals(timeZone, alert.getTimeZone());
+        }
+
+        private void cancel() {
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
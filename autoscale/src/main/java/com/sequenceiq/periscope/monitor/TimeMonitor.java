@@ -3,15 +3,28 @@ package com.sequenceiq.periscope.monitor;
 import java.util.Collections;
 import java.util.Map;
 
+import org.quartz.JobExecutionContext;
 import org.springframework.stereotype.Component;
 
 import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.log.MDCBuilder;
 import com.sequenceiq.periscope.monitor.evaluator.CronTimeEvaluator;
 import com.sequenceiq.periscope.monitor.evaluator.EvaluatorContext;
 
+/**
+ * Keeps the {@link TimeAlertScheduler} in sync with the clusters of this node. The alerts themselves are fired by the scheduler when they
+ * are due, so the clusters are not evaluated on every tick.
+ */
 @Component
 public class TimeMonitor extends AbstractMonitor {
 
+    @Override
+    public void execute(JobExecutionContext context) {
+        MDCBuilder.buildMdcContext();
+        evalContext(context);
+        getApplicationContext().getBean(TimeAlertScheduler.class).synchronize(getClusters());
+    }
+
     @Override
     public String getIdentifier() {
         return "time-monitor";
@@ -0,0 +1,34 @@
+package com.sequenceiq.periscope.monitor;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.monitor.evaluator.EvaluatorContext;
+import com.sequenceiq.periscope.monitor.evaluator.TrendEvaluator;
+
+@Component
+public class TrendMonitor extends AbstractMonitor {
+
+    @Override
+    public String getIdentifier() {
+        return "trend-monitor";
+    }
+
+    @Override
+    public String getTriggerExpression() {
+        return MonitorUpdateRate.TREND_UPDATE_RATE_CRON;
+    }
+
+    @Override
+    public Class<?> getEvaluatorType() {
+        return TrendEvaluator.class;
+    }
+
+    @Override
+    public Map<String, Object> getContext(Cluster cluster) {
+        return Collections.singletonMap(EvaluatorContext.CLUSTER_ID.name(), cluster.getId());
+    }
+}
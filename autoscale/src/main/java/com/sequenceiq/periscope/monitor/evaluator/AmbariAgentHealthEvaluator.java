@@ -17,9 +17,9 @@ import com.sequenceiq.cloudbreak.client.CloudbreakClient;
 import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.log.MDCBuilder;
 import com.sequenceiq.periscope.monitor.event.UpdateFailedEvent;
+import com.sequenceiq.periscope.service.ClusterConnectionRegistry;
 import com.sequenceiq.periscope.service.ClusterService;
 import com.sequenceiq.periscope.service.configuration.CloudbreakClientConfiguration;
-import com.sequenceiq.periscope.service.AmbariClientProvider;
 
 @Component("AmbariAgentHealthEvaluator")
 @Scope("prototype")
@@ -43,7 +43,7 @@ public class AmbariAgentHealthEvaluator extends AbstractEventPublisher implement
     private ClusterService clusterService;
 
     @Inject
-    private AmbariClientProvider ambariClientProvider;
+    private ClusterConnectionRegistry clusterConnectionRegistry;
 
     @Inject
     private CloudbreakClientConfiguration cloudbreakClientConfiguration;
@@ -61,25 +61,13 @@ public class AmbariAgentHealthEvaluator extends AbstractEventPublisher implement
         MDCBuilder.buildMdcContext(cluster);
         LOGGER.info("Checking '{}' alerts.", AMBARI_AGENT_HEARTBEAT);
         try {
-            AmbariClient ambariClient = ambariClientProvider.createAmbariClient(cluster);
-            List<Map<String, Object>> alertHistory = ambariClient.getAlert(AMBARI_AGENT_HEARTBEAT_DEF_NAME);
-            if (!alertHistory.isEmpty()) {
-                List<String> hostNamesToRecover = new ArrayList<>();
-                for (Map<String, Object> history : alertHistory) {
-                    String currentState = (String) history.get(ALERT_STATE);
-                    if (isAlertStateMet(currentState)) {
-                        String hostName = (String) history.get(HOST_NAME);
-                        hostNamesToRecover.add(hostName);
-                        LOGGER.info("Alert: {} is in '{}' state for host '{}'.", AMBARI_AGENT_HEARTBEAT, currentState, hostName);
-                    }
-                }
-                if (!hostNamesToRecover.isEmpty()) {
-                    hostNamesToRecover.forEach(hn -> LOGGER.info("Host to recover: {}", hn));
-                    CloudbreakClient cbClient = cloudbreakClientConfiguration.cloudbreakClient();
-                    FailureReport failureReport = new FailureReport();
-                    failureReport.setFailedNodes(hostNamesToRecover);
-                    cbClient.clusterEndpoint().failureReport(cluster.getStackId(), failureReport);
-                }
+            List<String> hostNamesToRecover = clusterConnectionRegistry.withAmbariClient(cluster, this::getHostNamesToRecover);
+            if (!hostNamesToRecover.isEmpty()) {
+                hostNamesToRecover.forEach(hn -> LOGGER.info("Host to recover: {}", hn));
+                CloudbreakClient cbClient = cloudbreakClientConfiguration.cloudbreakClient();
+                FailureReport failureReport = new FailureReport();
+                failureReport.setFailedNodes(hostNamesToRecover);
+                cbClient.clusterEndpoint().failureReport(cluster.getStackId(), failureReport);
             }
         } catch (Exception e) {
             LOGGER.warn(String.format("Failed to retrieve '%s' alerts. Original message: %s", AMBARI_AGENT_HEARTBEAT, e.getMessage()));
@@ -87,6 +75,19 @@ public class AmbariAgentHealthEvaluator extends AbstractEventPublisher implement
         }
     }
 
+    private List<String> getHostNamesToRecover(AmbariClient ambariClient) {
+        List<String> hostNamesToRecover = new ArrayList<>();
+        for (Map<String, Object> history : ambariClient.getAlert(AMBARI_AGENT_HEARTBEAT_DEF_NAME)) {
+            String currentState = (String) history.get(ALERT_STATE);
+            if (isAlertStateMet(currentState)) {
+                String hostName = (String) history.get(HOST_NAME);
+                hostNamesToRecover.add(hostName);
+                LOGGER.info("Alert: {} is in '{}' state for host '{}'.", AMBARI_AGENT_HEARTBEAT, currentState, hostName);
+            }
+        }
+        return hostNamesToRecover;
+    }
+
     private boolean isAlertStateMet(String currentState) {
         return currentState.equalsIgnoreCase(CRITICAL_ALERT_STATE);
     }
@@ -1,9 +1,7 @@
 package com.sequenceiq.periscope.monitor.evaluator;
 
-import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import javax.inject.Inject;
 
@@ -48,10 +46,6 @@ public class CronTimeEvaluator extends AbstractEventPublisher implements Evaluat
         return dateService.isTrigger(alert, MonitorUpdateRate.CLUSTER_UPDATE_RATE);
     }
 
-    private boolean isTrigger(TimeAlert alert, ZonedDateTime zdt) {
-        return dateService.isTrigger(alert, MonitorUpdateRate.CLUSTER_UPDATE_RATE, zdt);
-    }
-
     private boolean isPolicyAttached(BaseAlert alert) {
         return alert.getScalingPolicy() != null;
     }
@@ -72,18 +66,13 @@ public class CronTimeEvaluator extends AbstractEventPublisher implements Evaluat
         }
     }
 
-    public void publishIfNeeded(Map<TimeAlert, ZonedDateTime> alerts) {
-        for (Entry<TimeAlert, ZonedDateTime> alertEntry : alerts.entrySet()) {
-            TimeAlert alert = alertEntry.getKey();
-            if (isPolicyAttached(alert) && isTrigger(alert, alertEntry.getValue())) {
-                publish(alert);
-                break;
-            }
-        }
-    }
-
-    private void publish(TimeAlert alert) {
+    public void publish(TimeAlert alert) {
         LOGGER.info("Time alert '{}' triggers the '{}' scaling policy", alert.getName(), alert.getScalingPolicy().getName());
         publishEvent(new ScalingEvent(alert));
     }
+
+    public void publishMissedFiring(TimeAlert alert) {
+        LOGGER.info("Missed firing of time alert '{}' triggers the '{}' scaling policy", alert.getName(), alert.getScalingPolicy().getName());
+        publishEvent(new ScalingEvent(alert, true));
+    }
 }
@@ -1,5 +1,9 @@
 package com.sequenceiq.periscope.monitor.evaluator;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -7,10 +11,12 @@ import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.periscope.api.model.HostAggregation;
 import com.sequenceiq.periscope.domain.BaseAlert;
 import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.domain.MetricAlert;
@@ -18,7 +24,7 @@ import com.sequenceiq.periscope.log.MDCBuilder;
 import com.sequenceiq.periscope.monitor.event.ScalingEvent;
 import com.sequenceiq.periscope.monitor.event.UpdateFailedEvent;
 import com.sequenceiq.periscope.repository.MetricAlertRepository;
-import com.sequenceiq.periscope.service.AmbariClientProvider;
+import com.sequenceiq.periscope.service.ClusterConnectionRegistry;
 import com.sequenceiq.periscope.service.ClusterService;
 import com.sequenceiq.periscope.utils.ClusterUtils;
 import com.sequenceiq.periscope.utils.TimeUtil;
@@ -33,6 +39,12 @@ public class MetricEvaluator extends AbstractEventPublisher implements Evaluator
 
     private static final String ALERT_TS = "timestamp";
 
+    private static final String ALERT_ORIGINAL_TS = "original_timestamp";
+
+    private static final String HOST_NAME = "host_name";
+
+    private static final int HUNDRED_PERCENT = 100;
+
     @Inject
     private ClusterService clusterService;
 
@@ -40,7 +52,10 @@ public class MetricEvaluator extends AbstractEventPublisher implements Evaluator
     private MetricAlertRepository alertRepository;
 
     @Inject
-    private AmbariClientProvider ambariClientProvider;
+    private ClusterConnectionRegistry clusterConnectionRegistry;
+
+    @Value("${periscope.alert.metric.snapshot.enabled:false}")
+    private boolean snapshotEnabled;
 
     private long clusterId;
 
@@ -53,30 +68,11 @@ public class MetricEvaluator extends AbstractEventPublisher implements Evaluator
     public void run() {
         Cluster cluster = clusterService.find(clusterId);
         MDCBuilder.buildMdcContext(cluster);
-        AmbariClient ambariClient = ambariClientProvider.createAmbariClient(cluster);
         try {
-            for (MetricAlert alert : alertRepository.findAllByCluster(clusterId)) {
-                String alertName = alert.getName();
-                LOGGER.info("Checking metric based alert: '{}'", alertName);
-                List<Map<String, Object>> alertHistory = ambariClient.getAlertHistory(alert.getDefinitionName(), 1);
-                int historySize = alertHistory.size();
-                if (historySize > 1) {
-                    LOGGER.debug("Multiple results found for alert: {}, probably HOST alert, ignoring now..", alertName);
-                    continue;
-                }
-                if (!alertHistory.isEmpty()) {
-                    Map<String, Object> history = alertHistory.get(0);
-                    String currentState = (String) history.get(ALERT_STATE);
-                    if (isAlertStateMet(currentState, alert)) {
-                        long elapsedTime = getPeriod(history);
-                        LOGGER.info("Alert: {} is in '{}' state since {} min(s)", alertName, currentState,
-                                ClusterUtils.TIME_FORMAT.format((double) elapsedTime / TimeUtil.MIN_IN_MS));
-                        if (isPeriodReached(alert, elapsedTime) && isPolicyAttached(alert)) {
-                            publishEvent(new ScalingEvent(alert));
-                            break;
-                        }
-                    }
-                }
+            List<MetricAlert> alerts = alertRepository.findAllByCluster(clusterId);
+            MetricAlert alertToScale = clusterConnectionRegistry.withAmbariClient(cluster, ambariClient -> findAlertToScale(ambariClient, alerts));
+            if (alertToScale != null) {
+                publishEvent(new ScalingEvent(alertToScale));
             }
         } catch (Exception e) {
             LOGGER.error("Failed to retrieve alert history", e);
@@ -84,12 +80,98 @@ public class MetricEvaluator extends AbstractEventPublisher implements Evaluator
         }
     }
 
+    private MetricAlert findAlertToScale(AmbariClient ambariClient, List<MetricAlert> alerts) {
+        Map<String, List<Map<String, Object>>> snapshot = snapshotEnabled ? getAlertSnapshot(ambariClient, alerts) : null;
+        for (MetricAlert alert : alerts) {
+            String alertName = alert.getName();
+            LOGGER.info("Checking metric based alert: '{}'", alertName);
+            List<Map<String, Object>> hostAlerts = snapshot == null
+                    ? ambariClient.getAlertHistory(alert.getDefinitionName(), 1) : snapshot.get(alert.getDefinitionName());
+            Long elapsedTime = getElapsedTimeInState(alert, hostAlerts);
+            if (elapsedTime != null) {
+                LOGGER.info("Alert: {} is in '{}' state since {} min(s)", alertName, alert.getAlertState().getValue(),
+                        ClusterUtils.TIME_FORMAT.format((double) elapsedTime / TimeUtil.MIN_IN_MS));
+                if (isPeriodReached(alert, elapsedTime) && isPolicyAttached(alert)) {
+                    return alert;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fetches the current state of every watched alert definition of the cluster up front, so alerts sharing a definition are evaluated
+     * against the same snapshot without querying Ambari again. The ambari client has no query for several definitions, so this is one
+     * alerts query per distinct definition of the cluster and run, not a single alerts query per cluster.
+     */
+    private Map<String, List<Map<String, Object>>> getAlertSnapshot(AmbariClient ambariClient, Collection<MetricAlert> alerts) {
+        Map<String, List<Map<String, Object>>> snapshot = new HashMap<>();
+        for (MetricAlert alert : alerts) {
+            snapshot.computeIfAbsent(alert.getDefinitionName(), ambariClient::getAlert);
+        }
+        LOGGER.debug("Alert snapshot of {} definition(s) retrieved for {} alert(s)", snapshot.size(), alerts.size());
+        return snapshot;
+    }
+
+    /**
+     * Returns for how long the required number of hosts have been in the state of the alert, or null if not enough hosts are in that
+     * state. Service level alerts are reported by a single host, so every aggregation behaves the same for them.
+     */
+    Long getElapsedTimeInState(MetricAlert alert, List<Map<String, Object>> hostAlerts) {
+        if (hostAlerts == null || hostAlerts.isEmpty()) {
+            return null;
+        }
+        Map<Object, Map<String, Object>> latestByHost = new HashMap<>();
+        for (Map<String, Object> hostAlert : hostAlerts) {
+            latestByHost.merge(hostAlert.get(HOST_NAME), hostAlert, (current, other) -> getTimestamp(other) > getTimestamp(current) ? other : current);
+        }
+        long now = System.currentTimeMillis();
+        List<Long> elapsedTimes = new ArrayList<>();
+        for (Map<String, Object> hostAlert : latestByHost.values()) {
+            if (isAlertStateMet((String) hostAlert.get(ALERT_STATE), alert)) {
+                elapsedTimes.add(now - getTimestamp(hostAlert));
+            }
+        }
+        if (getHostAggregation(alert) == HostAggregation.SINGLE_HOST && latestByHost.size() > 1) {
+            LOGGER.debug("Multiple hosts report alert: {}, it is only evaluated for a single host, ignoring now..", alert.getName());
+            return null;
+        }
+        int requiredHosts = getRequiredHosts(alert, latestByHost.size());
+        if (elapsedTimes.size() < requiredHosts) {
+            LOGGER.debug("Alert: {} is in '{}' state on {} of {} host(s), {} required", alert.getName(), alert.getAlertState().getValue(),
+                    elapsedTimes.size(), latestByHost.size(), requiredHosts);
+            return null;
+        }
+        // enough hosts have been in the state since the last of the required ones got there
+        elapsedTimes.sort(Comparator.reverseOrder());
+        return elapsedTimes.get(requiredHosts - 1);
+    }
+
+    private HostAggregation getHostAggregation(MetricAlert alert) {
+        return alert.getHostAggregation() == null ? HostAggregation.SINGLE_HOST : alert.getHostAggregation();
+    }
+
+    private int getRequiredHosts(MetricAlert alert, int hosts) {
+        switch (getHostAggregation(alert)) {
+            case ANY:
+                return 1;
+            case PERCENTAGE:
+                int percentage = alert.getHostPercentage() == null ? HUNDRED_PERCENT : alert.getHostPercentage();
+                return Math.max(1, (int) Math.ceil(hosts * percentage / (double) HUNDRED_PERCENT));
+            case SINGLE_HOST:
+            case ALL:
+            default:
+                return hosts;
+        }
+    }
+
     private boolean isAlertStateMet(String currentState, MetricAlert alert) {
-        return currentState.equalsIgnoreCase(alert.getAlertState().getValue());
+        return currentState != null && currentState.equalsIgnoreCase(alert.getAlertState().getValue());
     }
 
-    private long getPeriod(Map<String, Object> history) {
-        return System.currentTimeMillis() - (long) history.get(ALERT_TS);
+    private long getTimestamp(Map<String, Object> hostAlert) {
+        Object timestamp = hostAlert.containsKey(ALERT_ORIGINAL_TS) ? hostAlert.get(ALERT_ORIGINAL_TS) : hostAlert.get(ALERT_TS);
+        return ((Number) timestamp).longValue();
     }
 
     private boolean isPeriodReached(MetricAlert alert, float period) {
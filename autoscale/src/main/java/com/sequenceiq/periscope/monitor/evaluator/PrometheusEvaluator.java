@@ -1,35 +1,40 @@
 package com.sequenceiq.periscope.monitor.evaluator;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLEncoder;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status.Family;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 
-import com.sequenceiq.cloudbreak.client.RestClientUtil;
-import com.sequenceiq.cloudbreak.util.JaxRSUtil;
 import com.sequenceiq.periscope.domain.BaseAlert;
 import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.domain.PrometheusAlert;
 import com.sequenceiq.periscope.log.MDCBuilder;
-import com.sequenceiq.periscope.model.PrometheusResponse;
-import com.sequenceiq.periscope.model.PrometheusResponse.Result;
-import com.sequenceiq.periscope.model.TlsConfiguration;
+import com.sequenceiq.periscope.model.PrometheusAlertSeries;
+import com.sequenceiq.periscope.model.PrometheusResponseReader;
 import com.sequenceiq.periscope.monitor.event.ScalingEvent;
 import com.sequenceiq.periscope.monitor.event.UpdateFailedEvent;
 import com.sequenceiq.periscope.repository.PrometheusAlertRepository;
+import com.sequenceiq.periscope.service.ClusterConnectionRegistry;
 import com.sequenceiq.periscope.service.ClusterService;
-import com.sequenceiq.periscope.service.security.TlsSecurityService;
 
 @Component("PrometheusEvaluator")
 @Scope("prototype")
@@ -37,6 +42,8 @@ public class PrometheusEvaluator extends AbstractEventPublisher implements Evalu
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PrometheusEvaluator.class);
 
+    private static final String REGEX_META_CHARACTERS = "\\.+*?()|[]{}^$";
+
     @Autowired
     private ClusterService clusterService;
 
@@ -44,7 +51,7 @@ public class PrometheusEvaluator extends AbstractEventPublisher implements Evalu
     private PrometheusAlertRepository alertRepository;
 
     @Inject
-    private TlsSecurityService tlsSecurityService;
+    private ClusterConnectionRegistry clusterConnectionRegistry;
 
     private Long clusterId;
 
@@ -58,45 +65,34 @@ public class PrometheusEvaluator extends AbstractEventPublisher implements Evalu
         try {
             Cluster cluster = clusterService.find(clusterId);
             MDCBuilder.buildMdcContext(cluster);
+            List<PrometheusAlert> alerts = alertRepository.findAllByCluster(clusterId);
+            if (alerts.isEmpty()) {
+                return;
+            }
 
-            TlsConfiguration tlsConfig = tlsSecurityService.getConfiguration(cluster);
-            Client client = RestClientUtil.createClient(tlsConfig.getServerCert(),
-                    tlsConfig.getClientCert(), tlsConfig.getClientKey(), true, PrometheusEvaluator.class);
+            Client client = clusterConnectionRegistry.getPrometheusClient(cluster);
             String prometheusAddress = String.format("https://%s:%s/prometheus", cluster.getAmbari().getHost(), cluster.getPort());
             WebTarget target = client.target(prometheusAddress);
+            double evaluationTime = System.currentTimeMillis() / (double) TimeUnit.SECONDS.toMillis(1);
+            Map<String, List<PrometheusAlertSeries>> seriesByAlert = queryAlerts(target, alerts, evaluationTime);
 
-            for (PrometheusAlert alert : alertRepository.findAllByCluster(clusterId)) {
+            for (PrometheusAlert alert : alerts) {
                 String alertName = alert.getName();
                 LOGGER.info("Checking Prometheus based alert: '{}'", alertName);
-                String query = URLEncoder.encode(String.format("ALERTS{alertname=\"%s\"}[%dm]", alert.getName(), alert.getPeriod()), "UTF-8");
-                Response response = target
-                        .path("/api/v1/query")
-                        .queryParam("query", query)
-                        .request()
-                        .header("Accept", MediaType.APPLICATION_JSON_VALUE)
-                        .get();
+                double periodStart = evaluationTime - TimeUnit.MINUTES.toSeconds(alert.getPeriod());
+                List<PrometheusAlertSeries> alertSeries = seriesByAlert.getOrDefault(alertName, Collections.emptyList()).stream()
+                        .filter(series -> series.getLastTimestamp() >= periodStart)
+                        .collect(Collectors.toList());
 
-                PrometheusResponse prometheusResponse = JaxRSUtil.response(response, PrometheusResponse.class);
-
-                boolean triggerScale = false;
+                boolean triggerScale;
                 switch (alert.getAlertState()) {
                     case OK:
-                        triggerScale = prometheusResponse.getData().getResult().isEmpty();
+                        triggerScale = alertSeries.isEmpty();
                         break;
 
                     case CRITICAL:
-                        for (Result alertResult : prometheusResponse.getData().getResult()) {
-                            if ("firing".equals(alertResult.getMetric().getAlertstate())) {
-                                List<Object> lastSample = alertResult.getValues().get(alertResult.getValues().size() - 1);
-                                Object alertValue = lastSample.get(1);
-                                if (alertValue instanceof String) {
-                                    if ("0".equals(alertValue)) {
-                                        break;
-                                    }
-                                    triggerScale = true;
-                                }
-                            }
-                        }
+                        triggerScale = alertSeries.stream()
+                                .anyMatch(series -> "firing".equals(series.getAlertState()) && !"0".equals(series.getLastValue()));
                         break;
 
                     default:
@@ -114,6 +110,50 @@ public class PrometheusEvaluator extends AbstractEventPublisher implements Evalu
         }
     }
 
+    /**
+     * Queries the series of every alert of the cluster with a single regex matcher over the longest period, the shorter periods are
+     * applied when the series are evaluated.
+     */
+    private Map<String, List<PrometheusAlertSeries>> queryAlerts(WebTarget target, List<PrometheusAlert> alerts, double evaluationTime)
+            throws IOException {
+        String alertNames = alerts.stream().map(alert -> escapeRegex(alert.getName())).distinct().collect(Collectors.joining("|"));
+        int maxPeriod = alerts.stream().mapToInt(PrometheusAlert::getPeriod).max().getAsInt();
+        String query = URLEncoder.encode(String.format("ALERTS{alertname=~\"%s\"}[%dm]", escapeString(alertNames), maxPeriod), "UTF-8");
+        Response response = target
+                .path("/api/v1/query")
+                .queryParam("query", query)
+                .queryParam("time", String.format(Locale.ROOT, "%.3f", evaluationTime))
+                .request()
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .get();
+        try {
+            if (Family.SUCCESSFUL != response.getStatusInfo().getFamily()
+                    && !MediaType.APPLICATION_JSON_TYPE.isCompatible(response.getMediaType())) {
+                throw new WebApplicationException("Status: " + response.getStatus() + ' ' + response.getStatusInfo().getReasonPhrase());
+            }
+            try (InputStream inputStream = response.readEntity(InputStream.class)) {
+                return PrometheusResponseReader.readAlertSeries(inputStream);
+            }
+        } finally {
+            response.close();
+        }
+    }
+
+    private String escapeRegex(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (REGEX_META_CHARACTERS.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private String escapeString(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
     private boolean isPolicyAttached(BaseAlert alert) {
         return alert.getScalingPolicy() != null;
     }
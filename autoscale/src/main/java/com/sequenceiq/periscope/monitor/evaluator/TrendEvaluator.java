@@ -0,0 +1,162 @@
+package com.sequenceiq.periscope.monitor.evaluator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status.Family;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.periscope.api.model.TrendMetric;
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.domain.TrendAlert;
+import com.sequenceiq.periscope.log.MDCBuilder;
+import com.sequenceiq.periscope.model.MetricRingBuffer;
+import com.sequenceiq.periscope.model.PrometheusResponseReader;
+import com.sequenceiq.periscope.monitor.event.ScalingEvent;
+import com.sequenceiq.periscope.monitor.event.UpdateFailedEvent;
+import com.sequenceiq.periscope.repository.TrendAlertRepository;
+import com.sequenceiq.periscope.service.ClusterConnectionRegistry;
+import com.sequenceiq.periscope.service.ClusterService;
+import com.sequenceiq.periscope.service.TrendSeriesRegistry;
+
+/**
+ * Samples the metrics of the trend alerts of a cluster into their ring buffers, and scales up by the nodes the forecasted value needs at
+ * the end of the horizon of the alert. If more alerts of the cluster need nodes only the largest adjustment is requested.
+ */
+@Component("TrendEvaluator")
+@Scope("prototype")
+public class TrendEvaluator extends AbstractEventPublisher implements EvaluatorExecutor {
+
+    static final int MIN_SAMPLES = 5;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrendEvaluator.class);
+
+    private static final String ROOT_QUEUE_SELECTOR = "{job=\"resourcemanager\",name=\"QueueMetrics\",q0=\"root\",q1=\"\"}";
+
+    @Inject
+    private ClusterService clusterService;
+
+    @Inject
+    private TrendAlertRepository alertRepository;
+
+    @Inject
+    private ClusterConnectionRegistry clusterConnectionRegistry;
+
+    @Inject
+    private TrendSeriesRegistry trendSeriesRegistry;
+
+    private Long clusterId;
+
+    @Override
+    public void setContext(Map<String, Object> context) {
+        clusterId = (Long) context.get(EvaluatorContext.CLUSTER_ID.name());
+    }
+
+    @Override
+    public void run() {
+        try {
+            Cluster cluster = clusterService.find(clusterId);
+            MDCBuilder.buildMdcContext(cluster);
+            List<TrendAlert> alerts = alertRepository.findAllByCluster(clusterId);
+            if (alerts.isEmpty()) {
+                return;
+            }
+
+            String prometheusAddress = String.format("https://%s:%s/prometheus", cluster.getAmbari().getHost(), cluster.getPort());
+            WebTarget target = clusterConnectionRegistry.getPrometheusClient(cluster).target(prometheusAddress);
+            double now = System.currentTimeMillis() / (double) TimeUnit.SECONDS.toMillis(1);
+            Set<TrendMetric> metrics = alerts.stream().map(TrendAlert::getMetric).collect(Collectors.toCollection(() -> EnumSet.noneOf(TrendMetric.class)));
+            for (TrendMetric metric : metrics) {
+                trendSeriesRegistry.getSeries(clusterId, metric).add(now, queryMetric(target, metric, now));
+            }
+
+            TrendAlert alertToScale = null;
+            int scalingAdjustment = 0;
+            for (TrendAlert alert : alerts) {
+                if (alert.getScalingPolicy() != null) {
+                    int nodeCount = getForecastedNodeCount(trendSeriesRegistry.getSeries(clusterId, alert.getMetric()), alert, now);
+                    if (nodeCount > scalingAdjustment) {
+                        alertToScale = alert;
+                        scalingAdjustment = nodeCount;
+                    }
+                }
+            }
+            if (alertToScale != null) {
+                LOGGER.info("Trend alert '{}' forecasts a need for {} more node(s) in {} min(s)", alertToScale.getName(), scalingAdjustment,
+                        alertToScale.getHorizon());
+                publishEvent(new ScalingEvent(alertToScale, scalingAdjustment));
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to evaluate the trend alerts", e);
+            publishEvent(new UpdateFailedEvent(clusterId));
+        }
+    }
+
+    /**
+     * Returns the number of whole nodes the value of the metric forecasted at the end of the horizon of the alert fills, capped by the
+     * maximum size of the cluster. A forecast below the capacity of a node is noise of short jobs and does not scale. Nothing is needed
+     * until the buffer has {@value #MIN_SAMPLES} samples.
+     */
+    static int getForecastedNodeCount(MetricRingBuffer series, TrendAlert alert, double now) {
+        if (series.size() < MIN_SAMPLES || alert.getCapacityPerNode() <= 0.0) {
+            return 0;
+        }
+        double forecast = series.forecast(now + TimeUnit.MINUTES.toSeconds(alert.getHorizon()));
+        if (!(forecast > 0.0)) {
+            return 0;
+        }
+        return (int) Math.min(Math.floor(forecast / alert.getCapacityPerNode()), alert.getCluster().getMaxSize());
+    }
+
+    private double queryMetric(WebTarget target, TrendMetric metric, double evaluationTime) throws IOException {
+        String query = URLEncoder.encode(String.format("sum(%s%s)", getMetricName(metric), ROOT_QUEUE_SELECTOR), "UTF-8");
+        Response response = target
+                .path("/api/v1/query")
+                .queryParam("query", query)
+                .queryParam("time", String.format(Locale.ROOT, "%.3f", evaluationTime))
+                .request()
+                .header("Accept", MediaType.APPLICATION_JSON)
+                .get();
+        try {
+            if (Family.SUCCESSFUL != response.getStatusInfo().getFamily()
+                    && !MediaType.APPLICATION_JSON_TYPE.isCompatible(response.getMediaType())) {
+                throw new WebApplicationException("Status: " + response.getStatus() + ' ' + response.getStatusInfo().getReasonPhrase());
+            }
+            try (InputStream inputStream = response.readEntity(InputStream.class)) {
+                return PrometheusResponseReader.readValue(inputStream);
+            }
+        } finally {
+            response.close();
+        }
+    }
+
+    private String getMetricName(TrendMetric metric) {
+        switch (metric) {
+            case PENDING_CONTAINERS:
+                return "Hadoop_ResourceManager_PendingContainers";
+            case PENDING_MEMORY:
+                return "Hadoop_ResourceManager_PendingMB";
+            case PENDING_VCORES:
+                return "Hadoop_ResourceManager_PendingVCores";
+            default:
+                throw new IllegalArgumentException("Unsupported trend metric: " + metric);
+        }
+    }
+}
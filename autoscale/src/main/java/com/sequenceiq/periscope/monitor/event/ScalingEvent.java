@@ -6,12 +6,42 @@ import com.sequenceiq.periscope.domain.BaseAlert;
 
 public class ScalingEvent extends ApplicationEvent {
 
+    private final Integer scalingAdjustment;
+
+    private final boolean missedFiring;
+
     public ScalingEvent(BaseAlert alert) {
+        this(alert, null);
+    }
+
+    /**
+     * Event of a firing that was missed by a failed node, published by the leader while the cluster is still allocated to that node.
+     */
+    public ScalingEvent(BaseAlert alert, boolean missedFiring) {
         super(alert);
+        scalingAdjustment = null;
+        this.missedFiring = missedFiring;
+    }
+
+    /**
+     * Event with a node count adjustment calculated by the evaluator, it is used instead of the adjustment of the scaling policy.
+     */
+    public ScalingEvent(BaseAlert alert, Integer scalingAdjustment) {
+        super(alert);
+        this.scalingAdjustment = scalingAdjustment;
+        missedFiring = false;
     }
 
     public BaseAlert getAlert() {
         return (BaseAlert) getSource();
     }
 
+    public Integer getScalingAdjustment() {
+        return scalingAdjustment;
+    }
+
+    public boolean isMissedFiring() {
+        return missedFiring;
+    }
+
 }
@@ -16,8 +16,9 @@ import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.domain.ScalingPolicy;
 import com.sequenceiq.periscope.log.MDCBuilder;
 import com.sequenceiq.periscope.monitor.event.ScalingEvent;
-import com.sequenceiq.periscope.service.AmbariClientProvider;
+import com.sequenceiq.periscope.service.ClusterConnectionRegistry;
 import com.sequenceiq.periscope.service.ClusterService;
+import com.sequenceiq.periscope.service.ha.PeriscopeNodeConfig;
 import com.sequenceiq.periscope.utils.ClusterUtils;
 import com.sequenceiq.periscope.utils.TimeUtil;
 
@@ -36,21 +37,38 @@ public class ScalingHandler implements ApplicationListener<ScalingEvent> {
     private ApplicationContext applicationContext;
 
     @Autowired
-    private AmbariClientProvider ambariClientProvider;
+    private ClusterConnectionRegistry clusterConnectionRegistry;
+
+    @Autowired
+    private PeriscopeNodeConfig periscopeNodeConfig;
 
     @Override
     public void onApplicationEvent(ScalingEvent event) {
         BaseAlert alert = event.getAlert();
         Cluster cluster = clusterService.find(alert.getCluster().getId());
+        if (cluster == null || !cluster.isRunning() || !cluster.isAutoscalingEnabled()) {
+            LOGGER.info("Cluster {} is not running with autoscaling enabled anymore, scaling event of alert '{}' is dropped",
+                    alert.getCluster().getId(), alert.getName());
+            return;
+        }
+        // the evaluators work on the assignment snapshot of the last heartbeat, the cluster may have been moved to another node since,
+        // the missed firings are published by the leader before it moves the clusters of a failed node
+        if (!event.isMissedFiring() && !periscopeNodeConfig.getId().equals(cluster.getPeriscopeNodeId())) {
+            LOGGER.info("Cluster {} is allocated to node {} instead of this one, scaling event of alert '{}' is dropped", cluster.getId(),
+                    cluster.getPeriscopeNodeId(), alert.getName());
+            return;
+        }
         MDCBuilder.buildMdcContext(cluster);
-        scale(cluster, alert.getScalingPolicy());
+        scale(cluster, alert.getScalingPolicy(), event.getScalingAdjustment());
     }
 
-    private void scale(Cluster cluster, ScalingPolicy policy) {
+    private void scale(Cluster cluster, ScalingPolicy policy, Integer scalingAdjustment) {
         long remainingTime = getRemainingCooldownTime(cluster);
         if (remainingTime <= 0) {
-            int totalNodes = ClusterUtils.getTotalNodes(ambariClientProvider.createAmbariClient(cluster));
-            int desiredNodeCount = getDesiredNodeCount(cluster, policy, totalNodes);
+            int totalNodes = clusterConnectionRegistry.withAmbariClient(cluster, ClusterUtils::getTotalNodes);
+            int desiredNodeCount = scalingAdjustment != null
+                    ? limitNodeCount(cluster, totalNodes + scalingAdjustment)
+                    : getDesiredNodeCount(cluster, policy, totalNodes);
             if (totalNodes != desiredNodeCount) {
                 Runnable scalingRequest = (Runnable) applicationContext.getBean("ScalingRequest", cluster, policy, totalNodes, desiredNodeCount);
                 executorService.execute(scalingRequest);
@@ -88,6 +106,10 @@ public class ScalingHandler implements ApplicationListener<ScalingEvent> {
             default:
                 desiredNodeCount = totalNodes;
         }
+        return limitNodeCount(cluster, desiredNodeCount);
+    }
+
+    private int limitNodeCount(Cluster cluster, int desiredNodeCount) {
         int minSize = cluster.getMinSize();
         int maxSize = cluster.getMaxSize();
         return desiredNodeCount < minSize ? minSize : desiredNodeCount > maxSize ? maxSize : desiredNodeCount;
@@ -1,19 +1,27 @@
 package com.sequenceiq.periscope.notification;
 
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
-import javax.ws.rs.client.Client;
-import javax.ws.rs.client.Entity;
-import javax.ws.rs.core.HttpHeaders;
-import javax.ws.rs.core.MediaType;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sequenceiq.cloudbreak.client.ConfigKey;
 import com.sequenceiq.cloudbreak.client.RestClientUtil;
+import com.sequenceiq.cloudbreak.common.service.notification.NotificationDeliverySettings;
+import com.sequenceiq.cloudbreak.common.service.notification.NotificationDispatcher;
+import com.sequenceiq.cloudbreak.concurrent.MDCCleanerScheduledExecutor;
 import com.sequenceiq.periscope.domain.History;
 import com.sequenceiq.periscope.domain.Subscription;
 import com.sequenceiq.periscope.repository.SubscriptionRepository;
@@ -22,10 +30,49 @@ import com.sequenceiq.periscope.repository.SubscriptionRepository;
 public class HttpNotificationSender {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpNotificationSender.class);
 
+    private static final String METRIC_PREFIX = "periscope.notification";
+
+    @Value("${periscope.notification.threads:2}")
+    private int threads;
+
+    @Value("${periscope.notification.queue.capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${periscope.notification.batch.size:50}")
+    private int batchSize;
+
+    @Value("${periscope.notification.timeout.ms:5000}")
+    private int timeoutMs;
+
+    @Value("${periscope.notification.max.attempts:5}")
+    private int maxAttempts;
+
+    @Value("${periscope.notification.backoff.ms:1000}")
+    private long backoffMs;
+
     @Inject
     private SubscriptionRepository subscriptionRepository;
 
-    private final Client restClient = RestClientUtil.get(new ConfigKey(false, false, false));
+    @Inject
+    private CounterService counterService;
+
+    private MDCCleanerScheduledExecutor executor;
+
+    private NotificationDispatcher dispatcher;
+
+    private volatile List<String> endpoints;
+
+    @PostConstruct
+    public void init() {
+        executor = new MDCCleanerScheduledExecutor(threads, new ThreadFactoryBuilder().setNameFormat("notification-sender-%d").setDaemon(true).build());
+        dispatcher = new NotificationDispatcher(RestClientUtil.get(new ConfigKey(false, false, false)), executor, counterService, METRIC_PREFIX,
+                new NotificationDeliverySettings(queueCapacity, batchSize, timeoutMs, maxAttempts, backoffMs));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
 
     public void send(History history) {
         send(convertHistory(history));
@@ -41,18 +88,27 @@ public class HttpNotificationSender {
     }
 
     public void send(Notification notification) {
-        Iterable<Subscription> subscriptions = subscriptionRepository.findAll();
-        for (Subscription subscription : subscriptions) {
-            String endpoint = subscription.getEndpoint();
-            try {
-                restClient
-                        .target(endpoint)
-                        .request()
-                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
-                        .post(Entity.json(notification), String.class);
-            } catch (Exception ex) {
-                LOGGER.info("Could not send notification to the specified endpoint: '{}' Cause: {}", endpoint, ex.getMessage());
-            }
+        List<String> currentEndpoints = endpoints;
+        if (currentEndpoints == null) {
+            currentEndpoints = loadEndpoints();
         }
+        dispatcher.dispatch(currentEndpoints, notification);
+    }
+
+    @Scheduled(fixedDelayString = "${periscope.notification.subscriptions.refresh.ms:60000}")
+    public void refreshSubscriptions() {
+        loadEndpoints();
+    }
+
+    private List<String> loadEndpoints() {
+        Iterable<Subscription> subscriptions = subscriptionRepository.findAll();
+        List<String> subscribedEndpoints = StreamSupport.stream(subscriptions.spliterator(), false)
+                .map(Subscription::getEndpoint)
+                .distinct()
+                .collect(Collectors.toList());
+        LOGGER.debug("Notifications are sent to {} endpoint(s)", subscribedEndpoints.size());
+        endpoints = subscribedEndpoints;
+        dispatcher.retainEndpoints(subscribedEndpoints);
+        return subscribedEndpoints;
     }
 }
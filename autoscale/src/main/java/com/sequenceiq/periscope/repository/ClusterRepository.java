@@ -1,6 +1,8 @@
 package com.sequenceiq.periscope.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -23,16 +25,29 @@ public interface ClusterRepository extends CrudRepository<Cluster, Long> {
 
     List<Cluster> findByUserId(String id);
 
-    List<Cluster> findByStateAndPeriscopeNodeId(ClusterState state, String nodeId);
+    List<Cluster> findByPeriscopeNodeId(String nodeId);
 
-    List<Cluster> findByStateAndAutoscalingEnabledAndPeriscopeNodeId(ClusterState state, boolean autoscalingEnabled, String nodeId);
+    @Query("SELECT c.id, c.periscopeNodeId FROM Cluster c")
+    List<Object[]> findAllNodeAllocations();
 
-    List<Cluster> findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(List<String> nodes);
+    @Query("SELECT c.id, c.periscopeNodeId FROM Cluster c WHERE c.periscopeNodeId IS NULL OR c.periscopeNodeId NOT IN :nodeIds")
+    List<Object[]> findNodeAllocationsOfOtherNodes(@Param("nodeIds") Collection<String> nodeIds);
+
+    @Query("SELECT c.stackId FROM Cluster c WHERE c.state = :state")
+    Set<Long> findStackIdsByState(@Param("state") ClusterState state);
 
     @Modifying
     @Query("UPDATE Cluster c SET c.periscopeNodeId = :periscopeNodeId WHERE c.id = :id")
     void allocateClusterForNode(@Param("id") long id, @Param("periscopeNodeId") String periscopeNodeId);
 
+    @Modifying
+    @Query("UPDATE Cluster c SET c.periscopeNodeId = :periscopeNodeId WHERE c.id IN :ids")
+    void allocateClustersForNode(@Param("ids") Collection<Long> ids, @Param("periscopeNodeId") String periscopeNodeId);
+
+    @Modifying
+    @Query("UPDATE Cluster c SET c.lastEvaulated = :lastEvaluated WHERE c.id IN :ids")
+    void updateLastEvaluated(@Param("ids") Collection<Long> ids, @Param("lastEvaluated") long lastEvaluated);
+
     @Modifying
     @Query("UPDATE Cluster c SET c.periscopeNodeId = NULL WHERE c.periscopeNodeId = :periscopeNodeId")
     void deallocateClustersOfNode(@Param("periscopeNodeId") String periscopeNodeId);
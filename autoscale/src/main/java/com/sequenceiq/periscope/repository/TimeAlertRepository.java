@@ -1,5 +1,6 @@
 package com.sequenceiq.periscope.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.repository.CrudRepository;
@@ -18,4 +19,6 @@ public interface TimeAlertRepository extends CrudRepository<TimeAlert, Long> {
     TimeAlert findByCluster(@Param("alertId") Long alertId, @Param("clusterId") Long clusterId);
 
     List<TimeAlert> findAllByCluster(@Param("clusterId") Long clusterId);
+
+    List<TimeAlert> findAllByClusters(@Param("clusterIds") Collection<Long> clusterIds);
 }
@@ -0,0 +1,21 @@
+package com.sequenceiq.periscope.repository;
+
+import java.util.List;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.security.access.prepost.PostAuthorize;
+
+import com.sequenceiq.periscope.domain.TrendAlert;
+
+public interface TrendAlertRepository extends CrudRepository<TrendAlert, Long> {
+
+    @PostAuthorize("hasPermission(returnObject,'read')")
+    @Override
+    TrendAlert findOne(@Param("id") Long id);
+
+    @PostAuthorize("hasPermission(returnObject,'read')")
+    TrendAlert findByCluster(@Param("alertId") Long alertId, @Param("clusterId") Long clusterId);
+
+    List<TrendAlert> findAllByCluster(@Param("clusterId") Long clusterId);
+}
@@ -12,6 +12,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,16 +21,22 @@ import org.springframework.stereotype.Service;
 import com.sequenceiq.ambari.client.AmbariClient;
 import com.sequenceiq.ambari.client.services.CommonService;
 import com.sequenceiq.periscope.api.model.AlertRuleDefinitionEntry;
+import com.sequenceiq.periscope.api.model.HostAggregation;
+import com.sequenceiq.periscope.api.model.TrendMetric;
 import com.sequenceiq.periscope.domain.BaseAlert;
 import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.domain.MetricAlert;
 import com.sequenceiq.periscope.domain.PrometheusAlert;
+import com.sequenceiq.periscope.domain.ScalingPolicy;
 import com.sequenceiq.periscope.domain.TimeAlert;
+import com.sequenceiq.periscope.domain.TrendAlert;
 import com.sequenceiq.periscope.log.MDCBuilder;
+import com.sequenceiq.periscope.monitor.TimeAlertScheduler;
 import com.sequenceiq.periscope.repository.ClusterRepository;
 import com.sequenceiq.periscope.repository.MetricAlertRepository;
 import com.sequenceiq.periscope.repository.PrometheusAlertRepository;
 import com.sequenceiq.periscope.repository.TimeAlertRepository;
+import com.sequenceiq.periscope.repository.TrendAlertRepository;
 
 import freemarker.template.Configuration;
 
@@ -56,9 +63,15 @@ public class AlertService {
     @Inject
     private PrometheusAlertRepository prometheusAlertRepository;
 
+    @Inject
+    private TrendAlertRepository trendAlertRepository;
+
     @Inject
     private ClusterService clusterService;
 
+    @Inject
+    private TimeAlertScheduler timeAlertScheduler;
+
     @Inject
     private Configuration freemarkerConfiguration;
 
@@ -74,7 +87,14 @@ public class AlertService {
     @Inject
     private ScalingService scalingPolicyService;
 
+    @Inject
+    private TrendSeriesRegistry trendSeriesRegistry;
+
     public MetricAlert createMetricAlert(Long clusterId, MetricAlert alert) {
+        if (alert.getHostAggregation() == null) {
+            alert.setHostAggregation(HostAggregation.ALL);
+        }
+        validateHostAggregation(alert);
         Cluster cluster = clusterService.findOneById(clusterId);
         alert.setCluster(cluster);
         MetricAlert metricAlert = (MetricAlert) save(alert);
@@ -90,6 +110,14 @@ public class AlertService {
         alert.setPeriod(metricAlert.getPeriod());
         alert.setDescription(metricAlert.getDescription());
         alert.setAlertState(metricAlert.getAlertState());
+        // the host aggregation of the alert is kept if the request has none
+        if (metricAlert.getHostAggregation() != null) {
+            alert.setHostAggregation(metricAlert.getHostAggregation());
+            alert.setHostPercentage(metricAlert.getHostPercentage());
+        } else if (metricAlert.getHostPercentage() != null) {
+            alert.setHostPercentage(metricAlert.getHostPercentage());
+        }
+        validateHostAggregation(alert);
         return metricAlertRepository.save(alert);
     }
 
@@ -120,6 +148,7 @@ public class AlertService {
         alert = (TimeAlert) save(alert);
         cluster.addTimeAlert(alert);
         clusterRepository.save(cluster);
+        timeAlertScheduler.schedule(alert);
         return alert;
     }
 
@@ -133,7 +162,9 @@ public class AlertService {
         alert.setCron(timeAlert.getCron());
         alert.setTimeZone(timeAlert.getTimeZone());
         alert.setName(timeAlert.getName());
-        return timeAlertRepository.save(alert);
+        alert = timeAlertRepository.save(alert);
+        timeAlertScheduler.schedule(alert);
+        return alert;
     }
 
     public Set<TimeAlert> getTimeAlerts(Long clusterId) {
@@ -147,6 +178,7 @@ public class AlertService {
         cluster.setTimeAlerts(removeTimeAlert(cluster, alertId));
         timeAlertRepository.delete(alertId);
         clusterRepository.save(cluster);
+        timeAlertScheduler.unschedule(alertId);
     }
 
     public Set<TimeAlert> removeTimeAlert(Cluster cluster, Long alertId) {
@@ -169,6 +201,11 @@ public class AlertService {
         } catch (RuntimeException ignored) {
             LOGGER.info("Could not found Prometheus alert with id: '{}', for cluster: '{}'!", alertId, clusterId);
         }
+        try {
+            return findTrendAlertByCluster(clusterId, alertId);
+        } catch (RuntimeException ignored) {
+            LOGGER.info("Could not found Trend alert with id: '{}', for cluster: '{}'!", alertId, clusterId);
+        }
 
         throw new NotFoundException(String.format("Could not found alert with id: '%s', for cluster: '%s'!", alertId, clusterId));
     }
@@ -182,6 +219,8 @@ public class AlertService {
             res = timeAlertRepository.save((TimeAlert) alert);
         } else if (alert instanceof PrometheusAlert) {
             res = prometheusAlertRepository.save((PrometheusAlert) alert);
+        } else if (alert instanceof TrendAlert) {
+            res = trendAlertRepository.save((TrendAlert) alert);
         }
         return res;
     }
@@ -266,6 +305,86 @@ public class AlertService {
         return prometheusAlertRepository.findAllByCluster(clusterId);
     }
 
+    public TrendAlert createTrendAlert(Long clusterId, TrendAlert alert) {
+        Cluster cluster = clusterService.findOneById(clusterId);
+        alert.setCluster(cluster);
+        // not added to the lazy trendAlerts of the detached cluster, the alert is owned by its cluster column
+        TrendAlert savedAlert = trendAlertRepository.save(alert);
+        LOGGER.info("Trend alert '{}' has been created for cluster 'ID:{}'", alert.getName(), cluster.getId());
+        return savedAlert;
+    }
+
+    public TrendAlert updateTrendAlert(Long clusterId, Long alertId, TrendAlert trendAlert) {
+        TrendAlert alert = findTrendAlertByCluster(clusterId, alertId);
+        if (alert == null) {
+            throw new NotFoundException(String.format("Could not found Trend alert with id: '%s', for cluster: '%s'!", alertId, clusterId));
+        }
+        TrendMetric previousMetric = alert.getMetric();
+        alert.setName(trendAlert.getName());
+        alert.setDescription(trendAlert.getDescription());
+        alert.setMetric(trendAlert.getMetric());
+        alert.setHorizon(trendAlert.getHorizon());
+        alert.setCapacityPerNode(trendAlert.getCapacityPerNode());
+        updateScalingPolicy(alert, trendAlert.getScalingPolicy());
+        TrendAlert savedAlert = trendAlertRepository.save(alert);
+        if (previousMetric != savedAlert.getMetric()) {
+            evictUnusedTrendSeries(clusterId, previousMetric);
+        }
+        LOGGER.info("Trend alert '{}' has been updated for cluster 'ID:{}'", alert.getName(), clusterId);
+        return savedAlert;
+    }
+
+    public TrendAlert findTrendAlertByCluster(Long clusterId, Long alertId) {
+        return trendAlertRepository.findByCluster(alertId, clusterId);
+    }
+
+    public List<TrendAlert> getTrendAlerts(Long clusterId) {
+        clusterService.findOneById(clusterId);
+        return trendAlertRepository.findAllByCluster(clusterId);
+    }
+
+    public void deleteTrendAlert(Long clusterId, Long alertId) {
+        TrendAlert alert = findTrendAlertByCluster(clusterId, alertId);
+        if (alert == null) {
+            throw new NotFoundException(String.format("Could not found Trend alert with id: '%s', for cluster: '%s'!", alertId, clusterId));
+        }
+        trendAlertRepository.delete(alert);
+        evictUnusedTrendSeries(clusterId, alert.getMetric());
+        LOGGER.info("Trend alert '{}' has been deleted for cluster 'ID:{}'", alert.getName(), clusterId);
+    }
+
+    private void validateHostAggregation(MetricAlert alert) {
+        if (alert.getHostAggregation() == HostAggregation.PERCENTAGE && alert.getHostPercentage() == null) {
+            throw new BadRequestException("The host percentage is required for the PERCENTAGE host aggregation.");
+        }
+    }
+
+    /**
+     * The policy of the request replaces the fields of the current policy of the alert, or becomes its policy if it has none. The current
+     * policy is kept if the request has no policy, it can be removed on the policies endpoint.
+     */
+    private void updateScalingPolicy(BaseAlert alert, ScalingPolicy scalingPolicy) {
+        if (scalingPolicy == null) {
+            return;
+        }
+        ScalingPolicy policy = alert.getScalingPolicy();
+        if (policy == null) {
+            scalingPolicy.setAlert(alert);
+            alert.setScalingPolicy(scalingPolicy);
+        } else {
+            policy.setName(scalingPolicy.getName());
+            policy.setHostGroup(scalingPolicy.getHostGroup());
+            policy.setAdjustmentType(scalingPolicy.getAdjustmentType());
+            policy.setScalingAdjustment(scalingPolicy.getScalingAdjustment());
+        }
+    }
+
+    private void evictUnusedTrendSeries(Long clusterId, TrendMetric metric) {
+        if (trendAlertRepository.findAllByCluster(clusterId).stream().noneMatch(a -> a.getMetric() == metric)) {
+            trendSeriesRegistry.evict(clusterId, metric);
+        }
+    }
+
     private String getAlertDefinition(CommonService client, String name) throws Exception {
         Map<String, String> model = Collections.singletonMap("clusterName", client.getClusterName());
         return processTemplateIntoString(freemarkerConfiguration.getTemplate(ALERT_PATH + name, "UTF-8"), model);
@@ -0,0 +1,204 @@
+package com.sequenceiq.periscope.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+import javax.net.ssl.SSLException;
+import javax.ws.rs.client.Client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.google.common.base.Throwables;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.cloudbreak.client.RestClientUtil;
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.model.TlsConfiguration;
+import com.sequenceiq.periscope.service.security.TlsSecurityService;
+
+/**
+ * Keeps the Ambari and Prometheus clients of the monitored clusters between the evaluator runs, so the TLS context and the kept-alive
+ * connections are reused instead of being built again on every tick. The clients of a cluster are replaced when its address or
+ * credentials change, or when its certificates are rotated. The certificates are looked up again only every
+ * {@code periscope.cluster.connection.tls.recheck.ms}, or on the next call after a TLS failure, not on every tick.
+ * <p>
+ * The clients of clusters that are not evaluated for {@code periscope.cluster.connection.idle.ms}, e.g. because another node took them
+ * over, are evicted.
+ */
+@Service
+public class ClusterConnectionRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterConnectionRegistry.class);
+
+    @Inject
+    private AmbariClientProvider ambariClientProvider;
+
+    @Inject
+    private TlsSecurityService tlsSecurityService;
+
+    @Value("${periscope.cluster.connection.ambari.idle:4}")
+    private int maxIdleAmbariClients;
+
+    @Value("${periscope.cluster.connection.tls.recheck.ms:600000}")
+    private long tlsRecheckInterval;
+
+    @Value("${periscope.cluster.connection.idle.ms:900000}")
+    private long maxIdleTime;
+
+    private final Map<Long, ClusterConnection> connections = new ConcurrentHashMap<>();
+
+    /**
+     * Calls Ambari with an idle client of the cluster, or with a new one if all of them are in use. The Ambari client is not thread safe,
+     * so it is handed out to one caller at a time, and it is only reused if the call completed normally.
+     */
+    public <T> T withAmbariClient(Cluster cluster, Function<AmbariClient, T> call) {
+        ClusterConnection connection = getConnection(cluster);
+        AmbariClient client = connection.idleAmbariClients.poll();
+        if (client == null) {
+            client = ambariClientProvider.createAmbariClient(cluster);
+        }
+        boolean reusable = false;
+        try {
+            T result = call.apply(client);
+            reusable = true;
+            return result;
+        } catch (RuntimeException e) {
+            if (Throwables.getCausalChain(e).stream().anyMatch(SSLException.class::isInstance)) {
+                LOGGER.info("TLS failure on cluster {}, its certificates are checked on the next call", cluster.getId());
+                connection.tlsCheckedAt = 0L;
+            }
+            throw e;
+        } finally {
+            if (reusable && connections.get(cluster.getId()) == connection) {
+                connection.idleAmbariClients.offer(client);
+            }
+        }
+    }
+
+    public Client getPrometheusClient(Cluster cluster) throws Exception {
+        ClusterConnection connection = getConnection(cluster);
+        synchronized (connection) {
+            if (connection.prometheusClient == null) {
+                LOGGER.info("Create Prometheus client for cluster {}", cluster.getId());
+                TlsConfiguration tlsConfig = connection.tlsConfig != null ? connection.tlsConfig : tlsSecurityService.getConfiguration(cluster);
+                connection.prometheusClient = createPrometheusClient(tlsConfig);
+            }
+            return connection.prometheusClient;
+        }
+    }
+
+    public void evict(long clusterId) {
+        ClusterConnection connection = connections.remove(clusterId);
+        if (connection != null) {
+            LOGGER.info("Clients of cluster {} are evicted", clusterId);
+            connection.close();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${periscope.cluster.connection.idle.check.ms:60000}")
+    public void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        connections.forEach((clusterId, connection) -> {
+            if (now - connection.lastUsed > maxIdleTime && connections.remove(clusterId, connection)) {
+                LOGGER.info("Clients of cluster {} are evicted, the cluster is not evaluated by this node", clusterId);
+                connection.close();
+            }
+        });
+    }
+
+    Client createPrometheusClient(TlsConfiguration tlsConfig) throws Exception {
+        return RestClientUtil.createClient(tlsConfig.getServerCert(), tlsConfig.getClientCert(), tlsConfig.getClientKey(), true,
+                ClusterConnectionRegistry.class);
+    }
+
+    private ClusterConnection getConnection(Cluster cluster) {
+        String fingerprint = fingerprint(cluster);
+        long now = System.currentTimeMillis();
+        ClusterConnection current = connections.get(cluster.getId());
+        if (current != null && current.fingerprint.equals(fingerprint) && now - current.tlsCheckedAt < tlsRecheckInterval) {
+            current.lastUsed = now;
+            return current;
+        }
+        TlsConfiguration tlsConfig = cluster.getStackId() != null ? tlsSecurityService.getConfiguration(cluster) : null;
+        String tlsFingerprint = tlsFingerprint(tlsConfig);
+        ClusterConnection[] replaced = new ClusterConnection[1];
+        ClusterConnection connection = connections.compute(cluster.getId(), (id, existing) -> {
+            if (existing != null && existing.fingerprint.equals(fingerprint) && existing.tlsFingerprint.equals(tlsFingerprint)) {
+                existing.tlsCheckedAt = now;
+                return existing;
+            }
+            replaced[0] = existing;
+            return new ClusterConnection(fingerprint, tlsFingerprint, tlsConfig, maxIdleAmbariClients, now);
+        });
+        connection.lastUsed = now;
+        if (replaced[0] != null) {
+            LOGGER.info("Connection details of cluster {} have changed, its clients are replaced", cluster.getId());
+            replaced[0].close();
+        }
+        return connection;
+    }
+
+    private String fingerprint(Cluster cluster) {
+        return Hashing.sha256().newHasher()
+                .putString(String.valueOf(cluster.getHost()), UTF_8).putChar('\n')
+                .putString(String.valueOf(cluster.getPort()), UTF_8).putChar('\n')
+                .putString(String.valueOf(cluster.getAmbariUser()), UTF_8).putChar('\n')
+                .putString(String.valueOf(cluster.getAmbariPass()), UTF_8)
+                .hash().toString();
+    }
+
+    private String tlsFingerprint(TlsConfiguration tlsConfig) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        if (tlsConfig != null) {
+            hasher.putString(String.valueOf(tlsConfig.getServerCert()), UTF_8).putChar('\n')
+                    .putString(String.valueOf(tlsConfig.getClientCert()), UTF_8).putChar('\n')
+                    .putString(String.valueOf(tlsConfig.getClientKey()), UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    private static class ClusterConnection {
+
+        private final String fingerprint;
+
+        private final String tlsFingerprint;
+
+        private final TlsConfiguration tlsConfig;
+
+        private final Queue<AmbariClient> idleAmbariClients;
+
+        private Client prometheusClient;
+
+        private volatile long tlsCheckedAt;
+
+        private volatile long lastUsed;
+
+        ClusterConnection(String fingerprint, String tlsFingerprint, TlsConfiguration tlsConfig, int maxIdleAmbariClients, long created) {
+            this.fingerprint = fingerprint;
+            this.tlsFingerprint = tlsFingerprint;
+            this.tlsConfig = tlsConfig;
+            idleAmbariClients = new ArrayBlockingQueue<>(Math.max(1, maxIdleAmbariClients));
+            tlsCheckedAt = created;
+            lastUsed = created;
+        }
+
+        private synchronized void close() {
+            idleAmbariClients.clear();
+            if (prometheusClient != null) {
+                prometheusClient.close();
+                prometheusClient = null;
+            }
+        }
+    }
+}
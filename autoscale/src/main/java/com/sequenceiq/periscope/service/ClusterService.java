@@ -4,13 +4,19 @@ import static com.sequenceiq.periscope.api.model.ClusterState.RUNNING;
 import static org.springframework.util.StringUtils.isEmpty;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.StreamSupport;
 
 import javax.inject.Inject;
 import javax.ws.rs.BadRequestException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+import com.sequenceiq.cloudbreak.service.TransactionService;
+import com.sequenceiq.cloudbreak.service.TransactionService.TransactionExecutionException;
 import com.sequenceiq.periscope.api.model.ClusterState;
 import com.sequenceiq.periscope.api.model.ScalingConfigurationRequest;
 import com.sequenceiq.periscope.domain.Ambari;
@@ -21,10 +27,15 @@ import com.sequenceiq.periscope.model.AmbariStack;
 import com.sequenceiq.periscope.repository.ClusterRepository;
 import com.sequenceiq.periscope.repository.SecurityConfigRepository;
 import com.sequenceiq.periscope.repository.UserRepository;
+import com.sequenceiq.periscope.service.ha.ClusterAssignmentService;
 
 @Service
 public class ClusterService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterService.class);
+
+    private static final int LAST_EVALUATED_BATCH_SIZE = 1000;
+
     @Inject
     private ClusterRepository clusterRepository;
 
@@ -37,6 +48,18 @@ public class ClusterService {
     @Inject
     private AlertService alertService;
 
+    @Inject
+    private ClusterConnectionRegistry clusterConnectionRegistry;
+
+    @Inject
+    private ClusterAssignmentService clusterAssignmentService;
+
+    @Inject
+    private TrendSeriesRegistry trendSeriesRegistry;
+
+    @Inject
+    private TransactionService transactionService;
+
     public Cluster create(PeriscopeUser user, AmbariStack stack, ClusterState clusterState) {
         return create(new Cluster(), user, stack, clusterState);
     }
@@ -111,11 +134,17 @@ public class ClusterService {
     public void removeOne(Long clusterId) {
         Cluster cluster = findOneById(clusterId);
         clusterRepository.delete(cluster);
+        clusterConnectionRegistry.evict(clusterId);
+        clusterAssignmentService.remove(clusterId);
+        trendSeriesRegistry.evict(clusterId);
     }
 
     public void removeById(Long clusterId) {
         Cluster cluster = find(clusterId);
         clusterRepository.delete(cluster);
+        clusterConnectionRegistry.evict(clusterId);
+        clusterAssignmentService.remove(clusterId);
+        trendSeriesRegistry.evict(clusterId);
     }
 
     public Cluster updateScalingConfiguration(Long clusterId, ScalingConfigurationRequest scalingConfiguration) {
@@ -149,12 +178,25 @@ public class ClusterService {
         return clusterRepository.save(cluster);
     }
 
-    public List<Cluster> findAllByStateAndNode(ClusterState state, String nodeId) {
-        return clusterRepository.findByStateAndPeriscopeNodeId(state, nodeId);
+    /**
+     * Sets the last evaluation time of the clusters evaluated by a monitor tick, with one update statement per
+     * {@value #LAST_EVALUATED_BATCH_SIZE} clusters.
+     */
+    public void updateLastEvaluated(List<Long> clusterIds, long lastEvaluated) {
+        try {
+            transactionService.required(() -> {
+                for (List<Long> batch : Lists.partition(clusterIds, LAST_EVALUATED_BATCH_SIZE)) {
+                    clusterRepository.updateLastEvaluated(batch, lastEvaluated);
+                }
+                return null;
+            });
+        } catch (TransactionExecutionException e) {
+            LOGGER.warn("Unable to update the last evaluation time of {} clusters", clusterIds.size(), e);
+        }
     }
 
-    public List<Cluster> findAllForNode(ClusterState state, boolean autoscalingEnabled, String nodeId) {
-        return clusterRepository.findByStateAndAutoscalingEnabledAndPeriscopeNodeId(state, autoscalingEnabled, nodeId);
+    public Set<Long> findStackIdsByState(ClusterState state) {
+        return clusterRepository.findStackIdsByState(state);
     }
 
     public void validateClusterUniqueness(AmbariStack stack) {
@@ -7,6 +7,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.TimeZone;
 
 import javax.inject.Inject;
 
@@ -56,6 +57,52 @@ public final class DateService {
     }
 
     public CronSequenceGenerator getCronExpression(String cron) throws ParseException {
+        try {
+            return new CronSequenceGenerator(completeCron(cron));
+        } catch (Exception ex) {
+            throw new ParseException(ex.getMessage(), 0);
+        }
+    }
+
+    /**
+     * Parses the cron expression of a time alert so its firings are calculated in the time zone of the alert. The parsed expression is
+     * thread safe and can be kept as long as the cron and the time zone of the alert do not change.
+     */
+    public CronSequenceGenerator getCronExpression(String cron, String timeZone) throws ParseException {
+        try {
+            TimeZone zone = timeZone == null ? TimeZone.getDefault() : TimeZone.getTimeZone(ZoneId.of(timeZone));
+            return new CronSequenceGenerator(completeCron(cron), zone);
+        } catch (Exception ex) {
+            throw new ParseException(ex.getMessage(), 0);
+        }
+    }
+
+    /**
+     * Returns the latest firing of the cron expression after {@code from} and not after {@code to}, or null if it does not fire in
+     * between. The firing is found by a binary search over the interval, so it takes a logarithmic number of steps instead of walking
+     * through every second of the interval.
+     */
+    public Date getLastFiring(CronSequenceGenerator cronExpression, Date from, Date to) {
+        Date firing = cronExpression.next(from);
+        if (firing.after(to)) {
+            return null;
+        }
+        long low = from.getTime();
+        long high = to.getTime();
+        while (high - low > TimeUtil.SECOND_TO_MILLISEC) {
+            long middle = low + (high - low) / 2;
+            Date next = cronExpression.next(new Date(middle));
+            if (next.after(to)) {
+                high = middle;
+            } else {
+                low = middle;
+                firing = next;
+            }
+        }
+        return firing;
+    }
+
+    private String completeCron(String cron) {
         String[] splits = cron.split("\\s+");
         if (splits.length < MINIMAL_CRON_SEGMENT_LENGTH && splits.length > MINIMAL_USER_DEFINED_CRON_SEGMENT_LENGTH) {
             for (int i = splits.length; i < MINIMAL_CRON_SEGMENT_LENGTH; i++) {
@@ -67,10 +114,6 @@ public final class DateService {
                 }
             }
         }
-        try {
-            return new CronSequenceGenerator(cron);
-        } catch (Exception ex) {
-            throw new ParseException(ex.getMessage(), 0);
-        }
+        return cron;
     }
 }
@@ -1,7 +1,13 @@
 package com.sequenceiq.periscope.service;
 
 import static com.sequenceiq.cloudbreak.api.model.Status.AVAILABLE;
+import static com.sequenceiq.cloudbreak.api.model.Status.DELETE_COMPLETED;
+import static com.sequenceiq.cloudbreak.api.model.Status.DELETE_IN_PROGRESS;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.Lock;
@@ -11,12 +17,15 @@ import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
+import com.sequenceiq.cloudbreak.api.model.AutoscaleStackChangesResponse;
 import com.sequenceiq.cloudbreak.api.model.AutoscaleStackResponse;
 import com.sequenceiq.cloudbreak.api.model.Status;
 import com.sequenceiq.cloudbreak.client.CloudbreakClient;
+import com.sequenceiq.periscope.api.model.ClusterState;
 import com.sequenceiq.periscope.model.ClusterCreationEvaluatorContext;
 import com.sequenceiq.periscope.monitor.evaluator.ClusterCreationEvaluator;
 import com.sequenceiq.periscope.service.configuration.CloudbreakClientConfiguration;
@@ -37,27 +46,41 @@ public class StackCollectorService {
     @Inject
     private CloudbreakClientConfiguration cloudbreakClientConfiguration;
 
+    @Inject
+    private ClusterService clusterService;
+
+    @Value("${periscope.stack.collector.full.sync.period:600000}")
+    private long fullSyncPeriod;
+
+    private final Map<Long, AutoscaleStackResponse> knownStacks = new HashMap<>();
+
+    private Long changeVersion;
+
+    private long lastFullSync;
+
+    /**
+     * Fetches the stacks changed since the previous run from the change feed of Cloudbreak, and evaluates the changed stacks and the
+     * available stacks without a running cluster. Every stack is fetched again periodically, in case a change was not recorded.
+     */
     public void collectStackDetails() {
         if (LOCK.tryLock()) {
             try {
                 CloudbreakClient cloudbreakClient = cloudbreakClientConfiguration.cloudbreakClient();
-                Set<AutoscaleStackResponse> allStacks = cloudbreakClient.stackV1Endpoint().getAllForAutoscale();
-                for (AutoscaleStackResponse stack : allStacks) {
-                    Status clusterStatus = stack.getClusterStatus();
-                    if (AVAILABLE.equals(clusterStatus)) {
-                        if (stack.getAmbariServerIp() != null) {
-                            LOGGER.info("Evaluate cluster management for stack: {} (ID:{})", stack.getName(), stack.getStackId());
-                            ClusterCreationEvaluator clusterCreationEvaluator = applicationContext.getBean(ClusterCreationEvaluator.class);
-                            clusterCreationEvaluator.setContext(new ClusterCreationEvaluatorContext(stack));
-                            executorService.submit(clusterCreationEvaluator);
-                        } else {
-                            LOGGER.info("Could not find Ambari for stack: {} (ID:{})", stack.getName(), stack.getStackId());
-                        }
-                    } else {
-                        LOGGER.info("Do not create or update cluster while the Cloudbreak cluster {} (ID:{}) is in '{}' state instead of 'AVAILABLE'!",
-                                stack.getName(), stack.getStackId(), stack.getClusterStatus());
+                long now = System.currentTimeMillis();
+                boolean fullSync = changeVersion == null || now - lastFullSync >= fullSyncPeriod;
+                AutoscaleStackChangesResponse changes = cloudbreakClient.stackV1Endpoint().getChangesForAutoscale(fullSync ? null : changeVersion);
+                Set<Long> changedStackIds = applyChanges(changes.getStacks(), fullSync);
+                Set<Long> runningStackIds = clusterService.findStackIdsByState(ClusterState.RUNNING);
+                for (AutoscaleStackResponse stack : knownStacks.values()) {
+                    boolean changed = changedStackIds.contains(stack.getStackId());
+                    if (changed || AVAILABLE.equals(stack.getClusterStatus()) && !runningStackIds.contains(stack.getStackId())) {
+                        evaluate(stack);
                     }
                 }
+                changeVersion = changes.getVersion();
+                if (fullSync) {
+                    lastFullSync = now;
+                }
             } catch (Exception ex) {
                 LOGGER.error("New clusters could not be synchronized from Cloudbreak.", ex);
             } finally {
@@ -65,4 +88,51 @@ public class StackCollectorService {
             }
         }
     }
+
+    private Set<Long> applyChanges(Set<AutoscaleStackResponse> stacks, boolean fullSync) {
+        Map<Long, AutoscaleStackResponse> previousStacks = new HashMap<>(knownStacks);
+        if (fullSync) {
+            knownStacks.clear();
+        }
+        Set<Long> changedStackIds = new HashSet<>();
+        for (AutoscaleStackResponse stack : stacks) {
+            if (DELETE_IN_PROGRESS.equals(stack.getStatus()) || DELETE_COMPLETED.equals(stack.getStatus())) {
+                knownStacks.remove(stack.getStackId());
+            } else {
+                knownStacks.put(stack.getStackId(), stack);
+                if (isChanged(previousStacks.get(stack.getStackId()), stack)) {
+                    changedStackIds.add(stack.getStackId());
+                }
+            }
+        }
+        LOGGER.debug("{} stacks are received from Cloudbreak, {} of them are changed", stacks.size(), changedStackIds.size());
+        return changedStackIds;
+    }
+
+    private boolean isChanged(AutoscaleStackResponse previous, AutoscaleStackResponse current) {
+        return previous == null
+                || previous.getStatus() != current.getStatus()
+                || previous.getClusterStatus() != current.getClusterStatus()
+                || !Objects.equals(previous.getAmbariServerIp(), current.getAmbariServerIp())
+                || !Objects.equals(previous.getGatewayPort(), current.getGatewayPort())
+                || !Objects.equals(previous.getUserName(), current.getUserName())
+                || !Objects.equals(previous.getPassword(), current.getPassword());
+    }
+
+    private void evaluate(AutoscaleStackResponse stack) {
+        Status clusterStatus = stack.getClusterStatus();
+        if (AVAILABLE.equals(clusterStatus)) {
+            if (stack.getAmbariServerIp() != null) {
+                LOGGER.info("Evaluate cluster management for stack: {} (ID:{})", stack.getName(), stack.getStackId());
+                ClusterCreationEvaluator clusterCreationEvaluator = applicationContext.getBean(ClusterCreationEvaluator.class);
+                clusterCreationEvaluator.setContext(new ClusterCreationEvaluatorContext(stack));
+                executorService.submit(clusterCreationEvaluator);
+            } else {
+                LOGGER.info("Could not find Ambari for stack: {} (ID:{})", stack.getName(), stack.getStackId());
+            }
+        } else {
+            LOGGER.info("Do not create or update cluster while the Cloudbreak cluster {} (ID:{}) is in '{}' state instead of 'AVAILABLE'!",
+                    stack.getName(), stack.getStackId(), stack.getClusterStatus());
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package com.sequenceiq.periscope.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sequenceiq.periscope.api.model.TrendMetric;
+import com.sequenceiq.periscope.model.MetricRingBuffer;
+
+/**
+ * Holds the sampled metrics of the clusters of this node in memory. A metric is sampled once per cluster even if more trend alerts use
+ * it. The samples are lost on restart or when the cluster moves to another node, the trend is fitted again after a few samples. The
+ * series of a metric is dropped when no trend alert of the cluster uses it anymore.
+ */
+@Service
+public class TrendSeriesRegistry {
+
+    @Value("${periscope.trend.samples:40}")
+    private int capacity;
+
+    private final Map<Long, Map<TrendMetric, MetricRingBuffer>> seriesByCluster = new ConcurrentHashMap<>();
+
+    public MetricRingBuffer getSeries(Long clusterId, TrendMetric metric) {
+        Map<TrendMetric, MetricRingBuffer> series = seriesByCluster.computeIfAbsent(clusterId, id -> new EnumMap<>(TrendMetric.class));
+        synchronized (series) {
+            return series.computeIfAbsent(metric, m -> new MetricRingBuffer(capacity));
+        }
+    }
+
+    public void evict(Long clusterId) {
+        seriesByCluster.remove(clusterId);
+    }
+
+    public void evict(Long clusterId, TrendMetric metric) {
+        Map<TrendMetric, MetricRingBuffer> series = seriesByCluster.get(clusterId);
+        if (series != null) {
+            synchronized (series) {
+                series.remove(metric);
+            }
+        }
+    }
+}
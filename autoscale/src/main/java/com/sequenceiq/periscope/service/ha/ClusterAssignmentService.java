@@ -0,0 +1,79 @@
+package com.sequenceiq.periscope.service.ha;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.repository.ClusterRepository;
+import com.sequenceiq.periscope.service.ClusterConnectionRegistry;
+import com.sequenceiq.periscope.service.TrendSeriesRegistry;
+
+/**
+ * Keeps a snapshot of the clusters allocated to this node, so the monitors do not query them on every tick. The snapshot is refreshed on
+ * every heartbeat, which is when a node learns about the clusters moved to or from it by the leader. The clusters of the snapshot are
+ * only read, they must not be saved, as they may be older than their rows. The per-cluster state kept in memory is dropped for the clusters
+ * that are not allocated to this node anymore.
+ */
+@Service
+public class ClusterAssignmentService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterAssignmentService.class);
+
+    @Inject
+    private ClusterRepository clusterRepository;
+
+    @Inject
+    private PeriscopeNodeConfig periscopeNodeConfig;
+
+    @Inject
+    private ClusterConnectionRegistry clusterConnectionRegistry;
+
+    @Inject
+    private TrendSeriesRegistry trendSeriesRegistry;
+
+    private volatile List<Cluster> assignedClusters;
+
+    public List<Cluster> getAssignedClusters() {
+        List<Cluster> clusters = assignedClusters;
+        return clusters == null ? refresh() : clusters;
+    }
+
+    public List<Cluster> refresh() {
+        List<Cluster> clusters = Collections.unmodifiableList(clusterRepository.findByPeriscopeNodeId(periscopeNodeConfig.getId()));
+        List<Cluster> previous = assignedClusters;
+        if (previous == null || previous.size() != clusters.size()) {
+            LOGGER.info("{} clusters are allocated to this node", clusters.size());
+        }
+        assignedClusters = clusters;
+        if (previous != null) {
+            evictLostClusters(previous, clusters);
+        }
+        return clusters;
+    }
+
+    public void remove(Long clusterId) {
+        List<Cluster> clusters = assignedClusters;
+        if (clusters != null) {
+            assignedClusters = Collections.unmodifiableList(clusters.stream().filter(c -> !c.getId().equals(clusterId)).collect(Collectors.toList()));
+        }
+    }
+
+    private void evictLostClusters(List<Cluster> previous, List<Cluster> current) {
+        Set<Long> currentIds = current.stream().map(Cluster::getId).collect(Collectors.toSet());
+        for (Cluster cluster : previous) {
+            if (!currentIds.contains(cluster.getId())) {
+                LOGGER.info("Cluster {} is not allocated to this node anymore", cluster.getId());
+                clusterConnectionRegistry.evict(cluster.getId());
+                trendSeriesRegistry.evict(cluster.getId());
+            }
+        }
+    }
+}
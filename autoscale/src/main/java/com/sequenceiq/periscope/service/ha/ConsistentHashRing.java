@@ -0,0 +1,41 @@
+package com.sequenceiq.periscope.service.ha;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Maps the clusters to the Periscope nodes with consistent hashing. Every node is put on the ring at a number of virtual points, and a
+ * cluster belongs to the first node after the hash of its id, so adding or removing a node only moves the clusters of its own arcs,
+ * about 1/N of all the clusters. The ring only depends on the node ids, every node builds the same one.
+ */
+public class ConsistentHashRing {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        // sorted, so a hash collision between two nodes is resolved the same way on every node
+        for (String nodeId : new TreeSet<>(nodeIds)) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(HASH_FUNCTION.hashString(nodeId + '#' + i, UTF_8).asLong(), nodeId);
+            }
+        }
+    }
+
+    public String getNode(long clusterId) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Entry<Long, String> entry = ring.ceilingEntry(HASH_FUNCTION.hashLong(clusterId).asLong());
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+}
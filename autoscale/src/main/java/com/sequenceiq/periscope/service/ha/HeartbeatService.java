@@ -44,6 +44,9 @@ public class HeartbeatService {
     @Inject
     private TransactionService transactionService;
 
+    @Inject
+    private ClusterAssignmentService clusterAssignmentService;
+
     @PostConstruct
     public void init() {
         heartbeat(true);
@@ -52,6 +55,11 @@ public class HeartbeatService {
     @Scheduled(cron = "${cb.ha.heartbeat.rate:0/30 * * * * *}")
     public void heartbeat() {
         heartbeat(false);
+        try {
+            clusterAssignmentService.refresh();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to refresh the clusters allocated to this node", e);
+        }
     }
 
     private void heartbeat(boolean unLeaderIt) {
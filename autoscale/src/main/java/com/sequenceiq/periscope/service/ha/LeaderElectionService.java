@@ -1,14 +1,16 @@
 package com.sequenceiq.periscope.service.ha;
 
-import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.TreeSet;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -22,6 +24,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
 import com.sequenceiq.cloudbreak.service.Clock;
 import com.sequenceiq.cloudbreak.service.TransactionService;
 import com.sequenceiq.cloudbreak.service.TransactionService.TransactionExecutionException;
@@ -31,7 +34,7 @@ import com.sequenceiq.periscope.domain.TimeAlert;
 import com.sequenceiq.periscope.monitor.evaluator.CronTimeEvaluator;
 import com.sequenceiq.periscope.repository.ClusterRepository;
 import com.sequenceiq.periscope.repository.PeriscopeNodeRepository;
-import com.sequenceiq.periscope.service.DateTimeService;
+import com.sequenceiq.periscope.service.DateService;
 import com.sequenceiq.periscope.service.StackCollectorService;
 import com.sequenceiq.periscope.utils.TimeUtil;
 
@@ -44,9 +47,14 @@ public class LeaderElectionService {
 
     private static final long STACK_COLLECTOR_PERIOD = 10000L;
 
+    private static final int ALLOCATION_BATCH_SIZE = 1000;
+
     @Value("${periscope.ha.heartbeat.threshold:60000}")
     private Integer heartbeatThresholdRate;
 
+    @Value("${periscope.ha.ring.virtual.nodes:200}")
+    private int virtualNodes;
+
     @Inject
     private ApplicationContext applicationContext;
 
@@ -69,12 +77,16 @@ public class LeaderElectionService {
     private StackCollectorService stackCollectorService;
 
     @Inject
-    private DateTimeService dateTimeService;
+    private DateService dateService;
 
     private Timer timer;
 
     private Supplier<Timer> timerFactory = Timer::new;
 
+    private Set<String> allocatedNodeIds;
+
+    private ConsistentHashRing ring;
+
     @PostConstruct
     public void init() {
         timer = timerFactory.get();
@@ -112,6 +124,7 @@ public class LeaderElectionService {
                     return;
                 }
                 LOGGER.info(String.format("Selected %s as leader", periscopeNodeConfig.getId()));
+                allocatedNodeIds = null;
                 timer.schedule(new TimerTask() {
                     @Override
                     public void run() {
@@ -119,7 +132,7 @@ public class LeaderElectionService {
                             stackCollectorService.collectStackDetails();
                             long limit = clock.getCurrentTime() - heartbeatThresholdRate;
                             List<PeriscopeNode> activeNodes = periscopeNodeRepository.findAllByLastUpdatedIsGreaterThan(limit);
-                            reallocateOrphanClusters(activeNodes);
+                            reallocateClusters(activeNodes);
                             cleanupInactiveNodesByActiveNodes(activeNodes);
                         } catch (RuntimeException e) {
                             LOGGER.error("Error happend during fetching cluster allocating them to nodes", e);
@@ -130,29 +143,69 @@ public class LeaderElectionService {
         }
     }
 
-    private void reallocateOrphanClusters(List<PeriscopeNode> activeNodes) {
+    private void reallocateClusters(List<PeriscopeNode> activeNodes) {
         if (activeNodes.stream().noneMatch(n -> n.isLeader() && n.getUuid().equals(periscopeNodeConfig.getId()))) {
             Optional<PeriscopeNode> leader = activeNodes.stream().filter(PeriscopeNode::isLeader).findFirst();
             LOGGER.info(String.format("Leader is %s, let's drop leader scope", leader.isPresent() ? leader.get().getUuid() : "-"));
             resetTimer();
             return;
         }
-        List<String> nodeIds = activeNodes.stream().map(PeriscopeNode::getUuid).collect(Collectors.toList());
-        List<Cluster> orphanClusters = clusterRepository.findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(nodeIds);
-        if (!orphanClusters.isEmpty()) {
-            Iterator<PeriscopeNode> iterator = activeNodes.iterator();
-            for (Cluster cluster : orphanClusters) {
-                if (!iterator.hasNext()) {
-                    iterator = activeNodes.iterator();
-                }
-                if (isExecutionOfMissedTimeBasedAlertsNeeded(cluster)) {
-                    LOGGER.info(String.format("Executing missed alerts on cluster %s", cluster.getId()));
-                    executeMissedTimeBasedAlerts(cluster);
+        Set<String> nodeIds = activeNodes.stream().map(PeriscopeNode::getUuid).collect(Collectors.toCollection(TreeSet::new));
+        boolean membershipChanged = !nodeIds.equals(allocatedNodeIds);
+        List<Object[]> allocations;
+        if (membershipChanged) {
+            LOGGER.info("Active nodes changed to {}, rebalancing the clusters", nodeIds);
+            ring = new ConsistentHashRing(nodeIds, virtualNodes);
+            allocations = clusterRepository.findAllNodeAllocations();
+        } else {
+            allocations = clusterRepository.findNodeAllocationsOfOtherNodes(nodeIds);
+        }
+        Map<String, List<Long>> movedClusterIds = new HashMap<>();
+        for (Object[] allocation : allocations) {
+            Long clusterId = (Long) allocation[0];
+            String currentNodeId = (String) allocation[1];
+            String owner = ring.getNode(clusterId);
+            if (!owner.equals(currentNodeId)) {
+                if (currentNodeId != null && !nodeIds.contains(currentNodeId)) {
+                    executeMissedTimeBasedAlertsIfNeeded(clusterId);
                 }
-                cluster.setPeriscopeNodeId(iterator.next().getUuid());
-                LOGGER.info(String.format("Allocationg cluster %s to node %s", cluster.getId(), cluster.getPeriscopeNodeId()));
+                LOGGER.info(String.format("Allocationg cluster %s to node %s", clusterId, owner));
+                movedClusterIds.computeIfAbsent(owner, id -> new ArrayList<>()).add(clusterId);
             }
-            clusterRepository.save(orphanClusters);
+        }
+        if (!movedClusterIds.isEmpty() && !allocateClusters(movedClusterIds)) {
+            return;
+        }
+        LOGGER.info("{} of {} clusters are allocated to a new node", movedClusterIds.values().stream().mapToInt(List::size).sum(), allocations.size());
+        allocatedNodeIds = nodeIds;
+    }
+
+    /**
+     * Moves the clusters with one update statement per node and {@value #ALLOCATION_BATCH_SIZE} clusters, only their node column is
+     * written, so the changes made meanwhile by their previous node or the API are kept.
+     */
+    private boolean allocateClusters(Map<String, List<Long>> clusterIdsByNode) {
+        try {
+            transactionService.required(() -> {
+                clusterIdsByNode.forEach((nodeId, clusterIds) -> {
+                    for (List<Long> batch : Lists.partition(clusterIds, ALLOCATION_BATCH_SIZE)) {
+                        clusterRepository.allocateClustersForNode(batch, nodeId);
+                    }
+                });
+                return null;
+            });
+            return true;
+        } catch (TransactionExecutionException e) {
+            LOGGER.error("Unable to allocate the clusters to the active nodes", e);
+            return false;
+        }
+    }
+
+    private void executeMissedTimeBasedAlertsIfNeeded(Long clusterId) {
+        Cluster cluster = clusterRepository.findById(clusterId);
+        if (cluster != null && isExecutionOfMissedTimeBasedAlertsNeeded(cluster)) {
+            LOGGER.info(String.format("Executing missed alerts on cluster %s", clusterId));
+            executeMissedTimeBasedAlerts(cluster);
         }
     }
 
@@ -166,23 +219,42 @@ public class LeaderElectionService {
     }
 
     private void executeMissedTimeBasedAlerts(Cluster cluster) {
-        Map<TimeAlert, ZonedDateTime> alerts = new LinkedHashMap<>();
-        ZonedDateTime now = dateTimeService.getDefaultZonedDateTime();
-        long millisDiff = clock.getCurrentTime() - cluster.getLastEvaulated();
+        long now = clock.getCurrentTime();
+        long millisDiff = now - cluster.getLastEvaulated();
         long coolDown = TimeUtil.convertMinToMillisec(cluster.getCoolDown());
         long rewindMillis = Math.min(millisDiff, coolDown);
         LOGGER.debug("Start rewind for cluster {} at {} - millisDiff: {}, coolDown: {}, rewindMillis: {}",
                 cluster.getId(), now, millisDiff, coolDown, rewindMillis);
-        for (long r = rewindMillis; r > TimeUtil.SECOND_TO_MILLISEC; r -= TimeUtil.SECOND_TO_MILLISEC) {
-            for (TimeAlert alert : cluster.getTimeAlerts()) {
-                ZonedDateTime past = dateTimeService.getNextSecound(now.minus(r, ChronoUnit.MILLIS));
-                LOGGER.debug("Create alert for cluster {} at {}", cluster.getId(), past);
-                alerts.put(alert, past);
+        if (rewindMillis <= TimeUtil.SECOND_TO_MILLISEC) {
+            return;
+        }
+        Date from = new Date(now - rewindMillis);
+        Date to = new Date(now);
+        TimeAlert missedAlert = null;
+        Date missedFiring = null;
+        for (TimeAlert alert : cluster.getTimeAlerts()) {
+            Date firing = getLastFiring(alert, from, to);
+            if (firing != null && (missedFiring == null || firing.after(missedFiring))) {
+                missedAlert = alert;
+                missedFiring = firing;
             }
         }
-        if (!alerts.isEmpty()) {
+        if (missedAlert != null) {
+            LOGGER.info("Time alert '{}' of cluster {} missed its firing at {}", missedAlert.getName(), cluster.getId(), missedFiring);
             CronTimeEvaluator evaluator = applicationContext.getBean("CronTimeEvaluator", CronTimeEvaluator.class);
-            evaluator.publishIfNeeded(alerts);
+            evaluator.publishMissedFiring(missedAlert);
+        }
+    }
+
+    private Date getLastFiring(TimeAlert alert, Date from, Date to) {
+        if (alert.getScalingPolicy() == null) {
+            return null;
+        }
+        try {
+            return dateService.getLastFiring(dateService.getCronExpression(alert.getCron(), alert.getTimeZone()), from, to);
+        } catch (ParseException e) {
+            LOGGER.warn("Invalid cron expression of time alert '{}', {}", alert.getName(), e.getMessage());
+            return null;
         }
     }
 
@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import com.sequenceiq.periscope.domain.Subscription;
+import com.sequenceiq.periscope.notification.HttpNotificationSender;
 import com.sequenceiq.periscope.repository.SubscriptionRepository;
 
 @Service
@@ -19,6 +20,9 @@ public class SubscriptionService {
     @Inject
     private SubscriptionRepository subscriptionRepository;
 
+    @Inject
+    private HttpNotificationSender notificationSender;
+
     public Long subscribe(Subscription subscription) {
         List<Subscription> clientSubscriptions = subscriptionRepository.findByClientIdAndEndpoint(subscription.getClientId(), subscription.getEndpoint());
         if (!clientSubscriptions.isEmpty()) {
@@ -26,6 +30,8 @@ public class SubscriptionService {
                     subscription.getClientId(), subscription.getEndpoint()));
             return clientSubscriptions.get(0).getId();
         }
-        return subscriptionRepository.save(subscription).getId();
+        Long id = subscriptionRepository.save(subscription).getId();
+        notificationSender.refreshSubscriptions();
+        return id;
     }
 }
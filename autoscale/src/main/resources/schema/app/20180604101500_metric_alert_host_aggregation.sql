@@ -0,0 +1,11 @@
+-- // metric_alert_host_aggregation
+-- Migration SQL that makes the change goes here.
+
+ALTER TABLE metricalert ADD COLUMN host_aggregation character varying(255) DEFAULT 'SINGLE_HOST';
+ALTER TABLE metricalert ADD COLUMN host_percentage integer;
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+ALTER TABLE metricalert DROP COLUMN IF EXISTS host_percentage;
+ALTER TABLE metricalert DROP COLUMN IF EXISTS host_aggregation;
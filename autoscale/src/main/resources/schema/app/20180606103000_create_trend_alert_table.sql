@@ -0,0 +1,27 @@
+-- // create trend alert table
+-- Migration SQL that makes the change goes here.
+
+CREATE TABLE trendalert (
+    id bigint NOT NULL DEFAULT nextval('alert_id_seq'),
+    description character varying(255),
+    name character varying(255),
+    scalingpolicy_id bigint,
+    metric character varying(255) NOT NULL,
+    horizon integer NOT NULL,
+    capacity_per_node double precision NOT NULL,
+    cluster_id bigint
+);
+
+ALTER TABLE ONLY trendalert
+    ADD CONSTRAINT trendalert_pkey PRIMARY KEY (id);
+
+ALTER TABLE ONLY trendalert
+    ADD CONSTRAINT fk_trendalert_cluster_id FOREIGN KEY (cluster_id) REFERENCES cluster(id);
+
+ALTER TABLE ONLY trendalert
+    ADD CONSTRAINT fk_trendalert_scalingpolicy_id FOREIGN KEY (scalingpolicy_id) REFERENCES scalingpolicy(id);
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+DROP TABLE IF EXISTS trendalert;
@@ -0,0 +1,62 @@
+package com.sequenceiq.periscope.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MetricRingBufferTest {
+
+    private static final double DELTA = 0.000001;
+
+    @Test
+    public void testLinearSeriesIsForecastedExactly() {
+        MetricRingBuffer underTest = new MetricRingBuffer(10);
+        for (int i = 0; i < 5; i++) {
+            underTest.add(1528280000.0 + 30 * i, 3.0 * i);
+        }
+
+        assertEquals(5, underTest.size());
+        assertEquals(3.0 * 24, underTest.forecast(1528280000.0 + 30 * 24), DELTA);
+    }
+
+    @Test
+    public void testOldestSamplesAreOverwrittenWhenFull() {
+        MetricRingBuffer underTest = new MetricRingBuffer(3);
+        underTest.add(10.0, 100.0);
+        underTest.add(20.0, 100.0);
+        for (int i = 3; i <= 7; i++) {
+            underTest.add(10.0 * i, i);
+        }
+
+        assertEquals(3, underTest.size());
+        assertEquals(7.0, underTest.getLastValue(), DELTA);
+        assertEquals(70.0, underTest.getLastTimestamp(), DELTA);
+        assertEquals(10.0, underTest.forecast(100.0), DELTA);
+    }
+
+    @Test
+    public void testStaleAndNonFiniteSamplesAreIgnored() {
+        MetricRingBuffer underTest = new MetricRingBuffer(5);
+        underTest.add(20.0, 1.0);
+        underTest.add(20.0, 5.0);
+        underTest.add(10.0, 5.0);
+        underTest.add(30.0, Double.NaN);
+
+        assertEquals(1, underTest.size());
+        assertEquals(1.0, underTest.getLastValue(), DELTA);
+        assertTrue(Double.isNaN(underTest.forecast(40.0)));
+    }
+
+    @Test
+    public void testClear() {
+        MetricRingBuffer underTest = new MetricRingBuffer(2);
+        underTest.add(10.0, 1.0);
+        underTest.add(20.0, 2.0);
+
+        underTest.clear();
+
+        assertEquals(0, underTest.size());
+        assertTrue(Double.isNaN(underTest.getLastValue()));
+    }
+}
@@ -0,0 +1,80 @@
+package com.sequenceiq.periscope.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PrometheusResponseReaderTest {
+
+    @Test
+    public void testSeriesAreGroupedByAlertNameWithTheirLastSample() throws IOException {
+        String json = "{\"status\":\"success\",\"data\":{\"resultType\":\"matrix\",\"result\":["
+                + "{\"metric\":{\"__name__\":\"ALERTS\",\"alertname\":\"memory\",\"alertstate\":\"pending\",\"severity\":\"warning\"},"
+                + "\"values\":[[1500000000.1,\"1\"],[1500000010.1,\"1\"]]},"
+                + "{\"metric\":{\"__name__\":\"ALERTS\",\"alertname\":\"memory\",\"alertstate\":\"firing\"},"
+                + "\"values\":[[1500000020,\"1\"],[1500000030,\"0\"]]},"
+                + "{\"metric\":{\"alertname\":\"cpu\",\"alertstate\":\"firing\"},\"values\":[[1500000040.5,\"1\"]]}]}}";
+
+        Map<String, List<PrometheusAlertSeries>> seriesByAlert = PrometheusResponseReader.readAlertSeries(stream(json));
+
+        assertEquals(2, seriesByAlert.size());
+        List<PrometheusAlertSeries> memory = seriesByAlert.get("memory");
+        assertEquals(2, memory.size());
+        assertEquals("pending", memory.get(0).getAlertState());
+        assertEquals(1500000010.1, memory.get(0).getLastTimestamp(), 0.0001);
+        assertEquals("firing", memory.get(1).getAlertState());
+        assertEquals("0", memory.get(1).getLastValue());
+        assertEquals(1500000040.5, seriesByAlert.get("cpu").get(0).getLastTimestamp(), 0.0001);
+    }
+
+    @Test
+    public void testInstantVector() throws IOException {
+        String json = "{\"data\":{\"resultType\":\"vector\",\"result\":[{\"metric\":{\"alertname\":\"cpu\",\"alertstate\":\"firing\"},"
+                + "\"value\":[1500000040,\"1\"]}]},\"status\":\"success\"}";
+
+        Map<String, List<PrometheusAlertSeries>> seriesByAlert = PrometheusResponseReader.readAlertSeries(stream(json));
+
+        assertEquals("1", seriesByAlert.get("cpu").get(0).getLastValue());
+    }
+
+    @Test
+    public void testEmptyResult() throws IOException {
+        String json = "{\"status\":\"success\",\"data\":{\"resultType\":\"matrix\",\"result\":[]}}";
+
+        assertTrue(PrometheusResponseReader.readAlertSeries(stream(json)).isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testErrorResponse() throws IOException {
+        String json = "{\"status\":\"error\",\"errorType\":\"bad_data\",\"error\":\"parse error at char 8\"}";
+
+        PrometheusResponseReader.readAlertSeries(stream(json));
+    }
+
+    @Test
+    public void testValueIsTheSumOfTheLastSamples() throws IOException {
+        String json = "{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":["
+                + "{\"metric\":{\"q0\":\"root\"},\"value\":[1500000000,\"12\"]},{\"metric\":{\"q0\":\"root\"},\"value\":[1500000000,\"30\"]}]}}";
+
+        assertEquals(42.0, PrometheusResponseReader.readValue(stream(json)), 0.0);
+    }
+
+    @Test
+    public void testValueOfAnEmptyResultIsNaN() throws IOException {
+        String json = "{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":[]}}";
+
+        assertTrue(Double.isNaN(PrometheusResponseReader.readValue(stream(json))));
+    }
+
+    private InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(UTF_8));
+    }
+}
@@ -0,0 +1,106 @@
+package com.sequenceiq.periscope.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.springframework.context.ApplicationContext;
+
+import com.sequenceiq.periscope.api.model.ClusterState;
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.monitor.evaluator.EvaluatorExecutor;
+import com.sequenceiq.periscope.service.ClusterService;
+import com.sequenceiq.periscope.service.ha.ClusterAssignmentService;
+import com.sequenceiq.periscope.service.ha.PeriscopeNodeConfig;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AbstractMonitorTest {
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private JobExecutionContext jobExecutionContext;
+
+    @Mock
+    private JobDetail jobDetail;
+
+    @Mock
+    private ClusterService clusterService;
+
+    @Mock
+    private ClusterAssignmentService clusterAssignmentService;
+
+    @Mock
+    private EvaluatorDispatcher evaluatorDispatcher;
+
+    private final MetricMonitor underTest = new MetricMonitor();
+
+    @Before
+    public void setUp() {
+        JobDataMap jobDataMap = new JobDataMap(Collections.singletonMap(MonitorContext.APPLICATION_CONTEXT.name(), applicationContext));
+        when(jobExecutionContext.getJobDetail()).thenReturn(jobDetail);
+        when(jobDetail.getJobDataMap()).thenReturn(jobDataMap);
+        when(applicationContext.getBean(EvaluatorDispatcher.class)).thenReturn(evaluatorDispatcher);
+        when(applicationContext.getBean(ClusterService.class)).thenReturn(clusterService);
+        when(applicationContext.getBean(PeriscopeNodeConfig.class)).thenReturn(mock(PeriscopeNodeConfig.class));
+        when(applicationContext.getBean(ClusterAssignmentService.class)).thenReturn(clusterAssignmentService);
+    }
+
+    @Test
+    public void testEvaluatorsAreDispatchedTogetherAndLastEvaluatedIsUpdatedOnce() {
+        Cluster disabled = cluster(3L, ClusterState.RUNNING);
+        disabled.setAutoscalingEnabled(false);
+        List<Cluster> clusters = Arrays.asList(cluster(1L, ClusterState.RUNNING), cluster(2L, ClusterState.RUNNING),
+                disabled, cluster(4L, ClusterState.SUSPENDED));
+        when(clusterAssignmentService.getAssignedClusters()).thenReturn(clusters);
+        when(applicationContext.getBean(anyString(), eq(EvaluatorExecutor.class))).thenAnswer(invocation -> mock(EvaluatorExecutor.class));
+
+        underTest.execute(jobExecutionContext);
+
+        ArgumentCaptor<Collection<EvaluatorExecutor>> evaluators = ArgumentCaptor.forClass(Collection.class);
+        verify(evaluatorDispatcher, times(1)).dispatch(eq("metric-monitor"), evaluators.capture());
+        assertEquals(2, evaluators.getValue().size());
+        verify(clusterService, times(1)).updateLastEvaluated(eq(Arrays.asList(1L, 2L)), anyLong());
+        verify(clusterService, never()).save(any(Cluster.class));
+    }
+
+    @Test
+    public void testNothingIsUpdatedWithoutClusters() {
+        when(clusterAssignmentService.getAssignedClusters()).thenReturn(Collections.emptyList());
+
+        underTest.execute(jobExecutionContext);
+
+        verify(clusterService, never()).updateLastEvaluated(anyList(), anyLong());
+    }
+
+    private Cluster cluster(long id, ClusterState state) {
+        Cluster cluster = new Cluster();
+        cluster.setId(id);
+        cluster.setState(state);
+        cluster.setAutoscalingEnabled(true);
+        return cluster;
+    }
+}
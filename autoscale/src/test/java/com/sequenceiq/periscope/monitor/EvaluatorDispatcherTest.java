@@ -0,0 +1,58 @@
+package com.sequenceiq.periscope.monitor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.boot.actuate.metrics.GaugeService;
+
+import com.sequenceiq.cloudbreak.service.Clock;
+import com.sequenceiq.periscope.monitor.evaluator.EvaluatorExecutor;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EvaluatorDispatcherTest {
+
+    @Mock
+    private ExecutorService executorService;
+
+    @Mock
+    private GaugeService gaugeService;
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private EvaluatorExecutor first;
+
+    @Mock
+    private EvaluatorExecutor second;
+
+    @InjectMocks
+    private EvaluatorDispatcher underTest;
+
+    @Test
+    public void testQueueWaitIsReportedBeforeEachEvaluatorRuns() {
+        when(clock.getCurrentTime()).thenReturn(1000L, 1250L, 1400L);
+        when(executorService.submit(any(Runnable.class))).thenAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        });
+
+        underTest.dispatch("metric-monitor", Arrays.asList(first, second));
+
+        verify(executorService, times(2)).submit(any(Runnable.class));
+        verify(gaugeService).submit(EvaluatorDispatcher.QUEUE_WAIT_METRIC + "metric-monitor", 250.0);
+        verify(gaugeService).submit(EvaluatorDispatcher.QUEUE_WAIT_METRIC + "metric-monitor", 400.0);
+        verify(first).run();
+        verify(second).run();
+    }
+}
@@ -0,0 +1,176 @@
+package com.sequenceiq.periscope.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.service.Clock;
+import com.sequenceiq.periscope.api.model.ClusterState;
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.domain.PeriscopeUser;
+import com.sequenceiq.periscope.domain.ScalingPolicy;
+import com.sequenceiq.periscope.domain.TimeAlert;
+import com.sequenceiq.periscope.monitor.event.ScalingEvent;
+import com.sequenceiq.periscope.repository.TimeAlertRepository;
+import com.sequenceiq.periscope.service.ClusterService;
+import com.sequenceiq.periscope.service.DateService;
+import com.sequenceiq.periscope.service.ha.PeriscopeNodeConfig;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TimeAlertSchedulerTest {
+
+    private static final String NODE_ID = "node-1";
+
+    private static final long NOON_UTC = ZonedDateTime.parse("2017-12-20T12:00:00Z").toInstant().toEpochMilli();
+
+    @Mock
+    private ClusterService clusterService;
+
+    @Mock
+    private TimeAlertRepository timeAlertRepository;
+
+    @Mock
+    private PeriscopeNodeConfig periscopeNodeConfig;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private Clock clock;
+
+    @InjectMocks
+    private TimeAlertScheduler underTest;
+
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(underTest, "dateService", new DateService());
+        ReflectionTestUtils.setField(underTest, "executorService", executorService);
+        underTest.init();
+    }
+
+    @After
+    public void tearDown() {
+        underTest.shutdown();
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testNextFiringIsCalculatedInTheTimeZoneOfTheAlert() {
+        Cluster cluster = cluster(1L, NODE_ID);
+        TimeAlert alert = alert(1L, cluster, "0 0 12 * * ?", "America/New_York");
+        when(clock.getCurrentTime()).thenReturn(NOON_UTC);
+
+        underTest.schedule(alert);
+
+        assertEquals(ZonedDateTime.parse("2017-12-20T17:00:00Z").toInstant().toEpochMilli(), underTest.getNextFireTime(1L).longValue());
+    }
+
+    @Test
+    public void testUnchangedAlertKeepsItsScheduleAndChangedOneIsRescheduled() {
+        Cluster cluster = cluster(1L, NODE_ID);
+        TimeAlert alert = alert(1L, cluster, "0 0 14 * * ?", "UTC");
+        when(clock.getCurrentTime()).thenReturn(NOON_UTC, NOON_UTC + 1000L);
+        when(timeAlertRepository.findAllByClusters(anyCollection())).thenReturn(Collections.singletonList(alert));
+
+        underTest.synchronize(Collections.singletonList(cluster));
+        long nextFireTime = underTest.getNextFireTime(1L);
+        underTest.synchronize(Collections.singletonList(cluster));
+        assertEquals(nextFireTime, underTest.getNextFireTime(1L).longValue());
+
+        alert.setCron("0 0 15 * * ?");
+        underTest.synchronize(Collections.singletonList(cluster));
+        assertNotEquals(nextFireTime, underTest.getNextFireTime(1L).longValue());
+        assertEquals(1, underTest.getScheduledAlertCount());
+    }
+
+    @Test
+    public void testAlertsOfClustersNotMonitoredAnymoreAreDropped() {
+        Cluster cluster = cluster(1L, NODE_ID);
+        List<TimeAlert> alerts = Arrays.asList(alert(1L, cluster, "0 0 14 * * ?", "UTC"), alert(2L, cluster, "0 0 16 * * ?", "UTC"));
+        when(clock.getCurrentTime()).thenReturn(NOON_UTC);
+        when(timeAlertRepository.findAllByClusters(anyCollection())).thenReturn(alerts);
+
+        underTest.synchronize(Collections.singletonList(cluster));
+        assertEquals(2, underTest.getScheduledAlertCount());
+
+        underTest.synchronize(Collections.emptyList());
+        assertEquals(0, underTest.getScheduledAlertCount());
+    }
+
+    @Test
+    public void testFiringOfTheLastMonitorIntervalIsFired() {
+        Cluster cluster = cluster(1L, NODE_ID);
+        TimeAlert alert = alert(1L, cluster, "0 0 12 * * ?", "UTC");
+        when(clock.getCurrentTime()).thenReturn(NOON_UTC + 5000L);
+        when(clusterService.find(1L)).thenReturn(cluster);
+        when(periscopeNodeConfig.getId()).thenReturn(NODE_ID);
+        when(timeAlertRepository.findAllByCluster(1L)).thenReturn(Collections.singletonList(alert));
+
+        underTest.schedule(alert);
+
+        verify(eventPublisher, timeout(5000L)).publishEvent(any(ScalingEvent.class));
+        assertEquals(ZonedDateTime.parse("2017-12-21T12:00:00Z").toInstant().toEpochMilli(), underTest.getNextFireTime(1L).longValue());
+    }
+
+    @Test
+    public void testAlertIsNotFiredForAClusterOfAnotherNode() {
+        Cluster cluster = cluster(1L, "node-2");
+        TimeAlert alert = alert(1L, cluster, "0 0 14 * * ?", "UTC");
+        when(clock.getCurrentTime()).thenReturn(NOON_UTC);
+        when(clusterService.find(1L)).thenReturn(cluster);
+        when(periscopeNodeConfig.getId()).thenReturn(NODE_ID);
+        underTest.schedule(alert);
+
+        underTest.fire(1L, 1L);
+
+        verify(eventPublisher, never()).publishEvent(any(ScalingEvent.class));
+        assertEquals(0, underTest.getScheduledAlertCount());
+    }
+
+    private Cluster cluster(long id, String nodeId) {
+        Cluster cluster = new Cluster();
+        cluster.setId(id);
+        cluster.setState(ClusterState.RUNNING);
+        cluster.setAutoscalingEnabled(true);
+        cluster.setPeriscopeNodeId(nodeId);
+        cluster.setUser(new PeriscopeUser("user", "user@example.com", "account"));
+        return cluster;
+    }
+
+    private TimeAlert alert(long id, Cluster cluster, String cron, String timeZone) {
+        ScalingPolicy policy = new ScalingPolicy();
+        policy.setName("policy" + id);
+        TimeAlert alert = new TimeAlert();
+        alert.setId(id);
+        alert.setName("alert" + id);
+        alert.setCluster(cluster);
+        alert.setCron(cron);
+        alert.setTimeZone(timeZone);
+        alert.setScalingPolicy(policy);
+        return alert;
+    }
+}
@@ -0,0 +1,185 @@
+package com.sequenceiq.periscope.monitor.evaluator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.periscope.api.model.AlertState;
+import com.sequenceiq.periscope.api.model.HostAggregation;
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.domain.MetricAlert;
+import com.sequenceiq.periscope.domain.PeriscopeUser;
+import com.sequenceiq.periscope.domain.ScalingPolicy;
+import com.sequenceiq.periscope.monitor.event.ScalingEvent;
+import com.sequenceiq.periscope.repository.MetricAlertRepository;
+import com.sequenceiq.periscope.service.ClusterConnectionRegistry;
+import com.sequenceiq.periscope.service.ClusterService;
+import com.sequenceiq.periscope.utils.TimeUtil;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MetricEvaluatorTest {
+
+    private static final long CLUSTER_ID = 1L;
+
+    private static final String DEFINITION = "yarn_nodemanager_health";
+
+    @InjectMocks
+    private MetricEvaluator underTest;
+
+    @Mock
+    private ClusterService clusterService;
+
+    @Mock
+    private MetricAlertRepository alertRepository;
+
+    @Mock
+    private ClusterConnectionRegistry clusterConnectionRegistry;
+
+    @Mock
+    private AmbariClient ambariClient;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final long now = System.currentTimeMillis();
+
+    @Before
+    public void setUp() {
+        underTest.setApplicationEventPublisher(eventPublisher);
+        underTest.setContext(Collections.singletonMap(EvaluatorContext.CLUSTER_ID.name(), CLUSTER_ID));
+    }
+
+    @Test
+    public void testSnapshotQueriesEachDefinitionOnce() {
+        ReflectionTestUtils.setField(underTest, "snapshotEnabled", true);
+        MetricAlert first = alert("first", HostAggregation.ALL, null);
+        MetricAlert second = alert("second", HostAggregation.ANY, null);
+        mockCluster(first, second);
+        when(ambariClient.getAlert(DEFINITION)).thenReturn(Arrays.asList(hostAlert("host1", "CRITICAL", 20), hostAlert("host2", "OK", 20)));
+
+        underTest.run();
+
+        verify(ambariClient, times(1)).getAlert(DEFINITION);
+        verify(ambariClient, never()).getAlertHistory(anyString(), anyInt());
+        ArgumentCaptor<ApplicationEvent> event = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(second, ((ScalingEvent) event.getValue()).getAlert());
+    }
+
+    @Test
+    public void testHistoryIsQueriedWithoutSnapshot() {
+        MetricAlert alert = alert("alert", HostAggregation.ALL, null);
+        mockCluster(alert);
+        when(ambariClient.getAlertHistory(DEFINITION, 1)).thenReturn(Collections.singletonList(hostAlert("host1", "CRITICAL", 20)));
+
+        underTest.run();
+
+        verify(ambariClient, never()).getAlert(anyString());
+        verify(eventPublisher).publishEvent(any(ApplicationEvent.class));
+    }
+
+    @Test
+    public void testAnyHostUsesTheLongestLastingOne() {
+        List<Map<String, Object>> hostAlerts = Arrays.asList(hostAlert("host1", "CRITICAL", 3), hostAlert("host2", "CRITICAL", 8),
+                hostAlert("host3", "OK", 30));
+
+        Long elapsed = underTest.getElapsedTimeInState(alert("alert", HostAggregation.ANY, null), hostAlerts);
+
+        assertEquals(8 * TimeUtil.MIN_IN_MS, elapsed, 1000.0);
+    }
+
+    @Test
+    public void testAllHostsUseTheShortestLastingOne() {
+        List<Map<String, Object>> hostAlerts = Arrays.asList(hostAlert("host1", "CRITICAL", 3), hostAlert("host2", "CRITICAL", 8));
+
+        Long elapsed = underTest.getElapsedTimeInState(alert("alert", HostAggregation.ALL, null), hostAlerts);
+
+        assertEquals(3 * TimeUtil.MIN_IN_MS, elapsed, 1000.0);
+        assertNull(underTest.getElapsedTimeInState(alert("alert", HostAggregation.ALL, null),
+                Arrays.asList(hostAlert("host1", "CRITICAL", 3), hostAlert("host2", "OK", 8))));
+    }
+
+    @Test
+    public void testPercentageOfHosts() {
+        List<Map<String, Object>> hostAlerts = Arrays.asList(hostAlert("host1", "CRITICAL", 3), hostAlert("host2", "CRITICAL", 8),
+                hostAlert("host3", "CRITICAL", 5), hostAlert("host4", "OK", 30));
+
+        Long half = underTest.getElapsedTimeInState(alert("alert", HostAggregation.PERCENTAGE, 50), hostAlerts);
+        Long most = underTest.getElapsedTimeInState(alert("alert", HostAggregation.PERCENTAGE, 80), hostAlerts);
+
+        assertEquals(5 * TimeUtil.MIN_IN_MS, half, 1000.0);
+        assertNull(most);
+    }
+
+    @Test
+    public void testSingleHostAlertsAreIgnoredIfSeveralHostsReportThem() {
+        MetricAlert alert = alert("alert", HostAggregation.SINGLE_HOST, null);
+
+        assertNull(underTest.getElapsedTimeInState(alert, Arrays.asList(hostAlert("host1", "CRITICAL", 3), hostAlert("host2", "CRITICAL", 8))));
+        assertEquals(3 * TimeUtil.MIN_IN_MS, underTest.getElapsedTimeInState(alert, Collections.singletonList(hostAlert("host1", "CRITICAL", 3))),
+                1000.0);
+    }
+
+    @Test
+    public void testOnlyTheLatestRecordOfAHostCounts() {
+        List<Map<String, Object>> hostAlerts = Arrays.asList(hostAlert("host1", "CRITICAL", 10), hostAlert("host1", "OK", 2));
+
+        assertNull(underTest.getElapsedTimeInState(alert("alert", HostAggregation.ANY, null), hostAlerts));
+    }
+
+    private void mockCluster(MetricAlert... alerts) {
+        Cluster cluster = new Cluster();
+        cluster.setId(CLUSTER_ID);
+        cluster.setUser(new PeriscopeUser("user", "user@example.com", "account"));
+        when(clusterService.find(CLUSTER_ID)).thenReturn(cluster);
+        when(clusterConnectionRegistry.withAmbariClient(eq(cluster), any())).thenAnswer(invocation ->
+                invocation.<Function<AmbariClient, ?>>getArgument(1).apply(ambariClient));
+        when(alertRepository.findAllByCluster(CLUSTER_ID)).thenReturn(Arrays.asList(alerts));
+    }
+
+    private MetricAlert alert(String name, HostAggregation aggregation, Integer percentage) {
+        MetricAlert alert = new MetricAlert();
+        alert.setName(name);
+        alert.setDefinitionName(DEFINITION);
+        alert.setAlertState(AlertState.CRITICAL);
+        alert.setPeriod(1);
+        alert.setHostAggregation(aggregation);
+        alert.setHostPercentage(percentage);
+        alert.setScalingPolicy(new ScalingPolicy());
+        return alert;
+    }
+
+    private Map<String, Object> hostAlert(String host, String state, int minutesAgo) {
+        Map<String, Object> hostAlert = new HashMap<>();
+        hostAlert.put("host_name", host);
+        hostAlert.put("state", state);
+        hostAlert.put("timestamp", now - minutesAgo * TimeUtil.MIN_IN_MS);
+        return hostAlert;
+    }
+}
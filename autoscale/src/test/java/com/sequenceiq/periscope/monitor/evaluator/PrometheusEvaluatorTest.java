@@ -0,0 +1,144 @@
+package com.sequenceiq.periscope.monitor.evaluator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Invocation.Builder;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.sequenceiq.periscope.api.model.AlertState;
+import com.sequenceiq.periscope.domain.Ambari;
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.domain.PeriscopeUser;
+import com.sequenceiq.periscope.domain.PrometheusAlert;
+import com.sequenceiq.periscope.domain.ScalingPolicy;
+import com.sequenceiq.periscope.monitor.event.ScalingEvent;
+import com.sequenceiq.periscope.monitor.event.UpdateFailedEvent;
+import com.sequenceiq.periscope.repository.PrometheusAlertRepository;
+import com.sequenceiq.periscope.service.ClusterConnectionRegistry;
+import com.sequenceiq.periscope.service.ClusterService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PrometheusEvaluatorTest {
+
+    private static final long CLUSTER_ID = 1L;
+
+    @InjectMocks
+    private PrometheusEvaluator underTest;
+
+    @Mock
+    private ClusterService clusterService;
+
+    @Mock
+    private PrometheusAlertRepository alertRepository;
+
+    @Mock
+    private ClusterConnectionRegistry clusterConnectionRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private Client client;
+
+    @Mock
+    private Response response;
+
+    private final WebTarget target = mock(WebTarget.class, RETURNS_SELF);
+
+    private final Builder request = mock(Builder.class, RETURNS_SELF);
+
+    private final double now = System.currentTimeMillis() / (double) TimeUnit.SECONDS.toMillis(1);
+
+    @Before
+    public void setUp() throws Exception {
+        underTest.setApplicationEventPublisher(eventPublisher);
+        underTest.setContext(Collections.singletonMap(EvaluatorContext.CLUSTER_ID.name(), CLUSTER_ID));
+        Cluster cluster = new Cluster();
+        cluster.setId(CLUSTER_ID);
+        cluster.setUser(new PeriscopeUser("user", "user@example.com", "account"));
+        cluster.setAmbari(new Ambari("ambari", "9443", "admin", "admin"));
+        when(clusterService.find(CLUSTER_ID)).thenReturn(cluster);
+        when(clusterConnectionRegistry.getPrometheusClient(cluster)).thenReturn(client);
+        when(client.target(anyString())).thenReturn(target);
+        when(target.request()).thenReturn(request);
+        when(request.get()).thenReturn(response);
+    }
+
+    @Test
+    public void testAlertsOfTheClusterAreEvaluatedWithASingleQuery() throws Exception {
+        PrometheusAlert cpu = alert("cpu.high", 5);
+        PrometheusAlert disk = alert("disk", 1);
+        when(alertRepository.findAllByCluster(CLUSTER_ID)).thenReturn(Arrays.asList(cpu, disk));
+        mockResponse("{\"status\":\"success\",\"data\":{\"resultType\":\"matrix\",\"result\":["
+                + "{\"metric\":{\"__name__\":\"ALERTS\",\"alertname\":\"cpu.high\",\"alertstate\":\"firing\"},"
+                + "\"values\":[[" + secondsAgo(120) + ",\"1\"],[" + secondsAgo(60) + ",\"1\"]]},"
+                + "{\"metric\":{\"__name__\":\"ALERTS\",\"alertname\":\"disk\",\"alertstate\":\"firing\"},"
+                + "\"values\":[[" + secondsAgo(180) + ",\"1\"]]}]}}");
+
+        underTest.run();
+
+        verify(request, times(1)).get();
+        verify(target).queryParam("query", URLEncoder.encode("ALERTS{alertname=~\"cpu\\\\.high|disk\"}[5m]", "UTF-8"));
+        ArgumentCaptor<ApplicationEvent> event = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(cpu, ((ScalingEvent) event.getValue()).getAlert());
+        verify(response).close();
+    }
+
+    @Test
+    public void testFailedQueryIsReported() throws Exception {
+        when(alertRepository.findAllByCluster(CLUSTER_ID)).thenReturn(Collections.singletonList(alert("cpu", 5)));
+        mockResponse("{\"status\":\"error\",\"errorType\":\"bad_data\",\"error\":\"parse error\"}");
+
+        underTest.run();
+
+        verify(eventPublisher).publishEvent(any(UpdateFailedEvent.class));
+        verify(eventPublisher, times(0)).publishEvent(any(ScalingEvent.class));
+    }
+
+    private void mockResponse(String json) {
+        when(response.getStatusInfo()).thenReturn(Response.Status.OK);
+        when(response.readEntity(InputStream.class)).thenReturn(new ByteArrayInputStream(json.getBytes(UTF_8)));
+    }
+
+    private PrometheusAlert alert(String name, int period) {
+        PrometheusAlert alert = new PrometheusAlert();
+        alert.setName(name);
+        alert.setPeriod(period);
+        alert.setAlertState(AlertState.CRITICAL);
+        alert.setScalingPolicy(new ScalingPolicy());
+        return alert;
+    }
+
+    private String secondsAgo(int seconds) {
+        return String.format(Locale.ROOT, "%.3f", now - seconds);
+    }
+}
@@ -0,0 +1,102 @@
+package com.sequenceiq.periscope.monitor.evaluator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sequenceiq.periscope.api.model.TrendMetric;
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.domain.TrendAlert;
+import com.sequenceiq.periscope.model.MetricRingBuffer;
+
+public class TrendEvaluatorTest {
+
+    private static final int SAMPLES = 40;
+
+    private static final int MAX_SIZE = 30;
+
+    private static final double CONTAINERS_PER_NODE = 10.0;
+
+    private TrendAlert alert;
+
+    @Before
+    public void setUp() {
+        Cluster cluster = new Cluster();
+        cluster.setMaxSize(MAX_SIZE);
+        alert = new TrendAlert();
+        alert.setCluster(cluster);
+        alert.setMetric(TrendMetric.PENDING_CONTAINERS);
+        alert.setHorizon(10);
+        alert.setCapacityPerNode(CONTAINERS_PER_NODE);
+    }
+
+    @Test
+    public void testRampIsScaledAheadOfTheObservedNeed() throws IOException {
+        List<double[]> trace = readTrace("pending-containers-ramp.csv");
+        MetricRingBuffer series = new MetricRingBuffer(SAMPLES);
+
+        List<Integer> nodeCounts = new ArrayList<>();
+        for (double[] sample : trace) {
+            series.add(sample[0], sample[1]);
+            int nodeCount = TrendEvaluator.getForecastedNodeCount(series, alert, sample[0]);
+            nodeCounts.add(nodeCount);
+            if (series.size() >= TrendEvaluator.MIN_SAMPLES) {
+                int observedNeed = (int) Math.ceil(sample[1] / CONTAINERS_PER_NODE);
+                assertTrue("forecast " + nodeCount + " is behind the observed need " + observedNeed + " at " + (long) sample[0],
+                        nodeCount >= Math.min(observedNeed, MAX_SIZE));
+            }
+        }
+
+        int firstScaling = 0;
+        while (firstScaling < nodeCounts.size() && nodeCounts.get(firstScaling) == 0) {
+            firstScaling++;
+        }
+        assertEquals(TrendEvaluator.MIN_SAMPLES - 1, firstScaling);
+        assertTrue("the cluster would have to double to serve the pending containers observed at the first scaling",
+                nodeCounts.get(firstScaling) > 2 * Math.ceil(trace.get(firstScaling)[1] / CONTAINERS_PER_NODE));
+        assertEquals(MAX_SIZE, (int) nodeCounts.get(nodeCounts.size() - 1));
+    }
+
+    @Test
+    public void testNoisyFlatTraceDoesNotScale() throws IOException {
+        MetricRingBuffer series = new MetricRingBuffer(SAMPLES);
+
+        for (double[] sample : readTrace("pending-containers-flat.csv")) {
+            series.add(sample[0], sample[1]);
+            assertEquals("scaled at " + (long) sample[0], 0, TrendEvaluator.getForecastedNodeCount(series, alert, sample[0]));
+        }
+    }
+
+    @Test
+    public void testNothingIsForecastedWithTooFewSamples() {
+        MetricRingBuffer series = new MetricRingBuffer(SAMPLES);
+        for (int i = 0; i < TrendEvaluator.MIN_SAMPLES - 1; i++) {
+            series.add(1528280000.0 + 30 * i, 100.0 * i);
+        }
+
+        assertEquals(0, TrendEvaluator.getForecastedNodeCount(series, alert, 1528280090.0));
+    }
+
+    private List<double[]> readTrace(String name) throws IOException {
+        List<double[]> trace = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream("/trend/" + name), UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    String[] columns = line.split(",");
+                    trace.add(new double[]{Double.parseDouble(columns[0]), Double.parseDouble(columns[1])});
+                }
+            }
+        }
+        return trace;
+    }
+}
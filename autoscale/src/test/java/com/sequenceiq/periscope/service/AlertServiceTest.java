@@ -0,0 +1,190 @@
+package com.sequenceiq.periscope.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import javax.ws.rs.BadRequestException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.sequenceiq.periscope.api.model.AdjustmentType;
+import com.sequenceiq.periscope.api.model.HostAggregation;
+import com.sequenceiq.periscope.api.model.TrendMetric;
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.domain.MetricAlert;
+import com.sequenceiq.periscope.domain.ScalingPolicy;
+import com.sequenceiq.periscope.domain.TrendAlert;
+import com.sequenceiq.periscope.repository.ClusterRepository;
+import com.sequenceiq.periscope.repository.MetricAlertRepository;
+import com.sequenceiq.periscope.repository.TrendAlertRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AlertServiceTest {
+
+    private static final Long CLUSTER_ID = 1L;
+
+    private static final Long ALERT_ID = 2L;
+
+    @InjectMocks
+    private AlertService underTest;
+
+    @Mock
+    private ClusterService clusterService;
+
+    @Mock
+    private ClusterRepository clusterRepository;
+
+    @Mock
+    private MetricAlertRepository metricAlertRepository;
+
+    @Mock
+    private TrendAlertRepository trendAlertRepository;
+
+    @Mock
+    private TrendSeriesRegistry trendSeriesRegistry;
+
+    @Test
+    public void testMetricAlertUpdateKeepsTheHostAggregationIfTheRequestHasNone() {
+        MetricAlert stored = metricAlert(HostAggregation.PERCENTAGE, 50);
+        when(metricAlertRepository.findByCluster(ALERT_ID, CLUSTER_ID)).thenReturn(stored);
+        when(metricAlertRepository.save(stored)).thenReturn(stored);
+
+        MetricAlert updated = underTest.updateMetricAlert(CLUSTER_ID, ALERT_ID, metricAlert(null, null));
+
+        assertEquals(HostAggregation.PERCENTAGE, updated.getHostAggregation());
+        assertEquals(Integer.valueOf(50), updated.getHostPercentage());
+    }
+
+    @Test
+    public void testMetricAlertUpdateReplacesTheHostAggregation() {
+        MetricAlert stored = metricAlert(HostAggregation.PERCENTAGE, 50);
+        when(metricAlertRepository.findByCluster(ALERT_ID, CLUSTER_ID)).thenReturn(stored);
+        when(metricAlertRepository.save(stored)).thenReturn(stored);
+
+        MetricAlert updated = underTest.updateMetricAlert(CLUSTER_ID, ALERT_ID, metricAlert(HostAggregation.ANY, null));
+
+        assertEquals(HostAggregation.ANY, updated.getHostAggregation());
+        assertNull(updated.getHostPercentage());
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testMetricAlertUpdateToPercentageNeedsTheHostPercentage() {
+        when(metricAlertRepository.findByCluster(ALERT_ID, CLUSTER_ID)).thenReturn(metricAlert(HostAggregation.ALL, null));
+
+        underTest.updateMetricAlert(CLUSTER_ID, ALERT_ID, metricAlert(HostAggregation.PERCENTAGE, null));
+    }
+
+    @Test
+    public void testTrendAlertIsCreatedWithoutTouchingTheAlertsOfTheCluster() {
+        Cluster cluster = new Cluster();
+        cluster.setId(CLUSTER_ID);
+        TrendAlert alert = trendAlert(TrendMetric.PENDING_MEMORY, policy("up", 1));
+        when(clusterService.findOneById(CLUSTER_ID)).thenReturn(cluster);
+        when(trendAlertRepository.save(alert)).thenReturn(alert);
+
+        TrendAlert created = underTest.createTrendAlert(CLUSTER_ID, alert);
+
+        assertSame(alert, created);
+        assertSame(cluster, created.getCluster());
+        verify(clusterRepository, never()).save(any(Cluster.class));
+    }
+
+    @Test
+    public void testTrendAlertUpdateReplacesThePolicyAndEvictsTheUnusedSeries() {
+        ScalingPolicy storedPolicy = policy("up", 1);
+        TrendAlert stored = trendAlert(TrendMetric.PENDING_MEMORY, storedPolicy);
+        when(trendAlertRepository.findByCluster(ALERT_ID, CLUSTER_ID)).thenReturn(stored);
+        when(trendAlertRepository.save(stored)).thenReturn(stored);
+        when(trendAlertRepository.findAllByCluster(CLUSTER_ID)).thenReturn(Collections.singletonList(stored));
+
+        TrendAlert updated = underTest.updateTrendAlert(CLUSTER_ID, ALERT_ID, trendAlert(TrendMetric.PENDING_CONTAINERS, policy("more", 3)));
+
+        assertEquals(TrendMetric.PENDING_CONTAINERS, updated.getMetric());
+        assertSame(storedPolicy, updated.getScalingPolicy());
+        assertEquals("more", storedPolicy.getName());
+        assertEquals(3, storedPolicy.getScalingAdjustment());
+        verify(trendSeriesRegistry).evict(CLUSTER_ID, TrendMetric.PENDING_MEMORY);
+    }
+
+    @Test
+    public void testTrendAlertUpdateKeepsThePolicyIfTheRequestHasNone() {
+        ScalingPolicy storedPolicy = policy("up", 1);
+        TrendAlert stored = trendAlert(TrendMetric.PENDING_MEMORY, storedPolicy);
+        when(trendAlertRepository.findByCluster(ALERT_ID, CLUSTER_ID)).thenReturn(stored);
+        when(trendAlertRepository.save(stored)).thenReturn(stored);
+
+        TrendAlert updated = underTest.updateTrendAlert(CLUSTER_ID, ALERT_ID, trendAlert(TrendMetric.PENDING_MEMORY, null));
+
+        assertSame(storedPolicy, updated.getScalingPolicy());
+        verify(trendSeriesRegistry, never()).evict(CLUSTER_ID, TrendMetric.PENDING_MEMORY);
+    }
+
+    @Test
+    public void testTrendAlertIsDeletedAndTheSeriesIsKeptWhileAnotherAlertUsesIt() {
+        TrendAlert stored = trendAlert(TrendMetric.PENDING_MEMORY, null);
+        when(trendAlertRepository.findByCluster(ALERT_ID, CLUSTER_ID)).thenReturn(stored);
+        when(trendAlertRepository.findAllByCluster(CLUSTER_ID)).thenReturn(Collections.singletonList(trendAlert(TrendMetric.PENDING_MEMORY, null)));
+
+        underTest.deleteTrendAlert(CLUSTER_ID, ALERT_ID);
+
+        verify(trendAlertRepository).delete(stored);
+        verify(clusterRepository, never()).save(any(Cluster.class));
+        verify(trendSeriesRegistry, never()).evict(CLUSTER_ID, TrendMetric.PENDING_MEMORY);
+    }
+
+    @Test
+    public void testSeriesIsEvictedWhenTheLastAlertOfTheMetricIsDeleted() {
+        TrendAlert stored = trendAlert(TrendMetric.PENDING_MEMORY, null);
+        when(trendAlertRepository.findByCluster(ALERT_ID, CLUSTER_ID)).thenReturn(stored);
+        when(trendAlertRepository.findAllByCluster(CLUSTER_ID)).thenReturn(Collections.emptyList());
+
+        underTest.deleteTrendAlert(CLUSTER_ID, ALERT_ID);
+
+        verify(trendSeriesRegistry).evict(CLUSTER_ID, TrendMetric.PENDING_MEMORY);
+    }
+
+    @Test(expected = NotFoundException.class)
+    public void testMissingTrendAlertIsNotDeleted() {
+        underTest.deleteTrendAlert(CLUSTER_ID, ALERT_ID);
+    }
+
+    private MetricAlert metricAlert(HostAggregation hostAggregation, Integer hostPercentage) {
+        MetricAlert alert = new MetricAlert();
+        alert.setName("metric");
+        alert.setDefinitionName("datanode_process");
+        alert.setPeriod(1);
+        alert.setHostAggregation(hostAggregation);
+        alert.setHostPercentage(hostPercentage);
+        return alert;
+    }
+
+    private TrendAlert trendAlert(TrendMetric metric, ScalingPolicy scalingPolicy) {
+        TrendAlert alert = new TrendAlert();
+        alert.setName("trend");
+        alert.setMetric(metric);
+        alert.setHorizon(30);
+        alert.setCapacityPerNode(8.0);
+        alert.setScalingPolicy(scalingPolicy);
+        return alert;
+    }
+
+    private ScalingPolicy policy(String name, int adjustment) {
+        ScalingPolicy policy = new ScalingPolicy();
+        policy.setName(name);
+        policy.setHostGroup("compute");
+        policy.setAdjustmentType(AdjustmentType.NODE_COUNT);
+        policy.setScalingAdjustment(adjustment);
+        return policy;
+    }
+}
@@ -0,0 +1,182 @@
+package com.sequenceiq.periscope.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.net.ssl.SSLHandshakeException;
+import javax.ws.rs.client.Client;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.ambari.client.AmbariClient;
+import com.sequenceiq.periscope.domain.Ambari;
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.model.TlsConfiguration;
+import com.sequenceiq.periscope.service.security.TlsSecurityService;
+
+public class ClusterConnectionRegistryTest {
+
+    private static final int CLUSTERS = 200;
+
+    private static final int TICKS = 10;
+
+    private final ClusterConnectionRegistry underTest = spy(new ClusterConnectionRegistry());
+
+    private final AmbariClientProvider ambariClientProvider = mock(AmbariClientProvider.class);
+
+    private final TlsSecurityService tlsSecurityService = mock(TlsSecurityService.class);
+
+    private final AtomicInteger createdAmbariClients = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        ReflectionTestUtils.setField(underTest, "ambariClientProvider", ambariClientProvider);
+        ReflectionTestUtils.setField(underTest, "tlsSecurityService", tlsSecurityService);
+        ReflectionTestUtils.setField(underTest, "maxIdleAmbariClients", 2);
+        ReflectionTestUtils.setField(underTest, "tlsRecheckInterval", 600000L);
+        ReflectionTestUtils.setField(underTest, "maxIdleTime", 900000L);
+        when(tlsSecurityService.getConfiguration(any(Cluster.class))).thenReturn(new TlsConfiguration("key", "cert", "server"));
+        when(ambariClientProvider.createAmbariClient(any(Cluster.class))).thenAnswer(invocation -> {
+            createdAmbariClients.incrementAndGet();
+            return mock(AmbariClient.class);
+        });
+        doReturn(mock(Client.class)).when(underTest).createPrometheusClient(any(TlsConfiguration.class));
+    }
+
+    @Test
+    public void testClientsAndCertificatesAreLoadedOnlyOnTheFirstTick() {
+        List<Cluster> clusters = new ArrayList<>();
+        for (long id = 1; id <= CLUSTERS; id++) {
+            clusters.add(cluster(id));
+        }
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (Cluster cluster : clusters) {
+                underTest.withAmbariClient(cluster, Function.identity());
+            }
+        }
+
+        assertEquals(CLUSTERS, createdAmbariClients.get());
+        verify(tlsSecurityService, times(CLUSTERS)).getConfiguration(any(Cluster.class));
+    }
+
+    @Test
+    public void testClientIsReplacedWhenTheRotatedCertificateIsRechecked() throws Exception {
+        ReflectionTestUtils.setField(underTest, "tlsRecheckInterval", 0L);
+        Cluster cluster = cluster(1L);
+        AmbariClient first = underTest.withAmbariClient(cluster, Function.identity());
+        Client prometheusClient = underTest.getPrometheusClient(cluster);
+
+        when(tlsSecurityService.getConfiguration(cluster)).thenReturn(new TlsConfiguration("key", "cert", "rotated"));
+        AmbariClient second = underTest.withAmbariClient(cluster, Function.identity());
+
+        assertNotSame(first, second);
+        verify(prometheusClient).close();
+        assertSame(second, underTest.withAmbariClient(cluster, Function.identity()));
+    }
+
+    @Test
+    public void testCertificateIsRecheckedAfterATlsFailure() {
+        Cluster cluster = cluster(1L);
+        AmbariClient first = underTest.withAmbariClient(cluster, Function.identity());
+        when(tlsSecurityService.getConfiguration(cluster)).thenReturn(new TlsConfiguration("key", "cert", "rotated"));
+        assertSame(first, underTest.withAmbariClient(cluster, Function.identity()));
+
+        try {
+            underTest.withAmbariClient(cluster, client -> {
+                throw new IllegalStateException(new SSLHandshakeException("certificate_unknown"));
+            });
+            fail("Exception of the call is not propagated");
+        } catch (IllegalStateException ignored) {
+            // expected
+        }
+
+        assertNotSame(first, underTest.withAmbariClient(cluster, Function.identity()));
+        verify(tlsSecurityService, times(2)).getConfiguration(cluster);
+    }
+
+    @Test
+    public void testIdleClientsAreEvicted() throws Exception {
+        Cluster cluster = cluster(1L);
+        AmbariClient first = underTest.withAmbariClient(cluster, Function.identity());
+        Client prometheusClient = underTest.getPrometheusClient(cluster);
+
+        underTest.evictIdleConnections();
+        verify(prometheusClient, times(0)).close();
+
+        ReflectionTestUtils.setField(underTest, "maxIdleTime", -1L);
+        underTest.evictIdleConnections();
+
+        verify(prometheusClient).close();
+        assertNotSame(first, underTest.withAmbariClient(cluster, Function.identity()));
+    }
+
+    @Test
+    public void testEvictedClientsAreNotReused() throws Exception {
+        Cluster cluster = cluster(1L);
+        AmbariClient first = underTest.withAmbariClient(cluster, Function.identity());
+        Client prometheusClient = underTest.getPrometheusClient(cluster);
+
+        underTest.evict(1L);
+
+        assertNotSame(first, underTest.withAmbariClient(cluster, Function.identity()));
+        underTest.getPrometheusClient(cluster);
+        verify(prometheusClient).close();
+        verify(underTest, times(2)).createPrometheusClient(any(TlsConfiguration.class));
+    }
+
+    @Test
+    public void testClientIsDroppedIfTheCallFails() {
+        Cluster cluster = cluster(1L);
+        AmbariClient[] failed = new AmbariClient[1];
+        try {
+            underTest.withAmbariClient(cluster, client -> {
+                failed[0] = client;
+                throw new IllegalStateException("connection reset");
+            });
+            fail("Exception of the call is not propagated");
+        } catch (IllegalStateException e) {
+            assertEquals("connection reset", e.getMessage());
+        }
+
+        assertNotSame(failed[0], underTest.withAmbariClient(cluster, Function.identity()));
+    }
+
+    @Test
+    public void testClientIsHandedOutToOneCallerAtATime() {
+        Cluster cluster = cluster(1L);
+
+        AmbariClient inner = underTest.withAmbariClient(cluster, outer -> {
+            AmbariClient client = underTest.withAmbariClient(cluster, Function.identity());
+            assertNotSame(outer, client);
+            return client;
+        });
+
+        assertEquals(2, createdAmbariClients.get());
+        assertSame(inner, underTest.withAmbariClient(cluster, Function.identity()));
+    }
+
+    private Cluster cluster(long id) {
+        Cluster cluster = new Cluster();
+        cluster.setId(id);
+        cluster.setStackId(id);
+        cluster.setAmbari(new Ambari("ambari" + id, "9443", "admin", "admin"));
+        return cluster;
+    }
+}
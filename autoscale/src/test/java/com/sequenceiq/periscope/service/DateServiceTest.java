@@ -1,11 +1,15 @@
 package com.sequenceiq.periscope.service;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.text.ParseException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Date;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -13,6 +17,7 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.scheduling.support.CronSequenceGenerator;
 
 import com.sequenceiq.periscope.domain.TimeAlert;
 
@@ -123,6 +128,33 @@ public class DateServiceTest {
         assertTrue(underTest.isTrigger(timeAlert, monitorUpdateRate));
     }
 
+    @Test
+    public void testLastFiringIsTheLatestOneInTheInterval() throws ParseException {
+        CronSequenceGenerator cronExpression = underTest.getCronExpression("0 0/15 * * * ?", "Europe/Budapest");
+        Date from = Date.from(ZonedDateTime.parse("2017-12-20T10:00:00Z").toInstant());
+        Date to = Date.from(ZonedDateTime.parse("2017-12-20T12:44:59Z").toInstant());
+
+        assertEquals(Date.from(ZonedDateTime.parse("2017-12-20T12:30:00Z").toInstant()), underTest.getLastFiring(cronExpression, from, to));
+    }
+
+    @Test
+    public void testLastFiringOfAnEverySecondCronOverADay() throws ParseException {
+        CronSequenceGenerator cronExpression = underTest.getCronExpression("* * * * * ?", "UTC");
+        Date from = Date.from(ZonedDateTime.parse("2017-12-19T12:00:00Z").toInstant());
+        Date to = Date.from(ZonedDateTime.parse("2017-12-20T12:00:00.500Z").toInstant());
+
+        assertEquals(Date.from(ZonedDateTime.parse("2017-12-20T12:00:00Z").toInstant()), underTest.getLastFiring(cronExpression, from, to));
+    }
+
+    @Test
+    public void testNoLastFiringInTheInterval() throws ParseException {
+        CronSequenceGenerator cronExpression = underTest.getCronExpression("0 0 12 * * ?", "UTC");
+        Date from = Date.from(ZonedDateTime.parse("2017-12-20T12:00:00Z").toInstant());
+        Date to = Date.from(ZonedDateTime.parse("2017-12-21T11:59:59Z").toInstant());
+
+        assertNull(underTest.getLastFiring(cronExpression, from, to));
+    }
+
     private TimeAlert createTimeAlert(String cron, String timeZone) {
         TimeAlert testTime = new TimeAlert();
         testTime.setName("testAlert");
@@ -0,0 +1,128 @@
+package com.sequenceiq.periscope.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.api.endpoint.v1.StackV1Endpoint;
+import com.sequenceiq.cloudbreak.api.model.AutoscaleStackChangesResponse;
+import com.sequenceiq.cloudbreak.api.model.AutoscaleStackResponse;
+import com.sequenceiq.cloudbreak.api.model.Status;
+import com.sequenceiq.cloudbreak.client.CloudbreakClient;
+import com.sequenceiq.periscope.api.model.ClusterState;
+import com.sequenceiq.periscope.monitor.evaluator.ClusterCreationEvaluator;
+import com.sequenceiq.periscope.service.configuration.CloudbreakClientConfiguration;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StackCollectorServiceTest {
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private ExecutorService executorService;
+
+    @Mock
+    private CloudbreakClientConfiguration cloudbreakClientConfiguration;
+
+    @Mock
+    private ClusterService clusterService;
+
+    @Mock
+    private CloudbreakClient cloudbreakClient;
+
+    @Mock
+    private StackV1Endpoint stackV1Endpoint;
+
+    @Mock
+    private ClusterCreationEvaluator clusterCreationEvaluator;
+
+    @InjectMocks
+    private StackCollectorService underTest;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(underTest, "fullSyncPeriod", 600000L);
+        when(cloudbreakClientConfiguration.cloudbreakClient()).thenReturn(cloudbreakClient);
+        when(cloudbreakClient.stackV1Endpoint()).thenReturn(stackV1Endpoint);
+    }
+
+    @Test
+    public void testOnlyChangedStacksAndStacksWithoutRunningClusterAreEvaluated() {
+        when(applicationContext.getBean(ClusterCreationEvaluator.class)).thenReturn(clusterCreationEvaluator);
+        AutoscaleStackResponse running = stack(1L, Status.AVAILABLE, "10.0.0.1");
+        AutoscaleStackResponse pending = stack(2L, Status.AVAILABLE, "10.0.0.2");
+        when(stackV1Endpoint.getChangesForAutoscale(isNull())).thenReturn(changes(100L, running, pending));
+        when(stackV1Endpoint.getChangesForAutoscale(100L)).thenReturn(changes(200L, stack(1L, Status.AVAILABLE, "10.0.0.1")));
+        when(stackV1Endpoint.getChangesForAutoscale(200L)).thenReturn(changes(300L, stack(1L, Status.AVAILABLE, "10.0.0.3")));
+        when(clusterService.findStackIdsByState(ClusterState.RUNNING)).thenReturn(Collections.singleton(1L));
+
+        underTest.collectStackDetails();
+        verify(executorService, times(2)).submit(any(Runnable.class));
+
+        underTest.collectStackDetails();
+        verify(executorService, times(3)).submit(any(Runnable.class));
+
+        underTest.collectStackDetails();
+        verify(executorService, times(5)).submit(any(Runnable.class));
+    }
+
+    @Test
+    public void testDeletedStackIsForgotten() {
+        when(applicationContext.getBean(ClusterCreationEvaluator.class)).thenReturn(clusterCreationEvaluator);
+        when(stackV1Endpoint.getChangesForAutoscale(isNull())).thenReturn(changes(100L, stack(1L, Status.AVAILABLE, "10.0.0.1")));
+        AutoscaleStackResponse deleted = stack(1L, Status.AVAILABLE, "10.0.0.1");
+        deleted.setStatus(Status.DELETE_COMPLETED);
+        when(stackV1Endpoint.getChangesForAutoscale(100L)).thenReturn(changes(200L, deleted));
+        when(clusterService.findStackIdsByState(ClusterState.RUNNING)).thenReturn(Collections.emptySet());
+
+        underTest.collectStackDetails();
+        underTest.collectStackDetails();
+
+        verify(executorService, times(1)).submit(any(Runnable.class));
+    }
+
+    @Test
+    public void testStackOfNotAvailableClusterIsNotEvaluatedUntilItChanges() {
+        when(stackV1Endpoint.getChangesForAutoscale(isNull())).thenReturn(changes(100L, stack(1L, Status.UPDATE_IN_PROGRESS, "10.0.0.1")));
+        when(stackV1Endpoint.getChangesForAutoscale(100L)).thenReturn(changes(200L));
+        when(clusterService.findStackIdsByState(ClusterState.RUNNING)).thenReturn(Collections.emptySet());
+
+        underTest.collectStackDetails();
+        underTest.collectStackDetails();
+
+        verify(executorService, never()).submit(any(Runnable.class));
+    }
+
+    private AutoscaleStackChangesResponse changes(long version, AutoscaleStackResponse... stacks) {
+        return new AutoscaleStackChangesResponse(version, new HashSet<>(Arrays.asList(stacks)));
+    }
+
+    private AutoscaleStackResponse stack(long id, Status clusterStatus, String ambariServerIp) {
+        AutoscaleStackResponse stack = new AutoscaleStackResponse();
+        stack.setStackId(id);
+        stack.setName("stack" + id);
+        stack.setStatus(Status.AVAILABLE);
+        stack.setClusterStatus(clusterStatus);
+        stack.setAmbariServerIp(ambariServerIp);
+        stack.setGatewayPort(9443);
+        return stack;
+    }
+}
@@ -0,0 +1,80 @@
+package com.sequenceiq.periscope.service.ha;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.sequenceiq.periscope.domain.Cluster;
+import com.sequenceiq.periscope.repository.ClusterRepository;
+import com.sequenceiq.periscope.service.ClusterConnectionRegistry;
+import com.sequenceiq.periscope.service.TrendSeriesRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ClusterAssignmentServiceTest {
+
+    private static final String NODE_ID = "node1";
+
+    @InjectMocks
+    private ClusterAssignmentService underTest;
+
+    @Mock
+    private ClusterRepository clusterRepository;
+
+    @Mock
+    private PeriscopeNodeConfig periscopeNodeConfig;
+
+    @Mock
+    private ClusterConnectionRegistry clusterConnectionRegistry;
+
+    @Mock
+    private TrendSeriesRegistry trendSeriesRegistry;
+
+    @Before
+    public void setUp() {
+        when(periscopeNodeConfig.getId()).thenReturn(NODE_ID);
+    }
+
+    @Test
+    public void testStateOfTheClustersMovedToAnotherNodeIsEvicted() {
+        when(clusterRepository.findByPeriscopeNodeId(NODE_ID))
+                .thenReturn(Arrays.asList(cluster(1L), cluster(2L)))
+                .thenReturn(Arrays.asList(cluster(2L), cluster(3L)));
+
+        underTest.refresh();
+        verify(clusterConnectionRegistry, never()).evict(anyLong());
+
+        underTest.refresh();
+
+        assertEquals(2, underTest.getAssignedClusters().size());
+        verify(clusterConnectionRegistry).evict(1L);
+        verify(trendSeriesRegistry).evict(1L);
+        verify(clusterConnectionRegistry, never()).evict(2L);
+    }
+
+    @Test
+    public void testNothingIsEvictedOnTheFirstRefresh() {
+        when(clusterRepository.findByPeriscopeNodeId(NODE_ID)).thenReturn(Collections.singletonList(cluster(1L)));
+
+        underTest.getAssignedClusters();
+
+        verify(clusterConnectionRegistry, never()).evict(anyLong());
+    }
+
+    private Cluster cluster(long id) {
+        Cluster cluster = new Cluster();
+        cluster.setId(id);
+        return cluster;
+    }
+}
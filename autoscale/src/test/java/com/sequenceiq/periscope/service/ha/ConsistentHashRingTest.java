@@ -0,0 +1,92 @@
+package com.sequenceiq.periscope.service.ha;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ConsistentHashRingTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsistentHashRingTest.class);
+
+    private static final int CLUSTER_COUNT = 10000;
+
+    private static final int VIRTUAL_NODES = 200;
+
+    private static final double TOLERANCE = 1.3;
+
+    @Test
+    public void testScaleOutFromTwoToFiveNodesMovesOnlyTheShareOfTheNewNode() {
+        List<String> nodes = new ArrayList<>(Arrays.asList("node-1", "node-2"));
+        String[] assignment = assign(new ConsistentHashRing(nodes, VIRTUAL_NODES));
+        assertBalanced(assignment, nodes.size());
+        for (int nodeCount = 3; nodeCount <= 5; nodeCount++) {
+            String newNode = "node-" + nodeCount;
+            nodes.add(newNode);
+            String[] newAssignment = assign(new ConsistentHashRing(nodes, VIRTUAL_NODES));
+            int moved = 0;
+            for (int i = 0; i < CLUSTER_COUNT; i++) {
+                if (!assignment[i].equals(newAssignment[i])) {
+                    assertEquals("Clusters only move to the new node", newNode, newAssignment[i]);
+                    moved++;
+                }
+            }
+            LOGGER.info("{} nodes: {} of {} clusters moved", nodeCount, moved, CLUSTER_COUNT);
+            assertTrue("Too many clusters moved: " + moved, moved <= TOLERANCE * CLUSTER_COUNT / nodeCount);
+            assertBalanced(newAssignment, nodeCount);
+            assignment = newAssignment;
+        }
+    }
+
+    @Test
+    public void testLeavingNodeOnlyMovesItsOwnClusters() {
+        String[] assignment = assign(new ConsistentHashRing(Arrays.asList("node-1", "node-2", "node-3"), VIRTUAL_NODES));
+        String[] newAssignment = assign(new ConsistentHashRing(Arrays.asList("node-1", "node-3"), VIRTUAL_NODES));
+        for (int i = 0; i < CLUSTER_COUNT; i++) {
+            if (!"node-2".equals(assignment[i])) {
+                assertEquals(assignment[i], newAssignment[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testRingDoesNotDependOnTheOrderOfTheNodes() {
+        String[] assignment = assign(new ConsistentHashRing(Arrays.asList("node-1", "node-2", "node-3"), VIRTUAL_NODES));
+        String[] sameAssignment = assign(new ConsistentHashRing(Arrays.asList("node-3", "node-1", "node-2"), VIRTUAL_NODES));
+        assertTrue(Arrays.equals(assignment, sameAssignment));
+    }
+
+    @Test
+    public void testEmptyRingHasNoNode() {
+        assertNull(new ConsistentHashRing(Collections.emptyList(), VIRTUAL_NODES).getNode(1L));
+    }
+
+    private String[] assign(ConsistentHashRing ring) {
+        String[] assignment = new String[CLUSTER_COUNT];
+        for (int i = 0; i < CLUSTER_COUNT; i++) {
+            assignment[i] = ring.getNode(i + 1L);
+        }
+        return assignment;
+    }
+
+    private void assertBalanced(String[] assignment, int nodeCount) {
+        Map<String, Integer> load = new HashMap<>();
+        for (String node : assignment) {
+            load.merge(node, 1, Integer::sum);
+        }
+        int maxLoad = Collections.max(load.values());
+        LOGGER.info("{} nodes: load {}", nodeCount, load);
+        assertEquals(nodeCount, load.size());
+        assertTrue("Node overloaded with " + maxLoad + " clusters", maxLoad <= TOLERANCE * CLUSTER_COUNT / nodeCount);
+    }
+}
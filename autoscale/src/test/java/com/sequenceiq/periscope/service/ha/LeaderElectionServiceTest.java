@@ -4,23 +4,27 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -34,11 +38,12 @@ import com.sequenceiq.cloudbreak.service.TransactionService.TransactionCallback;
 import com.sequenceiq.cloudbreak.service.TransactionService.TransactionExecutionException;
 import com.sequenceiq.periscope.domain.Cluster;
 import com.sequenceiq.periscope.domain.PeriscopeNode;
+import com.sequenceiq.periscope.domain.ScalingPolicy;
 import com.sequenceiq.periscope.domain.TimeAlert;
 import com.sequenceiq.periscope.monitor.evaluator.CronTimeEvaluator;
 import com.sequenceiq.periscope.repository.ClusterRepository;
 import com.sequenceiq.periscope.repository.PeriscopeNodeRepository;
-import com.sequenceiq.periscope.service.DateTimeService;
+import com.sequenceiq.periscope.service.DateService;
 import com.sequenceiq.periscope.service.StackCollectorService;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -74,9 +79,6 @@ public class LeaderElectionServiceTest {
     @Mock
     private Supplier<Timer> timerFactory;
 
-    @Mock
-    private DateTimeService dateTimeService;
-
     @Mock
     private CronTimeEvaluator cronTimeEvaluator;
 
@@ -88,6 +90,8 @@ public class LeaderElectionServiceTest {
         when(clock.getCurrentTime()).thenReturn(5000L);
         when(applicationContext.getBean(eq("CronTimeEvaluator"), eq(CronTimeEvaluator.class))).thenReturn(cronTimeEvaluator);
         ReflectionTestUtils.setField(underTest, "heartbeatThresholdRate", 70000);
+        ReflectionTestUtils.setField(underTest, "virtualNodes", 200);
+        ReflectionTestUtils.setField(underTest, "dateService", new DateService());
     }
 
     @Test
@@ -139,26 +143,85 @@ public class LeaderElectionServiceTest {
         spyTimer.lastTask.run();
 
         verify(transactionService, times(2)).required(any(TransactionCallback.class));
-        verify(clusterRepository, times(0)).findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(any(List.class));
+        verify(clusterRepository, times(0)).findNodeAllocationsOfOtherNodes(any());
     }
 
     @Test
-    public void testReallocateOrphanClustersIsLeader() throws TransactionExecutionException {
+    public void testReallocateClustersIsLeader() throws TransactionExecutionException {
         when(periscopeNodeRepository.countByLeaderIsTrueAndLastUpdatedIsGreaterThan(anyLong())).thenReturn(0L);
+        doAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).get()).when(transactionService).required(any());
         SpyTimer spyTimer = new SpyTimer();
         when(timerFactory.get()).thenReturn(spyTimer);
         PeriscopeNode leader = new PeriscopeNode("nodeid");
         leader.setLeader(true);
         when(periscopeNodeRepository.findAllByLastUpdatedIsGreaterThan(anyLong())).thenReturn(Collections.singletonList(leader));
-        when(clusterRepository.findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(any())).thenReturn(Collections.singletonList(new Cluster()));
+        when(periscopeNodeRepository.findOne("nodeid")).thenReturn(leader);
+        when(clusterRepository.findAllNodeAllocations()).thenReturn(Collections.singletonList(allocation(1L, null)));
 
         underTest.leaderElection();
 
         spyTimer.lastTask.run();
 
-        verify(transactionService, times(2)).required(any(TransactionCallback.class));
-        verify(clusterRepository, times(1)).findAllByPeriscopeNodeIdNotInOrPeriscopeNodeIdIsNull(any(List.class));
-        verify(clusterRepository, times(1)).save(any(List.class));
+        verify(transactionService, times(3)).required(any(TransactionCallback.class));
+        verify(clusterRepository, times(1)).findAllNodeAllocations();
+        verify(clusterRepository, times(0)).findNodeAllocationsOfOtherNodes(any());
+        verify(clusterRepository, times(0)).findById(anyLong());
+        verify(clusterRepository, times(1)).allocateClustersForNode(Collections.singletonList(1L), "nodeid");
+        verify(clusterRepository, times(0)).save(any(Cluster.class));
+    }
+
+    @Test
+    public void testOnlyOrphanClustersAreQueriedWhileTheActiveNodesAreTheSame() throws TransactionExecutionException {
+        when(periscopeNodeRepository.countByLeaderIsTrueAndLastUpdatedIsGreaterThan(anyLong())).thenReturn(0L);
+        doAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).get()).when(transactionService).required(any());
+        SpyTimer spyTimer = new SpyTimer();
+        when(timerFactory.get()).thenReturn(spyTimer);
+        PeriscopeNode leader = new PeriscopeNode("nodeid");
+        leader.setLeader(true);
+        when(periscopeNodeRepository.findAllByLastUpdatedIsGreaterThan(anyLong())).thenReturn(Collections.singletonList(leader));
+        when(periscopeNodeRepository.findOne("nodeid")).thenReturn(leader);
+        when(clusterRepository.findAllNodeAllocations()).thenReturn(Collections.emptyList());
+        when(clusterRepository.findNodeAllocationsOfOtherNodes(any())).thenReturn(Collections.singletonList(allocation(1L, "deadnode")));
+
+        underTest.leaderElection();
+
+        spyTimer.lastTask.run();
+        spyTimer.lastTask.run();
+
+        verify(clusterRepository, times(1)).findAllNodeAllocations();
+        verify(clusterRepository, times(1)).findNodeAllocationsOfOtherNodes(Collections.singleton("nodeid"));
+        verify(clusterRepository, times(1)).findById(1L);
+        verify(clusterRepository, times(1)).allocateClustersForNode(Collections.singletonList(1L), "nodeid");
+    }
+
+    @Test
+    public void testJoiningNodeTakesOverOnlyPartOfTheClusters() throws TransactionExecutionException {
+        when(periscopeNodeRepository.countByLeaderIsTrueAndLastUpdatedIsGreaterThan(anyLong())).thenReturn(0L);
+        doAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).get()).when(transactionService).required(any());
+        SpyTimer spyTimer = new SpyTimer();
+        when(timerFactory.get()).thenReturn(spyTimer);
+        PeriscopeNode leader = new PeriscopeNode("nodeid");
+        leader.setLeader(true);
+        when(periscopeNodeRepository.findAllByLastUpdatedIsGreaterThan(anyLong()))
+                .thenReturn(Collections.singletonList(leader), Arrays.asList(leader, new PeriscopeNode("othernodeid")));
+        when(periscopeNodeRepository.findOne("nodeid")).thenReturn(leader);
+        List<Object[]> allocations = new ArrayList<>();
+        for (long id = 1L; id <= 100L; id++) {
+            allocations.add(allocation(id, "nodeid"));
+        }
+        when(clusterRepository.findAllNodeAllocations()).thenReturn(allocations);
+
+        underTest.leaderElection();
+
+        spyTimer.lastTask.run();
+        verify(clusterRepository, times(0)).allocateClustersForNode(any(), anyString());
+
+        spyTimer.lastTask.run();
+        ArgumentCaptor<List<Long>> moved = ArgumentCaptor.forClass(List.class);
+        verify(clusterRepository, times(1)).allocateClustersForNode(moved.capture(), eq("othernodeid"));
+        verify(clusterRepository, times(0)).allocateClustersForNode(any(), eq("nodeid"));
+        Assert.assertTrue(moved.getValue().size() > 0 && moved.getValue().size() < allocations.size());
+        verify(clusterRepository, times(0)).findById(anyLong());
     }
 
     @Test
@@ -220,7 +283,7 @@ public class LeaderElectionServiceTest {
         WhiteboxImpl.invokeMethod(underTest, "executeMissedTimeBasedAlerts", cluster);
 
         verify(applicationContext, times(0)).getBean(anyString(), eq(CronTimeEvaluator.class));
-        verify(cronTimeEvaluator, times(0)).publishIfNeeded(any(Map.class));
+        verify(cronTimeEvaluator, times(0)).publishMissedFiring(any(TimeAlert.class));
     }
 
     @Test
@@ -233,28 +296,66 @@ public class LeaderElectionServiceTest {
         WhiteboxImpl.invokeMethod(underTest, "executeMissedTimeBasedAlerts", cluster);
 
         verify(applicationContext, times(0)).getBean(anyString(), eq(CronTimeEvaluator.class));
-        verify(cronTimeEvaluator, times(0)).publishIfNeeded(any(Map.class));
+        verify(cronTimeEvaluator, times(0)).publishMissedFiring(any(TimeAlert.class));
     }
 
     @Test
     public void testExecuteMissedTimeBasedAlertsNeed() throws Exception {
-        ZonedDateTime now = ZonedDateTime.now();
-        when(dateTimeService.getDefaultZonedDateTime()).thenReturn(now);
-        when(dateTimeService.getNextSecound(any())).thenReturn(now);
         Cluster cluster = new Cluster();
         cluster.setCoolDown(5);
         cluster.setLastEvaulated(2900L);
-        TimeAlert timeAlert = new TimeAlert();
+        TimeAlert timeAlert = timeAlert("* * * * * ?", "UTC");
         cluster.setTimeAlerts(Collections.singleton(timeAlert));
 
         WhiteboxImpl.invokeMethod(underTest, "executeMissedTimeBasedAlerts", cluster);
 
         verify(applicationContext, times(1)).getBean(anyString(), eq(CronTimeEvaluator.class));
+        verify(cronTimeEvaluator, times(1)).publishMissedFiring(timeAlert);
+    }
+
+    @Test
+    public void testExecuteMissedTimeBasedAlertsPublishesTheMostRecentFiring() throws Exception {
+        long now = ZonedDateTime.parse("2017-12-20T12:30:00Z").toInstant().toEpochMilli();
+        when(clock.getCurrentTime()).thenReturn(now);
+        Cluster cluster = new Cluster();
+        cluster.setCoolDown(60);
+        cluster.setLastEvaulated(now - TimeUnit.HOURS.toMillis(2));
+        TimeAlert noon = timeAlert("0 0 12 * * ?", "UTC");
+        TimeAlert quarterPast = timeAlert("0 15 12 * * ?", "UTC");
+        TimeAlert newYork = timeAlert("0 20 7 * * ?", "America/New_York");
+        TimeAlert afterNow = timeAlert("0 0 13 * * ?", "UTC");
+        cluster.setTimeAlerts(new LinkedHashSet<>(Arrays.asList(noon, newYork, quarterPast, afterNow)));
+
+        WhiteboxImpl.invokeMethod(underTest, "executeMissedTimeBasedAlerts", cluster);
+
+        verify(cronTimeEvaluator, times(1)).publishMissedFiring(newYork);
+    }
+
+    @Test
+    public void testExecuteMissedTimeBasedAlertsWithoutFiringInTheCooldown() throws Exception {
+        long now = ZonedDateTime.parse("2017-12-20T12:30:00Z").toInstant().toEpochMilli();
+        when(clock.getCurrentTime()).thenReturn(now);
+        Cluster cluster = new Cluster();
+        cluster.setCoolDown(20);
+        cluster.setLastEvaulated(now - TimeUnit.HOURS.toMillis(2));
+        cluster.setTimeAlerts(new LinkedHashSet<>(Arrays.asList(timeAlert("0 0 12 * * ?", "UTC"), timeAlert("0 0 13 * * ?", "UTC"))));
+
+        WhiteboxImpl.invokeMethod(underTest, "executeMissedTimeBasedAlerts", cluster);
+
+        verify(cronTimeEvaluator, times(0)).publishMissedFiring(any(TimeAlert.class));
+    }
+
+    private TimeAlert timeAlert(String cron, String timeZone) {
+        TimeAlert timeAlert = new TimeAlert();
+        timeAlert.setName(cron);
+        timeAlert.setCron(cron);
+        timeAlert.setTimeZone(timeZone);
+        timeAlert.setScalingPolicy(new ScalingPolicy());
+        return timeAlert;
+    }
 
-        Map<TimeAlert, ZonedDateTime> expectedAlerts = new LinkedHashMap<>();
-        expectedAlerts.put(timeAlert, now);
-        expectedAlerts.put(timeAlert, now);
-        verify(cronTimeEvaluator, times(1)).publishIfNeeded(eq(expectedAlerts));
+    private Object[] allocation(long id, String nodeId) {
+        return new Object[]{id, nodeId};
     }
 
     private Cluster getValidIsMissedNeeded() {
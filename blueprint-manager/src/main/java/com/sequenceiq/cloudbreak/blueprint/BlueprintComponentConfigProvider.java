@@ -15,20 +15,21 @@ public interface BlueprintComponentConfigProvider {
         return blueprintProcessor;
     }
 
-    default List<BlueprintConfigurationEntry> getSettingsEntries(BlueprintPreparationObject source, String blueprintProcessor) {
+    default List<BlueprintConfigurationEntry> getSettingsEntries(BlueprintPreparationObject source, ReadOnlyBlueprintProcessor blueprintProcessor) {
         return Lists.newArrayList();
     }
 
-    default List<BlueprintConfigurationEntry> getConfigurationEntries(BlueprintPreparationObject source, String blueprintProcessor) throws IOException {
+    default List<BlueprintConfigurationEntry> getConfigurationEntries(BlueprintPreparationObject source, ReadOnlyBlueprintProcessor blueprintProcessor)
+            throws IOException {
         return Lists.newArrayList();
     }
 
-    default Map<HostgroupEntry, List<BlueprintConfigurationEntry>> getHostgroupConfigurationEntries(BlueprintPreparationObject source, String blueprintProcessor)
-            throws IOException {
+    default Map<HostgroupEntry, List<BlueprintConfigurationEntry>> getHostgroupConfigurationEntries(BlueprintPreparationObject source,
+            ReadOnlyBlueprintProcessor blueprintProcessor) throws IOException {
         return Maps.newHashMap();
     }
 
-    default boolean specialCondition(BlueprintPreparationObject source, String blueprintText) {
+    default boolean specialCondition(BlueprintPreparationObject source, ReadOnlyBlueprintProcessor blueprintProcessor) {
         return false;
     }
 
@@ -16,17 +16,13 @@ public class BlueprintComponentProviderProcessor {
     @Inject
     private List<BlueprintComponentConfigProvider> blueprintComponentConfigProviders;
 
-    @Inject
-    private BlueprintProcessorFactory blueprintProcessorFactory;
-
-    public String process(BlueprintPreparationObject source, String blueprintText) throws IOException {
-        BlueprintTextProcessor blueprintProcessor = blueprintProcessorFactory.get(blueprintText);
+    public BlueprintTextProcessor process(BlueprintPreparationObject source, BlueprintTextProcessor blueprintProcessor) throws IOException {
         for (BlueprintComponentConfigProvider provider : blueprintComponentConfigProviders) {
-            if (blueprintProcessor.componentsExistsInBlueprint(provider.components()) || provider.specialCondition(source, blueprintText)) {
-                blueprintProcessor.addConfigEntries(provider.getConfigurationEntries(source, blueprintProcessor.asText()), false);
-                blueprintProcessor.addSettingsEntries(provider.getSettingsEntries(source, blueprintProcessor.asText()), false);
+            if (blueprintProcessor.componentsExistsInBlueprint(provider.components()) || provider.specialCondition(source, blueprintProcessor)) {
+                blueprintProcessor.addConfigEntries(provider.getConfigurationEntries(source, blueprintProcessor), false);
+                blueprintProcessor.addSettingsEntries(provider.getSettingsEntries(source, blueprintProcessor), false);
 
-                Map<HostgroupEntry, List<BlueprintConfigurationEntry>> hostgroupConfigs = provider.getHostgroupConfigurationEntries(source, blueprintText);
+                Map<HostgroupEntry, List<BlueprintConfigurationEntry>> hostgroupConfigs = provider.getHostgroupConfigurationEntries(source, blueprintProcessor);
                 blueprintProcessor.extendBlueprintHostGroupConfiguration(HostgroupConfigurations.fromConfigEntryMap(hostgroupConfigs), false);
                 provider.customTextManipulation(source, blueprintProcessor);
             }
@@ -34,6 +30,6 @@ public class BlueprintComponentProviderProcessor {
         if (!source.getGeneralClusterConfigs().getOrchestratorType().containerOrchestrator() && source.getStackRepoDetailsHdpVersion().isPresent()) {
             blueprintProcessor.modifyHdpVersion(source.getStackRepoDetailsHdpVersion().get());
         }
-        return blueprintProcessor.asText();
+        return blueprintProcessor;
     }
 }
@@ -6,10 +6,8 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Set;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -18,117 +16,71 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import com.sequenceiq.cloudbreak.blueprint.template.BlueprintTemplateProcessor;
-import com.sequenceiq.cloudbreak.blueprint.templates.RelatedServices;
-import com.sequenceiq.cloudbreak.blueprint.templates.ServiceName;
-import com.sequenceiq.cloudbreak.blueprint.templates.TemplateFiles;
-import com.sequenceiq.cloudbreak.util.JsonUtil;
+import com.sequenceiq.cloudbreak.blueprint.templates.BlueprintSegment;
 
 @Component
 public class BlueprintSegmentProcessor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BlueprintSegmentProcessor.class);
 
-    private static final String SERVICES_JSON = "services.json";
-
     @Inject
     private BlueprintTemplateProcessor blueprintTemplateProcessor;
 
     @Inject
     private BlueprintSegmentReader blueprintSegmentReader;
 
-    @Inject
-    private BlueprintProcessorFactory blueprintProcessorFactory;
-
-    public String process(String blueprintText, BlueprintPreparationObject source) {
+    public BlueprintTextProcessor process(BlueprintTextProcessor blueprintProcessor, BlueprintPreparationObject source) {
         Map<String, Object> customProperties = new HashMap<>();
-        AtomicReference<String> resultBlueprint = new AtomicReference<>(blueprintText);
+        Set<String> components = blueprintProcessor.getAllComponents();
 
-        Map<ServiceName, TemplateFiles> configurationValueMap = blueprintSegmentReader.collectAllConfigFile();
-        LOGGER.info("The collected entries are for configurationValueMap : {}", configurationValueMap);
-        collectContents(configurationValueMap, resultBlueprint.get(), file -> {
+        List<BlueprintSegment> configSegments = blueprintSegmentReader.getConfigCatalog().getSegments(components);
+        collectContents(configSegments, file -> {
             LOGGER.info("The actual file is: {}", file);
             String configContent = prepareContent(file, source, customProperties);
             LOGGER.debug("The generated content is: {}", configContent);
             customProperties.put(getCustomPropertyName(file), configContent);
         });
 
-        Map<ServiceName, TemplateFiles> configMap = blueprintSegmentReader.collectAllServiceFile();
-        LOGGER.info("The collected entries are for configMap: {}", configMap);
-        collectContents(configMap, resultBlueprint.get(), file -> {
+        List<BlueprintSegment> serviceSegments = blueprintSegmentReader.getServiceCatalog().getSegments(components);
+        collectContents(serviceSegments, file -> {
             LOGGER.info("The actual file is: {}", file);
             String serviceContent = prepareContent(file, source, customProperties);
             LOGGER.debug("The generated content is: {}", serviceContent);
-            resultBlueprint.set(blueprintProcessorFactory.get(resultBlueprint.get()).addConfigEntryStringToBlueprint(serviceContent, false).asText());
+            blueprintProcessor.addConfigEntryStringToBlueprint(serviceContent, false);
         });
 
-        Map<ServiceName, TemplateFiles> settingsMap = blueprintSegmentReader.collectAllSettingsFile();
-        LOGGER.info("The collected entries are for settingsMap: {}", settingsMap);
-        collectContents(settingsMap, resultBlueprint.get(), file -> {
+        List<BlueprintSegment> settingsSegments = blueprintSegmentReader.getSettingsCatalog().getSegments(components);
+        collectContents(settingsSegments, file -> {
             LOGGER.info("The actual file is: {}", file);
             String serviceContent = prepareContent(file, source, customProperties);
             LOGGER.debug("The generated content is: {}", serviceContent);
-            resultBlueprint.set(blueprintProcessorFactory.get(resultBlueprint.get()).addSettingsEntryStringToBlueprint(serviceContent, false).asText());
-
+            blueprintProcessor.addSettingsEntryStringToBlueprint(serviceContent, false);
         });
-        return resultBlueprint.get();
+        return blueprintProcessor;
     }
 
     private String getCustomPropertyName(String file) {
         return file.split("\\.")[0].replaceAll("[^A-Za-z0-9 ]", "_");
     }
 
-    private void collectContents(Map<ServiceName, TemplateFiles> map, String blueprintText, Consumer<String> function) {
-        map.forEach((ServiceName key, TemplateFiles value) -> {
-            if (shouldGenerateTemplates(value, blueprintText)) {
-                for (String serviceFilePath : collectAllFileWithoutRelatedServiceFile(value)) {
-                    function.accept(serviceFilePath);
-                }
+    private void collectContents(List<BlueprintSegment> segments, Consumer<String> function) {
+        for (BlueprintSegment segment : segments) {
+            LOGGER.info("The mechanism generates configurations from {} for the related services {}.", segment.getTemplatePaths(),
+                    segment.getRelatedServices());
+            for (String serviceFilePath : segment.getTemplatePaths()) {
+                function.accept(serviceFilePath);
             }
-        });
-    }
-
-    private List<String> collectAllFileWithoutRelatedServiceFile(TemplateFiles value) {
-        return value.getFiles().stream().filter(item -> !item.endsWith(SERVICES_JSON)).collect(Collectors.toList());
+        }
     }
 
     private String prepareContent(final String filePath, BlueprintPreparationObject source, Map<String, Object> configs) {
         String result;
-        String content = readFileFromClasspathQuietly(filePath);
         try {
-            result = blueprintTemplateProcessor.process(content, source, configs);
+            result = blueprintTemplateProcessor.processSegment(filePath, source, configs);
         } catch (IOException e) {
             LOGGER.error("Could not open {} file to generate result based on template.", filePath);
-            result = content;
+            result = readFileFromClasspathQuietly(filePath);
         }
         return result;
     }
-
-    private boolean shouldGenerateTemplates(TemplateFiles templateFiles, String blueprintText) {
-        boolean shouldGenerate;
-        Optional<String> requiredServices = templateFiles.getFiles().stream().filter(item -> item.endsWith(SERVICES_JSON)).findFirst();
-        if (!requiredServices.isPresent()) {
-            LOGGER.info("Service file is not presented in {} list.", templateFiles.getFiles());
-            shouldGenerate = true;
-        } else {
-            try {
-                LOGGER.info("Service file is presented in {} list.", templateFiles.getFiles());
-                RelatedServices relatedServices = JsonUtil.readValue(readFileFromClasspathQuietly(requiredServices.get()), RelatedServices.class);
-                LOGGER.info("Related services are {}.", relatedServices.getServices());
-                if (relatedServices.getServices().isEmpty()) {
-                    LOGGER.info("Related services are empty in list {}.", templateFiles.getFiles());
-                    shouldGenerate = true;
-                } else {
-                    LOGGER.info("Related services list is not empty checking the blueprint that components {} are exist.", relatedServices.getServices());
-                    shouldGenerate = blueprintProcessorFactory.get(blueprintText).componentsExistsInBlueprint(relatedServices.getServices());
-                    LOGGER.info("The mechanism should generate configurations [{}] for {} services.", shouldGenerate, relatedServices.getServices());
-                }
-            } catch (IOException e) {
-                LOGGER.error("Could not open {} file to check related service list and the template files were {}.",
-                        requiredServices.get(), templateFiles.getFiles());
-                shouldGenerate = false;
-            }
-        }
-        return shouldGenerate;
-    }
-
 }
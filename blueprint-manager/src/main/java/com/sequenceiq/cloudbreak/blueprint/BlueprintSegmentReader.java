@@ -2,14 +2,19 @@ package com.sequenceiq.cloudbreak.blueprint;
 
 import static com.sequenceiq.cloudbreak.blueprint.templates.ServiceName.serviceName;
 import static com.sequenceiq.cloudbreak.blueprint.templates.TemplateFiles.templateFiles;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toList;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,16 +25,27 @@ import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
 
 import com.google.common.collect.Lists;
+import com.sequenceiq.cloudbreak.blueprint.templates.BlueprintSegment;
+import com.sequenceiq.cloudbreak.blueprint.templates.BlueprintSegmentCatalog;
+import com.sequenceiq.cloudbreak.blueprint.templates.RelatedServices;
 import com.sequenceiq.cloudbreak.blueprint.templates.ServiceName;
 import com.sequenceiq.cloudbreak.blueprint.templates.TemplateFiles;
+import com.sequenceiq.cloudbreak.util.JsonUtil;
 
+/**
+ * Reads the segment directories from the classpath. Every directory is scanned and read once, on first use, into an immutable
+ * {@link BlueprintSegmentCatalog} that holds the contents of the templates and the parsed services.json files.
+ */
 @Component
 public class BlueprintSegmentReader implements ResourceLoaderAware {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BlueprintSegmentReader.class);
 
+    private static final String SERVICES_JSON = "services.json";
+
     @Value("${cb.blueprint.template.path:blueprints/configurations}")
     private String blueprintTemplatePath;
 
@@ -41,32 +57,90 @@ public class BlueprintSegmentReader implements ResourceLoaderAware {
 
     private ResourceLoader resourceLoader;
 
+    private final ResourcePatternResolver patternResolver = new PathMatchingResourcePatternResolver();
+
+    private final Map<String, BlueprintSegmentCatalog> catalogs = new ConcurrentHashMap<>();
+
     public Map<ServiceName, TemplateFiles> collectAllServiceFile() {
-        return readAllFilesFromParameterDir(blueprintTemplatePath);
+        return getServiceCatalog().getTemplateFiles();
     }
 
     public Map<ServiceName, TemplateFiles> collectAllConfigFile() {
-        return readAllFilesFromParameterDir(basicTemplatePath);
+        return getConfigCatalog().getTemplateFiles();
     }
 
     public Map<ServiceName, TemplateFiles> collectAllSettingsFile() {
-        return readAllFilesFromParameterDir(settingsTemplatePath);
+        return getSettingsCatalog().getTemplateFiles();
+    }
+
+    /**
+     * The content of every segment template by its path.
+     */
+    public Map<String, String> collectAllSegmentContent() {
+        Map<String, String> contents = new HashMap<>();
+        contents.putAll(getConfigCatalog().getContents());
+        contents.putAll(getServiceCatalog().getContents());
+        contents.putAll(getSettingsCatalog().getContents());
+        return contents;
+    }
+
+    public BlueprintSegmentCatalog getServiceCatalog() {
+        return getCatalog(blueprintTemplatePath);
+    }
+
+    public BlueprintSegmentCatalog getConfigCatalog() {
+        return getCatalog(basicTemplatePath);
+    }
+
+    public BlueprintSegmentCatalog getSettingsCatalog() {
+        return getCatalog(settingsTemplatePath);
+    }
+
+    private BlueprintSegmentCatalog getCatalog(String dir) {
+        return catalogs.computeIfAbsent(dir, this::readCatalog);
+    }
+
+    private BlueprintSegmentCatalog readCatalog(String dir) {
+        Map<ServiceName, List<Resource>> resourcesByService = readAllFilesFromParameterDir(dir);
+        List<BlueprintSegment> segments = new ArrayList<>();
+        Map<ServiceName, TemplateFiles> templateFiles = new LinkedHashMap<>();
+        Map<String, String> contents = new HashMap<>();
+        for (Map.Entry<ServiceName, List<Resource>> entry : resourcesByService.entrySet()) {
+            List<String> files = Lists.newArrayList();
+            List<String> templatePaths = Lists.newArrayList();
+            String relatedServicesJson = null;
+            for (Resource resource : entry.getValue()) {
+                String file = getPathInsideDir(resource, dir);
+                files.add(file);
+                if (file.endsWith(SERVICES_JSON)) {
+                    relatedServicesJson = readContent(resource, dir);
+                } else {
+                    templatePaths.add(file);
+                    contents.put(file, readContent(resource, dir));
+                }
+            }
+            templateFiles.put(entry.getKey(), templateFiles(Collections.unmodifiableList(files)));
+            try {
+                RelatedServices relatedServices = relatedServicesJson == null
+                        ? new RelatedServices(Collections.emptySet()) : JsonUtil.readValue(relatedServicesJson, RelatedServices.class);
+                segments.add(new BlueprintSegment(entry.getKey(), templatePaths, relatedServices.getServices()));
+            } catch (IOException e) {
+                LOGGER.error("Could not parse the related service list of the template files {}, they are never generated.", files, e);
+            }
+        }
+        LOGGER.info("{} segments are read from folder: {}", segments.size(), dir);
+        return new BlueprintSegmentCatalog(segments, templateFiles, contents);
     }
 
-    private Map<ServiceName, TemplateFiles> readAllFilesFromParameterDir(String dir) {
-        Map<ServiceName, TemplateFiles> collectedFiles = new HashMap<>();
+    private Map<ServiceName, List<Resource>> readAllFilesFromParameterDir(String dir) {
+        Map<ServiceName, List<Resource>> collectedFiles = new HashMap<>();
         try {
             List<Resource> files = getFiles(dir);
             for (final Resource serviceEntry : files) {
                 String[] serviceAndPath = serviceEntry.getURL().getPath().split(dir);
                 String simpleServiceName = serviceAndPath[1].split("/")[1];
-                String insideFolder = String.format("%s%s", dir, serviceAndPath[1]);
-                LOGGER.info("The the entry url is: {} file url is : {} for service: {}", serviceEntry, insideFolder, simpleServiceName);
-                ServiceName serviceName = serviceName(simpleServiceName);
-                if (!collectedFiles.keySet().contains(serviceName)) {
-                    collectedFiles.put(serviceName, templateFiles(Lists.newArrayList()));
-                }
-                collectedFiles.get(serviceName).getFiles().add(insideFolder);
+                LOGGER.info("The the entry url is: {} for service: {}", serviceEntry, simpleServiceName);
+                collectedFiles.computeIfAbsent(serviceName(simpleServiceName), key -> new ArrayList<>()).add(serviceEntry);
             }
         } catch (IOException ex) {
             String message = String.format("Could not read files from the definiated folder which was: %s", dir);
@@ -77,9 +151,23 @@ public class BlueprintSegmentReader implements ResourceLoaderAware {
         return collectedFiles;
     }
 
-    private List<Resource> getFiles(String configDir) throws IOException {
-        ResourcePatternResolver patternResolver = new PathMatchingResourcePatternResolver();
+    private String getPathInsideDir(Resource resource, String dir) {
+        try {
+            return String.format("%s%s", dir, resource.getURL().getPath().split(dir)[1]);
+        } catch (IOException ex) {
+            throw new BlueprintProcessingException(String.format("Could not read file %s from folder: %s", resource, dir), ex);
+        }
+    }
 
+    private String readContent(Resource resource, String dir) {
+        try (InputStream inputStream = resource.getInputStream()) {
+            return StreamUtils.copyToString(inputStream, UTF_8);
+        } catch (IOException ex) {
+            throw new BlueprintProcessingException(String.format("Could not read file %s from folder: %s", resource, dir), ex);
+        }
+    }
+
+    private List<Resource> getFiles(String configDir) throws IOException {
         List<Resource> handleBarFiles = Arrays.stream(patternResolver.getResources("classpath:" + configDir + "/*/*.handlebars"))
                 .collect(toList());
         List<Resource> jsonFiles = Arrays.stream(patternResolver.getResources("classpath:" + configDir + "/*/*.json"))
@@ -30,7 +30,7 @@ import com.sequenceiq.cloudbreak.blueprint.configuration.SiteConfigurations;
 import com.sequenceiq.cloudbreak.blueprint.configuration.SiteSettingsConfigurations;
 import com.sequenceiq.cloudbreak.util.JsonUtil;
 
-public class BlueprintTextProcessor {
+public class BlueprintTextProcessor implements ReadOnlyBlueprintProcessor {
 
     public static final String CONFIGURATIONS_NODE = "configurations";
 
@@ -50,7 +50,7 @@ public class BlueprintTextProcessor {
 
     private static final String STACK_NAME = "stack_name";
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     private final ObjectNode blueprint;
 
@@ -62,6 +62,11 @@ public class BlueprintTextProcessor {
         }
     }
 
+    public BlueprintTextProcessor(@Nonnull ObjectNode blueprint) {
+        this.blueprint = blueprint;
+    }
+
+    @Override
     public String asText() {
         try {
             return JsonUtil.writeValueAsString(blueprint);
@@ -94,6 +99,7 @@ public class BlueprintTextProcessor {
         return this;
     }
 
+    @Override
     public Map<String, Map<String, String>> getConfigurationEntries() {
         if (!blueprint.has("configurations")) {
             return Collections.emptyMap();
@@ -101,7 +107,7 @@ public class BlueprintTextProcessor {
         Map<String, Map<String, String>> configurations = new HashMap<>();
         JsonNode configurationsArray = blueprint.get("configurations");
         for (JsonNode config : configurationsArray) {
-            Map<String, Object> configMap = objectMapper.convertValue(config, Map.class);
+            Map<String, Object> configMap = OBJECT_MAPPER.convertValue(config, Map.class);
             if (!configMap.isEmpty()) {
                 Map<String, Object> configElements = (Map<String, Object>) configMap.values().iterator().next();
                 if (configElements.containsKey("properties")) {
@@ -138,10 +144,12 @@ public class BlueprintTextProcessor {
         return this;
     }
 
+    @Override
     public boolean isAllConfigurationExistsInPathUnderConfigurationNode(List<String[]> pathList) {
         return pathList.stream().allMatch(path -> pathValue(path).isPresent());
     }
 
+    @Override
     public Optional<String> pathValue(String... path) {
         JsonNode currentNode = blueprint;
         for (int i = 0; i < path.length; i++) {
@@ -167,6 +175,7 @@ public class BlueprintTextProcessor {
         return currentNode.isValueNode() ? Optional.of(currentNode.textValue()) : Optional.empty();
     }
 
+    @Override
     public Set<String> getAllComponents() {
         return getComponentsByHostGroup().entrySet()
                 .stream()
@@ -175,6 +184,7 @@ public class BlueprintTextProcessor {
                 .collect(Collectors.toSet());
     }
 
+    @Override
     public Set<String> getComponentsInHostGroup(String hostGroup) {
         Set<String> services = new HashSet<>();
         ArrayNode hostGroupsNode = getArrayFromObjectNodeByPath(blueprint, HOST_GROUPS_NODE);
@@ -402,6 +412,7 @@ public class BlueprintTextProcessor {
         putAll(site, properties);
     }
 
+    @Override
     public Set<String> getHostGroupsWithComponent(String component) {
         Set<String> result = new HashSet<>();
         JsonNode hostGroups = blueprint.path(HOST_GROUPS_NODE);
@@ -417,6 +428,7 @@ public class BlueprintTextProcessor {
         return result;
     }
 
+    @Override
     public Map<String, Set<String>> getComponentsByHostGroup() {
         Map<String, Set<String>> result = new HashMap<>();
         JsonNode hostGroups = blueprint.path(HOST_GROUPS_NODE);
@@ -494,11 +506,13 @@ public class BlueprintTextProcessor {
         }
     }
 
+    @Override
     public boolean componentExistsInHostGroup(String component, String hostGroup) {
         Set<String> componentsInHostGroup = getComponentsInHostGroup(hostGroup);
         return componentsInHostGroup.stream().anyMatch(component::equals);
     }
 
+    @Override
     public boolean componentExistsInBlueprint(String component) {
         boolean componentExists = false;
         ArrayNode hostGroupsNode = getArrayFromObjectNodeByPath(blueprint, HOST_GROUPS_NODE);
@@ -510,6 +524,7 @@ public class BlueprintTextProcessor {
         return componentExists;
     }
 
+    @Override
     public boolean componentsExistsInBlueprint(Set<String> components) {
         for (String component : components) {
             if (componentExistsInBlueprint(component)) {
@@ -534,11 +549,13 @@ public class BlueprintTextProcessor {
         return this;
     }
 
+    @Override
     public String getStackName() {
         ObjectNode blueprintsNode = (ObjectNode) blueprint.path(BLUEPRINTS);
         return blueprintsNode.get(STACK_NAME).asText();
     }
 
+    @Override
     public String getStackVersion() {
         ObjectNode blueprintsNode = (ObjectNode) blueprint.path(BLUEPRINTS);
         return blueprintsNode.get(STACK_VERSION).asText();
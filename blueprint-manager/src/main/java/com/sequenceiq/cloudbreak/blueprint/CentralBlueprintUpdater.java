@@ -25,6 +25,9 @@ public class CentralBlueprintUpdater {
     @Inject
     private BlueprintComponentProviderProcessor blueprintComponentProviderProcessor;
 
+    @Inject
+    private BlueprintProcessorFactory blueprintProcessorFactory;
+
     public String getBlueprintText(BlueprintPreparationObject source) {
         String blueprintText = source.getBlueprintView().getBlueprintText();
         try {
@@ -37,11 +40,16 @@ public class CentralBlueprintUpdater {
         return blueprintText;
     }
 
+    /**
+     * The blueprint is parsed once after the template processing, the segments and the component config providers modify the same
+     * JSON tree, and it is rendered only at the end.
+     */
     private String updateBlueprintConfiguration(BlueprintPreparationObject source, String blueprint)
             throws IOException {
         blueprint = blueprintTemplateProcessor.process(blueprint, source, Maps.newHashMap());
-        blueprint = blueprintSegmentProcessor.process(blueprint, source);
-        blueprint = blueprintComponentProviderProcessor.process(source, blueprint);
-        return blueprint;
+        BlueprintTextProcessor blueprintProcessor = blueprintProcessorFactory.get(blueprint);
+        blueprintSegmentProcessor.process(blueprintProcessor, source);
+        blueprintComponentProviderProcessor.process(source, blueprintProcessor);
+        return blueprintProcessor.asText();
     }
 }
@@ -0,0 +1,39 @@
+package com.sequenceiq.cloudbreak.blueprint;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The queries of the {@link BlueprintTextProcessor} that do not modify the blueprint. The component config providers get the blueprint
+ * under processing through this view, so they can inspect it without parsing or rendering the text.
+ */
+public interface ReadOnlyBlueprintProcessor {
+
+    String asText();
+
+    Map<String, Map<String, String>> getConfigurationEntries();
+
+    boolean isAllConfigurationExistsInPathUnderConfigurationNode(List<String[]> pathList);
+
+    Optional<String> pathValue(String... path);
+
+    Set<String> getAllComponents();
+
+    Set<String> getComponentsInHostGroup(String hostGroup);
+
+    Set<String> getHostGroupsWithComponent(String component);
+
+    Map<String, Set<String>> getComponentsByHostGroup();
+
+    boolean componentExistsInHostGroup(String component, String hostGroup);
+
+    boolean componentExistsInBlueprint(String component);
+
+    boolean componentsExistsInBlueprint(Set<String> components);
+
+    String getStackName();
+
+    String getStackVersion();
+}
@@ -11,6 +11,7 @@ import com.sequenceiq.cloudbreak.blueprint.BlueprintComponentConfigProvider;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintPreparationObject;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintTextProcessor;
 import com.sequenceiq.cloudbreak.blueprint.ConfigService;
+import com.sequenceiq.cloudbreak.blueprint.ReadOnlyBlueprintProcessor;
 import com.sequenceiq.cloudbreak.blueprint.configuration.HostgroupConfigurations;
 import com.sequenceiq.cloudbreak.blueprint.configuration.SiteConfigurations;
 import com.sequenceiq.cloudbreak.blueprint.template.views.HostgroupView;
@@ -36,7 +37,7 @@ public class HadoopConfigurationService implements BlueprintComponentConfigProvi
     }
 
     @Override
-    public boolean specialCondition(BlueprintPreparationObject source, String blueprintProcessor) {
+    public boolean specialCondition(BlueprintPreparationObject source, ReadOnlyBlueprintProcessor blueprintProcessor) {
         return !source.getBlueprintView().isHdf();
     }
 
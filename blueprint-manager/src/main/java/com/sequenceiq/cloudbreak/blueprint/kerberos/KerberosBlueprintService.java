@@ -15,6 +15,7 @@ import com.sequenceiq.cloudbreak.blueprint.BlueprintPreparationObject;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintProcessingException;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintProcessorFactory;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintTextProcessor;
+import com.sequenceiq.cloudbreak.blueprint.ReadOnlyBlueprintProcessor;
 import com.sequenceiq.cloudbreak.blueprint.configuration.SiteConfigurations;
 import com.sequenceiq.cloudbreak.domain.KerberosConfig;
 import com.sequenceiq.cloudbreak.util.FileReaderUtils;
@@ -114,7 +115,7 @@ public class KerberosBlueprintService implements BlueprintComponentConfigProvide
     }
 
     @Override
-    public boolean specialCondition(BlueprintPreparationObject source, String blueprintText) {
+    public boolean specialCondition(BlueprintPreparationObject source, ReadOnlyBlueprintProcessor blueprintProcessor) {
         return source.getKerberosConfig().isPresent();
     }
 }
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintComponentConfigProvider;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintPreparationObject;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintTextProcessor;
+import com.sequenceiq.cloudbreak.blueprint.ReadOnlyBlueprintProcessor;
 import com.sequenceiq.cloudbreak.blueprint.template.views.HostgroupView;
 
 @Component
@@ -23,7 +24,7 @@ public class KnoxConfigProvider implements BlueprintComponentConfigProvider {
     }
 
     @Override
-    public boolean specialCondition(BlueprintPreparationObject source, String blueprintText) {
+    public boolean specialCondition(BlueprintPreparationObject source, ReadOnlyBlueprintProcessor blueprintProcessor) {
         return source.getGeneralClusterConfigs().isGatewayInstanceMetadataPresented();
     }
 
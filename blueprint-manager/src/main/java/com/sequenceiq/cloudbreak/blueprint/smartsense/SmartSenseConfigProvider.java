@@ -8,6 +8,7 @@ import com.sequenceiq.cloudbreak.blueprint.BlueprintConfigurationEntry;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintPreparationObject;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintProcessorFactory;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintTextProcessor;
+import com.sequenceiq.cloudbreak.blueprint.ReadOnlyBlueprintProcessor;
 import com.sequenceiq.cloudbreak.blueprint.SmartsenseConfigurationLocator;
 import com.sequenceiq.cloudbreak.blueprint.template.views.HostgroupView;
 import com.sequenceiq.cloudbreak.domain.json.Json;
@@ -74,7 +75,7 @@ public class SmartSenseConfigProvider implements BlueprintComponentConfigProvide
     }
 
     @Override
-    public boolean specialCondition(BlueprintPreparationObject source, String blueprintText) {
+    public boolean specialCondition(BlueprintPreparationObject source, ReadOnlyBlueprintProcessor blueprintProcessor) {
         return smartsenseConfigurationLocator.smartsenseConfigurableBySubscriptionId(source.getSmartSenseSubscription().isPresent()
                 ? Optional.ofNullable(source.getSmartSenseSubscription().get().getSubscriptionId())
                 : Optional.empty());
@@ -1,29 +1,38 @@
 package com.sequenceiq.cloudbreak.blueprint.template;
 
-import com.github.jknack.handlebars.Handlebars;
-import com.github.jknack.handlebars.TagType;
-import com.github.jknack.handlebars.Template;
-import com.sequenceiq.cloudbreak.blueprint.BlueprintPreparationObject;
-import com.sequenceiq.cloudbreak.blueprint.HandlebarTemplate;
-import com.sequenceiq.cloudbreak.util.JsonUtil;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.util.List;
-import java.util.Map;
+import com.github.jknack.handlebars.Template;
+import com.sequenceiq.cloudbreak.blueprint.BlueprintPreparationObject;
+import com.sequenceiq.cloudbreak.util.JsonUtil;
 
 @Component
 public class BlueprintTemplateProcessor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BlueprintTemplateProcessor.class);
 
-    private final Handlebars handlebars = HandlebarUtils.handlebars();
+    @Inject
+    private HandlebarTemplateCache templateCache;
 
     public String process(String sourceTemplate, BlueprintPreparationObject source, Map<String, Object> customProperties) throws IOException {
+        return process(templateCache.getBlueprintTemplate(sourceTemplate).getTemplate(), source, customProperties);
+    }
+
+    public String processSegment(String segmentPath, BlueprintPreparationObject source, Map<String, Object> customProperties) throws IOException {
+        return process(templateCache.getSegmentTemplate(segmentPath).getTemplate(), source, customProperties);
+    }
+
+    private String process(Template template, BlueprintPreparationObject source, Map<String, Object> customProperties) throws IOException {
         long started = System.currentTimeMillis();
-        String generateBlueprint = generateBlueprintWithParameters(sourceTemplate, source, customProperties);
+        String generateBlueprint = template.apply(prepareTemplateObject(source, customProperties));
         long generationTime = System.currentTimeMillis() - started;
         LOGGER.info("The blueprint text processed successfully by the EL based template processor under {} ms, the text after processing is: {}",
                 generationTime, JsonUtil.minify(generateBlueprint));
@@ -32,25 +41,13 @@ public class BlueprintTemplateProcessor {
 
     public List<String> queryParameters(String sourceTemplate) throws IOException {
         long started = System.currentTimeMillis();
-        List<String> blueprintParameters = queryBlueprintParameters(sourceTemplate);
+        List<String> blueprintParameters = templateCache.getBlueprintTemplate(sourceTemplate).getParameters();
         long generationTime = System.currentTimeMillis() - started;
         LOGGER.info("The blueprint text processed successfully by the EL based template processor under {} ms, the parameters are: {}",
                 generationTime, blueprintParameters);
         return blueprintParameters;
     }
 
-    private String generateBlueprintWithParameters(String sourceTemplate, BlueprintPreparationObject source, Map<String, Object> customProperties)
-            throws IOException {
-        Template template = handlebars.compileInline(sourceTemplate, HandlebarTemplate.DEFAULT_PREFIX.key(), HandlebarTemplate.DEFAULT_POSTFIX.key());
-        return template.apply(prepareTemplateObject(source, customProperties));
-    }
-
-    private List<String> queryBlueprintParameters(String sourceTemplate)
-            throws IOException {
-        Template template = handlebars.compileInline(sourceTemplate, HandlebarTemplate.DEFAULT_PREFIX.key(), HandlebarTemplate.DEFAULT_POSTFIX.key());
-        return template.collect(TagType.VAR);
-    }
-
     private Map<String, Object> prepareTemplateObject(BlueprintPreparationObject source, Map<String, Object> customProperties) {
         source.getFixInputs().putAll(customProperties);
         return new BlueprintTemplateModelContextBuilder()
@@ -0,0 +1,34 @@
+package com.sequenceiq.cloudbreak.blueprint.template;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.github.jknack.handlebars.TagType;
+import com.github.jknack.handlebars.Template;
+
+public class CompiledTemplate {
+
+    private final Template template;
+
+    private volatile List<String> parameters;
+
+    public CompiledTemplate(Template template) {
+        this.template = template;
+    }
+
+    public Template getTemplate() {
+        return template;
+    }
+
+    /**
+     * The variables of the template, collected on the first call.
+     */
+    public List<String> getParameters() {
+        List<String> result = parameters;
+        if (result == null) {
+            result = Collections.unmodifiableList(template.collect(TagType.VAR));
+            parameters = result;
+        }
+        return result;
+    }
+}
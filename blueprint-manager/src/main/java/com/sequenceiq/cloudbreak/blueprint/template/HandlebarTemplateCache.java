@@ -0,0 +1,80 @@
+package com.sequenceiq.cloudbreak.blueprint.template;
+
+import static com.sequenceiq.cloudbreak.util.FileReaderUtils.readFileFromClasspath;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.sequenceiq.cloudbreak.blueprint.BlueprintSegmentReader;
+import com.sequenceiq.cloudbreak.blueprint.HandlebarTemplate;
+
+/**
+ * Compiled handlebars templates. The segment templates shipped with the application are compiled once at startup, the blueprints of
+ * the users are compiled on first use and kept by the hash of their text in a cache of limited size, evicting the least recently used.
+ */
+@Component
+public class HandlebarTemplateCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HandlebarTemplateCache.class);
+
+    @Value("${cb.blueprint.template.cache.size:200}")
+    private long maxSize;
+
+    @Inject
+    private BlueprintSegmentReader blueprintSegmentReader;
+
+    private final Handlebars handlebars = HandlebarUtils.handlebars();
+
+    private final Map<String, CompiledTemplate> segmentTemplates = new ConcurrentHashMap<>();
+
+    private Cache<String, CompiledTemplate> blueprintTemplates;
+
+    @PostConstruct
+    public void init() throws IOException {
+        blueprintTemplates = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        for (Map.Entry<String, String> segment : blueprintSegmentReader.collectAllSegmentContent().entrySet()) {
+            segmentTemplates.put(segment.getKey(), compile(segment.getValue()));
+        }
+        LOGGER.info("{} blueprint segment templates are compiled.", segmentTemplates.size());
+    }
+
+    public CompiledTemplate getBlueprintTemplate(String blueprintText) throws IOException {
+        String key = Hashing.sha256().hashString(blueprintText, UTF_8).toString();
+        try {
+            return blueprintTemplates.get(key, () -> compile(blueprintText));
+        } catch (ExecutionException e) {
+            throw (IOException) e.getCause();
+        } catch (UncheckedExecutionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    public CompiledTemplate getSegmentTemplate(String segmentPath) throws IOException {
+        CompiledTemplate template = segmentTemplates.get(segmentPath);
+        if (template == null) {
+            template = compile(readFileFromClasspath(segmentPath));
+            segmentTemplates.put(segmentPath, template);
+        }
+        return template;
+    }
+
+    private CompiledTemplate compile(String text) throws IOException {
+        return new CompiledTemplate(handlebars.compileInline(text, HandlebarTemplate.DEFAULT_PREFIX.key(), HandlebarTemplate.DEFAULT_POSTFIX.key()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.sequenceiq.cloudbreak.blueprint.templates;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+public class BlueprintSegment {
+
+    private final ServiceName serviceName;
+
+    private final List<String> templatePaths;
+
+    private final Set<String> relatedServices;
+
+    public BlueprintSegment(ServiceName serviceName, List<String> templatePaths, Set<String> relatedServices) {
+        this.serviceName = serviceName;
+        this.templatePaths = Collections.unmodifiableList(templatePaths);
+        this.relatedServices = Collections.unmodifiableSet(relatedServices);
+    }
+
+    public ServiceName getServiceName() {
+        return serviceName;
+    }
+
+    public List<String> getTemplatePaths() {
+        return templatePaths;
+    }
+
+    /**
+     * The components that enable the segment, it is generated if any of them is in the blueprint. Empty if the segment is always generated.
+     */
+    public Set<String> getRelatedServices() {
+        return relatedServices;
+    }
+}
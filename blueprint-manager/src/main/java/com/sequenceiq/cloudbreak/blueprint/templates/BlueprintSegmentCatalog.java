@@ -0,0 +1,74 @@
+package com.sequenceiq.cloudbreak.blueprint.templates;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The segments of one segment directory, indexed by the components that enable them, so selecting the segments of a blueprint does not
+ * depend on the number of segments. The segments are selected in the order of the catalog.
+ */
+public class BlueprintSegmentCatalog {
+
+    private final List<BlueprintSegment> segments;
+
+    private final Map<ServiceName, TemplateFiles> templateFiles;
+
+    private final Map<String, String> contents;
+
+    private final BitSet unconditionalSegments = new BitSet();
+
+    private final Map<String, BitSet> segmentsByComponent = new HashMap<>();
+
+    public BlueprintSegmentCatalog(List<BlueprintSegment> segments, Map<ServiceName, TemplateFiles> templateFiles, Map<String, String> contents) {
+        this.segments = Collections.unmodifiableList(new ArrayList<>(segments));
+        this.templateFiles = Collections.unmodifiableMap(templateFiles);
+        this.contents = Collections.unmodifiableMap(contents);
+        for (int i = 0; i < this.segments.size(); i++) {
+            Set<String> relatedServices = this.segments.get(i).getRelatedServices();
+            if (relatedServices.isEmpty()) {
+                unconditionalSegments.set(i);
+            }
+            for (String component : relatedServices) {
+                segmentsByComponent.computeIfAbsent(component, key -> new BitSet()).set(i);
+            }
+        }
+    }
+
+    public List<BlueprintSegment> getSegments() {
+        return segments;
+    }
+
+    public List<BlueprintSegment> getSegments(Set<String> components) {
+        BitSet selected = (BitSet) unconditionalSegments.clone();
+        for (String component : components) {
+            BitSet related = segmentsByComponent.get(component);
+            if (related != null) {
+                selected.or(related);
+            }
+        }
+        List<BlueprintSegment> result = new ArrayList<>(selected.cardinality());
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            result.add(segments.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * All the files of the directory by service, including the services.json files.
+     */
+    public Map<ServiceName, TemplateFiles> getTemplateFiles() {
+        return templateFiles;
+    }
+
+    /**
+     * The content of the template files of the segments by their path.
+     */
+    public Map<String, String> getContents() {
+        return contents;
+    }
+}
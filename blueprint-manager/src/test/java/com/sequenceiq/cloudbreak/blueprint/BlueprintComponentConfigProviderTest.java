@@ -16,13 +16,14 @@ public class BlueprintComponentConfigProviderTest {
         BlueprintPreparationObject object = BlueprintPreparationObject.Builder.builder().build();
 
         BlueprintComponentConfigProviderTestImpl blueprintComponentConfigProviderTest = new BlueprintComponentConfigProviderTestImpl();
+        BlueprintTextProcessor blueprintProcessor = new BlueprintTextProcessor(blueprintText);
 
         Assert.assertNotNull(blueprintComponentConfigProviderTest.components());
-        Assert.assertNotNull(blueprintComponentConfigProviderTest.getSettingsEntries(object, blueprintText));
-        Assert.assertNotNull(blueprintComponentConfigProviderTest.getConfigurationEntries(object, blueprintText));
-        Assert.assertNotNull(blueprintComponentConfigProviderTest.specialCondition(object, blueprintText));
-        Assert.assertNotNull(blueprintComponentConfigProviderTest.getHostgroupConfigurationEntries(object, blueprintText));
-        Assert.assertNotNull(blueprintComponentConfigProviderTest.customTextManipulation(object, new BlueprintTextProcessor(blueprintText)));
+        Assert.assertNotNull(blueprintComponentConfigProviderTest.getSettingsEntries(object, blueprintProcessor));
+        Assert.assertNotNull(blueprintComponentConfigProviderTest.getConfigurationEntries(object, blueprintProcessor));
+        Assert.assertNotNull(blueprintComponentConfigProviderTest.specialCondition(object, blueprintProcessor));
+        Assert.assertNotNull(blueprintComponentConfigProviderTest.getHostgroupConfigurationEntries(object, blueprintProcessor));
+        Assert.assertNotNull(blueprintComponentConfigProviderTest.customTextManipulation(object, blueprintProcessor));
     }
 
     public static class BlueprintComponentConfigProviderTestImpl implements BlueprintComponentConfigProvider {
@@ -1,17 +1,19 @@
 package com.sequenceiq.cloudbreak.blueprint;
 
 import static com.sequenceiq.cloudbreak.blueprint.templates.ServiceName.serviceName;
-import static com.sequenceiq.cloudbreak.blueprint.templates.TemplateFiles.templateFiles;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyMap;
-import static org.mockito.Matchers.anySet;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -22,9 +24,10 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.sequenceiq.cloudbreak.blueprint.template.BlueprintTemplateProcessor;
-import com.sequenceiq.cloudbreak.blueprint.templates.ServiceName;
-import com.sequenceiq.cloudbreak.blueprint.templates.TemplateFiles;
+import com.sequenceiq.cloudbreak.blueprint.templates.BlueprintSegment;
+import com.sequenceiq.cloudbreak.blueprint.templates.BlueprintSegmentCatalog;
 import com.sequenceiq.cloudbreak.util.FileReaderUtils;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -39,9 +42,6 @@ public class BlueprintSegmentProcessorTest {
     @Mock
     private BlueprintTextProcessor blueprintProcessor;
 
-    @Mock
-    private BlueprintProcessorFactory blueprintProcessorFactory;
-
     @InjectMocks
     private final BlueprintSegmentProcessor underTest = new BlueprintSegmentProcessor();
 
@@ -53,29 +53,36 @@ public class BlueprintSegmentProcessorTest {
     public void before() throws IOException {
         expectedBlueprint = FileReaderUtils.readFileFromClasspath("blueprints-jackson/bp-kerberized-test.bp");
 
-        Map<ServiceName, TemplateFiles> configFiles = new HashMap<>();
-        configFiles.put(serviceName("zeppelin"), templateFiles(
-                Lists.newArrayList("blueprints/basics/zeppelin/shiro_ini_content.handlebars", "blueprints/basics/zeppelin/services.json")));
-
-        Map<ServiceName, TemplateFiles> serviceFiles = new HashMap<>();
-        serviceFiles.put(serviceName("atlas"), templateFiles(
-                Lists.newArrayList("handlebar/configurations/atlas/atlas-with-ldap.json", "handlebar/configurations/atlas/atlas-without-ldap.json")));
-
-        when(blueprintSegmentReader.collectAllConfigFile()).thenReturn(configFiles);
-        when(blueprintSegmentReader.collectAllServiceFile()).thenReturn(serviceFiles);
-        when(blueprintProcessor.componentsExistsInBlueprint(anySet())).thenReturn(true);
-        when(blueprintTemplateProcessor.process(anyString(), any(BlueprintPreparationObject.class), anyMap())).thenReturn(expectedBlueprint);
+        BlueprintSegment zeppelin = new BlueprintSegment(serviceName("zeppelin"),
+                Lists.newArrayList("blueprints/basics/zeppelin/shiro_ini_content.handlebars"), Sets.newHashSet("ZEPPELIN_MASTER"));
+        BlueprintSegment atlas = new BlueprintSegment(serviceName("atlas"),
+                Lists.newArrayList("handlebar/configurations/atlas/atlas-with-ldap.json", "handlebar/configurations/atlas/atlas-without-ldap.json"),
+                Collections.emptySet());
+        BlueprintSegment hive = new BlueprintSegment(serviceName("hive"),
+                Lists.newArrayList("handlebar/configurations/hive/hive.json"), Sets.newHashSet("HIVE_METASTORE"));
+
+        when(blueprintSegmentReader.getConfigCatalog()).thenReturn(catalog(zeppelin));
+        when(blueprintSegmentReader.getServiceCatalog()).thenReturn(catalog(atlas, hive));
+        when(blueprintSegmentReader.getSettingsCatalog()).thenReturn(catalog());
+        when(blueprintProcessor.getAllComponents()).thenReturn(Sets.newHashSet("ZEPPELIN_MASTER", "NAMENODE"));
+        when(blueprintTemplateProcessor.processSegment(anyString(), any(BlueprintPreparationObject.class), anyMap())).thenReturn(expectedBlueprint);
         when(blueprintProcessor.addConfigEntryStringToBlueprint(anyString(), anyBoolean())).thenReturn(blueprintProcessor);
-        when(blueprintProcessor.asText()).thenReturn(expectedBlueprint);
-        when(blueprintProcessorFactory.get(anyString())).thenReturn(blueprintProcessor);
     }
 
     @Test
-    public void test() {
-        String process = underTest.process(expectedBlueprint, object);
-
-        Assert.assertEquals(expectedBlueprint, process);
+    public void test() throws IOException {
+        BlueprintTextProcessor process = underTest.process(blueprintProcessor, object);
+
+        Assert.assertEquals(blueprintProcessor, process);
+        verify(blueprintProcessor, times(2)).addConfigEntryStringToBlueprint(expectedBlueprint, false);
+        verify(blueprintTemplateProcessor).processSegment(eq("blueprints/basics/zeppelin/shiro_ini_content.handlebars"),
+                any(BlueprintPreparationObject.class), anyMap());
+        verify(blueprintTemplateProcessor, never()).processSegment(eq("handlebar/configurations/hive/hive.json"),
+                any(BlueprintPreparationObject.class), anyMap());
+    }
 
+    private BlueprintSegmentCatalog catalog(BlueprintSegment... segments) {
+        return new BlueprintSegmentCatalog(Arrays.asList(segments), Collections.emptyMap(), Collections.emptyMap());
     }
 
-}
\ No newline at end of file
+}
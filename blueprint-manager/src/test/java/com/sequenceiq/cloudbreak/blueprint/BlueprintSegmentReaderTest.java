@@ -1,6 +1,10 @@
 package com.sequenceiq.cloudbreak.blueprint;
 
+import static com.sequenceiq.cloudbreak.blueprint.templates.ServiceName.serviceName;
+
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Assert;
@@ -12,6 +16,8 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.boot.context.embedded.AnnotationConfigEmbeddedWebApplicationContext;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import com.sequenceiq.cloudbreak.blueprint.templates.BlueprintSegment;
+import com.sequenceiq.cloudbreak.blueprint.templates.BlueprintSegmentCatalog;
 import com.sequenceiq.cloudbreak.blueprint.templates.ServiceName;
 import com.sequenceiq.cloudbreak.blueprint.templates.TemplateFiles;
 
@@ -41,4 +47,22 @@ public class BlueprintSegmentReaderTest {
         Assert.assertEquals(20, serviceFiles.size());
         Assert.assertEquals(1, settingsFiles.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testThatCatalogIsReadOnceAndIndexedByTheRelatedServices() {
+        BlueprintSegmentCatalog catalog = underTest.getConfigCatalog();
+
+        Assert.assertSame(catalog, underTest.getConfigCatalog());
+        Assert.assertSame(catalog.getTemplateFiles(), underTest.collectAllConfigFile());
+        List<BlueprintSegment> zeppelinSegments = catalog.getSegments(Collections.singleton("ZEPPELIN_MASTER"));
+        Assert.assertTrue(zeppelinSegments.stream().anyMatch(segment -> segment.getServiceName().equals(serviceName("zeppelin"))));
+        Assert.assertTrue(catalog.getSegments(Collections.emptySet()).stream()
+                .noneMatch(segment -> segment.getServiceName().equals(serviceName("zeppelin"))));
+        for (BlueprintSegment segment : zeppelinSegments) {
+            for (String templatePath : segment.getTemplatePaths()) {
+                Assert.assertFalse(templatePath.endsWith("services.json"));
+                Assert.assertNotNull(underTest.collectAllSegmentContent().get(templatePath));
+            }
+        }
+    }
+}
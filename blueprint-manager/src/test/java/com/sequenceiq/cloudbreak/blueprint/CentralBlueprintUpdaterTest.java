@@ -37,6 +37,12 @@ public class CentralBlueprintUpdaterTest {
     @Mock
     private BlueprintComponentProviderProcessor blueprintComponentProviderProcessor;
 
+    @Mock
+    private BlueprintProcessorFactory blueprintProcessorFactory;
+
+    @Mock
+    private BlueprintTextProcessor blueprintProcessor;
+
     @InjectMocks
     private CentralBlueprintUpdater underTest;
 
@@ -56,16 +62,18 @@ public class CentralBlueprintUpdaterTest {
     @Test
     public void getBlueprintTextWhenEveryThingWorksFineThenShouldReturnWithAnUpdatedBlueprint() throws IOException {
         when(blueprintTemplateProcessor.process(testBlueprint, object, Maps.newHashMap())).thenReturn(testBlueprint);
-        when(blueprintSegmentProcessor.process(testBlueprint, object)).thenReturn(testBlueprint);
-        when(blueprintComponentProviderProcessor.process(object, testBlueprint)).thenReturn(testBlueprint);
+        when(blueprintProcessorFactory.get(testBlueprint)).thenReturn(blueprintProcessor);
+        when(blueprintProcessor.asText()).thenReturn(testBlueprint);
 
         String result = underTest.getBlueprintText(object);
 
         Assert.assertEquals(testBlueprint, result);
 
         verify(blueprintTemplateProcessor, times(1)).process(testBlueprint, object, Maps.newHashMap());
-        verify(blueprintSegmentProcessor, times(1)).process(testBlueprint, object);
-        verify(blueprintComponentProviderProcessor, times(1)).process(object, testBlueprint);
+        verify(blueprintProcessorFactory, times(1)).get(testBlueprint);
+        verify(blueprintSegmentProcessor, times(1)).process(blueprintProcessor, object);
+        verify(blueprintComponentProviderProcessor, times(1)).process(object, blueprintProcessor);
+        verify(blueprintProcessor, times(1)).asText();
     }
 
     @Test
@@ -82,7 +90,7 @@ public class CentralBlueprintUpdaterTest {
         Assert.assertEquals(testBlueprint, result);
 
         verify(blueprintTemplateProcessor, times(1)).process(testBlueprint, object, Maps.newHashMap());
-        verify(blueprintSegmentProcessor, times(0)).process(testBlueprint, object);
-        verify(blueprintComponentProviderProcessor, times(0)).process(object, testBlueprint);
+        verify(blueprintSegmentProcessor, times(0)).process(blueprintProcessor, object);
+        verify(blueprintComponentProviderProcessor, times(0)).process(object, blueprintProcessor);
     }
 }
\ No newline at end of file
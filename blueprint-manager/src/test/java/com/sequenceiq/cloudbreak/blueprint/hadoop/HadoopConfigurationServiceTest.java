@@ -54,7 +54,7 @@ public class HadoopConfigurationServiceTest {
                 .withBlueprintView(new BlueprintView("blueprintText", "2.5", "HDP"))
                 .build();
 
-        boolean actual = underTest.specialCondition(source, "blueprintText");
+        boolean actual = underTest.specialCondition(source, mock(BlueprintTextProcessor.class));
         Assert.assertTrue(actual);
     }
 
@@ -64,7 +64,7 @@ public class HadoopConfigurationServiceTest {
                 .withBlueprintView(new BlueprintView("blueprintText", "2.5", "HDF"))
                 .build();
 
-        boolean actual = underTest.specialCondition(source, "blueprintText");
+        boolean actual = underTest.specialCondition(source, mock(BlueprintTextProcessor.class));
         Assert.assertFalse(actual);
     }
 
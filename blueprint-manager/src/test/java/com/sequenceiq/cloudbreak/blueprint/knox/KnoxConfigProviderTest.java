@@ -43,13 +43,13 @@ public class KnoxConfigProviderTest {
         BlueprintPreparationObject object = Builder.builder()
                 .withGeneralClusterConfigs(BlueprintTestUtil.generalClusterConfigs())
                 .build();
-        assertFalse(configProvider.specialCondition(object, ""));
+        assertFalse(configProvider.specialCondition(object, new BlueprintTextProcessor("{}")));
     }
 
     @Test
     public void specialConditionTrue() {
         BlueprintPreparationObject object = buildPreparationObjectWithGateway();
-        assertTrue(configProvider.specialCondition(object, ""));
+        assertTrue(configProvider.specialCondition(object, new BlueprintTextProcessor("{}")));
     }
 
     private BlueprintPreparationObject buildPreparationObjectWithGateway() {
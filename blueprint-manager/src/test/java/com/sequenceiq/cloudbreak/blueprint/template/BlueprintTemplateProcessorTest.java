@@ -4,22 +4,27 @@ import static com.sequenceiq.cloudbreak.blueprint.filesystem.BlueprintTestUtil.g
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.google.common.collect.Maps;
 import com.sequenceiq.cloudbreak.TestUtil;
 import com.sequenceiq.cloudbreak.api.model.DatabaseVendor;
 import com.sequenceiq.cloudbreak.api.model.rds.RdsType;
 import com.sequenceiq.cloudbreak.blueprint.BlueprintPreparationObject;
+import com.sequenceiq.cloudbreak.blueprint.BlueprintSegmentReader;
 import com.sequenceiq.cloudbreak.blueprint.nifi.HdfConfigs;
 import com.sequenceiq.cloudbreak.blueprint.template.views.BlueprintView;
 import com.sequenceiq.cloudbreak.blueprint.templates.BlueprintStackInfo;
@@ -33,9 +38,21 @@ import com.sequenceiq.cloudbreak.util.FileReaderUtils;
 @RunWith(MockitoJUnitRunner.class)
 public class BlueprintTemplateProcessorTest {
 
+    @Mock
+    private BlueprintSegmentReader blueprintSegmentReader;
+
     @InjectMocks
+    private HandlebarTemplateCache templateCache;
+
     private final BlueprintTemplateProcessor underTest = new BlueprintTemplateProcessor();
 
+    @Before
+    public void setUp() throws IOException {
+        ReflectionTestUtils.setField(templateCache, "maxSize", 10L);
+        templateCache.init();
+        ReflectionTestUtils.setField(underTest, "templateCache", templateCache);
+    }
+
     @Test
     public void testMustacheGeneratorWithSimpleUseCase() throws Exception {
         String testBlueprint = FileReaderUtils.readFileFromClasspath("blueprints-jackson/bp-mustache-test.bp");
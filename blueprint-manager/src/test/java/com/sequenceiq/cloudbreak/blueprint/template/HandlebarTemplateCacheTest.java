@@ -0,0 +1,71 @@
+package com.sequenceiq.cloudbreak.blueprint.template;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.blueprint.BlueprintSegmentReader;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HandlebarTemplateCacheTest {
+
+    private static final String SEGMENT = "blueprints/basics/zeppelin/shiro_ini_content.handlebars";
+
+    @Mock
+    private BlueprintSegmentReader blueprintSegmentReader;
+
+    @InjectMocks
+    private HandlebarTemplateCache underTest;
+
+    @Test
+    public void testBlueprintIsCompiledOnceAndItsParametersAreKept() throws IOException {
+        init(10L);
+        String blueprint = "{\"Blueprints\":{\"blueprint_name\":\"{{ general.clusterName }}\",\"stack_version\":\"{{ stack.version }}\"}}";
+
+        CompiledTemplate template = underTest.getBlueprintTemplate(blueprint);
+
+        assertSame(template, underTest.getBlueprintTemplate(blueprint));
+        assertEquals(Arrays.asList("general.clusterName", "stack.version"), template.getParameters());
+        assertSame(template.getParameters(), template.getParameters());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedBlueprintIsEvicted() throws IOException {
+        init(1L);
+
+        CompiledTemplate first = underTest.getBlueprintTemplate("{\"first\":\"{{ a }}\"}");
+        underTest.getBlueprintTemplate("{\"second\":\"{{ b }}\"}");
+
+        assertNotSame(first, underTest.getBlueprintTemplate("{\"first\":\"{{ a }}\"}"));
+    }
+
+    @Test
+    public void testSegmentsAreCompiledAtStartup() throws IOException {
+        when(blueprintSegmentReader.collectAllSegmentContent()).thenReturn(Collections.singletonMap(SEGMENT, "[main]\n{{ ldap.url }}"));
+        init(10L);
+
+        CompiledTemplate segment = underTest.getSegmentTemplate(SEGMENT);
+
+        assertSame(segment, underTest.getSegmentTemplate(SEGMENT));
+        assertEquals(1, ((Map<?, ?>) ReflectionTestUtils.getField(underTest, "segmentTemplates")).size());
+        assertEquals(Collections.singletonList("ldap.url"), segment.getParameters());
+    }
+
+    private void init(long maxSize) throws IOException {
+        ReflectionTestUtils.setField(underTest, "maxSize", maxSize);
+        underTest.init();
+    }
+}
@@ -0,0 +1,42 @@
+package com.sequenceiq.cloudbreak.common.service.notification;
+
+public class NotificationDeliverySettings {
+
+    private final int queueCapacity;
+
+    private final int batchSize;
+
+    private final int timeoutMs;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMs;
+
+    public NotificationDeliverySettings(int queueCapacity, int batchSize, int timeoutMs, int maxAttempts, long initialBackoffMs) {
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.timeoutMs = timeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+}
@@ -0,0 +1,172 @@
+package com.sequenceiq.cloudbreak.common.service.notification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+
+import org.glassfish.jersey.client.ClientProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.CounterService;
+
+/**
+ * Delivers the notifications to the subscribed endpoints in the background, so the caller only enqueues them. Every endpoint has its
+ * own bounded queue that is drained by at most one task at a time, so a slow or unavailable endpoint does not delay the others and
+ * the order of the notifications of an endpoint is kept. The queued notifications are posted as a JSON array of at most batch size
+ * elements. A failed batch is retried with exponential backoff and dropped after the last attempt, notifications that do not fit in
+ * the queue of the endpoint are dropped right away.
+ */
+public class NotificationDispatcher {
+
+    static final String DELIVERED = ".delivered";
+
+    static final String FAILED = ".failed";
+
+    static final String DROPPED = ".dropped";
+
+    static final String OVERFLOW = ".overflow";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final long MAX_BACKOFF_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final int MAX_BACKOFF_DOUBLINGS = 16;
+
+    private final Client client;
+
+    private final ScheduledExecutorService executor;
+
+    private final CounterService counterService;
+
+    private final String metricPrefix;
+
+    private final NotificationDeliverySettings settings;
+
+    private final Map<String, EndpointQueue> queues = new ConcurrentHashMap<>();
+
+    public NotificationDispatcher(Client client, ScheduledExecutorService executor, CounterService counterService, String metricPrefix,
+            NotificationDeliverySettings settings) {
+        this.client = client;
+        this.executor = executor;
+        this.counterService = counterService;
+        this.metricPrefix = metricPrefix;
+        this.settings = settings;
+    }
+
+    public void dispatch(Collection<String> endpoints, Object notification) {
+        for (String endpoint : endpoints) {
+            EndpointQueue queue = queues.computeIfAbsent(endpoint, EndpointQueue::new);
+            if (queue.notifications.offer(notification)) {
+                scheduleDrain(queue);
+            } else {
+                LOGGER.info("Notification queue of endpoint '{}' is full, the notification is dropped.", endpoint);
+                counterService.increment(metricPrefix + OVERFLOW);
+            }
+        }
+    }
+
+    /**
+     * Forgets the queues of the endpoints that are not subscribed anymore. The notifications already queued for them are dropped.
+     */
+    public void retainEndpoints(Collection<String> endpoints) {
+        queues.keySet().retainAll(endpoints);
+    }
+
+    void post(String endpoint, List<Object> batch) {
+        client.target(endpoint)
+                .request()
+                .property(ClientProperties.CONNECT_TIMEOUT, settings.getTimeoutMs())
+                .property(ClientProperties.READ_TIMEOUT, settings.getTimeoutMs())
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                .post(Entity.json(batch), String.class);
+    }
+
+    private void scheduleDrain(EndpointQueue queue) {
+        if (queue.draining.compareAndSet(false, true)) {
+            submit(queue, 0L);
+        }
+    }
+
+    private void submit(EndpointQueue queue, long delayMs) {
+        try {
+            if (delayMs > 0L) {
+                executor.schedule(() -> drain(queue), delayMs, TimeUnit.MILLISECONDS);
+            } else {
+                executor.execute(() -> drain(queue));
+            }
+        } catch (RejectedExecutionException e) {
+            LOGGER.info("Notification delivery to '{}' is stopped: {}", queue.endpoint, e.getMessage());
+            queue.draining.set(false);
+        }
+    }
+
+    private void drain(EndpointQueue queue) {
+        if (queue.batch.isEmpty()) {
+            queue.notifications.drainTo(queue.batch, settings.getBatchSize());
+        }
+        if (queue.batch.isEmpty()) {
+            queue.draining.set(false);
+            if (!queue.notifications.isEmpty()) {
+                scheduleDrain(queue);
+            }
+            return;
+        }
+        try {
+            post(queue.endpoint, queue.batch);
+            counterService.increment(metricPrefix + DELIVERED);
+            completeBatch(queue);
+        } catch (RuntimeException e) {
+            counterService.increment(metricPrefix + FAILED);
+            queue.attempts++;
+            if (queue.attempts >= settings.getMaxAttempts()) {
+                LOGGER.info("Could not send {} notification(s) to the specified endpoint: '{}' in {} attempts, they are dropped. Cause: {}",
+                        queue.batch.size(), queue.endpoint, queue.attempts, e.getMessage());
+                counterService.increment(metricPrefix + DROPPED);
+                completeBatch(queue);
+            } else {
+                long backoff = Math.min(settings.getInitialBackoffMs() << Math.min(queue.attempts - 1, MAX_BACKOFF_DOUBLINGS), MAX_BACKOFF_MS);
+                LOGGER.debug("Could not send notifications to the specified endpoint: '{}', retrying in {} ms. Cause: {}", queue.endpoint,
+                        backoff, e.getMessage());
+                submit(queue, backoff);
+            }
+        }
+    }
+
+    private void completeBatch(EndpointQueue queue) {
+        queue.batch.clear();
+        queue.attempts = 0;
+        submit(queue, 0L);
+    }
+
+    private class EndpointQueue {
+
+        private final String endpoint;
+
+        private final BlockingQueue<Object> notifications;
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        // only touched by the drain task of the endpoint
+        private final List<Object> batch = new ArrayList<>();
+
+        private int attempts;
+
+        EndpointQueue(String endpoint) {
+            this.endpoint = endpoint;
+            notifications = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        }
+    }
+}
@@ -23,7 +23,17 @@ public enum MetricType {
 
     FLOW_STEP("flowstep"),
     ACTIVE_FLOWS("activeflow"),
-    HEARTBEAT_UPDATE_FAILED("heartbeat.update.failed");
+    HEARTBEAT_UPDATE_FAILED("heartbeat.update.failed"),
+    FLOWLOG_JOURNAL_PENDING("flowlog.journal.pending"),
+    FLOWLOG_JOURNAL_FLUSH_FAILED("flowlog.journal.flush.failed"),
+    EVENTBUS_LANE_BACKLOG("eventbus.lane.backlog"),
+    EVENTBUS_BACKPRESSURE_WAITS("eventbus.backpressure.waits"),
+    EVENTBUS_BACKPRESSURE_TIMEOUTS("eventbus.backpressure.timeouts"),
+    POLLING_IN_FLIGHT("polling.inflight"),
+    POLLING_TICK_LAG("polling.tick.lag"),
+    IMAGE_CATALOG_AGE("imagecatalog.age"),
+    IMAGE_CATALOG_REFRESH_DURATION("imagecatalog.refresh.duration"),
+    IMAGE_CATALOG_REFRESH_FAILED("imagecatalog.refresh.failed");
 
     private final String metricName;
 
@@ -0,0 +1,123 @@
+package com.sequenceiq.cloudbreak.common.service.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.boot.actuate.metrics.CounterService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NotificationDispatcherTest {
+
+    private static final String PREFIX = "test.notification";
+
+    private static final String SLOW = "http://slow";
+
+    private static final String FAST = "http://fast";
+
+    @Mock
+    private ScheduledExecutorService executor;
+
+    @Mock
+    private CounterService counterService;
+
+    private final List<Runnable> executed = new ArrayList<>();
+
+    private final List<String> posts = new ArrayList<>();
+
+    private final Set<String> failingEndpoints = new HashSet<>();
+
+    private NotificationDispatcher underTest;
+
+    @Before
+    public void setUp() {
+        doAnswer(invocation -> executed.add(invocation.getArgument(0))).when(executor).execute(any(Runnable.class));
+        underTest = new NotificationDispatcher(null, executor, counterService, PREFIX, new NotificationDeliverySettings(3, 2, 1000, 3, 100L)) {
+            @Override
+            void post(String endpoint, List<Object> batch) {
+                posts.add(endpoint + batch);
+                if (failingEndpoints.contains(endpoint)) {
+                    throw new IllegalStateException("connection refused");
+                }
+            }
+        };
+    }
+
+    @Test
+    public void testNotificationsAreQueuedWithoutPostingOnTheCallerThread() {
+        underTest.dispatch(Arrays.asList(SLOW, FAST), "first");
+        underTest.dispatch(Arrays.asList(SLOW, FAST), "second");
+        underTest.dispatch(Arrays.asList(SLOW, FAST), "third");
+
+        assertEquals(0, posts.size());
+        assertEquals(2, executed.size());
+
+        runAll();
+
+        assertEquals(Arrays.asList(SLOW + "[first, second]", FAST + "[first, second]", SLOW + "[third]", FAST + "[third]"), posts);
+        verify(counterService, times(4)).increment(PREFIX + NotificationDispatcher.DELIVERED);
+    }
+
+    @Test
+    public void testNotificationsOverTheCapacityOfTheQueueAreDropped() {
+        for (int i = 0; i < 5; i++) {
+            underTest.dispatch(Collections.singletonList(FAST), i);
+        }
+
+        runAll();
+
+        assertEquals(Arrays.asList(FAST + "[0, 1]", FAST + "[2]"), posts);
+        verify(counterService, times(2)).increment(PREFIX + NotificationDispatcher.OVERFLOW);
+    }
+
+    @Test
+    public void testFailedBatchIsRetriedWithBackoffThenDropped() {
+        failingEndpoints.add(SLOW);
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        when(executor.schedule(retry.capture(), anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(null);
+
+        underTest.dispatch(Arrays.asList(SLOW, FAST), "event");
+        runAll();
+        retry.getValue().run();
+        retry.getValue().run();
+        runAll();
+
+        verify(executor).schedule(any(Runnable.class), eq(100L), eq(TimeUnit.MILLISECONDS));
+        verify(executor).schedule(any(Runnable.class), eq(200L), eq(TimeUnit.MILLISECONDS));
+        assertEquals(Arrays.asList(SLOW + "[event]", FAST + "[event]", SLOW + "[event]", SLOW + "[event]"), posts);
+        verify(counterService, times(3)).increment(PREFIX + NotificationDispatcher.FAILED);
+        verify(counterService, times(1)).increment(PREFIX + NotificationDispatcher.DROPPED);
+
+        failingEndpoints.clear();
+        underTest.dispatch(Collections.singletonList(SLOW), "next");
+        runAll();
+
+        assertEquals(SLOW + "[next]", posts.get(posts.size() - 1));
+    }
+
+    private void runAll() {
+        while (!executed.isEmpty()) {
+            executed.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.sequenceiq.cloudbreak.cloud.reactor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sequenceiq.cloudbreak.cloud.event.Payload;
+import com.sequenceiq.cloudbreak.concurrent.MDCCleanerThreadPoolExecutor;
+
+import reactor.bus.Event;
+import reactor.core.Dispatcher;
+import reactor.core.support.NamedDaemonThreadFactory;
+import reactor.fn.Consumer;
+
+/**
+ * Event bus dispatcher that executes the events of the same stack on the same single threaded lane, in the order they were sent.
+ * The lane of an event is selected by the stack id of its {@link Payload}, events without stack id are spread across the lanes.
+ * <p>
+ * Threads outside of the dispatcher are blocked for at most the configured back-pressure timeout while the selected lane is full,
+ * the lane threads themselves are never blocked, because a full lane could not drain while its own thread waits for it.
+ * Events are never rejected or executed on the caller thread.
+ * <p>
+ * A long running event handler holds up every later event of the stacks on its lane, so the number of lanes should be kept close
+ * to the number of concurrently provisioned stacks.
+ */
+public class StackShardedDispatcher implements Dispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StackShardedDispatcher.class);
+
+    private static final long BACK_PRESSURE_POLL_INTERVAL = 10L;
+
+    private final List<ThreadPoolExecutor> lanes;
+
+    private final int laneCapacity;
+
+    private final long backPressureTimeout;
+
+    private final ThreadLocal<Boolean> laneThread = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    private final AtomicLong backPressureWaits = new AtomicLong();
+
+    private final AtomicLong backPressureTimeouts = new AtomicLong();
+
+    public StackShardedDispatcher(String name, int laneCount, int laneCapacity, long backPressureTimeout, ClassLoader contextClassLoader) {
+        this.laneCapacity = laneCapacity;
+        this.backPressureTimeout = backPressureTimeout;
+        lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            ThreadPoolExecutor lane = new MDCCleanerThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    new NamedDaemonThreadFactory(name + '-' + i, contextClassLoader), new ThreadPoolExecutor.AbortPolicy());
+            lane.execute(() -> laneThread.set(Boolean.TRUE));
+            lanes.add(lane);
+        }
+    }
+
+    @Override
+    public <E> void tryDispatch(E data, Consumer<E> eventConsumer, Consumer<Throwable> errorConsumer) {
+        dispatch(data, eventConsumer, errorConsumer);
+    }
+
+    @Override
+    public <E> void dispatch(E data, Consumer<E> eventConsumer, Consumer<Throwable> errorConsumer) {
+        ThreadPoolExecutor lane = lanes.get(selectLane(data));
+        waitForCapacity(lane);
+        lane.execute(() -> {
+            try {
+                eventConsumer.accept(data);
+            } catch (RuntimeException e) {
+                if (errorConsumer != null) {
+                    errorConsumer.accept(e);
+                } else {
+                    LOGGER.error("Event dispatching failed", e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        lanes.get(nextLane()).execute(command);
+    }
+
+    @Override
+    public long remainingSlots() {
+        return Math.max(0L, (long) laneCapacity * lanes.size() - backlogSize());
+    }
+
+    @Override
+    public boolean supportsOrdering() {
+        return false;
+    }
+
+    @Override
+    public long backlogSize() {
+        return lanes.stream().mapToLong(lane -> lane.getQueue().size()).sum();
+    }
+
+    @Override
+    public boolean inContext() {
+        return laneThread.get();
+    }
+
+    @Override
+    public boolean alive() {
+        return lanes.stream().noneMatch(ThreadPoolExecutor::isShutdown);
+    }
+
+    @Override
+    public void shutdown() {
+        lanes.forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    @Override
+    public boolean awaitAndShutdown() {
+        return awaitAndShutdown(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean awaitAndShutdown(long timeout, TimeUnit timeUnit) {
+        shutdown();
+        long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                if (!lane.awaitTermination(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void forceShutdown() {
+        lanes.forEach(ThreadPoolExecutor::shutdownNow);
+    }
+
+    public int[] getLaneBacklogSizes() {
+        return lanes.stream().mapToInt(lane -> lane.getQueue().size()).toArray();
+    }
+
+    public long getBackPressureWaits() {
+        return backPressureWaits.get();
+    }
+
+    public long getBackPressureTimeouts() {
+        return backPressureTimeouts.get();
+    }
+
+    private int selectLane(Object data) {
+        Object payload = data instanceof Event ? ((Event<?>) data).getData() : data;
+        Long stackId = payload instanceof Payload ? ((Payload) payload).getStackId() : null;
+        return stackId != null ? (int) Math.floorMod(stackId, (long) lanes.size()) : nextLane();
+    }
+
+    private int nextLane() {
+        return Math.floorMod(roundRobin.getAndIncrement(), lanes.size());
+    }
+
+    private void waitForCapacity(ThreadPoolExecutor lane) {
+        if (laneThread.get() || lane.getQueue().size() < laneCapacity) {
+            return;
+        }
+        backPressureWaits.incrementAndGet();
+        long deadline = System.currentTimeMillis() + backPressureTimeout;
+        try {
+            while (lane.getQueue().size() >= laneCapacity) {
+                if (System.currentTimeMillis() >= deadline) {
+                    backPressureTimeouts.incrementAndGet();
+                    LOGGER.warn("Event bus lane is still full after {}ms, the event is queued above the lane capacity of {}.",
+                            backPressureTimeout, laneCapacity);
+                    return;
+                }
+                Thread.sleep(BACK_PRESSURE_POLL_INTERVAL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
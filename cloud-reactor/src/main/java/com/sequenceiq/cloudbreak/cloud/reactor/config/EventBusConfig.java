@@ -8,6 +8,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import com.sequenceiq.cloudbreak.cloud.handler.ConsumerNotFoundHandler;
+import com.sequenceiq.cloudbreak.cloud.reactor.StackShardedDispatcher;
 import com.sequenceiq.cloudbreak.concurrent.MDCCleanerThreadPoolExecutor;
 
 import reactor.Environment;
@@ -24,6 +25,15 @@ public class EventBusConfig {
     @Value("${cb.eventbus.threadpool.core.size:}")
     private int eventBusThreadPoolSize;
 
+    @Value("${cb.eventbus.dispatcher.sharded:false}")
+    private boolean shardedDispatcher;
+
+    @Value("${cb.eventbus.dispatcher.lane.capacity:1000}")
+    private int laneCapacity;
+
+    @Value("${cb.eventbus.dispatcher.backpressure.timeout:10000}")
+    private long backPressureTimeout;
+
     @Bean
     public Timer timer(Environment env) {
         return env.getTimer();
@@ -35,19 +45,27 @@ public class EventBusConfig {
     }
 
     @Bean
-    public EventBus reactor(Environment env) {
+    public EventBus reactor(Environment env, Dispatcher eventBusDispatcher) {
         return new EventBusSpec()
                 .env(env)
-                .dispatcher(getEventBusDispatcher())
+                .dispatcher(eventBusDispatcher)
                 .traceEventPath()
                 .consumerNotFoundHandler(new ConsumerNotFoundHandler())
                 .get();
     }
 
-    private Dispatcher getEventBusDispatcher() {
+    /**
+     * The sharded dispatcher keeps the events of a stack in order on one lane and applies back-pressure instead of running the
+     * event on the caller thread. It is disabled by default because blocking event handlers hold up every stack of their lane.
+     */
+    @Bean
+    public Dispatcher eventBusDispatcher() {
         ClassLoader context = new ClassLoader(Thread.currentThread()
                 .getContextClassLoader()) {
         };
+        if (shardedDispatcher) {
+            return new StackShardedDispatcher("reactorDispatcher", eventBusThreadPoolSize, laneCapacity, backPressureTimeout, context);
+        }
         MDCCleanerThreadPoolExecutor executorService = new MDCCleanerThreadPoolExecutor(eventBusThreadPoolSize,
                 eventBusThreadPoolSize,
                 0L,
@@ -0,0 +1,143 @@
+package com.sequenceiq.cloudbreak.cloud.reactor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.sequenceiq.cloudbreak.cloud.event.Payload;
+
+import reactor.bus.Event;
+
+public class StackShardedDispatcherTest {
+
+    private static final int LANES = 8;
+
+    private static final int STACKS = 200;
+
+    private static final int EVENTS_PER_STACK = 100;
+
+    private static final int PRODUCERS = 4;
+
+    private StackShardedDispatcher underTest;
+
+    @After
+    public void tearDown() {
+        underTest.forceShutdown();
+    }
+
+    @Test
+    public void testEventsOfAStackAreExecutedInOrderUnderLoad() throws InterruptedException {
+        underTest = new StackShardedDispatcher("test", LANES, 100, 10000L, getClass().getClassLoader());
+        Map<Long, List<Integer>> executed = new ConcurrentHashMap<>();
+        Map<Long, String> threads = new ConcurrentHashMap<>();
+        AtomicInteger threadViolations = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(STACKS * EVENTS_PER_STACK);
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            producers.submit(() -> {
+                for (int seq = 0; seq < EVENTS_PER_STACK; seq++) {
+                    for (long stackId = producer; stackId < STACKS; stackId += PRODUCERS) {
+                        underTest.dispatch(Event.wrap(new TestPayload(stackId, seq)), event -> {
+                            TestPayload payload = event.getData();
+                            String thread = threads.computeIfAbsent(payload.getStackId(), id -> Thread.currentThread().getName());
+                            if (!thread.equals(Thread.currentThread().getName())) {
+                                threadViolations.incrementAndGet();
+                            }
+                            executed.computeIfAbsent(payload.getStackId(), id -> new ArrayList<>()).add(payload.getSequence());
+                            done.countDown();
+                        }, null);
+                    }
+                }
+            });
+        }
+        long start = System.nanoTime();
+
+        assertTrue("Not every event was executed", done.await(1, TimeUnit.MINUTES));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        producers.shutdown();
+
+        assertEquals(0, threadViolations.get());
+        assertEquals(STACKS, executed.size());
+        for (List<Integer> sequences : executed.values()) {
+            assertEquals(EVENTS_PER_STACK, sequences.size());
+            for (int i = 0; i < EVENTS_PER_STACK; i++) {
+                assertEquals(Integer.valueOf(i), sequences.get(i));
+            }
+        }
+        assertTrue("Events were not dispatched in time: " + elapsedMillis + "ms", elapsedMillis < TimeUnit.MINUTES.toMillis(1));
+    }
+
+    @Test
+    public void testBackPressureDoesNotDropEvents() throws InterruptedException {
+        underTest = new StackShardedDispatcher("test", 1, 1, 50L, getClass().getClassLoader());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        underTest.dispatch(Event.wrap(new TestPayload(1L, 0)), event -> {
+            awaitQuietly(release);
+            done.countDown();
+        }, null);
+        underTest.dispatch(Event.wrap(new TestPayload(1L, 1)), event -> done.countDown(), null);
+        underTest.dispatch(Event.wrap(new TestPayload(1L, 2)), event -> done.countDown(), null);
+        release.countDown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(underTest.getBackPressureWaits() >= 1L);
+        assertTrue(underTest.getBackPressureTimeouts() >= 1L);
+    }
+
+    @Test
+    public void testDispatchFromALaneThreadIsNotBlocked() throws InterruptedException {
+        underTest = new StackShardedDispatcher("test", 1, 1, 10000L, getClass().getClassLoader());
+        CountDownLatch done = new CountDownLatch(3);
+        underTest.dispatch(Event.wrap(new TestPayload(1L, 0)), event -> {
+            underTest.dispatch(Event.wrap(new TestPayload(1L, 1)), nested -> done.countDown(), null);
+            underTest.dispatch(Event.wrap(new TestPayload(1L, 2)), nested -> done.countDown(), null);
+            done.countDown();
+        }, null);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0L, underTest.getBackPressureWaits());
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class TestPayload implements Payload {
+
+        private final Long stackId;
+
+        private final int sequence;
+
+        TestPayload(Long stackId, int sequence) {
+            this.stackId = stackId;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public Long getStackId() {
+            return stackId;
+        }
+
+        int getSequence() {
+            return sequence;
+        }
+    }
+}
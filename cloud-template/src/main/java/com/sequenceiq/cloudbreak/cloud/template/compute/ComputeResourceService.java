@@ -5,11 +5,9 @@ import static com.sequenceiq.cloudbreak.cloud.template.compute.CloudFailureHandl
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 
@@ -66,7 +64,8 @@ public class ComputeResourceService {
     public List<CloudResourceStatus> deleteResources(ResourceBuilderContext context, AuthenticatedContext auth,
             Iterable<CloudResource> resources, boolean cancellable) {
         List<CloudResourceStatus> results = new ArrayList<>();
-        Collection<Future<ResourceRequestResult<List<CloudResourceStatus>>>> futures = new ArrayList<>();
+        ResourceRequestWindow<List<CloudResourceStatus>, CloudResource> window = new ResourceRequestWindow<>(resourceBuilderExecutor,
+                context.getParallelResourceRequest(), (resource, result) -> addSuccessfulResult(results, result));
         Platform platform = auth.getCloudContext().getPlatform();
         List<ComputeResourceBuilder> builders = resourceBuilders.compute(platform);
         int numberOfBuilders = builders.size();
@@ -75,14 +74,10 @@ public class ComputeResourceService {
             List<CloudResource> resourceList = getResources(builder.resourceType(), resources);
             for (CloudResource cloudResource : resourceList) {
                 ResourceDeleteThread thread = createThread(ResourceDeleteThread.NAME, context, auth, cloudResource, builder, cancellable);
-                Future<ResourceRequestResult<List<CloudResourceStatus>>> future = resourceBuilderExecutor.submit(thread);
-                futures.add(future);
-                if (isRequestFull(futures.size(), context)) {
-                    results.addAll(flatList(waitForRequests(futures).get(FutureResult.SUCCESS)));
-                }
+                window.submit(thread, cloudResource);
             }
             // wait for builder type to finish before starting the next one
-            results.addAll(flatList(waitForRequests(futures).get(FutureResult.SUCCESS)));
+            window.drain();
         }
         return results;
     }
@@ -100,7 +95,8 @@ public class ComputeResourceService {
     private List<CloudVmInstanceStatus> stopStart(ResourceBuilderContext context,
             AuthenticatedContext auth, Iterable<CloudResource> resources, Iterable<CloudInstance> instances) {
         List<CloudVmInstanceStatus> results = new ArrayList<>();
-        Collection<Future<ResourceRequestResult<List<CloudVmInstanceStatus>>>> futures = new ArrayList<>();
+        ResourceRequestWindow<List<CloudVmInstanceStatus>, CloudInstance> window = new ResourceRequestWindow<>(resourceBuilderExecutor,
+                context.getParallelResourceRequest(), (instance, result) -> addSuccessfulResult(results, result));
         Platform platform = auth.getCloudContext().getPlatform();
         List<ComputeResourceBuilder> builders = resourceBuilders.compute(platform);
         if (!context.isBuild()) {
@@ -112,49 +108,20 @@ public class ComputeResourceService {
                 CloudInstance instance = getCloudInstance(cloudResource, instances);
                 if (instance != null) {
                     ResourceStopStartThread thread = createThread(ResourceStopStartThread.NAME, context, auth, cloudResource, instance, builder);
-                    Future<ResourceRequestResult<List<CloudVmInstanceStatus>>> future = resourceBuilderExecutor.submit(thread);
-                    futures.add(future);
-                    if (isRequestFull(futures.size(), context)) {
-                        results.addAll(flatVmList(waitForRequests(futures).get(FutureResult.SUCCESS)));
-                    }
+                    window.submit(thread, instance);
                 } else {
                     break;
                 }
             }
         }
-        results.addAll(flatVmList(waitForRequests(futures).get(FutureResult.SUCCESS)));
+        window.drain();
         return results;
     }
 
-    private <T> Map<FutureResult, List<T>> waitForRequests(Collection<Future<ResourceRequestResult<T>>> futures) {
-        Map<FutureResult, List<T>> result = new EnumMap<>(FutureResult.class);
-        result.put(FutureResult.FAILED, new ArrayList<>());
-        result.put(FutureResult.SUCCESS, new ArrayList<>());
-        int requests = futures.size();
-        LOGGER.info("Waiting for {} requests to finish", requests);
-        try {
-            for (Future<ResourceRequestResult<T>> future : futures) {
-                ResourceRequestResult<T> resourceRequestResult = future.get();
-                if (FutureResult.FAILED == resourceRequestResult.getStatus()) {
-                    result.get(FutureResult.FAILED).add(resourceRequestResult.getResult());
-                } else {
-                    result.get(FutureResult.SUCCESS).add(resourceRequestResult.getResult());
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            LOGGER.error("Failed to execute the request", e);
+    private <T> void addSuccessfulResult(Collection<T> results, ResourceRequestResult<List<T>> result) {
+        if (result != null && FutureResult.SUCCESS == result.getStatus()) {
+            results.addAll(result.getResult());
         }
-        LOGGER.info("{} requests have finished, continue with next group", requests);
-        futures.clear();
-        return result;
-    }
-
-    private boolean isRequestFull(int runningRequests, ResourceBuilderContext context) {
-        return isRequestFullWithCloudPlatform(1, runningRequests, context);
-    }
-
-    private boolean isRequestFullWithCloudPlatform(int numberOfBuilders, int runningRequests, ResourceBuilderContext context) {
-        return (runningRequests * numberOfBuilders) % context.getParallelResourceRequest() == 0;
     }
 
     private List<CloudResource> getResources(ResourceType resourceType, Iterable<CloudResource> resources) {
@@ -180,28 +147,18 @@ public class ComputeResourceService {
         return null;
     }
 
-    private Collection<CloudVmInstanceStatus> flatVmList(Iterable<List<CloudVmInstanceStatus>> lists) {
-        Collection<CloudVmInstanceStatus> result = new ArrayList<>();
-        for (List<CloudVmInstanceStatus> list : lists) {
-            result.addAll(list);
-        }
-        return result;
-    }
-
-    private List<CloudResourceStatus> flatList(Iterable<List<CloudResourceStatus>> lists) {
-        List<CloudResourceStatus> result = new ArrayList<>();
-        for (List<CloudResourceStatus> list : lists) {
-            result.addAll(list);
-        }
-        return result;
-    }
-
     private class ResourceBuilder {
 
         private final ResourceBuilderContext ctx;
 
         private final AuthenticatedContext auth;
 
+        private final List<CloudResourceStatus> results = new ArrayList<>();
+
+        private final Map<Group, Integer> pendingRequests = new IdentityHashMap<>();
+
+        private final Map<Group, List<CloudResourceStatus>> failures = new IdentityHashMap<>();
+
         ResourceBuilder(ResourceBuilderContext ctx, AuthenticatedContext auth) {
             this.ctx = ctx;
             this.auth = auth;
@@ -209,35 +166,55 @@ public class ComputeResourceService {
 
         public List<CloudResourceStatus> buildResources(CloudStack cloudStack, Iterable<Group> groups, Boolean upscale, AdjustmentType adjustmentType,
                 Long threshold) {
-            List<CloudResourceStatus> results = new ArrayList<>();
             int fullNodeCount = getFullNodeCount(groups);
+            ScaleContext scaleContext = new ScaleContext(upscale, adjustmentType, threshold);
 
             CloudContext cloudContext = auth.getCloudContext();
-            Collection<Future<ResourceRequestResult<List<CloudResourceStatus>>>> futures = new ArrayList<>();
             List<ComputeResourceBuilder> builders = resourceBuilders.compute(cloudContext.getPlatform());
-            for (Group group : getOrderedCopy(groups)) {
-                List<CloudInstance> instances = group.getInstances();
-                for (CloudInstance instance : instances) {
-                    ResourceCreateThread thread = createThread(ResourceCreateThread.NAME, instance.getTemplate().getPrivateId(), group, ctx, auth, cloudStack);
-                    Future<ResourceRequestResult<List<CloudResourceStatus>>> future = resourceBuilderExecutor.submit(thread);
-                    futures.add(future);
-                    if (isRequestFullWithCloudPlatform(builders.size(), futures.size(), ctx)) {
-                        Map<FutureResult, List<List<CloudResourceStatus>>> futureResultListMap = waitForRequests(futures);
-                        results.addAll(flatList(futureResultListMap.get(FutureResult.SUCCESS)));
-                        results.addAll(flatList(futureResultListMap.get(FutureResult.FAILED)));
-                        cloudFailureHandler.rollback(auth, flatList(futureResultListMap.get(FutureResult.FAILED)), group,
-                                fullNodeCount, ctx, resourceBuilders, new ScaleContext(upscale, adjustmentType, threshold));
+            int windowSize = getCreateWindowSize(builders.size());
+            LOGGER.info("Creating the resources of {} instances with {} parallel requests", fullNodeCount, windowSize);
+            ResourceRequestWindow<List<CloudResourceStatus>, Group> window = new ResourceRequestWindow<>(resourceBuilderExecutor, windowSize,
+                    (group, result) -> onRequestFinished(group, result, fullNodeCount, scaleContext));
+            try {
+                for (Group group : getOrderedCopy(groups)) {
+                    List<CloudInstance> instances = group.getInstances();
+                    pendingRequests.put(group, instances.size());
+                    failures.put(group, new ArrayList<>());
+                    for (CloudInstance instance : instances) {
+                        ResourceCreateThread thread = createThread(ResourceCreateThread.NAME, instance.getTemplate().getPrivateId(), group, ctx, auth,
+                                cloudStack);
+                        window.submit(thread, group);
                     }
                 }
-                Map<FutureResult, List<List<CloudResourceStatus>>> futureResultListMap = waitForRequests(futures);
-                results.addAll(flatList(futureResultListMap.get(FutureResult.SUCCESS)));
-                results.addAll(flatList(futureResultListMap.get(FutureResult.FAILED)));
-                cloudFailureHandler.rollback(auth, flatList(futureResultListMap.get(FutureResult.FAILED)), group, fullNodeCount, ctx,
-                        resourceBuilders, new ScaleContext(upscale, adjustmentType, threshold));
+                window.drain();
+            } catch (RuntimeException e) {
+                window.abandon();
+                throw e;
             }
             return results;
         }
 
+        private void onRequestFinished(Group group, ResourceRequestResult<List<CloudResourceStatus>> result, int fullNodeCount,
+                ScaleContext scaleContext) {
+            if (result != null) {
+                results.addAll(result.getResult());
+                if (FutureResult.FAILED == result.getStatus()) {
+                    failures.get(group).addAll(result.getResult());
+                }
+            }
+            if (pendingRequests.merge(group, -1, Integer::sum) == 0) {
+                // every request of the group has finished, so the failure policy is evaluated on all of its failures at once
+                cloudFailureHandler.rollback(auth, failures.get(group), group, fullNodeCount, ctx, resourceBuilders, scaleContext);
+            }
+        }
+
+        /**
+         * Every create request calls all the compute builders of the platform, so the number of parallel requests is divided among them.
+         */
+        private int getCreateWindowSize(int numberOfBuilders) {
+            return ctx.getParallelResourceRequest() / Math.max(1, numberOfBuilders);
+        }
+
         private int getFullNodeCount(Iterable<Group> groups) {
             int fullNodeCount = 0;
             for (Group group : groups) {
@@ -0,0 +1,100 @@
+package com.sequenceiq.cloudbreak.cloud.template.compute;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sliding window of resource requests. At most {@code size} requests run at the same time, and a new request is started as soon as
+ * any running one finishes, so a single slow request does not hold back the others. The results are handed to the callback in
+ * completion order on the submitting thread, together with the key the request was submitted with.
+ */
+class ResourceRequestWindow<T, K> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceRequestWindow.class);
+
+    private final CompletionService<ResourceRequestResult<T>> completionService;
+
+    private final Map<Future<ResourceRequestResult<T>>, K> running = new HashMap<>();
+
+    private final int size;
+
+    private final BiConsumer<K, ResourceRequestResult<T>> onCompleted;
+
+    ResourceRequestWindow(Executor executor, int size, BiConsumer<K, ResourceRequestResult<T>> onCompleted) {
+        completionService = new ExecutorCompletionService<>(executor);
+        this.size = Math.max(1, size);
+        this.onCompleted = onCompleted;
+    }
+
+    /**
+     * Starts the request, after waiting for a running one to finish if the window is full.
+     */
+    public void submit(Callable<ResourceRequestResult<T>> request, K key) {
+        while (running.size() >= size) {
+            if (!takeNext(true)) {
+                break;
+            }
+        }
+        running.put(completionService.submit(request), key);
+    }
+
+    /**
+     * Waits for all the running requests to finish.
+     */
+    public void drain() {
+        if (!running.isEmpty()) {
+            LOGGER.info("Waiting for {} requests to finish", running.size());
+        }
+        while (!running.isEmpty()) {
+            if (!takeNext(true)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Waits for all the running requests to finish without handing their results to the callback, used when the processing of an
+     * earlier result failed and the remaining results are not needed anymore.
+     */
+    public void abandon() {
+        LOGGER.info("Waiting for {} requests to finish, their results are dropped", running.size());
+        while (!running.isEmpty()) {
+            if (!takeNext(false)) {
+                break;
+            }
+        }
+    }
+
+    private boolean takeNext(boolean notify) {
+        Future<ResourceRequestResult<T>> future;
+        try {
+            future = completionService.take();
+        } catch (InterruptedException e) {
+            LOGGER.error("Interrupted while waiting for {} requests to finish", running.size(), e);
+            Thread.currentThread().interrupt();
+            running.clear();
+            return false;
+        }
+        K key = running.remove(future);
+        ResourceRequestResult<T> result = null;
+        try {
+            result = future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            LOGGER.error("Failed to execute the request", e);
+        }
+        if (notify) {
+            onCompleted.accept(key, result);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,231 @@
+package com.sequenceiq.cloudbreak.cloud.template.compute;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.api.model.AdjustmentType;
+import com.sequenceiq.cloudbreak.cloud.context.AuthenticatedContext;
+import com.sequenceiq.cloudbreak.cloud.context.CloudContext;
+import com.sequenceiq.cloudbreak.cloud.exception.CloudConnectorException;
+import com.sequenceiq.cloudbreak.cloud.model.CloudInstance;
+import com.sequenceiq.cloudbreak.cloud.model.CloudResourceStatus;
+import com.sequenceiq.cloudbreak.cloud.model.CloudStack;
+import com.sequenceiq.cloudbreak.cloud.model.Group;
+import com.sequenceiq.cloudbreak.cloud.model.InstanceTemplate;
+import com.sequenceiq.cloudbreak.cloud.model.Platform;
+import com.sequenceiq.cloudbreak.cloud.model.ResourceStatus;
+import com.sequenceiq.cloudbreak.cloud.template.ComputeResourceBuilder;
+import com.sequenceiq.cloudbreak.cloud.template.compute.CloudFailureHandler.ScaleContext;
+import com.sequenceiq.cloudbreak.cloud.template.context.ResourceBuilderContext;
+import com.sequenceiq.cloudbreak.cloud.template.init.ResourceBuilders;
+
+public class ComputeResourceServiceTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ComputeResourceServiceTest.class);
+
+    private static final Platform PLATFORM = Platform.platform("MOCK");
+
+    private static final int PARALLEL_RESOURCE_REQUEST = 20;
+
+    private static final int NUMBER_OF_BUILDERS = 2;
+
+    private static final int WINDOW_SIZE = PARALLEL_RESOURCE_REQUEST / NUMBER_OF_BUILDERS;
+
+    private final ComputeResourceService underTest = new ComputeResourceService();
+
+    private final Map<Long, Long> latencies = new ConcurrentHashMap<>();
+
+    private final Set<Long> failingInstances = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger runningRequests = new AtomicInteger();
+
+    private final AtomicInteger maxRunningRequests = new AtomicInteger();
+
+    private final CloudFailureHandler cloudFailureHandler = mock(CloudFailureHandler.class);
+
+    private final ResourceBuilderContext context = new ResourceBuilderContext("stack", null, PARALLEL_RESOURCE_REQUEST);
+
+    private final AuthenticatedContext auth = mock(AuthenticatedContext.class);
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(64);
+        ResourceBuilders resourceBuilders = mock(ResourceBuilders.class);
+        given(resourceBuilders.compute(PLATFORM)).willReturn(Arrays.asList(mock(ComputeResourceBuilder.class), mock(ComputeResourceBuilder.class)));
+        CloudContext cloudContext = mock(CloudContext.class);
+        given(cloudContext.getPlatform()).willReturn(PLATFORM);
+        given(auth.getCloudContext()).willReturn(cloudContext);
+        ApplicationContext applicationContext = mock(ApplicationContext.class, invocation -> {
+            if ("getBean".equals(invocation.getMethod().getName()) && ResourceCreateThread.NAME.equals(invocation.getArgument(0))) {
+                return createThread(invocation.getArgument(1));
+            }
+            return null;
+        });
+        ReflectionTestUtils.setField(underTest, "resourceBuilderExecutor", new TaskExecutorAdapter(executorService));
+        ReflectionTestUtils.setField(underTest, "applicationContext", applicationContext);
+        ReflectionTestUtils.setField(underTest, "resourceBuilders", resourceBuilders);
+        ReflectionTestUtils.setField(underTest, "cloudFailureHandler", cloudFailureHandler);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testLaunchWithRandomLatencyIsFasterThanBatchBarriers() {
+        Random random = new Random(42L);
+        List<Group> groups = Arrays.asList(group("master", 1, 0L), group("worker", 80, 1L), group("compute", 40, 81L));
+        for (long privateId = 0; privateId < 121; privateId++) {
+            latencies.put(privateId, 20L + random.nextInt(180));
+        }
+
+        long start = System.currentTimeMillis();
+        List<CloudResourceStatus> statuses = underTest.buildResourcesForLaunch(context, auth, cloudStack(groups), AdjustmentType.EXACT, 121L);
+        long pipelined = System.currentTimeMillis() - start;
+        long batched = batchBarrierDuration(groups);
+
+        LOGGER.info("Launching 121 instances took {} ms with the sliding window, the batch barriers would take at least {} ms", pipelined, batched);
+        assertEquals(121, statuses.size());
+        assertEquals(WINDOW_SIZE, maxRunningRequests.get());
+        assertTrue("Sliding window (" + pipelined + " ms) is not faster than batch barriers (" + batched + " ms)", pipelined < batched);
+    }
+
+    @Test
+    public void testRollbackIsCalledOnceWithAllFailuresOfTheGroup() {
+        Group master = group("master", 1, 0L);
+        Group worker = group("worker", 25, 1L);
+        failingInstances.add(3L);
+        failingInstances.add(17L);
+
+        List<CloudResourceStatus> statuses = underTest.buildResourcesForLaunch(context, auth, cloudStack(Arrays.asList(master, worker)),
+                AdjustmentType.BEST_EFFORT, null);
+
+        assertEquals(26, statuses.size());
+        verify(cloudFailureHandler, times(1)).rollback(same(auth), withPrivateIds(), same(master), eq(26), same(context), any(),
+                any(ScaleContext.class));
+        verify(cloudFailureHandler, times(1)).rollback(same(auth), withPrivateIds(3L, 17L), same(worker), eq(26), same(context), any(),
+                any(ScaleContext.class));
+    }
+
+    @Test
+    public void testRollbackErrorIsThrownAfterRunningRequestsFinished() {
+        Group master = group("master", 1, 0L);
+        Group worker = group("worker", 30, 1L);
+        failingInstances.add(0L);
+        willThrow(new CloudConnectorException("threshold")).given(cloudFailureHandler).rollback(any(), any(), same(master), anyInt(), any(), any(),
+                any());
+
+        try {
+            underTest.buildResourcesForLaunch(context, auth, cloudStack(Arrays.asList(master, worker)), AdjustmentType.EXACT, 31L);
+            fail("Rollback error is not propagated");
+        } catch (CloudConnectorException e) {
+            assertEquals("threshold", e.getMessage());
+        }
+        assertEquals(0, runningRequests.get());
+    }
+
+    private ResourceCreateThread createThread(Long privateId) throws Exception {
+        ResourceCreateThread thread = mock(ResourceCreateThread.class);
+        given(thread.call()).willAnswer(invocation -> {
+            maxRunningRequests.accumulateAndGet(runningRequests.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(latencies.getOrDefault(privateId, 5L));
+            } finally {
+                runningRequests.decrementAndGet();
+            }
+            if (failingInstances.contains(privateId)) {
+                return new ResourceRequestResult<>(FutureResult.FAILED, failedStatuses(privateId));
+            }
+            return new ResourceRequestResult<>(FutureResult.SUCCESS, Collections.singletonList(status(privateId, ResourceStatus.CREATED)));
+        });
+        return thread;
+    }
+
+    private long batchBarrierDuration(List<Group> groups) {
+        long duration = 0L;
+        for (Group group : groups) {
+            List<CloudInstance> instances = group.getInstances();
+            for (int i = 0; i < instances.size(); i += WINDOW_SIZE) {
+                duration += instances.subList(i, Math.min(instances.size(), i + WINDOW_SIZE)).stream()
+                        .mapToLong(instance -> latencies.get(instance.getTemplate().getPrivateId())).max().getAsLong();
+            }
+        }
+        return duration;
+    }
+
+    private List<CloudResourceStatus> failedStatuses(Long... privateIds) {
+        List<CloudResourceStatus> statuses = new ArrayList<>();
+        for (Long privateId : privateIds) {
+            statuses.add(status(privateId, ResourceStatus.FAILED));
+        }
+        return statuses;
+    }
+
+    private CloudResourceStatus status(Long privateId, ResourceStatus resourceStatus) {
+        return new CloudResourceStatus(null, resourceStatus, "instance " + privateId, privateId);
+    }
+
+    private List<CloudResourceStatus> withPrivateIds(Long... privateIds) {
+        return argThat(statuses -> statuses.stream().map(CloudResourceStatus::getPrivateId).collect(Collectors.toSet())
+                .equals(new HashSet<>(Arrays.asList(privateIds))));
+    }
+
+    private Group group(String name, int size, long firstPrivateId) {
+        List<CloudInstance> instances = new ArrayList<>();
+        for (long privateId = firstPrivateId; privateId < firstPrivateId + size; privateId++) {
+            InstanceTemplate template = mock(InstanceTemplate.class);
+            given(template.getPrivateId()).willReturn(privateId);
+            CloudInstance instance = mock(CloudInstance.class);
+            given(instance.getTemplate()).willReturn(template);
+            instances.add(instance);
+        }
+        Group group = mock(Group.class);
+        given(group.getName()).willReturn(name);
+        given(group.getInstances()).willReturn(instances);
+        given(group.getInstancesSize()).willReturn(size);
+        return group;
+    }
+
+    private CloudStack cloudStack(List<Group> groups) {
+        CloudStack cloudStack = mock(CloudStack.class);
+        given(cloudStack.getGroups()).willReturn(groups);
+        return cloudStack;
+    }
+}
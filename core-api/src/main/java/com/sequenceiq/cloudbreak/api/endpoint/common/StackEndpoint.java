@@ -11,6 +11,7 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Response;
 
 import com.sequenceiq.cloudbreak.api.model.AmbariAddressJson;
+import com.sequenceiq.cloudbreak.api.model.AutoscaleStackChangesResponse;
 import com.sequenceiq.cloudbreak.api.model.AutoscaleStackResponse;
 import com.sequenceiq.cloudbreak.api.model.CertificateResponse;
 import com.sequenceiq.cloudbreak.api.model.PlatformVariantsJson;
@@ -53,4 +54,6 @@ public interface StackEndpoint {
     StackResponse getStackForAmbari(@Valid AmbariAddressJson json);
 
     Set<AutoscaleStackResponse> getAllForAutoscale();
+
+    AutoscaleStackChangesResponse getChangesForAutoscale(Long since);
 }
@@ -20,6 +20,7 @@ import javax.ws.rs.core.Response;
 
 import com.sequenceiq.cloudbreak.api.endpoint.common.StackEndpoint;
 import com.sequenceiq.cloudbreak.api.model.AmbariAddressJson;
+import com.sequenceiq.cloudbreak.api.model.AutoscaleStackChangesResponse;
 import com.sequenceiq.cloudbreak.api.model.AutoscaleStackResponse;
 import com.sequenceiq.cloudbreak.api.model.CertificateResponse;
 import com.sequenceiq.cloudbreak.api.model.PlatformVariantsJson;
@@ -173,4 +174,11 @@ public interface StackV1Endpoint extends StackEndpoint {
     @ApiOperation(value = StackOpDescription.GET_ALL, produces = ContentType.JSON, notes = Notes.STACK_NOTES, nickname = "getAllStack")
     Set<AutoscaleStackResponse> getAllForAutoscale();
 
+    @GET
+    @Path("all/changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    @ApiOperation(value = StackOpDescription.GET_ALL_CHANGES, produces = ContentType.JSON, notes = Notes.STACK_NOTES, nickname = "getAllStackChanges")
+    AutoscaleStackChangesResponse getChangesForAutoscale(@QueryParam("since") Long since);
+
 }
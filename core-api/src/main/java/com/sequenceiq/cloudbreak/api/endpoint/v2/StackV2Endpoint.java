@@ -20,6 +20,7 @@ import javax.ws.rs.core.Response;
 
 import com.sequenceiq.cloudbreak.api.endpoint.common.StackEndpoint;
 import com.sequenceiq.cloudbreak.api.model.AmbariAddressJson;
+import com.sequenceiq.cloudbreak.api.model.AutoscaleStackChangesResponse;
 import com.sequenceiq.cloudbreak.api.model.AutoscaleStackResponse;
 import com.sequenceiq.cloudbreak.api.model.CertificateResponse;
 import com.sequenceiq.cloudbreak.api.model.GeneratedBlueprintResponse;
@@ -239,6 +240,14 @@ public interface StackV2Endpoint extends StackEndpoint {
             nickname = "getAllStackV2")
     Set<AutoscaleStackResponse> getAllForAutoscale();
 
+    @GET
+    @Path("all/changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Override
+    @ApiOperation(value = StackOpDescription.GET_ALL_CHANGES, produces = ContentType.JSON, notes = Notes.STACK_NOTES,
+            nickname = "getAllStackChangesV2")
+    AutoscaleStackChangesResponse getChangesForAutoscale(@QueryParam("since") Long since);
+
     @GET
     @Path("{name}/request")
     @Produces(MediaType.APPLICATION_JSON)
@@ -0,0 +1,45 @@
+package com.sequenceiq.cloudbreak.api.model;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.sequenceiq.cloudbreak.doc.ModelDescriptions.StackModelDescription;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AutoscaleStackChangesResponse {
+
+    @ApiModelProperty(StackModelDescription.CHANGE_VERSION)
+    private Long version;
+
+    @ApiModelProperty(StackModelDescription.CHANGED_STACKS)
+    private Set<AutoscaleStackResponse> stacks = new HashSet<>();
+
+    public AutoscaleStackChangesResponse() {
+    }
+
+    public AutoscaleStackChangesResponse(Long version, Set<AutoscaleStackResponse> stacks) {
+        this.version = version;
+        this.stacks = stacks;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Set<AutoscaleStackResponse> getStacks() {
+        return stacks;
+    }
+
+    public void setStacks(Set<AutoscaleStackResponse> stacks) {
+        this.stacks = stacks;
+    }
+}
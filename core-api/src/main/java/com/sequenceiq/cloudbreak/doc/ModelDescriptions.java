@@ -111,6 +111,8 @@ public class ModelDescriptions {
         public static final String STATUS_REASON = "status message of the stack";
         public static final String STATUS_REQUEST = "status of the scale request";
         public static final String AMBARI_IP = "public ambari ip of the stack";
+        public static final String CHANGE_VERSION = "version of the stack change feed to pass in the next request";
+        public static final String CHANGED_STACKS = "stacks changed since the requested version";
         public static final String AMBARI_URL = "public ambari url";
         public static final String NETWORK_ID = "network resource id for the stack";
         public static final String CERTIFICATE = "server certificate used by the gateway";
@@ -62,7 +62,8 @@ public class Notes {
     public static final String CONNECTOR_NOTES = "Each cloud provider has it's own specific resources like instance types and disk types."
             + " These endpoints are collecting them.";
     public static final String SETTINGS_NOTES = "Collecting Cloudbreak specific resource settings.";
-    public static final String SUBSCRIPTION_NOTES = "Accepting client subscriptions to notification events.";
+    public static final String SUBSCRIPTION_NOTES = "Accepting client subscriptions to notification events. The notifications are posted to the"
+            + " subscribed endpoint asynchronously, as a JSON array of one or more events per request, instead of one event object per request.";
     public static final String FAILURE_REPORT_NOTES = "Endpoint to report the failed nodes in the given cluster. If recovery mode for the node's hostgroup "
             + "is AUTO then autorecovery would be started. If recovery mode for the node's hostgroup is MANUAL, the nodes will be marked as unhealthy.";
     public static final String CLUSTER_REPAIR_NOTES = "Removing the failed nodes and starting new nodes to substitute them.";
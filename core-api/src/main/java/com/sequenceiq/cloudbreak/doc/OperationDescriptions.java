@@ -90,6 +90,7 @@ public class OperationDescriptions {
         public static final String DELETE_INSTANCE_BY_ID = "delete instance resource from stack";
         public static final String GET_PLATFORM_VARIANTS = "retrieve available platform variants";
         public static final String GET_ALL = "retrieve all stacks";
+        public static final String GET_ALL_CHANGES = "retrieve the stacks changed since a version of the stack change feed";
         public static final String GET_BY_STACK_NAME = "retrieve stack request by stack name";
         public static final String RETRY_BY_ID = "retry stack and cluster provisioning of failed stack";
     }
@@ -17,7 +17,7 @@ public class FlowLog {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO, generator = "flowlog_generator")
-    @SequenceGenerator(name = "flowlog_generator", sequenceName = "flowlog_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "flowlog_generator", sequenceName = "flowlog_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
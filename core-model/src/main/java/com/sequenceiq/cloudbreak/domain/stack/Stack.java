@@ -37,6 +37,8 @@ import javax.persistence.ManyToOne;
 import javax.persistence.MapKeyColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
@@ -148,6 +150,8 @@ public class Stack implements ProvisionEntity {
     @Version
     private Long version;
 
+    private Long lastModified;
+
     @ManyToOne
     private Network network;
 
@@ -278,6 +282,20 @@ public class Stack implements ProvisionEntity {
         this.version = version;
     }
 
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Marks the entity as modified, so the change feed of the autoscale API returns its stack. Bulk JPQL updates of stacks bypass this
+     * callback, so they have to set the lastModified field themselves.
+     */
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        lastModified = System.currentTimeMillis();
+    }
+
     public String getRegion() {
         return region;
     }
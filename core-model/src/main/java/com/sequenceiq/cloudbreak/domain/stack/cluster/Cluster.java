@@ -31,6 +31,8 @@ import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
@@ -98,6 +100,8 @@ public class Cluster implements ProvisionEntity {
     @Column(length = 1000000, columnDefinition = "TEXT")
     private String statusReason;
 
+    private Long lastModified;
+
     private String ambariIp;
 
     @Type(type = "encrypted_string")
@@ -531,4 +535,18 @@ public class Cluster implements ProvisionEntity {
     public void setExtendedBlueprintText(String extendedBlueprintText) {
         this.extendedBlueprintText = extendedBlueprintText;
     }
+
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Records the time of the last write, which puts the stack of the cluster into the autoscale change feed. Bulk JPQL updates of clusters
+     * bypass this callback, so they have to set the lastModified field themselves.
+     */
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        lastModified = System.currentTimeMillis();
+    }
 }
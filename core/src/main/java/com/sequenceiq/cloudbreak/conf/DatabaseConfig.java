@@ -71,6 +71,12 @@ public class DatabaseConfig {
     @Value("${cb.hibernate.debug:false}")
     private boolean debug;
 
+    @Value("${cb.hibernate.jdbc.batch.size:50}")
+    private int jdbcBatchSize;
+
+    @Value("${cb.flowlog.writebehind.enabled:false}")
+    private boolean flowLogWriteBehindEnabled;
+
     @Inject
     @Named("databaseAddress")
     private String databaseAddress;
@@ -143,6 +149,9 @@ public class DatabaseConfig {
         properties.setProperty("hibernate.use_sql_comments", Boolean.toString(debug));
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
         properties.setProperty("hibernate.default_schema", dbSchemaName);
+        if (flowLogWriteBehindEnabled) {
+            properties.setProperty("hibernate.jdbc.batch_size", Integer.toString(jdbcBatchSize));
+        }
         return properties;
     }
 }
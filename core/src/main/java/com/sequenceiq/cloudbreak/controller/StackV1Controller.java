@@ -14,6 +14,7 @@ import org.springframework.stereotype.Component;
 
 import com.sequenceiq.cloudbreak.api.endpoint.v1.StackV1Endpoint;
 import com.sequenceiq.cloudbreak.api.model.AmbariAddressJson;
+import com.sequenceiq.cloudbreak.api.model.AutoscaleStackChangesResponse;
 import com.sequenceiq.cloudbreak.api.model.AutoscaleStackResponse;
 import com.sequenceiq.cloudbreak.api.model.CertificateResponse;
 import com.sequenceiq.cloudbreak.api.model.PlatformVariantsJson;
@@ -129,4 +130,9 @@ public class StackV1Controller extends NotificationController implements StackV1
     public Set<AutoscaleStackResponse> getAllForAutoscale() {
         return stackCommonService.getAllForAutoscale();
     }
+
+    @Override
+    public AutoscaleStackChangesResponse getChangesForAutoscale(Long since) {
+        return stackCommonService.getChangesForAutoscale(since);
+    }
 }
@@ -16,6 +16,7 @@ import org.springframework.stereotype.Component;
 
 import com.sequenceiq.cloudbreak.api.endpoint.v2.StackV2Endpoint;
 import com.sequenceiq.cloudbreak.api.model.AmbariAddressJson;
+import com.sequenceiq.cloudbreak.api.model.AutoscaleStackChangesResponse;
 import com.sequenceiq.cloudbreak.api.model.AutoscaleStackResponse;
 import com.sequenceiq.cloudbreak.api.model.CertificateResponse;
 import com.sequenceiq.cloudbreak.api.model.GeneratedBlueprintResponse;
@@ -228,6 +229,11 @@ public class StackV2Controller extends NotificationController implements StackV2
         return stackCommonService.getAllForAutoscale();
     }
 
+    @Override
+    public AutoscaleStackChangesResponse getChangesForAutoscale(Long since) {
+        return stackCommonService.getChangesForAutoscale(since);
+    }
+
     @Override
     public StackV2Request getRequestfromName(String name) {
         IdentityUser user = authenticatedUserService.getCbUser();
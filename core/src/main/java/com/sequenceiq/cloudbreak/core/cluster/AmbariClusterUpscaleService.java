@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -65,7 +66,10 @@ public class AmbariClusterUpscaleService {
     @Inject
     private RecipeEngine recipeEngine;
 
-    public void upscaleAmbari(Long stackId, String hostGroupName, Integer scalingAdjustment) throws CloudbreakException {
+    /**
+     * Adds the new hosts to the cluster, the returned future is completed when they are registered in Ambari.
+     */
+    public CompletableFuture<Void> upscaleAmbari(Long stackId, String hostGroupName, Integer scalingAdjustment) throws CloudbreakException {
         Stack stack = stackService.getByIdWithLists(stackId);
         LOGGER.info("Start adding cluster containers");
         Orchestrator orchestrator = stack.getOrchestrator();
@@ -96,7 +100,7 @@ public class AmbariClusterUpscaleService {
             allHosts.addAll(hostsPerHostGroupEntry.getValue());
         }
         instanceMetadataService.updateInstanceStatus(stack.getInstanceGroups(), InstanceStatus.UNREGISTERED, allHosts);
-        ambariClusterConnector.waitForHosts(stackService.getByIdWithLists(stackId));
+        return ambariClusterConnector.waitForHostsAsync(stackService.getByIdWithLists(stackId));
     }
 
     public void uploadRecipesOnNewHosts(Long stackId, String hostGroupName) throws CloudbreakException {
@@ -108,12 +112,15 @@ public class AmbariClusterUpscaleService {
         recipeEngine.uploadUpscaleRecipes(stack, hostGroup, hostMetadata, hostGroups);
     }
 
-    public void installServicesOnNewHosts(Long stackId, String hostGroupName) throws CloudbreakException {
+    /**
+     * Starts the installation of the services on the new hosts, the returned future is completed when Ambari has installed them.
+     */
+    public CompletableFuture<Void> installServicesOnNewHosts(Long stackId, String hostGroupName) throws CloudbreakException {
         Stack stack = stackService.getByIdWithLists(stackId);
         LOGGER.info("Start installing Ambari services");
         HostGroup hostGroup = hostGroupService.getByClusterIdAndName(stack.getCluster().getId(), hostGroupName);
         Set<HostMetadata> hostMetadata = hostGroupService.findEmptyHostMetadataInHostGroup(hostGroup.getId());
-        ambariClusterConnector.upscaleCluster(stack, hostGroup, hostMetadata);
+        return ambariClusterConnector.upscaleClusterAsync(stack, hostGroup, hostMetadata);
     }
 
     public void executePostRecipesOnNewHosts(Long stackId, String hostGroupName) throws CloudbreakException {
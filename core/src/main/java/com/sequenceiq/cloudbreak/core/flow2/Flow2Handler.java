@@ -17,7 +17,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import com.cedarsoftware.util.io.JsonReader;
 import com.sequenceiq.cloudbreak.cloud.Acceptable;
 import com.sequenceiq.cloudbreak.cloud.event.Payload;
 import com.sequenceiq.cloudbreak.core.flow2.chain.FlowChainHandler;
@@ -50,6 +49,7 @@ import com.sequenceiq.cloudbreak.repository.FlowLogRepository;
 import com.sequenceiq.cloudbreak.service.TransactionService;
 import com.sequenceiq.cloudbreak.service.TransactionService.TransactionExecutionException;
 import com.sequenceiq.cloudbreak.service.TransactionService.TransactionRuntimeExecutionException;
+import com.sequenceiq.cloudbreak.service.flowlog.FlowLogSerializerService;
 import com.sequenceiq.cloudbreak.service.flowlog.FlowLogService;
 
 import reactor.bus.Event;
@@ -109,6 +109,9 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
     @Inject
     private TransactionService transactionService;
 
+    @Inject
+    private FlowLogSerializerService flowLogSerializerService;
+
     @Override
     public void accept(Event<? extends Payload> event) {
         String key = (String) event.getKey();
@@ -147,19 +150,23 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
                         flowLogService.save(flowId, flowChainId, key, payload, null, flowConfig.getClass(), flow.getCurrentState());
                         acceptFlow(payload);
                         pruneMDCContext(flowId);
-                        runningFlows.put(flow, flowChainId);
+                        runningFlows.put(flow, flowChainId, payload.getStackId());
                         flow.sendEvent(key, payload);
                     }
                 } else {
                     LOGGER.debug("flow control event arrived: key: {}, flowid: {}, payload: {}", key, flowId, payload);
                     Flow flow = runningFlows.get(flowId);
                     if (flow != null) {
-                        transactionService.required(() -> {
-                            flowLogService.updateLastFlowLogStatus(flow.getFlowId(), failHandledEvents.contains(key));
-                            flowLogService.save(flow.getFlowId(), flowChainId, key, payload, flow.getVariables(),
-                                    flow.getFlowConfigClass(), flow.getCurrentState());
-                            return null;
-                        });
+                        if (flowLogService.isWriteBehindEnabled()) {
+                            flowLogService.saveWriteBehind(flow, flowChainId, key, payload, failHandledEvents.contains(key));
+                        } else {
+                            transactionService.required(() -> {
+                                flowLogService.updateLastFlowLogStatus(flow.getFlowId(), failHandledEvents.contains(key));
+                                flowLogService.save(flow.getFlowId(), flowChainId, key, payload, flow.getVariables(),
+                                        flow.getFlowConfigClass(), flow.getCurrentState());
+                                return null;
+                            });
+                        }
                         flow.sendEvent(key, payload);
                     } else {
                         LOGGER.info("Cancelled flow finished running. Stack ID {}, flow ID {}, event {}", payload.getStackId(), flowId, key);
@@ -190,12 +197,12 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
     }
 
     private boolean isOtherFlowRunning(Long stackId) {
-        Set<String> flowIds = flowLogRepository.findAllRunningNonTerminationFlowIdsByStackId(stackId);
+        Set<String> flowIds = runningFlows.getRunningNonTerminationFlowIds(stackId);
         return !flowIds.isEmpty();
     }
 
     private void cancelRunningFlows(Long stackId) throws TransactionExecutionException {
-        Set<String> flowIds = flowLogRepository.findAllRunningNonTerminationFlowIdsByStackId(stackId);
+        Set<String> flowIds = runningFlows.getLocalNonTerminationFlowIds(stackId);
         LOGGER.debug("flow cancellation arrived: ids: {}", flowIds);
         for (String id : flowIds) {
             String flowChainId = runningFlows.getFlowChainId(id);
@@ -221,6 +228,10 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
                 flowChains.triggerNextFlow(flowChainId);
             }
         }
+        if (flow != null) {
+            flowConfigs.stream().filter(fc -> fc.getClass().equals(flow.getFlowConfigClass())).findFirst()
+                    .ifPresent(fc -> fc.releaseFlow(flow));
+        }
     }
 
     public void restartFlow(String flowId) {
@@ -232,13 +243,13 @@ public class Flow2Handler implements Consumer<Event<? extends Payload>> {
         if (RESTARTABLE_FLOWS.contains(flowLog.getFlowType())) {
             Optional<FlowConfiguration<?>> flowConfig = flowConfigs.stream()
                     .filter(fc -> fc.getClass().equals(flowLog.getFlowType())).findFirst();
-            Payload payload = (Payload) JsonReader.jsonToJava(flowLog.getPayload());
+            Payload payload = (Payload) flowLogSerializerService.deserialize(flowLog.getPayload());
             Flow flow = flowConfig.get().createFlow(flowLog.getFlowId(), payload.getStackId());
-            runningFlows.put(flow, flowLog.getFlowChainId());
+            runningFlows.put(flow, flowLog.getFlowChainId(), payload.getStackId());
             if (flowLog.getFlowChainId() != null) {
                 flowChainHandler.restoreFlowChain(flowLog.getFlowChainId());
             }
-            Map<Object, Object> variables = (Map<Object, Object>) JsonReader.jsonToJava(flowLog.getVariables());
+            Map<Object, Object> variables = (Map<Object, Object>) flowLogSerializerService.deserialize(flowLog.getVariables());
             flow.initialize(flowLog.getCurrentState(), variables);
             RestartAction restartAction = flowConfig.get().getRestartAction(flowLog.getNextEvent());
             if (restartAction != null) {
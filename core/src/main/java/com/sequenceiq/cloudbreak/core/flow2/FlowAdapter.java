@@ -79,7 +79,9 @@ public class FlowAdapter<S extends FlowState, E extends FlowEvent> implements Fl
 
     @Override
     public void sendEvent(String key, Object payload) {
-        flowMachine.sendEvent(messageFactory.createMessage(flowId, eventConverter.convert(key), payload));
+        synchronized (flowMachine) {
+            flowMachine.sendEvent(messageFactory.createMessage(flowId, eventConverter.convert(key), payload));
+        }
     }
 
     @Override
@@ -97,4 +99,12 @@ public class FlowAdapter<S extends FlowState, E extends FlowEvent> implements Fl
     public boolean isFlowFailed() {
         return flowFailed;
     }
+
+    public StateMachine<S, E> getFlowMachine() {
+        return flowMachine;
+    }
+
+    public FlowStructuredEventHandler<S, E> getFlowStructuredEventHandler() {
+        return flowStructuredEventHandler;
+    }
 }
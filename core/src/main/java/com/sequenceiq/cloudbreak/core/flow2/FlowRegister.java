@@ -1,48 +1,115 @@
 package com.sequenceiq.cloudbreak.core.flow2;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.ImmutableTriple;
+import org.apache.commons.lang3.tuple.Triple;
 import org.springframework.stereotype.Component;
 
 import com.sequenceiq.cloudbreak.common.type.MetricType;
+import com.sequenceiq.cloudbreak.core.flow2.stack.termination.StackTerminationFlowConfig;
 import com.sequenceiq.cloudbreak.service.metrics.MetricService;
 
+/**
+ * Registry of the flows running on this node. Besides the flows it keeps an index of the running flows per stack, and a snapshot of
+ * the running flows of the other nodes that is refreshed by the heartbeat, so that flow acceptance does not need a DB query.
+ */
 @Component
 public class FlowRegister {
 
     @Inject
     private MetricService metricService;
 
-    private final Map<String, Pair<Flow, String>> runningFlows = new ConcurrentHashMap<>();
+    private final Map<String, Triple<Flow, String, Long>> runningFlows = new ConcurrentHashMap<>();
 
-    public void put(Flow flow, String chainFlowId) {
-        runningFlows.put(flow.getFlowId(), new ImmutablePair<>(flow, chainFlowId));
+    private final Map<Long, Map<String, Class<?>>> runningFlowsByStack = new ConcurrentHashMap<>();
+
+    private volatile Map<Long, Set<String>> otherNodeFlowsByStack = Collections.emptyMap();
+
+    public void put(Flow flow, String chainFlowId, Long stackId) {
+        runningFlows.put(flow.getFlowId(), new ImmutableTriple<>(flow, chainFlowId, stackId));
+        if (stackId != null) {
+            runningFlowsByStack.compute(stackId, (id, flows) -> {
+                Map<String, Class<?>> stackFlows = flows == null ? new ConcurrentHashMap<>() : flows;
+                stackFlows.put(flow.getFlowId(), flowType(flow));
+                return stackFlows;
+            });
+        }
         metricService.submit(MetricType.ACTIVE_FLOWS.getMetricName(), runningFlows.size());
     }
 
     public Flow get(String flowId) {
-        Pair<Flow, String> p = runningFlows.get(flowId);
-        return p != null ? p.getLeft() : null;
+        Triple<Flow, String, Long> t = runningFlows.get(flowId);
+        return t != null ? t.getLeft() : null;
     }
 
     public String getFlowChainId(String flowId) {
-        Pair<Flow, String> p = runningFlows.get(flowId);
-        return p != null ? p.getRight() : null;
+        Triple<Flow, String, Long> t = runningFlows.get(flowId);
+        return t != null ? t.getMiddle() : null;
     }
 
     public Flow remove(String flowId) {
-        Pair<Flow, String> pair = runningFlows.remove(flowId);
+        Triple<Flow, String, Long> triple = runningFlows.remove(flowId);
+        if (triple != null && triple.getRight() != null) {
+            runningFlowsByStack.computeIfPresent(triple.getRight(), (stackId, flows) -> {
+                flows.remove(flowId);
+                return flows.isEmpty() ? null : flows;
+            });
+        }
         metricService.submit(MetricType.ACTIVE_FLOWS.getMetricName(), runningFlows.size());
-        return pair == null ? null : pair.getLeft();
+        return triple == null ? null : triple.getLeft();
     }
 
     public Set<String> getRunningFlowIds() {
         return runningFlows.keySet();
     }
+
+    /**
+     * Returns the ids of the non-termination flows of the stack that run on this node.
+     */
+    public Set<String> getLocalNonTerminationFlowIds(Long stackId) {
+        Map<String, Class<?>> flows = runningFlowsByStack.get(stackId);
+        if (flows == null) {
+            return Collections.emptySet();
+        }
+        Set<String> flowIds = new HashSet<>();
+        flows.forEach((flowId, flowType) -> {
+            if (!StackTerminationFlowConfig.class.equals(flowType)) {
+                flowIds.add(flowId);
+            }
+        });
+        return flowIds;
+    }
+
+    /**
+     * Returns the ids of the non-termination flows of the stack that run on this node or, according to the last heartbeat,
+     * on any other node.
+     */
+    public Set<String> getRunningNonTerminationFlowIds(Long stackId) {
+        Set<String> flowIds = getLocalNonTerminationFlowIds(stackId);
+        Set<String> otherNodeFlowIds = otherNodeFlowsByStack.get(stackId);
+        if (otherNodeFlowIds != null) {
+            flowIds = new HashSet<>(flowIds);
+            flowIds.addAll(otherNodeFlowIds);
+        }
+        return flowIds;
+    }
+
+    /**
+     * Replaces the snapshot of the non-termination flows running on the other nodes.
+     */
+    public void refreshOtherNodeFlows(Map<Long, Set<String>> flowIdsByStack) {
+        otherNodeFlowsByStack = flowIdsByStack;
+    }
+
+    private Class<?> flowType(Flow flow) {
+        Class<?> flowType = flow.getFlowConfigClass();
+        return flowType != null ? flowType : Flow.class;
+    }
 }
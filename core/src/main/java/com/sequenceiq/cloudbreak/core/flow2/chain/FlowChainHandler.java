@@ -11,11 +11,11 @@ import javax.inject.Inject;
 
 import org.springframework.stereotype.Component;
 
-import com.cedarsoftware.util.io.JsonReader;
 import com.sequenceiq.cloudbreak.cloud.event.Payload;
 import com.sequenceiq.cloudbreak.cloud.event.Selectable;
 import com.sequenceiq.cloudbreak.domain.FlowChainLog;
 import com.sequenceiq.cloudbreak.repository.FlowChainLogRepository;
+import com.sequenceiq.cloudbreak.service.flowlog.FlowLogSerializerService;
 
 import reactor.bus.Event;
 import reactor.fn.Consumer;
@@ -32,6 +32,9 @@ public class FlowChainHandler implements Consumer<Event<? extends Payload>> {
     @Inject
     private FlowChainLogRepository flowChainLogRepository;
 
+    @Inject
+    private FlowLogSerializerService flowLogSerializerService;
+
     @Override
     public void accept(Event<? extends Payload> event) {
         String key = (String) event.getKey();
@@ -45,7 +48,7 @@ public class FlowChainHandler implements Consumer<Event<? extends Payload>> {
     public void restoreFlowChain(String flowChainId) {
         FlowChainLog chainLog = flowChainLogRepository.findFirstByFlowChainIdOrderByCreatedDesc(flowChainId);
         if (chainLog != null) {
-            Queue<Selectable> chain = (Queue<Selectable>) JsonReader.jsonToJava(chainLog.getChain());
+            Queue<Selectable> chain = (Queue<Selectable>) flowLogSerializerService.deserialize(chainLog.getChain());
             flowChains.putFlowChain(flowChainId, chainLog.getParentFlowChainId(), chain);
             if (chainLog.getParentFlowChainId() != null) {
                 restoreFlowChain(chainLog.getParentFlowChainId());
@@ -6,6 +6,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -14,11 +17,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.messaging.Message;
 import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.access.StateMachineAccess;
 import org.springframework.statemachine.config.ObjectStateMachineFactory;
 import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.config.builders.StateMachineConfigurationBuilder;
@@ -32,6 +37,7 @@ import org.springframework.statemachine.config.configurers.StateConfigurer;
 import org.springframework.statemachine.listener.StateMachineListener;
 import org.springframework.statemachine.listener.StateMachineListenerAdapter;
 import org.springframework.statemachine.state.State;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
 
 import com.sequenceiq.cloudbreak.core.flow2.AbstractAction;
 import com.sequenceiq.cloudbreak.core.flow2.DefaultFlowTriggerCondition;
@@ -57,6 +63,13 @@ public abstract class AbstractFlowConfiguration<S extends FlowState, E extends F
 
     private final Class<E> eventType;
 
+    private final Queue<StateMachine<S, E>> stateMachinePool = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pooledStateMachines = new AtomicInteger();
+
+    @Value("${cb.flow.statemachine.pool.size:0}")
+    private int stateMachinePoolSize;
+
     @Inject
     private ApplicationContext applicationContext;
 
@@ -80,7 +93,12 @@ public abstract class AbstractFlowConfiguration<S extends FlowState, E extends F
 
     @Override
     public Flow createFlow(String flowId, Long stackId) {
-        StateMachine<S, E> sm = stateMachineFactory.getStateMachine();
+        StateMachine<S, E> sm = stateMachinePool.poll();
+        if (sm == null) {
+            sm = stateMachineFactory.getStateMachine();
+        } else {
+            pooledStateMachines.decrementAndGet();
+        }
         FlowStructuredEventHandler<S, E> fl = applicationContext.getBean(FlowStructuredEventHandler.class, getEdgeConfig().initState,
                 getEdgeConfig().finalState, getClass().getSimpleName(), flowId, stackId);
         Flow flow = new FlowAdapter<>(flowId, sm, new MessageFactory<>(), new StateConverterAdapter<>(stateType),
@@ -89,6 +107,36 @@ public abstract class AbstractFlowConfiguration<S extends FlowState, E extends F
         return flow;
     }
 
+    /**
+     * Returns the state machine of a finished flow to the pool of this configuration. The machine is stopped and reset to the initial
+     * state with empty variables, so the next {@link #createFlow(String, Long)} can reuse it instead of building a new one.
+     * A machine that is still executing a transition on the current thread is not pooled.
+     */
+    @Override
+    public void releaseFlow(Flow flow) {
+        if (!(flow instanceof FlowAdapter) || pooledStateMachines.get() >= stateMachinePoolSize) {
+            return;
+        }
+        FlowAdapter<S, E> flowAdapter = (FlowAdapter<S, E>) flow;
+        StateMachine<S, E> sm = flowAdapter.getFlowMachine();
+        if (Thread.holdsLock(sm)) {
+            return;
+        }
+        synchronized (sm) {
+            sm.stop();
+            sm.removeStateListener(flowAdapter.getFlowStructuredEventHandler());
+            for (StateMachineAccess<S, E> access : sm.getStateMachineAccessor().withAllRegions()) {
+                access.resetStateMachine(new DefaultStateMachineContext<>(getEdgeConfig().initState, null, null, null));
+            }
+            sm.getExtendedState().getVariables().clear();
+        }
+        if (pooledStateMachines.incrementAndGet() <= stateMachinePoolSize) {
+            stateMachinePool.offer(sm);
+        } else {
+            pooledStateMachines.decrementAndGet();
+        }
+    }
+
     @Override
     public FlowTriggerCondition getFlowTriggerCondition() {
         return applicationContext.getBean(DefaultFlowTriggerCondition.class);
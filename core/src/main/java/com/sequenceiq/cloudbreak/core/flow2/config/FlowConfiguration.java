@@ -8,6 +8,8 @@ import com.sequenceiq.cloudbreak.core.flow2.RestartAction;
 public interface FlowConfiguration<E extends FlowEvent> {
     Flow createFlow(String flowId, Long stackId);
 
+    void releaseFlow(Flow flow);
+
     FlowTriggerCondition getFlowTriggerCondition();
 
     E[] getEvents();
@@ -11,6 +11,7 @@ import com.sequenceiq.cloudbreak.reactor.api.event.cluster.ClusterStartPollingRe
 import com.sequenceiq.cloudbreak.reactor.handler.ReactorEventHandler;
 import com.sequenceiq.cloudbreak.service.cluster.ambari.AmbariClusterConnector;
 import com.sequenceiq.cloudbreak.service.stack.StackService;
+import com.sequenceiq.cloudbreak.util.CompletionExceptionUtil;
 
 import reactor.bus.Event;
 import reactor.bus.EventBus;
@@ -34,14 +35,22 @@ public class ClusterStartPollingHandler implements ReactorEventHandler<ClusterSt
     @Override
     public void accept(Event<ClusterStartPollingRequest> event) {
         ClusterStartPollingRequest request = event.getData();
-        ClusterStartPollingResult result;
         try {
             Stack stack = stackService.getByIdWithLists(request.getStackId());
-            ambariClusterConnector.waitForServices(stack, request.getRequestId());
-            result = new ClusterStartPollingResult(request);
+            ambariClusterConnector.waitForServicesAsync(stack, request.getRequestId()).whenComplete((ignored, error) -> {
+                if (error == null) {
+                    notify(event, new ClusterStartPollingResult(request));
+                } else {
+                    Exception cause = CompletionExceptionUtil.getCause(error);
+                    notify(event, new ClusterStartPollingResult(cause.getMessage(), cause, request));
+                }
+            });
         } catch (Exception e) {
-            result = new ClusterStartPollingResult(e.getMessage(), e, request);
+            notify(event, new ClusterStartPollingResult(e.getMessage(), e, request));
         }
+    }
+
+    private void notify(Event<ClusterStartPollingRequest> event, ClusterStartPollingResult result) {
         eventBus.notify(result.selector(), new Event<>(event.getHeaders(), result));
     }
 }
@@ -9,6 +9,7 @@ import com.sequenceiq.cloudbreak.reactor.api.event.EventSelectorUtil;
 import com.sequenceiq.cloudbreak.reactor.api.event.orchestration.UpscaleAmbariRequest;
 import com.sequenceiq.cloudbreak.reactor.api.event.orchestration.UpscaleAmbariResult;
 import com.sequenceiq.cloudbreak.reactor.handler.ReactorEventHandler;
+import com.sequenceiq.cloudbreak.util.CompletionExceptionUtil;
 
 import reactor.bus.Event;
 import reactor.bus.EventBus;
@@ -30,14 +31,22 @@ public class UpscaleAmbariHandler implements ReactorEventHandler<UpscaleAmbariRe
     @Override
     public void accept(Event<UpscaleAmbariRequest> event) {
         UpscaleAmbariRequest request = event.getData();
-        UpscaleAmbariResult result;
         try {
-            clusterUpscaleService.upscaleAmbari(request.getStackId(), request.getHostGroupName(),
-                    request.getScalingAdjustment());
-            result = new UpscaleAmbariResult(request);
+            clusterUpscaleService.upscaleAmbari(request.getStackId(), request.getHostGroupName(), request.getScalingAdjustment())
+                    .whenComplete((ignored, error) -> {
+                        if (error == null) {
+                            notify(event, new UpscaleAmbariResult(request));
+                        } else {
+                            Exception cause = CompletionExceptionUtil.getCause(error);
+                            notify(event, new UpscaleAmbariResult(cause.getMessage(), cause, request));
+                        }
+                    });
         } catch (Exception e) {
-            result = new UpscaleAmbariResult(e.getMessage(), e, request);
+            notify(event, new UpscaleAmbariResult(e.getMessage(), e, request));
         }
+    }
+
+    private void notify(Event<UpscaleAmbariRequest> event, UpscaleAmbariResult result) {
         eventBus.notify(result.selector(), new Event<>(event.getHeaders(), result));
     }
 }
@@ -9,6 +9,7 @@ import com.sequenceiq.cloudbreak.reactor.api.event.EventSelectorUtil;
 import com.sequenceiq.cloudbreak.reactor.api.event.cluster.UpscaleClusterRequest;
 import com.sequenceiq.cloudbreak.reactor.api.event.cluster.UpscaleClusterResult;
 import com.sequenceiq.cloudbreak.reactor.handler.ReactorEventHandler;
+import com.sequenceiq.cloudbreak.util.CompletionExceptionUtil;
 
 import reactor.bus.Event;
 import reactor.bus.EventBus;
@@ -29,13 +30,21 @@ public class UpscaleClusterHandler implements ReactorEventHandler<UpscaleCluster
     @Override
     public void accept(Event<UpscaleClusterRequest> event) {
         UpscaleClusterRequest request = event.getData();
-        UpscaleClusterResult result;
         try {
-            clusterUpscaleService.installServicesOnNewHosts(request.getStackId(), request.getHostGroupName());
-            result = new UpscaleClusterResult(request);
+            clusterUpscaleService.installServicesOnNewHosts(request.getStackId(), request.getHostGroupName()).whenComplete((ignored, error) -> {
+                if (error == null) {
+                    notify(event, new UpscaleClusterResult(request));
+                } else {
+                    Exception cause = CompletionExceptionUtil.getCause(error);
+                    notify(event, new UpscaleClusterResult(cause.getMessage(), cause, request));
+                }
+            });
         } catch (Exception e) {
-            result = new UpscaleClusterResult(e.getMessage(), e, request);
+            notify(event, new UpscaleClusterResult(e.getMessage(), e, request));
         }
+    }
+
+    private void notify(Event<UpscaleClusterRequest> event, UpscaleClusterResult result) {
         eventBus.notify(result.selector(), new Event<>(event.getHeaders(), result));
     }
 }
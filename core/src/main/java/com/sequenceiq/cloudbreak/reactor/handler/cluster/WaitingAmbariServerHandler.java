@@ -13,6 +13,7 @@ import com.sequenceiq.cloudbreak.reactor.api.event.cluster.WaitForAmbariServerSu
 import com.sequenceiq.cloudbreak.reactor.handler.ReactorEventHandler;
 import com.sequenceiq.cloudbreak.service.cluster.ambari.AmbariClusterConnector;
 import com.sequenceiq.cloudbreak.service.stack.StackService;
+import com.sequenceiq.cloudbreak.util.CompletionExceptionUtil;
 
 import reactor.bus.Event;
 import reactor.bus.EventBus;
@@ -36,14 +37,19 @@ public class WaitingAmbariServerHandler implements ReactorEventHandler<WaitForAm
     @Override
     public void accept(Event<WaitForAmbariServerRequest> event) {
         Long stackId = event.getData().getStackId();
-        Selectable response;
         try {
             Stack stack = stackService.getById(stackId);
-            ambariClusterConnector.waitForServer(stack);
-            response = new WaitForAmbariServerSuccess(stackId);
+            ambariClusterConnector.waitForServerAsync(stack).whenComplete((result, error) -> {
+                Selectable response = error == null
+                        ? new WaitForAmbariServerSuccess(stackId) : new WaitForAmbariServerFailed(stackId, CompletionExceptionUtil.getCause(error));
+                notify(event, response);
+            });
         } catch (Exception e) {
-            response = new WaitForAmbariServerFailed(stackId, e);
+            notify(event, new WaitForAmbariServerFailed(stackId, e));
         }
+    }
+
+    private void notify(Event<WaitForAmbariServerRequest> event, Selectable response) {
         eventBus.notify(response.selector(), new Event<>(event.getHeaders(), response));
     }
 }
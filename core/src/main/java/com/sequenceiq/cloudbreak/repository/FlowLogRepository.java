@@ -1,5 +1,6 @@
 package com.sequenceiq.cloudbreak.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -16,10 +17,10 @@ public interface FlowLogRepository extends CrudRepository<FlowLog, Long> {
 
     FlowLog findFirstByFlowIdOrderByCreatedDesc(String flowId);
 
-    @Query("SELECT DISTINCT fl.flowId FROM FlowLog fl "
-            + "WHERE fl.stateStatus = 'PENDING' AND fl.stackId = :stackId "
+    @Query("SELECT DISTINCT fl.stackId, fl.flowId FROM FlowLog fl "
+            + "WHERE fl.stateStatus = 'PENDING' AND (fl.cloudbreakNodeId IS NULL OR fl.cloudbreakNodeId != :cloudbreakNodeId) "
             + "AND fl.flowType != 'com.sequenceiq.cloudbreak.core.flow2.stack.termination.StackTerminationFlowConfig'")
-    Set<String> findAllRunningNonTerminationFlowIdsByStackId(@Param("stackId") Long stackId);
+    List<Object[]> findAllRunningNonTerminationFlowIdsOfOtherNodes(@Param("cloudbreakNodeId") String cloudbreakNodeId);
 
     @Query("SELECT DISTINCT fl.flowId, fl.stackId, fl.cloudbreakNodeId FROM FlowLog fl WHERE fl.stateStatus = 'PENDING'")
     List<Object[]> findAllPending();
@@ -31,6 +32,25 @@ public interface FlowLogRepository extends CrudRepository<FlowLog, Long> {
     @Query("SELECT fl FROM FlowLog fl WHERE fl.cloudbreakNodeId = :cloudbreakNodeId AND fl.stateStatus = 'PENDING'")
     Set<FlowLog> findAllByCloudbreakNodeId(@Param("cloudbreakNodeId") String cloudbreakNodeId);
 
+    @Query("SELECT DISTINCT fl.flowId FROM FlowLog fl WHERE fl.cloudbreakNodeId = :cloudbreakNodeId AND fl.stateStatus = 'PENDING'")
+    Set<String> findAllFlowIdsByCloudbreakNodeId(@Param("cloudbreakNodeId") String cloudbreakNodeId);
+
+    @Query("SELECT DISTINCT fl.flowId, fl.stackId, fl.flowType FROM FlowLog fl "
+            + "WHERE fl.cloudbreakNodeId IN (:cloudbreakNodeIds) AND fl.stateStatus = 'PENDING'")
+    List<Object[]> findAllPendingFlowsByCloudbreakNodeIds(@Param("cloudbreakNodeIds") Collection<String> cloudbreakNodeIds);
+
+    @Modifying
+    @Query("UPDATE FlowLog fl SET fl.cloudbreakNodeId = :targetNodeId, fl.version = COALESCE(fl.version, 0) + 1 "
+            + "WHERE fl.flowId IN (:flowIds) AND fl.cloudbreakNodeId IN (:cloudbreakNodeIds) AND fl.stateStatus = 'PENDING'")
+    int reassignPendingFlows(@Param("flowIds") Collection<String> flowIds, @Param("cloudbreakNodeIds") Collection<String> cloudbreakNodeIds,
+            @Param("targetNodeId") String targetNodeId);
+
+    @Modifying
+    @Query("UPDATE FlowLog fl SET fl.finalized = true, fl.stateStatus = :stateStatus, fl.version = COALESCE(fl.version, 0) + 1 "
+            + "WHERE fl.flowId IN (:flowIds) AND fl.cloudbreakNodeId IN (:cloudbreakNodeIds) AND fl.stateStatus = 'PENDING'")
+    int finalizePendingFlows(@Param("flowIds") Collection<String> flowIds, @Param("cloudbreakNodeIds") Collection<String> cloudbreakNodeIds,
+            @Param("stateStatus") StateStatus stateStatus);
+
     @Query("SELECT fl FROM FlowLog fl WHERE fl.cloudbreakNodeId IS NULL AND fl.stateStatus = 'PENDING'")
     Set<FlowLog> findAllUnassigned();
 
@@ -42,5 +62,9 @@ public interface FlowLogRepository extends CrudRepository<FlowLog, Long> {
     @Query("UPDATE FlowLog fl SET fl.stateStatus = :stateStatus WHERE fl.id = :id")
     void updateLastLogStatusInFlow(@Param("id") Long id, @Param("stateStatus") StateStatus stateStatus);
 
+    @Modifying
+    @Query("UPDATE FlowLog fl SET fl.stateStatus = :stateStatus, fl.version = COALESCE(fl.version, 0) + 1 WHERE fl.id IN (:ids)")
+    void updateLastLogStatusInFlows(@Param("ids") Collection<Long> ids, @Param("stateStatus") StateStatus stateStatus);
+
     List<FlowLog> findAllByStackIdOrderByCreatedDesc(Long stackId);
 }
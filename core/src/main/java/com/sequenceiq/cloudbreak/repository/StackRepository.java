@@ -91,6 +91,10 @@ public interface StackRepository extends CrudRepository<Stack, Long> {
             + "AND s.stackStatus.status <> 'DELETE_IN_PROGRESS'")
     Set<Stack> findAliveOnes();
 
+    @Query("SELECT s FROM Stack s LEFT JOIN FETCH s.cluster c LEFT JOIN FETCH s.stackStatus LEFT JOIN FETCH s.securityConfig "
+            + "WHERE s.lastModified >= :since OR c.lastModified >= :since")
+    Set<Stack> findModifiedSince(@Param("since") Long since);
+
     Long countByFlexSubscription(FlexSubscription flexSubscription);
 
     Long countByCredential(Credential credential);
@@ -1,22 +1,74 @@
 package com.sequenceiq.cloudbreak.service;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import com.sequenceiq.cloudbreak.common.type.MetricType;
+import com.sequenceiq.cloudbreak.concurrent.MDCCleanerThreadPoolExecutor;
+import com.sequenceiq.cloudbreak.logger.MDCBuilder;
+import com.sequenceiq.cloudbreak.service.metrics.MetricService;
+
+import reactor.core.support.NamedDaemonThreadFactory;
+import reactor.fn.timer.Timer;
+
 @Component
 public class PollingService<T> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PollingService.class);
 
+    private static final long IDLE_WORKER_KEEP_ALIVE_SECONDS = 60L;
+
+    @Inject
+    private Timer timer;
+
+    @Inject
+    private MetricService metricService;
+
+    @Value("${cb.polling.worker.max.threads:200}")
+    private int maxWorkerThreads;
+
+    private final AtomicInteger inFlightPolls = new AtomicInteger();
+
+    private ExecutorService pollingExecutor;
+
+    @PostConstruct
+    public void init() {
+        pollingExecutor = new MDCCleanerThreadPoolExecutor(0, maxWorkerThreads, IDLE_WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new NamedDaemonThreadFactory("pollingWorker", getClass().getClassLoader()), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pollingExecutor.shutdownNow();
+    }
+
     /**
      * Executes a {@link StatusCheckerTask} until it signals success, or the
      * maximum attempts are reached. A {@link StatusCheckerTask} has no
      * restrictions about what kind of tasks it should do, it just needs to
      * return if the task succeeded or not. If maxAttempts is lower than 0,
      * there will be no timeout.
+     * <p>
+     * The status checks are executed on the calling thread, so they can rely on its Hibernate session and security context.
      *
      * @param interval    sleeps this many milliseconds between status checking attempts
      * @param maxAttempts signals how many times will the status check be executed before timeout
@@ -65,6 +117,23 @@ public class PollingService<T> {
         return pollWithTimeout(statusCheckerTask, t, interval, maxAttempts, 1).getLeft();
     }
 
+    /**
+     * Same as {@link #pollWithTimeout(StatusCheckerTask, Object, long, int, int)}, but no thread is held between the attempts. The waits
+     * are scheduled on the shared timer and every status check is executed by a polling worker of its own, so a slow check does not
+     * delay the other polls. The workers get the MDC and the security context of the caller, but not its Hibernate session, so the
+     * checks must not lazy load entities. The future is completed with the result of the polling, or exceptionally if the
+     * {@link StatusCheckerTask} throws from any of its callbacks other than checkStatus. Cancelling the future stops the polling before
+     * its next attempt.
+     */
+    public CompletableFuture<Pair<PollingResult, Exception>> pollWithTimeoutAsync(StatusCheckerTask<T> statusCheckerTask, T t, long interval,
+            int maxAttempts, int maxFailure) {
+        Poll poll = new Poll(statusCheckerTask, t, interval, maxAttempts, maxFailure, MDCBuilder.getMdcContextMap(), SecurityContextHolder.getContext());
+        metricService.submit(MetricType.POLLING_IN_FLIGHT.getMetricName(), inFlightPolls.incrementAndGet());
+        poll.result.whenComplete((r, e) -> metricService.submit(MetricType.POLLING_IN_FLIGHT.getMetricName(), inFlightPolls.decrementAndGet()));
+        poll.execute(poll::start);
+        return poll.result;
+    }
+
     private void sleep(long duration) {
         try {
             Thread.sleep(duration);
@@ -73,4 +142,131 @@ public class PollingService<T> {
             Thread.currentThread().interrupt();
         }
     }
-}
\ No newline at end of file
+
+    private class Poll {
+
+        private final CompletableFuture<Pair<PollingResult, Exception>> result = new CompletableFuture<>();
+
+        private final StatusCheckerTask<T> statusCheckerTask;
+
+        private final T t;
+
+        private final long interval;
+
+        private final int maxAttempts;
+
+        private final int maxFailure;
+
+        private final Map<String, String> mdcContext;
+
+        private final SecurityContext securityContext;
+
+        private int attempts;
+
+        private int failures;
+
+        private Exception actual;
+
+        Poll(StatusCheckerTask<T> statusCheckerTask, T t, long interval, int maxAttempts, int maxFailure, Map<String, String> mdcContext,
+                SecurityContext securityContext) {
+            this.statusCheckerTask = statusCheckerTask;
+            this.t = t;
+            this.interval = interval;
+            this.maxAttempts = maxAttempts;
+            this.maxFailure = maxFailure;
+            this.mdcContext = mdcContext;
+            this.securityContext = securityContext;
+        }
+
+        private void start() {
+            run(() -> {
+                if (statusCheckerTask.exitPolling(t)) {
+                    exit();
+                } else {
+                    attempt();
+                }
+            });
+        }
+
+        private void next() {
+            run(() -> {
+                attempts++;
+                if (maxAttempts > 0 && attempts >= maxAttempts) {
+                    LOGGER.info("Poller timeout.");
+                    statusCheckerTask.handleTimeout(t);
+                    result.complete(new ImmutablePair<>(PollingResult.TIMEOUT, actual));
+                } else if (statusCheckerTask.exitPolling(t)) {
+                    exit();
+                } else {
+                    attempt();
+                }
+            });
+        }
+
+        private void attempt() {
+            LOGGER.info("Polling attempt {}.", attempts);
+            boolean success = false;
+            try {
+                success = statusCheckerTask.checkStatus(t);
+            } catch (Exception ex) {
+                LOGGER.warn("Exception occurred in the polling: {}", ex.getMessage(), ex);
+                failures++;
+                actual = ex;
+            }
+            if (failures >= maxFailure) {
+                LOGGER.info("Polling failure reached the limit which was {}, poller will drop the last exception.", maxFailure);
+                statusCheckerTask.handleException(actual);
+                result.complete(new ImmutablePair<>(PollingResult.FAILURE, actual));
+            } else if (success) {
+                LOGGER.info(statusCheckerTask.successMessage(t));
+                result.complete(new ImmutablePair<>(PollingResult.SUCCESS, actual));
+            } else {
+                scheduleNext();
+            }
+        }
+
+        private void scheduleNext() {
+            schedule(this::next);
+        }
+
+        private void schedule(Runnable step) {
+            long scheduledAt = System.currentTimeMillis() + interval;
+            timer.submit(now -> {
+                metricService.submit(MetricType.POLLING_TICK_LAG.getMetricName(), Math.max(0L, System.currentTimeMillis() - scheduledAt));
+                execute(step);
+            }, interval, TimeUnit.MILLISECONDS);
+        }
+
+        private void execute(Runnable step) {
+            try {
+                pollingExecutor.execute(step);
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("Every polling worker is busy, the polling step is postponed by {} ms.", interval);
+                schedule(step);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void exit() {
+            LOGGER.info("Poller exiting.");
+            result.complete(new ImmutablePair<>(PollingResult.EXIT, actual));
+        }
+
+        private void run(Runnable step) {
+            if (result.isDone()) {
+                return;
+            }
+            MDCBuilder.buildMdcContextFromMap(mdcContext);
+            SecurityContextHolder.setContext(securityContext);
+            try {
+                step.run();
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            } finally {
+                SecurityContextHolder.clearContext();
+                MDCBuilder.cleanupMdc();
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.stereotype.Service;
 
 import com.sequenceiq.cloudbreak.api.endpoint.common.StackEndpoint;
 import com.sequenceiq.cloudbreak.api.model.AmbariAddressJson;
+import com.sequenceiq.cloudbreak.api.model.AutoscaleStackChangesResponse;
 import com.sequenceiq.cloudbreak.api.model.AutoscaleStackResponse;
 import com.sequenceiq.cloudbreak.api.model.CertificateResponse;
 import com.sequenceiq.cloudbreak.api.model.PlatformVariantsJson;
@@ -171,6 +172,12 @@ public class StackCommonService implements StackEndpoint {
         return stackService.getAllForAutoscale();
     }
 
+    @Override
+    public AutoscaleStackChangesResponse getChangesForAutoscale(Long since) {
+        LOGGER.info("Get the stacks changed since {}, autoscale authorized only.", since);
+        return stackService.getChangesForAutoscale(since);
+    }
+
     @Override
     public Response validate(StackValidationRequest request) {
         StackValidation stackValidation = conversionService.convert(request, StackValidation.class);
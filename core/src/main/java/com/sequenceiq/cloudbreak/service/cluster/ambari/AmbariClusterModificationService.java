@@ -15,6 +15,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -77,13 +79,7 @@ public class AmbariClusterModificationService implements ClusterModificationServ
     @Override
     public void upscaleCluster(Stack stack, HostGroup hostGroup, Collection<HostMetadata> hostMetadata) throws CloudbreakException {
         AmbariClient ambariClient = clientFactory.getAmbariClient(stack, stack.getCluster());
-        List<String> upscaleHostNames = hostMetadata
-                .stream()
-                .map(HostMetadata::getHostName)
-                .collect(Collectors.toList())
-                .stream()
-                .filter(hostName -> !ambariClient.getClusterHosts().contains(hostName))
-                .collect(Collectors.toList());
+        List<String> upscaleHostNames = getUpscaleHostNames(ambariClient, hostMetadata);
         if (!upscaleHostNames.isEmpty()) {
             recipeEngine.executePostAmbariStartRecipes(stack, Sets.newHashSet(hostGroup));
             Pair<PollingResult, Exception> pollingResult = ambariOperationService.waitForOperations(
@@ -91,11 +87,30 @@ public class AmbariClusterModificationService implements ClusterModificationServ
                     ambariClient,
                     installServices(upscaleHostNames, stack, ambariClient, hostGroup.getName()),
                     UPSCALE_AMBARI_PROGRESS_STATE);
-            String message = pollingResult.getRight() == null
-                    ? cloudbreakMessagesService.getMessage(AMBARI_CLUSTER_UPSCALE_FAILED.code())
-                    : pollingResult.getRight().getMessage();
-            ambariClusterConnectorPollingResultChecker.checkPollingResult(pollingResult.getLeft(), message);
+            checkUpscalePollingResult(pollingResult);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> upscaleClusterAsync(Stack stack, HostGroup hostGroup, Collection<HostMetadata> hostMetadata) throws CloudbreakException {
+        AmbariClient ambariClient = clientFactory.getAmbariClient(stack, stack.getCluster());
+        List<String> upscaleHostNames = getUpscaleHostNames(ambariClient, hostMetadata);
+        if (upscaleHostNames.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
         }
+        recipeEngine.executePostAmbariStartRecipes(stack, Sets.newHashSet(hostGroup));
+        return ambariOperationService.waitForOperationsAsync(
+                stack,
+                ambariClient,
+                installServices(upscaleHostNames, stack, ambariClient, hostGroup.getName()),
+                UPSCALE_AMBARI_PROGRESS_STATE)
+                .thenAccept(pollingResult -> {
+                    try {
+                        checkUpscalePollingResult(pollingResult);
+                    } catch (CloudbreakException e) {
+                        throw new CompletionException(e);
+                    }
+                });
     }
 
     @Override
@@ -166,6 +181,23 @@ public class AmbariClusterModificationService implements ClusterModificationServ
         return requestId;
     }
 
+    private List<String> getUpscaleHostNames(AmbariClient ambariClient, Collection<HostMetadata> hostMetadata) {
+        return hostMetadata
+                .stream()
+                .map(HostMetadata::getHostName)
+                .collect(Collectors.toList())
+                .stream()
+                .filter(hostName -> !ambariClient.getClusterHosts().contains(hostName))
+                .collect(Collectors.toList());
+    }
+
+    private void checkUpscalePollingResult(Pair<PollingResult, Exception> pollingResult) throws CloudbreakException {
+        String message = pollingResult.getRight() == null
+                ? cloudbreakMessagesService.getMessage(AMBARI_CLUSTER_UPSCALE_FAILED.code())
+                : pollingResult.getRight().getMessage();
+        ambariClusterConnectorPollingResultChecker.checkPollingResult(pollingResult.getLeft(), message);
+    }
+
     private Map<String, Integer> installServices(List<String> hosts, Stack stack, AmbariClient ambariClient, String hostGroup) {
         try {
             String blueprintName = stack.getCluster().getBlueprint().getAmbariName();
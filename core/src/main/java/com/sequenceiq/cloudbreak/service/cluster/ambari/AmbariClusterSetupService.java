@@ -16,6 +16,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.inject.Inject;
 
@@ -125,6 +127,23 @@ public class AmbariClusterSetupService implements ClusterSetupService {
         AmbariClient defaultClient = clientFactory.getDefaultAmbariClient(stack);
         AmbariClient client = clientFactory.getAmbariClient(stack, stack.getCluster());
         PollingResult pollingResult = ambariPollingServiceProvider.ambariStartupPollerObjectPollingService(stack, defaultClient, client);
+        checkAmbariServerStarted(pollingResult);
+    }
+
+    @Override
+    public CompletableFuture<Void> waitForServerAsync(Stack stack) throws CloudbreakException {
+        AmbariClient defaultClient = clientFactory.getDefaultAmbariClient(stack);
+        AmbariClient client = clientFactory.getAmbariClient(stack, stack.getCluster());
+        return ambariPollingServiceProvider.ambariStartupPollerObjectPollingServiceAsync(stack, defaultClient, client).thenAccept(pollingResult -> {
+            try {
+                checkAmbariServerStarted(pollingResult);
+            } catch (CloudbreakException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private void checkAmbariServerStarted(PollingResult pollingResult) throws CloudbreakException {
         if (isSuccess(pollingResult)) {
             LOGGER.info("Ambari has successfully started! Polling result: {}", pollingResult);
         } else if (isExited(pollingResult)) {
@@ -188,12 +207,40 @@ public class AmbariClusterSetupService implements ClusterSetupService {
                         hostMetadataRepository.findHostsInCluster(stack.getCluster().getId()));
     }
 
+    @Override
+    public CompletableFuture<Void> waitForHostsAsync(Stack stack) throws CloudbreakSecuritySetupException {
+        return ambariPollingServiceProvider
+                .hostsPollingServiceAsync(
+                        stack,
+                        clientFactory.getAmbariClient(stack, stack.getCluster()),
+                        hostMetadataRepository.findHostsInCluster(stack.getCluster().getId()))
+                .thenAccept(pollingResult -> LOGGER.info("Waiting for hosts finished with {}", pollingResult));
+    }
+
     @Override
     public void waitForServices(Stack stack, int requestId) throws CloudbreakException {
         AmbariClient ambariClient = clientFactory.getAmbariClient(stack, stack.getCluster());
         LOGGER.info("Waiting for Hadoop services to start on stack");
         PollingResult servicesStartResult = ambariOperationService
                 .waitForOperations(stack, ambariClient, singletonMap("start services", requestId), START_AMBARI_PROGRESS_STATE).getLeft();
+        checkServicesStarted(stack, servicesStartResult);
+    }
+
+    @Override
+    public CompletableFuture<Void> waitForServicesAsync(Stack stack, int requestId) throws CloudbreakException {
+        AmbariClient ambariClient = clientFactory.getAmbariClient(stack, stack.getCluster());
+        LOGGER.info("Waiting for Hadoop services to start on stack");
+        return ambariOperationService.waitForOperationsAsync(stack, ambariClient, singletonMap("start services", requestId), START_AMBARI_PROGRESS_STATE)
+                .thenAccept(servicesStartResult -> {
+                    try {
+                        checkServicesStarted(stack, servicesStartResult.getLeft());
+                    } catch (CloudbreakException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    private void checkServicesStarted(Stack stack, PollingResult servicesStartResult) throws CloudbreakException {
         if (isExited(servicesStartResult)) {
             throw new CancellationException("Cluster was terminated while waiting for Hadoop services to start");
         } else if (isTimeout(servicesStartResult)) {
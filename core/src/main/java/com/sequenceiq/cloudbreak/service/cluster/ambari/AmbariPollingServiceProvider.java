@@ -7,9 +7,11 @@ import static com.sequenceiq.cloudbreak.service.cluster.flow.AmbariOperationServ
 
 import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Inject;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -68,6 +70,22 @@ public class AmbariPollingServiceProvider {
                         MAX_ATTEMPTS_FOR_AMBARI_SERVER_STARTUP);
     }
 
+    public CompletableFuture<PollingResult> ambariStartupPollerObjectPollingServiceAsync(Stack stack, AmbariClient defaultAmbariClient,
+            AmbariClient cloudbreakAmbariClient) {
+        AmbariStartupPollerObject ambariStartupPollerObject = new AmbariStartupPollerObject(
+                stack,
+                stack.getAmbariIp(),
+                Arrays.asList(defaultAmbariClient, cloudbreakAmbariClient));
+        return ambariStartupPollerObjectPollingService
+                .pollWithTimeoutAsync(
+                        ambariStartupListenerTask,
+                        ambariStartupPollerObject,
+                        AMBARI_POLLING_INTERVAL,
+                        MAX_ATTEMPTS_FOR_AMBARI_SERVER_STARTUP,
+                        1)
+                .thenApply(Pair::getLeft);
+    }
+
     public PollingResult hostsPollingService(Stack stack, AmbariClient ambariClient, Set<HostMetadata> hostsInCluster) {
         LOGGER.info("Waiting for hosts to connect.[Ambari server address: {}]", stack.getAmbariIp());
         return hostsPollingService.pollWithTimeoutSingleFailure(
@@ -77,6 +95,18 @@ public class AmbariPollingServiceProvider {
                 MAX_ATTEMPTS_FOR_HOSTS);
     }
 
+    public CompletableFuture<PollingResult> hostsPollingServiceAsync(Stack stack, AmbariClient ambariClient, Set<HostMetadata> hostsInCluster) {
+        LOGGER.info("Waiting for hosts to connect.[Ambari server address: {}]", stack.getAmbariIp());
+        return hostsPollingService
+                .pollWithTimeoutAsync(
+                        ambariHostsStatusCheckerTask,
+                        new AmbariHostsCheckerContext(stack, ambariClient, hostsInCluster, hostsInCluster.size()),
+                        AMBARI_POLLING_INTERVAL,
+                        MAX_ATTEMPTS_FOR_HOSTS,
+                        1)
+                .thenApply(Pair::getLeft);
+    }
+
     public PollingResult ambariHostJoin(Stack stack, AmbariClient ambariClient, Set<HostMetadata> hostsInCluster) {
         AmbariHostsCheckerContext ambariHostsCheckerContext =
                 new AmbariHostsCheckerContext(stack, ambariClient, hostsInCluster, stack.getFullNodeCount());
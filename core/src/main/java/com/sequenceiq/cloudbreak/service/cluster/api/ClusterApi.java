@@ -1,6 +1,7 @@
 package com.sequenceiq.cloudbreak.service.cluster.api;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 import com.sequenceiq.cloudbreak.core.CloudbreakSecuritySetupException;
 import com.sequenceiq.cloudbreak.domain.stack.cluster.host.HostGroup;
@@ -14,6 +15,10 @@ public interface ClusterApi {
         clusterSetupService().waitForServer(stack);
     }
 
+    default CompletableFuture<Void> waitForServerAsync(Stack stack) throws CloudbreakException {
+        return clusterSetupService().waitForServerAsync(stack);
+    }
+
     default void buildCluster(Stack stack) {
         clusterSetupService().buildCluster(stack);
     }
@@ -22,6 +27,10 @@ public interface ClusterApi {
         clusterSetupService().waitForHosts(stack);
     }
 
+    default CompletableFuture<Void> waitForHostsAsync(Stack stack) throws CloudbreakSecuritySetupException {
+        return clusterSetupService().waitForHostsAsync(stack);
+    }
+
     default boolean available(Stack stack) throws CloudbreakSecuritySetupException {
         return clusterSetupService().available(stack);
     }
@@ -30,6 +39,10 @@ public interface ClusterApi {
         clusterSetupService().waitForServices(stack, requestId);
     }
 
+    default CompletableFuture<Void> waitForServicesAsync(Stack stack, int requestId) throws CloudbreakException {
+        return clusterSetupService().waitForServicesAsync(stack, requestId);
+    }
+
     default void replaceUserNamePassword(Stack stackId, String newUserName, String newPassword) throws CloudbreakException {
         clusterSecurityService().replaceUserNamePassword(stackId, newUserName, newPassword);
     }
@@ -54,6 +67,10 @@ public interface ClusterApi {
         clusterModificationService().upscaleCluster(stack, hostGroup, hostMetadata);
     }
 
+    default CompletableFuture<Void> upscaleClusterAsync(Stack stack, HostGroup hostGroup, Collection<HostMetadata> hostMetadata) throws CloudbreakException {
+        return clusterModificationService().upscaleClusterAsync(stack, hostGroup, hostMetadata);
+    }
+
     default void stopCluster(Stack stack) throws CloudbreakException {
         clusterModificationService().stopCluster(stack);
     }
@@ -1,6 +1,7 @@
 package com.sequenceiq.cloudbreak.service.cluster.api;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 import com.sequenceiq.cloudbreak.domain.stack.cluster.host.HostGroup;
 import com.sequenceiq.cloudbreak.domain.stack.cluster.host.HostMetadata;
@@ -11,6 +12,8 @@ public interface ClusterModificationService {
 
     void upscaleCluster(Stack stack, HostGroup hostGroup, Collection<HostMetadata> hostMetadata) throws CloudbreakException;
 
+    CompletableFuture<Void> upscaleClusterAsync(Stack stack, HostGroup hostGroup, Collection<HostMetadata> hostMetadata) throws CloudbreakException;
+
     void stopCluster(Stack stack) throws CloudbreakException;
 
     int startCluster(Stack stack) throws CloudbreakException;
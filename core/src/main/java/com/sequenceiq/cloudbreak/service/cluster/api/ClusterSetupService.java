@@ -1,5 +1,7 @@
 package com.sequenceiq.cloudbreak.service.cluster.api;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.sequenceiq.cloudbreak.core.CloudbreakSecuritySetupException;
 import com.sequenceiq.cloudbreak.domain.stack.Stack;
 import com.sequenceiq.cloudbreak.service.CloudbreakException;
@@ -8,11 +10,17 @@ public interface ClusterSetupService {
 
     void waitForServer(Stack stack) throws CloudbreakException;
 
+    CompletableFuture<Void> waitForServerAsync(Stack stack) throws CloudbreakException;
+
     void buildCluster(Stack stack);
 
     void waitForHosts(Stack stack) throws CloudbreakSecuritySetupException;
 
+    CompletableFuture<Void> waitForHostsAsync(Stack stack) throws CloudbreakSecuritySetupException;
+
     boolean available(Stack stack) throws CloudbreakSecuritySetupException;
 
     void waitForServices(Stack stack, int requestId) throws CloudbreakException;
+
+    CompletableFuture<Void> waitForServicesAsync(Stack stack, int requestId) throws CloudbreakException;
 }
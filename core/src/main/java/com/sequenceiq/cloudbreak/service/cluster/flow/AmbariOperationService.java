@@ -1,6 +1,7 @@
 package com.sequenceiq.cloudbreak.service.cluster.flow;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Inject;
 
@@ -57,4 +58,16 @@ public class AmbariOperationService {
         return operationsPollingService.pollWithTimeout(task, new AmbariOperations(stack, ambariClient, operationRequests, ambariOperationType),
                 AMBARI_POLLING_INTERVAL, MAX_ATTEMPTS_FOR_AMBARI_OPS, MAX_FAILURE_COUNT);
     }
+
+    /**
+     * Same as {@link #waitForOperations(Stack, AmbariClient, Map, AmbariOperationType)}, but the calling thread is not held while the
+     * operations are running, the returned future is completed with the result of the polling.
+     */
+    public CompletableFuture<Pair<PollingResult, Exception>> waitForOperationsAsync(Stack stack, AmbariClient ambariClient,
+            Map<String, Integer> operationRequests, AmbariOperationType ambariOperationType) {
+        LOGGER.info("Waiting for Ambari operations to finish. [Operation requests: {}]", operationRequests);
+        return operationsPollingService.pollWithTimeoutAsync(ambariOperationsStatusCheckerTask,
+                new AmbariOperations(stack, ambariClient, operationRequests, ambariOperationType), AMBARI_POLLING_INTERVAL, MAX_ATTEMPTS_FOR_AMBARI_OPS,
+                MAX_FAILURE_COUNT);
+    }
 }
@@ -0,0 +1,240 @@
+package com.sequenceiq.cloudbreak.service.flowlog;
+
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.ARRAY;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.BYTE;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.CHAR;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.CLASS;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.COLLECTION;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.DOUBLE;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.ENUM;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.FALSE;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.FLOAT;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.INT;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.LONG;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.MAP;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.NULL;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.OBJECT;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.REFERENCE;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.SHORT;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.STATELESS;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.STRING;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.THROWABLE;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.TRUE;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.ClassSchema;
+
+/**
+ * Reads one object graph written by {@link CompactBinaryEncoder}. Fields that no longer exist in the current version of a class are
+ * skipped, fields that did not exist when the graph was written keep their default value.
+ * Instances are not thread safe and must be used for a single graph only.
+ */
+class CompactBinaryDecoder {
+
+    private static final int VARINT_SHIFT = 7;
+
+    private static final int VARINT_MASK = 0x7F;
+
+    private static final int VARINT_CONTINUE = 0x80;
+
+    private final CompactTypeRegistry typeRegistry;
+
+    private final DataInputStream input;
+
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    private final Map<Class<?>, Field[]> readSchemas = new HashMap<>();
+
+    private final List<Object> objects = new ArrayList<>();
+
+    CompactBinaryDecoder(CompactTypeRegistry typeRegistry, byte[] bytes) {
+        this.typeRegistry = typeRegistry;
+        input = new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    Object decode() throws IOException {
+        return readValue();
+    }
+
+    private Object readValue() throws IOException {
+        int tag = input.readUnsignedByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case STRING:
+                return readString();
+            case INT:
+                return (int) unZigZag(readVarLong());
+            case LONG:
+                return unZigZag(readVarLong());
+            case DOUBLE:
+                return input.readDouble();
+            case FLOAT:
+                return input.readFloat();
+            case SHORT:
+                return input.readShort();
+            case BYTE:
+                return input.readByte();
+            case CHAR:
+                return input.readChar();
+            default:
+                return readReferenceType(tag);
+        }
+    }
+
+    private Object readReferenceType(int tag) throws IOException {
+        switch (tag) {
+            case ENUM:
+                return readEnum();
+            case CLASS:
+                return typeRegistry.forName(input.readUTF());
+            case REFERENCE:
+                return objects.get((int) readVarLong());
+            case STATELESS:
+                return register(typeRegistry.newInstance(readClass()));
+            case THROWABLE:
+                return readThrowable();
+            case COLLECTION:
+                return readCollection();
+            case MAP:
+                return readMap();
+            case ARRAY:
+                return readArray();
+            case OBJECT:
+                return readObject();
+            default:
+                throw new IOException("Unknown type tag in the flow log: " + tag);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readEnum() throws IOException {
+        Class enumType = readClass();
+        return Enum.valueOf(enumType, input.readUTF());
+    }
+
+    private Object readThrowable() throws IOException {
+        Class<?> type = readClass();
+        int handle = objects.size();
+        objects.add(null);
+        String message = (String) readValue();
+        Object throwable;
+        try {
+            Constructor<?> constructor = type.getConstructor(String.class);
+            throwable = constructor.newInstance(message);
+        } catch (ReflectiveOperationException ignored) {
+            throwable = typeRegistry.newInstance(type);
+        }
+        objects.set(handle, throwable);
+        return throwable;
+    }
+
+    private Object readCollection() throws IOException {
+        Collection<Object> collection = typeRegistry.newCollection(readClass());
+        register(collection);
+        long size = readVarLong();
+        for (long i = 0; i < size; i++) {
+            collection.add(readValue());
+        }
+        return collection;
+    }
+
+    private Object readMap() throws IOException {
+        Map<Object, Object> map = typeRegistry.newMap(readClass());
+        register(map);
+        long size = readVarLong();
+        for (long i = 0; i < size; i++) {
+            Object key = readValue();
+            map.put(key, readValue());
+        }
+        return map;
+    }
+
+    private Object readArray() throws IOException {
+        Class<?> componentType = readClass();
+        int length = (int) readVarLong();
+        Object array = register(Array.newInstance(componentType, length));
+        for (int i = 0; i < length; i++) {
+            Array.set(array, i, readValue());
+        }
+        return array;
+    }
+
+    private Object readObject() throws IOException {
+        Class<?> type = readClass();
+        Field[] fields = readSchemas.get(type);
+        if (fields == null) {
+            ClassSchema schema = typeRegistry.getSchema(type);
+            fields = new Field[(int) readVarLong()];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = schema.getField(input.readUTF());
+            }
+            readSchemas.put(type, fields);
+        }
+        Object object = register(typeRegistry.newInstance(type));
+        for (Field field : fields) {
+            Object value = readValue();
+            if (field != null) {
+                try {
+                    field.set(object, value);
+                } catch (IllegalAccessException e) {
+                    throw new IOException("Cannot set field " + field, e);
+                }
+            }
+        }
+        return object;
+    }
+
+    private Object register(Object object) {
+        objects.add(object);
+        return object;
+    }
+
+    private Class<?> readClass() throws IOException {
+        int index = (int) readVarLong();
+        if (index == 0) {
+            Class<?> type = typeRegistry.forName(input.readUTF());
+            classes.add(type);
+            return type;
+        }
+        return classes.get(index - 1);
+    }
+
+    private String readString() throws IOException {
+        byte[] utf8 = new byte[(int) readVarLong()];
+        input.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0L;
+        int shift = 0;
+        int b;
+        do {
+            b = input.readUnsignedByte();
+            value |= (long) (b & VARINT_MASK) << shift;
+            shift += VARINT_SHIFT;
+        } while ((b & VARINT_CONTINUE) != 0);
+        return value;
+    }
+
+    private long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+}
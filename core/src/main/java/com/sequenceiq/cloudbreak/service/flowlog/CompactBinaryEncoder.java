@@ -0,0 +1,224 @@
+package com.sequenceiq.cloudbreak.service.flowlog;
+
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.ARRAY;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.BYTE;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.CHAR;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.CLASS;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.COLLECTION;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.DOUBLE;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.ENUM;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.FALSE;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.FLOAT;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.INT;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.LONG;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.MAP;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.NULL;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.OBJECT;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.REFERENCE;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.SHORT;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.STATELESS;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.STRING;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.THROWABLE;
+import static com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.TRUE;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.sequenceiq.cloudbreak.service.flowlog.CompactTypeRegistry.ClassSchema;
+
+/**
+ * Writes one object graph in the compact flow log format. Every value is prefixed with a type tag, the class names and the
+ * field names of a class are written only once per graph and repeated objects are written as back references.
+ * Instances are not thread safe and must be used for a single graph only.
+ */
+class CompactBinaryEncoder {
+
+    private static final int VARINT_SHIFT = 7;
+
+    private static final int VARINT_MASK = 0x7F;
+
+    private static final int VARINT_CONTINUE = 0x80;
+
+    private final CompactTypeRegistry typeRegistry;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    private final DataOutputStream output = new DataOutputStream(bytes);
+
+    private final Map<Class<?>, Integer> classIndexes = new HashMap<>();
+
+    private final Set<Class<?>> writtenSchemas = new HashSet<>();
+
+    private final Map<Object, Integer> objectHandles = new IdentityHashMap<>();
+
+    CompactBinaryEncoder(CompactTypeRegistry typeRegistry) {
+        this.typeRegistry = typeRegistry;
+    }
+
+    byte[] encode(Object object) throws IOException {
+        writeValue(object);
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            output.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof String) {
+            output.writeByte(STRING);
+            writeString((String) value);
+        } else if (!writePrimitive(value)) {
+            writeReferenceType(value);
+        }
+    }
+
+    private boolean writePrimitive(Object value) throws IOException {
+        Class<?> type = value.getClass();
+        if (type == Integer.class) {
+            output.writeByte(INT);
+            writeVarLong(zigZag((Integer) value));
+        } else if (type == Long.class) {
+            output.writeByte(LONG);
+            writeVarLong(zigZag((Long) value));
+        } else if (type == Double.class) {
+            output.writeByte(DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (type == Float.class) {
+            output.writeByte(FLOAT);
+            output.writeFloat((Float) value);
+        } else if (type == Short.class) {
+            output.writeByte(SHORT);
+            output.writeShort((Short) value);
+        } else if (type == Byte.class) {
+            output.writeByte(BYTE);
+            output.writeByte((Byte) value);
+        } else if (type == Character.class) {
+            output.writeByte(CHAR);
+            output.writeChar((Character) value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void writeReferenceType(Object value) throws IOException {
+        if (value instanceof Enum) {
+            output.writeByte(ENUM);
+            writeClass(((Enum<?>) value).getDeclaringClass());
+            output.writeUTF(((Enum<?>) value).name());
+        } else if (value instanceof Class) {
+            output.writeByte(CLASS);
+            output.writeUTF(((Class<?>) value).getName());
+        } else {
+            Integer handle = objectHandles.get(value);
+            if (handle != null) {
+                output.writeByte(REFERENCE);
+                writeVarLong(handle);
+            } else {
+                objectHandles.put(value, objectHandles.size());
+                writeObject(value);
+            }
+        }
+    }
+
+    private void writeObject(Object value) throws IOException {
+        Class<?> type = value.getClass();
+        if (typeRegistry.isStateless(type)) {
+            output.writeByte(STATELESS);
+            writeClass(type);
+        } else if (value instanceof Throwable) {
+            output.writeByte(THROWABLE);
+            writeClass(type);
+            writeValue(((Throwable) value).getMessage());
+        } else if (value instanceof Collection) {
+            output.writeByte(COLLECTION);
+            writeClass(type);
+            Collection<?> collection = (Collection<?>) value;
+            writeVarLong(collection.size());
+            for (Object element : collection) {
+                writeValue(element);
+            }
+        } else if (value instanceof Map) {
+            output.writeByte(MAP);
+            writeClass(type);
+            Map<?, ?> map = (Map<?, ?>) value;
+            writeVarLong(map.size());
+            for (Entry<?, ?> entry : map.entrySet()) {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        } else if (type.isArray()) {
+            output.writeByte(ARRAY);
+            writeClass(type.getComponentType());
+            int length = Array.getLength(value);
+            writeVarLong(length);
+            for (int i = 0; i < length; i++) {
+                writeValue(Array.get(value, i));
+            }
+        } else {
+            output.writeByte(OBJECT);
+            writeFields(type, value);
+        }
+    }
+
+    private void writeFields(Class<?> type, Object value) throws IOException {
+        writeClass(type);
+        ClassSchema schema = typeRegistry.getSchema(type);
+        if (writtenSchemas.add(type)) {
+            writeVarLong(schema.getFieldNames().size());
+            for (String fieldName : schema.getFieldNames()) {
+                output.writeUTF(fieldName);
+            }
+        }
+        for (Field field : schema.getFields()) {
+            try {
+                writeValue(field.get(value));
+            } catch (IllegalAccessException e) {
+                throw new IOException("Cannot read field " + field, e);
+            }
+        }
+    }
+
+    private void writeClass(Class<?> type) throws IOException {
+        Integer index = classIndexes.get(type);
+        if (index != null) {
+            writeVarLong(index + 1L);
+        } else {
+            classIndexes.put(type, classIndexes.size());
+            writeVarLong(0L);
+            output.writeUTF(type.getName());
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(utf8.length);
+        output.write(utf8);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~VARINT_MASK) != 0L) {
+            output.writeByte((int) (remaining & VARINT_MASK) | VARINT_CONTINUE);
+            remaining >>>= VARINT_SHIFT;
+        }
+        output.writeByte((int) remaining);
+    }
+
+    private long zigZag(long value) {
+        return (value << 1) ^ (value >> (Long.SIZE - 1));
+    }
+}
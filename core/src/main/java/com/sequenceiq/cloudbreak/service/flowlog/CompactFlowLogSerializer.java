@@ -0,0 +1,53 @@
+package com.sequenceiq.cloudbreak.service.flowlog;
+
+import java.io.IOException;
+import java.util.Base64;
+
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.service.CloudbreakServiceException;
+
+/**
+ * Schema aware binary serializer for the flow log. The class and field names are written once per value and the objects are
+ * restored by their field names, so classes can gain or lose fields between versions. The binary form is stored as Base64 text
+ * behind a versioned header, the rows written by json-io remain readable.
+ */
+@Component
+public class CompactFlowLogSerializer implements FlowLogSerializer {
+
+    public static final String NAME = "compact";
+
+    private static final String HEADER = "cbf1:";
+
+    private final CompactTypeRegistry typeRegistry = new CompactTypeRegistry();
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String header() {
+        return HEADER;
+    }
+
+    @Override
+    public String serialize(Object object) {
+        try {
+            byte[] bytes = new CompactBinaryEncoder(typeRegistry).encode(object);
+            return HEADER + Base64.getEncoder().encodeToString(bytes);
+        } catch (IOException e) {
+            throw new CloudbreakServiceException("Cannot serialize flow log value of type " + object.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(String serialized) {
+        try {
+            byte[] bytes = Base64.getDecoder().decode(serialized.substring(HEADER.length()));
+            return new CompactBinaryDecoder(typeRegistry, bytes).decode();
+        } catch (IOException e) {
+            throw new CloudbreakServiceException("Cannot deserialize flow log value", e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.sequenceiq.cloudbreak.service.flowlog;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.objenesis.Objenesis;
+import org.springframework.objenesis.ObjenesisStd;
+
+import com.sequenceiq.cloudbreak.service.CloudbreakServiceException;
+
+/**
+ * Shared, thread safe type information of the compact flow log format: the persisted fields of the classes and the way they can be
+ * instantiated. Everything is computed once per class and cached for the lifetime of the application.
+ */
+class CompactTypeRegistry {
+
+    static final int NULL = 0;
+
+    static final int TRUE = 1;
+
+    static final int FALSE = 2;
+
+    static final int INT = 3;
+
+    static final int LONG = 4;
+
+    static final int DOUBLE = 5;
+
+    static final int FLOAT = 6;
+
+    static final int SHORT = 7;
+
+    static final int BYTE = 8;
+
+    static final int CHAR = 9;
+
+    static final int STRING = 10;
+
+    static final int ENUM = 11;
+
+    static final int CLASS = 12;
+
+    static final int COLLECTION = 13;
+
+    static final int MAP = 14;
+
+    static final int ARRAY = 15;
+
+    static final int OBJECT = 16;
+
+    static final int REFERENCE = 17;
+
+    static final int THROWABLE = 18;
+
+    static final int STATELESS = 19;
+
+    /**
+     * Types whose state is bound to the running JVM, they are persisted by type only and recreated with their default constructor.
+     */
+    private static final Set<String> STATELESS_TYPES = Collections.singleton("reactor.rx.Promise");
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class}) {
+            PRIMITIVE_TYPES.put(type.getName(), type);
+        }
+    }
+
+    private final Objenesis objenesis = new ObjenesisStd(true);
+
+    private final Map<Class<?>, ClassSchema> schemas = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Supplier<Object>> instantiators = new ConcurrentHashMap<>();
+
+    private final Map<String, Class<?>> classesByName = new ConcurrentHashMap<>();
+
+    boolean isStateless(Class<?> type) {
+        return STATELESS_TYPES.contains(type.getName());
+    }
+
+    ClassSchema getSchema(Class<?> type) {
+        return schemas.computeIfAbsent(type, ClassSchema::new);
+    }
+
+    Class<?> forName(String className) {
+        return classesByName.computeIfAbsent(className, name -> {
+            Class<?> primitive = PRIMITIVE_TYPES.get(name);
+            if (primitive != null) {
+                return primitive;
+            }
+            try {
+                return Class.forName(name, false, CompactTypeRegistry.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new CloudbreakServiceException("Unknown class in the flow log: " + name, e);
+            }
+        });
+    }
+
+    Object newInstance(Class<?> type) {
+        return instantiators.computeIfAbsent(type, this::createInstantiator).get();
+    }
+
+    @SuppressWarnings("unchecked")
+    Collection<Object> newCollection(Class<?> type) {
+        return (Collection<Object>) instantiators.computeIfAbsent(type, t -> publicConstructor(t).orElse(() -> fallbackCollection(t))).get();
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<Object, Object> newMap(Class<?> type) {
+        return (Map<Object, Object>) instantiators.computeIfAbsent(type, t -> publicConstructor(t).orElse(() -> fallbackMap(t))).get();
+    }
+
+    private Supplier<Object> createInstantiator(Class<?> type) {
+        return publicConstructor(type).orElse(() -> objenesis.newInstance(type));
+    }
+
+    private Optional<Supplier<Object>> publicConstructor(Class<?> type) {
+        if (Modifier.isAbstract(type.getModifiers()) || !Modifier.isPublic(type.getModifiers())) {
+            return Optional.empty();
+        }
+        try {
+            Constructor<?> constructor = type.getConstructor();
+            return Optional.of(() -> {
+                try {
+                    return constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new CloudbreakServiceException("Cannot instantiate " + type.getName(), e);
+                }
+            });
+        } catch (NoSuchMethodException ignored) {
+            return Optional.empty();
+        }
+    }
+
+    private Collection<Object> fallbackCollection(Class<?> type) {
+        if (SortedSet.class.isAssignableFrom(type)) {
+            return new TreeSet<>();
+        } else if (Set.class.isAssignableFrom(type)) {
+            return new LinkedHashSet<>();
+        } else if (Queue.class.isAssignableFrom(type)) {
+            return new LinkedList<>();
+        }
+        return new ArrayList<>();
+    }
+
+    private Map<Object, Object> fallbackMap(Class<?> type) {
+        return SortedMap.class.isAssignableFrom(type) ? new TreeMap<>() : new LinkedHashMap<>();
+    }
+
+    /**
+     * The persisted fields of a class in a stable order, super class fields first. Fields hidden by a subclass field are
+     * named with their declaring class.
+     */
+    static class ClassSchema {
+
+        private final List<Field> fields = new ArrayList<>();
+
+        private final List<String> fieldNames = new ArrayList<>();
+
+        private final Map<String, Field> fieldsByName = new HashMap<>();
+
+        ClassSchema(Class<?> type) {
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                List<Field> declaredFields = new ArrayList<>();
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                        field.setAccessible(true);
+                        declaredFields.add(field);
+                    }
+                }
+                fields.addAll(0, declaredFields);
+            }
+            for (Field field : fields) {
+                String name = fieldsByName.containsKey(field.getName()) ? field.getDeclaringClass().getName() + '.' + field.getName() : field.getName();
+                fieldNames.add(name);
+                fieldsByName.put(name, field);
+            }
+        }
+
+        List<Field> getFields() {
+            return fields;
+        }
+
+        List<String> getFieldNames() {
+            return fieldNames;
+        }
+
+        Field getField(String name) {
+            return fieldsByName.get(name);
+        }
+    }
+}
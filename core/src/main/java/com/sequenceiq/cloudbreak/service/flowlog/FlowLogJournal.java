@@ -0,0 +1,231 @@
+package com.sequenceiq.cloudbreak.service.flowlog;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.common.type.MetricType;
+import com.sequenceiq.cloudbreak.core.flow2.service.ReactorFlowManager;
+import com.sequenceiq.cloudbreak.domain.FlowLog;
+import com.sequenceiq.cloudbreak.domain.StateStatus;
+import com.sequenceiq.cloudbreak.repository.FlowLogRepository;
+import com.sequenceiq.cloudbreak.service.TransactionService;
+import com.sequenceiq.cloudbreak.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.cloudbreak.service.metrics.MetricService;
+
+/**
+ * Write-behind journal for the flow log entries of the flow control events. The entries of every flow are collected in memory
+ * and persisted in one transaction (and JDBC batch) on a short timer. The id of the last persisted flow log of every running flow
+ * is kept in memory, so the status of the previous state can be updated without looking it up first.
+ * <p>
+ * The first flow log of a flow and the finalization of it are always written synchronously, so the ownership of the flows that
+ * the {@link com.sequenceiq.cloudbreak.service.ha.HeartbeatService} distributes on node failure is never lost. The transitions
+ * in between are not durable until they are flushed: a node that dies loses the transitions that are not flushed yet (those of
+ * the last flush interval, or of the last flush attempts while the DB is failing) and the flow is restarted from the last
+ * persisted state, repeating the steps after it. This is why the journal is only used when cb.flowlog.writebehind.enabled is set.
+ * <p>
+ * A batch that cannot be persisted is queued again and retried with the next flush. When it still fails after the configured
+ * attempts, the running flows of the affected stacks are cancelled, so their flow logs are finalized instead of staying pending.
+ * A flow that is finalized while its entries are queued again drops them, they would be written after its final flow log otherwise.
+ */
+@Component
+public class FlowLogJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowLogJournal.class);
+
+    @Value("${cb.flowlog.writebehind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cb.flowlog.writebehind.batch.size:500}")
+    private int maxBatchSize;
+
+    @Value("${cb.flowlog.writebehind.flush.attempts:5}")
+    private int maxFlushAttempts;
+
+    @Inject
+    private FlowLogRepository flowLogRepository;
+
+    @Inject
+    private ReactorFlowManager reactorFlowManager;
+
+    @Inject
+    private TransactionService transactionService;
+
+    @Inject
+    private MetricService metricService;
+
+    private final BlockingDeque<JournalEntry> pendingEntries = new LinkedBlockingDeque<>();
+
+    private final Map<String, Long> lastFlowLogIds = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+
+    private int failedFlushes;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void append(FlowLog flowLog, StateStatus previousStateStatus) {
+        pendingEntries.add(new JournalEntry(flowLog, previousStateStatus));
+        if (pendingEntries.size() >= maxBatchSize) {
+            LOGGER.debug("Flow log journal is full, flushing it on the caller thread.");
+            flush();
+        }
+    }
+
+    public void flowLogPersisted(FlowLog flowLog) {
+        if (enabled && flowLog != null && flowLog.getId() != null) {
+            lastFlowLogIds.put(flowLog.getFlowId(), flowLog.getId());
+        }
+    }
+
+    public Long getLastFlowLogId(String flowId) {
+        return lastFlowLogIds.get(flowId);
+    }
+
+    public void forget(String flowId) {
+        lastFlowLogIds.remove(flowId);
+    }
+
+    /**
+     * Drops every pending entry without writing them to the DB. Used when the node could not update its heartbeat, because the
+     * flows of this node might have already been distributed to other nodes.
+     */
+    public void discard() {
+        synchronized (flushLock) {
+            List<JournalEntry> dropped = new ArrayList<>();
+            pendingEntries.drainTo(dropped);
+            lastFlowLogIds.clear();
+            LOGGER.info("Flow log journal discarded {} pending entries.", dropped.size());
+        }
+    }
+
+    /**
+     * Drops the pending entries of a flow without writing them to the DB. Used when the flow is finalized while its entries could not
+     * be flushed, so they are not written after its final flow log once the DB is available again.
+     */
+    public int discard(String flowId) {
+        synchronized (flushLock) {
+            int pending = pendingEntries.size();
+            pendingEntries.removeIf(entry -> flowId.equals(entry.flowLog.getFlowId()));
+            return pending - pendingEntries.size();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cb.flowlog.writebehind.flush.interval:100}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Persists the pending entries.
+     *
+     * @return false if the pending entries could not be persisted, they are queued again or their flows are cancelled
+     */
+    public boolean flush() {
+        synchronized (flushLock) {
+            List<JournalEntry> batch = new ArrayList<>(pendingEntries.size());
+            pendingEntries.drainTo(batch);
+            boolean persisted = batch.isEmpty() || persist(batch);
+            metricService.submit(MetricType.FLOWLOG_JOURNAL_PENDING.getMetricName(), pendingEntries.size());
+            return persisted;
+        }
+    }
+
+    private boolean persist(List<JournalEntry> batch) {
+        Map<String, FlowLog> lastFlowLogsInBatch = new LinkedHashMap<>();
+        Map<StateStatus, List<Long>> persistedStatusUpdates = new EnumMap<>(StateStatus.class);
+        List<FlowLog> flowLogs = new ArrayList<>(batch.size());
+        for (JournalEntry entry : batch) {
+            String flowId = entry.flowLog.getFlowId();
+            FlowLog previousFlowLog = lastFlowLogsInBatch.get(flowId);
+            if (previousFlowLog != null) {
+                previousFlowLog.setStateStatus(entry.previousStateStatus);
+            } else {
+                Long lastFlowLogId = lastFlowLogIds.computeIfAbsent(flowId, id -> flowLogRepository.findFirstByFlowIdOrderByCreatedDesc(id).getId());
+                persistedStatusUpdates.computeIfAbsent(entry.previousStateStatus, status -> new ArrayList<>()).add(lastFlowLogId);
+            }
+            lastFlowLogsInBatch.put(flowId, entry.flowLog);
+            flowLogs.add(entry.flowLog);
+        }
+        try {
+            transactionService.required(() -> {
+                persistedStatusUpdates.forEach((stateStatus, ids) -> flowLogRepository.updateLastLogStatusInFlows(ids, stateStatus));
+                flowLogRepository.save(flowLogs);
+                return null;
+            });
+            lastFlowLogsInBatch.forEach((flowId, flowLog) -> lastFlowLogIds.put(flowId, flowLog.getId()));
+            LOGGER.debug("Flow log journal persisted {} entries of {} flows.", flowLogs.size(), lastFlowLogsInBatch.size());
+            failedFlushes = 0;
+            return true;
+        } catch (TransactionExecutionException e) {
+            metricService.incrementMetricCounter(MetricType.FLOWLOG_JOURNAL_FLUSH_FAILED);
+            for (FlowLog flowLog : flowLogs) {
+                flowLog.setId(null);
+                flowLog.setVersion(null);
+            }
+            failedFlushes++;
+            if (failedFlushes < maxFlushAttempts) {
+                LOGGER.warn(String.format("Failed to persist the flow log journal (attempt %d of %d), it is retried with the next flush.",
+                        failedFlushes, maxFlushAttempts), e);
+                requeue(batch);
+            } else {
+                failedFlushes = 0;
+                cancelFlows(batch, e);
+            }
+            return false;
+        }
+    }
+
+    private void requeue(List<JournalEntry> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            pendingEntries.addFirst(batch.get(i));
+        }
+    }
+
+    private void cancelFlows(List<JournalEntry> batch, TransactionExecutionException cause) {
+        Set<String> flowIds = batch.stream().map(entry -> entry.flowLog.getFlowId()).collect(Collectors.toSet());
+        Set<Long> stackIds = batch.stream().map(entry -> entry.flowLog.getStackId()).collect(Collectors.toSet());
+        LOGGER.error(String.format("Failed to persist the flow log journal %d times, the flows %s of the stacks %s are cancelled.",
+                maxFlushAttempts, flowIds, stackIds), cause);
+        pendingEntries.removeIf(entry -> flowIds.contains(entry.flowLog.getFlowId()));
+        flowIds.forEach(lastFlowLogIds::remove);
+        stackIds.forEach(reactorFlowManager::cancelRunningFlows);
+    }
+
+    private static class JournalEntry {
+
+        private final FlowLog flowLog;
+
+        private final StateStatus previousStateStatus;
+
+        JournalEntry(FlowLog flowLog, StateStatus previousStateStatus) {
+            this.flowLog = flowLog;
+            this.previousStateStatus = previousStateStatus;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.sequenceiq.cloudbreak.service.flowlog;
+
+/**
+ * Serializes the payloads, the flow variables and the flow chains that are persisted in the flow log tables.
+ */
+public interface FlowLogSerializer {
+
+    /**
+     * The name of the serializer, used to select the one that writes new flow log entries.
+     */
+    String name();
+
+    /**
+     * The prefix of every serialized value. Values without a known header are read with the serializer that has an empty header.
+     */
+    String header();
+
+    String serialize(Object object);
+
+    Object deserialize(String serialized);
+}
@@ -0,0 +1,58 @@
+package com.sequenceiq.cloudbreak.service.flowlog;
+
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sequenceiq.cloudbreak.service.CloudbreakServiceException;
+
+/**
+ * Writes the flow log values with the configured {@link FlowLogSerializer} and reads them with the one that wrote them,
+ * selected by the header of the value.
+ */
+@Service
+public class FlowLogSerializerService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlowLogSerializerService.class);
+
+    @Value("${cb.flowlog.serializer:" + JsonIoFlowLogSerializer.NAME + '}')
+    private String serializerName;
+
+    @Inject
+    private List<FlowLogSerializer> serializers;
+
+    private FlowLogSerializer writer;
+
+    private FlowLogSerializer legacyReader;
+
+    @PostConstruct
+    public void init() {
+        writer = serializers.stream().filter(s -> s.name().equals(serializerName)).findFirst()
+                .orElseThrow(() -> new CloudbreakServiceException("Unknown flow log serializer: " + serializerName));
+        legacyReader = serializers.stream().filter(s -> s.header().isEmpty()).findFirst()
+                .orElseThrow(() -> new CloudbreakServiceException("There is no flow log serializer for values without header"));
+        LOGGER.info("Flow log values are written with the '{}' serializer.", serializerName);
+    }
+
+    public String serialize(Object object) {
+        return writer.serialize(object);
+    }
+
+    public Object deserialize(String serialized) {
+        if (serialized == null) {
+            return null;
+        }
+        for (FlowLogSerializer serializer : serializers) {
+            if (!serializer.header().isEmpty() && serialized.startsWith(serializer.header())) {
+                return serializer.deserialize(serialized);
+            }
+        }
+        return legacyReader.deserialize(serialized);
+    }
+}
@@ -7,12 +7,11 @@ import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import com.cedarsoftware.util.io.JsonWriter;
 import com.sequenceiq.cloudbreak.cloud.event.Payload;
 import com.sequenceiq.cloudbreak.cloud.event.Selectable;
+import com.sequenceiq.cloudbreak.core.flow2.Flow;
 import com.sequenceiq.cloudbreak.core.flow2.FlowState;
 import com.sequenceiq.cloudbreak.domain.FlowChainLog;
 import com.sequenceiq.cloudbreak.domain.FlowLog;
@@ -38,20 +37,29 @@ public class FlowLogService {
     private FlowChainLogRepository flowChainLogRepository;
 
     @Inject
-    @Qualifier("JsonWriterOptions")
-    private Map<String, Object> writeOptions;
+    private FlowLogSerializerService flowLogSerializerService;
 
     @Inject
     private TransactionService transactionService;
 
+    @Inject
+    private FlowLogJournal flowLogJournal;
+
     public FlowLog save(String flowId, String flowChanId, String key, Payload payload, Map<Object, Object> variables, Class<?> flowType,
             FlowState currentState) {
-        String payloadJson = JsonWriter.objectToJson(payload, writeOptions);
-        String variablesJson = JsonWriter.objectToJson(variables, writeOptions);
-        FlowLog flowLog = new FlowLog(payload.getStackId(), flowId, flowChanId, key, payloadJson, payload.getClass(), variablesJson, flowType,
-                currentState.toString());
-        flowLog.setCloudbreakNodeId(cloudbreakNodeConfig.getId());
-        return flowLogRepository.save(flowLog);
+        FlowLog flowLog = flowLogRepository.save(createFlowLog(flowId, flowChanId, key, payload, variables, flowType, currentState));
+        flowLogJournal.flowLogPersisted(flowLog);
+        return flowLog;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return flowLogJournal.isEnabled();
+    }
+
+    public void saveWriteBehind(Flow flow, String flowChanId, String key, Payload payload, boolean failureEvent) {
+        StateStatus previousStateStatus = failureEvent ? StateStatus.FAILED : StateStatus.SUCCESSFUL;
+        FlowLog flowLog = createFlowLog(flow.getFlowId(), flowChanId, key, payload, flow.getVariables(), flow.getFlowConfigClass(), flow.getCurrentState());
+        flowLogJournal.append(flowLog, previousStateStatus);
     }
 
     public FlowLog close(Long stackId, String flowId) throws TransactionExecutionException {
@@ -79,24 +87,43 @@ public class FlowLogService {
     }
 
     private FlowLog finalize(Long stackId, String flowId, String state) throws TransactionExecutionException {
-        return transactionService.required(() -> {
+        if (flowLogJournal.isEnabled() && !flowLogJournal.flush()) {
+            int dropped = flowLogJournal.discard(flowId);
+            LOGGER.warn("Flow log journal could not be flushed, {} pending transitions of the finalized flow {} are dropped", dropped, flowId);
+        }
+        FlowLog finalFlowLog = transactionService.required(() -> {
             flowLogRepository.finalizeByFlowId(flowId);
             updateLastFlowLogStatus(flowId, false);
             FlowLog flowLog = new FlowLog(stackId, flowId, state, Boolean.TRUE, StateStatus.SUCCESSFUL);
             flowLog.setCloudbreakNodeId(cloudbreakNodeConfig.getId());
             return flowLogRepository.save(flowLog);
         });
+        flowLogJournal.forget(flowId);
+        return finalFlowLog;
+    }
+
+    private FlowLog createFlowLog(String flowId, String flowChanId, String key, Payload payload, Map<Object, Object> variables, Class<?> flowType,
+            FlowState currentState) {
+        String serializedPayload = flowLogSerializerService.serialize(payload);
+        String serializedVariables = flowLogSerializerService.serialize(variables);
+        FlowLog flowLog = new FlowLog(payload.getStackId(), flowId, flowChanId, key, serializedPayload, payload.getClass(), serializedVariables, flowType,
+                currentState.toString());
+        flowLog.setCloudbreakNodeId(cloudbreakNodeConfig.getId());
+        return flowLog;
     }
 
     public void saveChain(String flowChainId, String parentFlowChainId, Queue<Selectable> chain) {
-        String chainJson = JsonWriter.objectToJson(chain);
-        FlowChainLog chainLog = new FlowChainLog(flowChainId, parentFlowChainId, chainJson);
+        String serializedChain = flowLogSerializerService.serialize(chain);
+        FlowChainLog chainLog = new FlowChainLog(flowChainId, parentFlowChainId, serializedChain);
         flowChainLogRepository.save(chainLog);
     }
 
     public void updateLastFlowLogStatus(String flowId, boolean failureEvent) {
         StateStatus stateStatus = failureEvent ? StateStatus.FAILED : StateStatus.SUCCESSFUL;
-        FlowLog lastFlowLog = flowLogRepository.findFirstByFlowIdOrderByCreatedDesc(flowId);
-        flowLogRepository.updateLastLogStatusInFlow(lastFlowLog.getId(), stateStatus);
+        Long lastFlowLogId = flowLogJournal.getLastFlowLogId(flowId);
+        if (lastFlowLogId == null) {
+            lastFlowLogId = flowLogRepository.findFirstByFlowIdOrderByCreatedDesc(flowId).getId();
+        }
+        flowLogRepository.updateLastLogStatusInFlow(lastFlowLogId, stateStatus);
     }
 }
@@ -0,0 +1,41 @@
+package com.sequenceiq.cloudbreak.service.flowlog;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.cedarsoftware.util.io.JsonReader;
+import com.cedarsoftware.util.io.JsonWriter;
+
+@Component
+public class JsonIoFlowLogSerializer implements FlowLogSerializer {
+
+    public static final String NAME = "json";
+
+    @Inject
+    @Qualifier("JsonWriterOptions")
+    private Map<String, Object> writeOptions;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String header() {
+        return "";
+    }
+
+    @Override
+    public String serialize(Object object) {
+        return JsonWriter.objectToJson(object, writeOptions);
+    }
+
+    @Override
+    public Object deserialize(String serialized) {
+        return JsonReader.jsonToJava(serialized);
+    }
+}
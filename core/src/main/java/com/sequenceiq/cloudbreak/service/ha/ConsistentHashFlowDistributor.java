@@ -0,0 +1,66 @@
+package com.sequenceiq.cloudbreak.service.ha;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.sequenceiq.cloudbreak.domain.CloudbreakNode;
+
+/**
+ * Assigns the flows to the nodes with a consistent hash ring. Every node is placed on the ring with a number of virtual nodes, so the
+ * flows are spread evenly and the assignment of a flow only depends on the set of active nodes, not on the order of the flows.
+ */
+@Service
+@Primary
+public class ConsistentHashFlowDistributor implements FlowDistributor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsistentHashFlowDistributor.class);
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
+    @Value("${cb.ha.flow.distribution.virtualnodes:128}")
+    private int virtualNodes = 128;
+
+    @Override
+    public Map<CloudbreakNode, List<String>> distribute(List<String> flows, List<CloudbreakNode> nodes) {
+        Map<CloudbreakNode, List<String>> result = new HashMap<>();
+        if (nodes.isEmpty()) {
+            LOGGER.warn("There is no active node to distribute {} flows to", flows.size());
+            return result;
+        }
+        TreeMap<Integer, CloudbreakNode> ring = createRing(nodes);
+        for (String flow : flows) {
+            Entry<Integer, CloudbreakNode> entry = ring.ceilingEntry(hash(flow));
+            CloudbreakNode node = entry != null ? entry.getValue() : ring.firstEntry().getValue();
+            result.computeIfAbsent(node, k -> new ArrayList<>()).add(flow);
+        }
+        LOGGER.info("Result of flow distribution of {} flows across {} nodes: {}", flows.size(), nodes.size(), result);
+        return result;
+    }
+
+    private TreeMap<Integer, CloudbreakNode> createRing(List<CloudbreakNode> nodes) {
+        TreeMap<Integer, CloudbreakNode> ring = new TreeMap<>();
+        for (CloudbreakNode node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node.getUuid() + '#' + i), node);
+            }
+        }
+        return ring;
+    }
+
+    private int hash(String key) {
+        return HASH_FUNCTION.hashString(key, StandardCharsets.UTF_8).asInt();
+    }
+}
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -21,6 +23,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.google.api.client.util.Lists;
+import com.google.common.collect.Iterables;
 import com.sequenceiq.cloudbreak.api.model.Status;
 import com.sequenceiq.cloudbreak.cloud.scheduler.PollGroup;
 import com.sequenceiq.cloudbreak.cloud.store.InMemoryStateStore;
@@ -31,7 +34,6 @@ import com.sequenceiq.cloudbreak.core.flow2.chain.FlowChains;
 import com.sequenceiq.cloudbreak.core.flow2.service.ReactorFlowManager;
 import com.sequenceiq.cloudbreak.core.flow2.stack.termination.StackTerminationFlowConfig;
 import com.sequenceiq.cloudbreak.domain.CloudbreakNode;
-import com.sequenceiq.cloudbreak.domain.FlowLog;
 import com.sequenceiq.cloudbreak.domain.stack.Stack;
 import com.sequenceiq.cloudbreak.domain.StateStatus;
 import com.sequenceiq.cloudbreak.ha.CloudbreakNodeConfig;
@@ -43,6 +45,7 @@ import com.sequenceiq.cloudbreak.service.Retry;
 import com.sequenceiq.cloudbreak.service.Retry.ActionWentFailException;
 import com.sequenceiq.cloudbreak.service.TransactionService;
 import com.sequenceiq.cloudbreak.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.cloudbreak.service.flowlog.FlowLogJournal;
 import com.sequenceiq.cloudbreak.service.metrics.MetricService;
 
 @Service
@@ -55,6 +58,9 @@ public class HeartbeatService {
     @Value("${cb.ha.heartbeat.threshold:60000}")
     private Integer heartbeatThresholdRate;
 
+    @Value("${cb.ha.flow.update.batch.size:1000}")
+    private int flowUpdateBatchSize = 1000;
+
     @Inject
     private CloudbreakNodeConfig cloudbreakNodeConfig;
 
@@ -95,6 +101,9 @@ public class HeartbeatService {
     @Inject
     private TransactionService transactionService;
 
+    @Inject
+    private FlowLogJournal flowLogJournal;
+
     @Scheduled(cron = "${cb.ha.heartbeat.rate:0/30 * * * * *}")
     public void heartbeat() {
         if (cloudbreakNodeConfig.isNodeIdSpecified()) {
@@ -117,6 +126,7 @@ public class HeartbeatService {
                 cancelEveryFlowWithoutDbUpdate();
             }
 
+            refreshOtherNodeFlows(nodeId);
             cancelInvalidFlows();
         }
     }
@@ -137,7 +147,7 @@ public class HeartbeatService {
             }
 
             String nodeId = cloudbreakNodeConfig.getId();
-            Set<String> allMyFlows = flowLogRepository.findAllByCloudbreakNodeId(nodeId).stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toSet());
+            Set<String> allMyFlows = flowLogRepository.findAllFlowIdsByCloudbreakNodeId(nodeId);
             Set<String> newFlows = allMyFlows.stream().filter(f -> runningFlows.get(f) == null).collect(Collectors.toSet());
             for (String flow : newFlows) {
                 try {
@@ -157,31 +167,28 @@ public class HeartbeatService {
         List<CloudbreakNode> activeNodes = cloudbreakNodes.stream().filter(c -> !failedNodes.contains(c)).collect(Collectors.toList());
         LOGGER.info("Active CB nodes: ({})[{}], failed CB nodes: ({})[{}]", activeNodes.size(), activeNodes, failedNodes.size(), failedNodes);
 
-        List<FlowLog> failedFlowLogs = failedNodes.stream()
-                .map(node -> flowLogRepository.findAllByCloudbreakNodeId(node.getUuid()))
-                .flatMap(Set::stream)
-                .collect(Collectors.toList());
-
-        if (!failedFlowLogs.isEmpty()) {
-            LOGGER.info("The following flows will be distributed across the active nodes: {}", getFlowIds(failedFlowLogs));
-            List<FlowLog> invalidFlows = getInvalidFlows(failedFlowLogs);
-            Collection<FlowLog> updatedFlowLogs = new ArrayList<>(invalidFlows.size());
-            invalidFlows.forEach(fl -> {
-                fl.setFinalized(true);
-                fl.setStateStatus(StateStatus.SUCCESSFUL);
-            });
-            updatedFlowLogs.addAll(invalidFlows);
-            failedFlowLogs.removeAll(invalidFlows);
-            LOGGER.info("The following flows have been filtered out from distribution: {}", getFlowIds(invalidFlows));
-            Map<CloudbreakNode, List<String>> flowDistribution = flowDistributor.distribute(getFlowIds(failedFlowLogs), activeNodes);
-            for (Entry<CloudbreakNode, List<String>> entry : flowDistribution.entrySet()) {
-                entry.getValue().forEach(flowId ->
-                        failedFlowLogs.stream().filter(flowLog -> flowLog.getFlowId().equalsIgnoreCase(flowId)).forEach(flowLog -> {
-                            flowLog.setCloudbreakNodeId(entry.getKey().getUuid());
-                            updatedFlowLogs.add(flowLog);
-                        }));
+        if (!failedNodes.isEmpty()) {
+            Set<String> failedNodeIds = failedNodes.stream().map(CloudbreakNode::getUuid).collect(Collectors.toSet());
+            List<Object[]> failedFlows = flowLogRepository.findAllPendingFlowsByCloudbreakNodeIds(failedNodeIds);
+            if (!failedFlows.isEmpty()) {
+                Set<String> invalidFlowIds = getInvalidFlowIds(failedFlows);
+                List<String> flowIds = failedFlows.stream().map(ff -> (String) ff[0]).distinct()
+                        .filter(flowId -> !invalidFlowIds.contains(flowId)).collect(Collectors.toList());
+                LOGGER.info("The following flows will be distributed across the active nodes: {}", flowIds);
+                LOGGER.info("The following flows have been filtered out from distribution: {}", invalidFlowIds);
+                Map<CloudbreakNode, List<String>> flowDistribution = flowDistributor.distribute(flowIds, activeNodes);
+                transactionService.required(() -> {
+                    for (List<String> ids : Iterables.partition(invalidFlowIds, flowUpdateBatchSize)) {
+                        flowLogRepository.finalizePendingFlows(ids, failedNodeIds, StateStatus.SUCCESSFUL);
+                    }
+                    for (Entry<CloudbreakNode, List<String>> entry : flowDistribution.entrySet()) {
+                        for (List<String> ids : Iterables.partition(entry.getValue(), flowUpdateBatchSize)) {
+                            flowLogRepository.reassignPendingFlows(ids, failedNodeIds, entry.getKey().getUuid());
+                        }
+                    }
+                    return null;
+                });
             }
-            transactionService.required(() -> flowLogRepository.save(updatedFlowLogs));
         }
         return failedNodes;
     }
@@ -193,7 +200,7 @@ public class HeartbeatService {
         if (failedNodes != null && !failedNodes.isEmpty()) {
             LOGGER.info("Cleanup node candidates: {}", failedNodes);
             List<CloudbreakNode> cleanupNodes = failedNodes.stream()
-                    .filter(node -> flowLogRepository.findAllByCloudbreakNodeId(node.getUuid()).isEmpty())
+                    .filter(node -> flowLogRepository.findAllFlowIdsByCloudbreakNodeId(node.getUuid()).isEmpty())
                     .collect(Collectors.toList());
             LOGGER.info("Cleanup nodes from the DB: {}", cleanupNodes);
             transactionService.required(() -> {
@@ -215,7 +222,7 @@ public class HeartbeatService {
             for (Object[] ss : stackStatuses) {
                 if (DELETE_STATUSES.contains(ss[1])) {
                     Long stackId = (Long) ss[0];
-                    Set<String> runningFlowIds = flowLogRepository.findAllRunningNonTerminationFlowIdsByStackId(stackId);
+                    Set<String> runningFlowIds = runningFlows.getLocalNonTerminationFlowIds(stackId);
                     if (hasRunningNonTerminationFlowOnThisNode(runningFlowIds)) {
                         LOGGER.info("Found termination flow on a different node for stack: {}", stackId);
                         cancelRunningFlow(stackId);
@@ -228,22 +235,37 @@ public class HeartbeatService {
     }
 
     /**
-     * Returns all the FlowLogs that have a termination flow running on any of the nodes for the same stack.
-     * This is required as we don't want to distribute flows that will be terminated anyways.
+     * Refresh the snapshot of the non-termination flows running on the other nodes with a single query, flow acceptance on this node
+     * relies on it instead of querying the flow logs of the stack for every trigger.
      */
-    private List<FlowLog> getInvalidFlows(Collection<FlowLog> flowLogs) {
-        Set<Long> stackIds = flowLogs.stream().map(FlowLog::getStackId).distinct().collect(Collectors.toSet());
-        if (!stackIds.isEmpty()) {
-            Set<Long> deletingStackIds = stackRepository.findStackStatuses(stackIds).stream()
-                    .filter(ss -> DELETE_STATUSES.contains(ss[1])).map(ss -> (Long) ss[0]).collect(Collectors.toSet());
-            if (!deletingStackIds.isEmpty()) {
-                return flowLogs.stream()
-                        .filter(fl -> deletingStackIds.contains(fl.getStackId()))
-                        .filter(fl -> !fl.getFlowType().equals(StackTerminationFlowConfig.class))
-                        .collect(Collectors.toList());
+    private void refreshOtherNodeFlows(String nodeId) {
+        try {
+            Map<Long, Set<String>> flowIdsByStack = new HashMap<>();
+            for (Object[] stackFlow : flowLogRepository.findAllRunningNonTerminationFlowIdsOfOtherNodes(nodeId)) {
+                flowIdsByStack.computeIfAbsent((Long) stackFlow[0], id -> new HashSet<>()).add((String) stackFlow[1]);
             }
+            runningFlows.refreshOtherNodeFlows(flowIdsByStack);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to refresh the running flows of the other nodes", e);
         }
-        return Collections.emptyList();
+    }
+
+    /**
+     * Returns the ids of the non-termination flows whose stack is being terminated, the stack ids and flow types are taken from the
+     * pending flow rows. This is required as we don't want to distribute flows that will be terminated anyways.
+     */
+    private Set<String> getInvalidFlowIds(Collection<Object[]> flows) {
+        Set<Long> stackIds = flows.stream().map(ff -> (Long) ff[1]).collect(Collectors.toSet());
+        Set<Long> deletingStackIds = stackRepository.findStackStatuses(stackIds).stream()
+                .filter(ss -> DELETE_STATUSES.contains(ss[1])).map(ss -> (Long) ss[0]).collect(Collectors.toSet());
+        if (deletingStackIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return flows.stream()
+                .filter(ff -> deletingStackIds.contains(ff[1]))
+                .filter(ff -> !StackTerminationFlowConfig.class.equals(ff[2]))
+                .map(ff -> (String) ff[0])
+                .collect(Collectors.toSet());
     }
 
     private boolean hasRunningNonTerminationFlowOnThisNode(Collection<String> runningFlowIds) {
@@ -251,6 +273,7 @@ public class HeartbeatService {
     }
 
     private void cancelEveryFlowWithoutDbUpdate() {
+        flowLogJournal.discard();
         for (Long stackId : InMemoryStateStore.getAllStackId()) {
             InMemoryStateStore.putStack(stackId, PollGroup.CANCELLED);
         }
@@ -281,8 +304,4 @@ public class HeartbeatService {
         }
     }
 
-    private List<String> getFlowIds(Collection<FlowLog> flowLogCollection) {
-        return flowLogCollection.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList());
-    }
-
 }
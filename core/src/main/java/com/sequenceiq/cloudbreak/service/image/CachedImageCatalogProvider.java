@@ -2,28 +2,48 @@ package com.sequenceiq.cloudbreak.service.image;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.Response.Status.Family;
 
 import org.apache.commons.lang3.StringUtils;
+import org.glassfish.jersey.client.ClientProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
@@ -33,10 +53,22 @@ import com.sequenceiq.cloudbreak.client.RestClientUtil;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV2;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.Images;
+import com.sequenceiq.cloudbreak.common.type.MetricType;
 import com.sequenceiq.cloudbreak.core.CloudbreakImageCatalogException;
-import com.sequenceiq.cloudbreak.util.FileReaderUtils;
+import com.sequenceiq.cloudbreak.service.metrics.MetricService;
 import com.sequenceiq.cloudbreak.util.JsonUtil;
 
+/**
+ * Keeps the image catalogs in memory and refreshes them in the background, so the requests are served from the last good copy and
+ * do not wait for the catalog host, except for the first request of a catalog and, for a bounded time, the requests of an image that
+ * is missing from the cached copy. A catalog is checked again when it is older than the
+ * configured time to live, with a conditional request, and it is parsed and indexed again only if it has changed. The catalogs that
+ * are not requested for a while are dropped.
+ * <p>
+ * A cached catalog is never reloaded on the request path: with {@code cb.image.catalog.cache.ttl=0} it is checked on every run of the
+ * refresh task, so it may be stale for up to {@code cb.image.catalog.refresh.check.ms}, 60 seconds by default, instead of being read on
+ * every request.
+ */
 @Component
 public class CachedImageCatalogProvider {
     private static final Logger LOGGER = LoggerFactory.getLogger(CachedImageCatalogProvider.class);
@@ -47,34 +79,195 @@ public class CachedImageCatalogProvider {
     @Value("${cb.enabled.linux.types}")
     private List<String> enabledLinuxTypes;
 
+    @Value("${cb.image.catalog.cache.ttl:15}")
+    private long ttlMinutes;
+
+    @Value("${cb.image.catalog.idle.minutes:60}")
+    private long idleMinutes;
+
+    @Value("${cb.image.catalog.timeout.ms:30000}")
+    private int timeoutMs;
+
+    @Value("${cb.image.catalog.refresh.wait.ms:10000}")
+    private long refreshWaitMs;
+
     @Inject
     private ObjectMapper objectMapper;
 
-    @Cacheable(cacheNames = "imageCatalogCache", key = "#catalogUrl")
-    public CloudbreakImageCatalogV2 getImageCatalogV2(String catalogUrl) throws CloudbreakImageCatalogException {
-        CloudbreakImageCatalogV2 catalog = null;
+    @Inject
+    private MetricService metricService;
+
+    private final Map<String, CachedCatalog> catalogs = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<CachedCatalog>> loading = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<Void>> refreshes = new ConcurrentHashMap<>();
+
+    private ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "imageCatalogRefresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IndexedImageCatalog getIndexedImageCatalog(String catalogUrl) throws CloudbreakImageCatalogException {
         if (catalogUrl == null) {
             LOGGER.warn("No image catalog was defined!");
-            return catalog;
+            return null;
         }
+        CachedCatalog cached = catalogs.get(catalogUrl);
+        if (cached == null) {
+            cached = loadOnce(catalogUrl);
+        }
+        cached.lastAccessed = System.currentTimeMillis();
+        return cached.catalog;
+    }
+
+    /**
+     * Checks the catalog in the background and reloads it if it has changed, the requests are served from the last good copy meanwhile.
+     * A catalog that is not cached yet is loaded by its first request. The concurrent refreshes of a catalog share one check.
+     */
+    public CompletableFuture<Void> refreshImageCatalog(String catalogUrl) {
+        if (catalogUrl == null || !catalogs.containsKey(catalogUrl)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> refresh = new CompletableFuture<>();
+        CompletableFuture<Void> pending = refreshes.putIfAbsent(catalogUrl, refresh);
+        if (pending != null) {
+            return pending;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    CachedCatalog cached = catalogs.get(catalogUrl);
+                    if (cached != null) {
+                        refreshQuietly(catalogUrl, cached);
+                    }
+                } finally {
+                    refreshes.remove(catalogUrl, refresh);
+                    refresh.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshes.remove(catalogUrl, refresh);
+            refresh.complete(null);
+            LOGGER.warn("Could not schedule the refresh of image catalog '{}'", catalogUrl, e);
+        }
+        return refresh;
+    }
 
+    /**
+     * Refreshes the catalog and waits for the check at most {@code cb.image.catalog.refresh.wait.ms}. Used when the cached copy misses an
+     * image that may have been published since the last check; the last good copy is served if the check does not finish in time.
+     */
+    public void awaitImageCatalogRefresh(String catalogUrl) {
+        try {
+            refreshImageCatalog(catalogUrl).get(refreshWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.info("Image catalog '{}' could not be checked in {} ms, the last good copy is used.", catalogUrl, refreshWaitMs);
+        } catch (ExecutionException e) {
+            LOGGER.warn("Could not refresh image catalog '{}', the last good copy is used.", catalogUrl, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${cb.image.catalog.refresh.check.ms:60000}")
+    public void refreshImageCatalogs() {
+        long maxAge = 0L;
+        for (Map.Entry<String, CachedCatalog> entry : catalogs.entrySet()) {
+            String catalogUrl = entry.getKey();
+            CachedCatalog cached = entry.getValue();
+            long now = System.currentTimeMillis();
+            if (now - cached.lastAccessed > TimeUnit.MINUTES.toMillis(idleMinutes)) {
+                LOGGER.info("Image catalog '{}' has not been used for {} minutes, it is dropped from the cache.", catalogUrl, idleMinutes);
+                catalogs.remove(catalogUrl, cached);
+            } else {
+                if (now - cached.verified >= TimeUnit.MINUTES.toMillis(ttlMinutes)) {
+                    cached = refreshQuietly(catalogUrl, cached);
+                }
+                maxAge = Math.max(maxAge, System.currentTimeMillis() - cached.verified);
+            }
+        }
+        metricService.submit(MetricType.IMAGE_CATALOG_AGE.getMetricName(), maxAge);
+    }
+
+    /**
+     * Loads a catalog that is not cached yet. The concurrent first requests of a catalog wait for the same load.
+     */
+    private CachedCatalog loadOnce(String catalogUrl) throws CloudbreakImageCatalogException {
+        CompletableFuture<CachedCatalog> load = new CompletableFuture<>();
+        CompletableFuture<CachedCatalog> pending = loading.putIfAbsent(catalogUrl, load);
+        if (pending != null) {
+            return awaitLoad(pending);
+        }
+        try {
+            CachedCatalog cached = catalogs.get(catalogUrl);
+            if (cached == null) {
+                cached = load(catalogUrl, null);
+                catalogs.put(catalogUrl, cached);
+            }
+            load.complete(cached);
+            return cached;
+        } catch (CloudbreakImageCatalogException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(catalogUrl, load);
+        }
+    }
+
+    private CachedCatalog awaitLoad(CompletableFuture<CachedCatalog> load) throws CloudbreakImageCatalogException {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CloudbreakImageCatalogException("Interrupted while waiting for the image catalog", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CloudbreakImageCatalogException) {
+                throw (CloudbreakImageCatalogException) e.getCause();
+            }
+            throw new CloudbreakImageCatalogException("Failed to get image catalog", e.getCause());
+        }
+    }
+
+    private CachedCatalog refreshQuietly(String catalogUrl, CachedCatalog cached) {
+        try {
+            CachedCatalog refreshed = load(catalogUrl, cached);
+            if (refreshed != cached) {
+                catalogs.replace(catalogUrl, cached, refreshed);
+            }
+            return refreshed;
+        } catch (CloudbreakImageCatalogException e) {
+            LOGGER.warn("Could not refresh image catalog '{}', the copy from {} is used. Cause: {}", catalogUrl, new Date(cached.verified), e.getMessage());
+            metricService.incrementMetricCounter(MetricType.IMAGE_CATALOG_REFRESH_FAILED);
+            return cached;
+        }
+    }
+
+    private CachedCatalog load(String catalogUrl, CachedCatalog previous) throws CloudbreakImageCatalogException {
+        CachedCatalog loaded;
         try {
             long started = System.currentTimeMillis();
             if (catalogUrl.startsWith("http")) {
-                Client client = RestClientUtil.get();
-                WebTarget target = client.target(catalogUrl);
-                Response response = target.request().get();
-                catalog = checkResponse(target, response);
+                loaded = loadFromUrl(catalogUrl, previous);
             } else {
-                String content = readCatalogFromFile(catalogUrl);
-                catalog = JsonUtil.readValue(content, CloudbreakImageCatalogV2.class);
+                loaded = loadFromFile(catalogUrl, previous);
             }
-            validateImageCatalogUuids(catalog);
-            validateCloudBreakVersions(catalog);
-            cleanAndValidateMaps(catalog);
-            catalog = filterImagesByOsType(catalog);
             long timeOfParse = System.currentTimeMillis() - started;
-            LOGGER.info("ImageCatalog has been get and parsed from '{}' and took '{}' ms.", catalogUrl, timeOfParse);
+            metricService.submit(MetricType.IMAGE_CATALOG_REFRESH_DURATION.getMetricName(), timeOfParse);
+            if (previous != null && loaded != previous) {
+                loaded.lastAccessed = previous.lastAccessed;
+            }
+            if (loaded == previous) {
+                LOGGER.debug("ImageCatalog '{}' has not changed, the check took '{}' ms.", catalogUrl, timeOfParse);
+            } else {
+                LOGGER.info("ImageCatalog has been get and parsed from '{}' and took '{}' ms.", catalogUrl, timeOfParse);
+            }
         } catch (RuntimeException e) {
             throw new CloudbreakImageCatalogException("Failed to get image catalog", e);
         } catch (JsonMappingException e) {
@@ -82,7 +275,51 @@ public class CachedImageCatalogProvider {
         } catch (IOException e) {
             throw new CloudbreakImageCatalogException(String.format("Failed to read image catalog from file: '%s'", catalogUrl), e);
         }
-        return catalog;
+        return loaded;
+    }
+
+    private CachedCatalog loadFromUrl(String catalogUrl, CachedCatalog previous) throws CloudbreakImageCatalogException {
+        Client client = RestClientUtil.get();
+        WebTarget target = client.target(catalogUrl);
+        Invocation.Builder request = target.request();
+        request.property(ClientProperties.CONNECT_TIMEOUT, timeoutMs);
+        request.property(ClientProperties.READ_TIMEOUT, timeoutMs);
+        if (previous != null && previous.etag != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, previous.etag);
+        }
+        if (previous != null && previous.lastModified != null) {
+            request.header(HttpHeaders.IF_MODIFIED_SINCE, previous.lastModified);
+        }
+        Response response = request.get();
+        try {
+            if (previous != null && response.getStatus() == Status.NOT_MODIFIED.getStatusCode()) {
+                return previous.verifiedNow();
+            }
+            CloudbreakImageCatalogV2 catalog = checkResponse(target, response);
+            return new CachedCatalog(index(catalog), response.getHeaderString(HttpHeaders.ETAG), response.getHeaderString(HttpHeaders.LAST_MODIFIED));
+        } finally {
+            response.close();
+        }
+    }
+
+    private CachedCatalog loadFromFile(String catalogUrl, CachedCatalog previous) throws CloudbreakImageCatalogException, IOException {
+        Path customCatalogFile = new File(etcConfigDir, catalogUrl).toPath();
+        String lastModified = Files.getLastModifiedTime(customCatalogFile).toString();
+        if (previous != null && lastModified.equals(previous.lastModified)) {
+            return previous.verifiedNow();
+        }
+        CloudbreakImageCatalogV2 catalog;
+        try (Reader reader = Files.newBufferedReader(customCatalogFile, StandardCharsets.UTF_8)) {
+            catalog = JsonUtil.readValue(reader, CloudbreakImageCatalogV2.class);
+        }
+        return new CachedCatalog(index(catalog), null, lastModified);
+    }
+
+    private IndexedImageCatalog index(CloudbreakImageCatalogV2 catalog) throws CloudbreakImageCatalogException {
+        validateImageCatalogUuids(catalog);
+        validateCloudBreakVersions(catalog);
+        cleanAndValidateMaps(catalog);
+        return new IndexedImageCatalog(filterImagesByOsType(catalog));
     }
 
     private CloudbreakImageCatalogV2 filterImagesByOsType(CloudbreakImageCatalogV2 catalog) {
@@ -118,8 +355,7 @@ public class CachedImageCatalogProvider {
             throw new CloudbreakImageCatalogException(String.format("Failed to get image catalog from '%s' due to: '%s'",
                     target.getUri().toString(), response.getStatusInfo().getReasonPhrase()));
         } else {
-            try {
-                String responseContent = response.readEntity(String.class);
+            try (InputStream responseContent = response.readEntity(InputStream.class)) {
                 catalog = objectMapper.readValue(responseContent, CloudbreakImageCatalogV2.class);
             } catch (IOException | ProcessingException e) {
                 throw new CloudbreakImageCatalogException(String.format("Failed to process image catalog from '%s' due to: '%s'",
@@ -129,28 +365,19 @@ public class CachedImageCatalogProvider {
         return catalog;
     }
 
-    @CacheEvict(value = "imageCatalogCache", key = "#catalogUrl")
-    public void evictImageCatalogCache(String catalogUrl) {
-    }
-
     private void validateImageCatalogUuids(CloudbreakImageCatalogV2 imageCatalog) throws CloudbreakImageCatalogException {
         Stream<String> uuidStream = Stream.concat(imageCatalog.getImages().getBaseImages().stream().map(Image::getUuid),
                 imageCatalog.getImages().getHdpImages().stream().map(Image::getUuid));
         uuidStream = Stream.concat(uuidStream, imageCatalog.getImages().getHdfImages().stream().map(Image::getUuid));
-        List<String> uuidList = uuidStream.collect(Collectors.toList());
+        Set<String> uuids = uuidStream.collect(Collectors.toSet());
         List<String> orphanUuids = imageCatalog.getVersions().getCloudbreakVersions().stream().flatMap(cbv -> cbv.getImageIds().stream()).
-                filter(imageId -> !uuidList.contains(imageId)).collect(Collectors.toList());
+                filter(imageId -> !uuids.contains(imageId)).collect(Collectors.toList());
         if (!orphanUuids.isEmpty()) {
             throw new CloudbreakImageCatalogException(String.format("Images with ids: %s is not present in ambari-images block",
                     StringUtils.join(orphanUuids, ",")));
         }
     }
 
-    private String readCatalogFromFile(String catalogUrl) throws IOException {
-        File customCatalogFile = new File(etcConfigDir, catalogUrl);
-        return FileReaderUtils.readFileFromPath(customCatalogFile.toPath());
-    }
-
     private void cleanAndValidateMaps(CloudbreakImageCatalogV2 catalog) throws CloudbreakImageCatalogException {
 
         boolean baseImagesValidate = isCleanAndCheckMap(catalog.getImages().getBaseImages());
@@ -183,4 +410,28 @@ public class CachedImageCatalogProvider {
             throw new CloudbreakImageCatalogException("Cloudbreak versions cannot be NULL");
         }
     }
+
+    private static class CachedCatalog {
+
+        private final IndexedImageCatalog catalog;
+
+        private final String etag;
+
+        private final String lastModified;
+
+        private volatile long verified = System.currentTimeMillis();
+
+        private volatile long lastAccessed = System.currentTimeMillis();
+
+        CachedCatalog(IndexedImageCatalog catalog, String etag, String lastModified) {
+            this.catalog = catalog;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        private CachedCatalog verifiedNow() {
+            verified = System.currentTimeMillis();
+            return this;
+        }
+    }
 }
@@ -4,7 +4,6 @@ import javax.inject.Inject;
 
 import org.springframework.stereotype.Service;
 
-import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV2;
 import com.sequenceiq.cloudbreak.core.CloudbreakImageCatalogException;
 
 @Service
@@ -13,14 +12,14 @@ public class ImageCatalogProvider {
     @Inject
     private CachedImageCatalogProvider cachedImageCatalogProvider;
 
-    public CloudbreakImageCatalogV2 getImageCatalogV2(String catalogUrl) throws CloudbreakImageCatalogException {
-        return getImageCatalogV2(catalogUrl, false);
+    public IndexedImageCatalog getImageCatalog(String catalogUrl) throws CloudbreakImageCatalogException {
+        return getImageCatalog(catalogUrl, false);
     }
 
-    public CloudbreakImageCatalogV2 getImageCatalogV2(String catalogUrl, boolean forceRefresh) throws CloudbreakImageCatalogException {
+    public IndexedImageCatalog getImageCatalog(String catalogUrl, boolean forceRefresh) throws CloudbreakImageCatalogException {
         if (forceRefresh) {
-            cachedImageCatalogProvider.evictImageCatalogCache(catalogUrl);
+            cachedImageCatalogProvider.awaitImageCatalogRefresh(catalogUrl);
         }
-        return cachedImageCatalogProvider.getImageCatalogV2(catalogUrl);
+        return cachedImageCatalogProvider.getIndexedImageCatalog(catalogUrl);
     }
 }
@@ -7,20 +7,11 @@ import static com.sequenceiq.cloudbreak.util.SqlUtil.getProperSqlErrorMessage;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
 
-import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.function.Predicate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -34,10 +25,6 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import com.google.common.collect.ImmutableSet;
-import com.sequenceiq.cloudbreak.cloud.VersionComparator;
-import com.sequenceiq.cloudbreak.cloud.model.Versioned;
-import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV2;
-import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakVersion;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.Images;
 import com.sequenceiq.cloudbreak.common.model.user.IdentityUser;
@@ -53,7 +40,6 @@ import com.sequenceiq.cloudbreak.service.AuthenticatedUserService;
 import com.sequenceiq.cloudbreak.service.AuthorizationService;
 import com.sequenceiq.cloudbreak.service.account.AccountPreferencesService;
 import com.sequenceiq.cloudbreak.service.user.UserProfileService;
-import com.sequenceiq.cloudbreak.util.SemanticVersionComparator;
 
 @Component
 public class ImageCatalogService {
@@ -62,14 +48,6 @@ public class ImageCatalogService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ImageCatalogService.class);
 
-    private static final String RELEASED_VERSION_PATTERN = "^\\d+\\.\\d+\\.\\d+";
-
-    private static final String UNRELEASED_VERSION_PATTERN = "^\\d+\\.\\d+\\.\\d+-[d,r][c,e][v]?";
-
-    private static final String EXTENDED_UNRELEASED_VERSION_PATTERN = "^\\d+\\.\\d+\\.\\d+-[d,r][c,e][v]?\\.\\d+";
-
-    private static final String UNSPECIFIED_VERSION = "unspecified";
-
     private static final String CLOUDBREAK_DEFAULT_CATALOG_NAME = "cloudbreak-default";
 
     @Value("${info.app.version:}")
@@ -176,11 +154,9 @@ public class ImageCatalogService {
 
     public StatedImage getImage(String catalogUrl, String catalogName, String imageId) throws CloudbreakImageNotFoundException,
             CloudbreakImageCatalogException {
-        Images images = imageCatalogProvider.getImageCatalogV2(catalogUrl).getImages();
-        Optional<? extends Image> image = getImage(imageId, images);
+        Optional<Image> image = imageCatalogProvider.getImageCatalog(catalogUrl).getImage(imageId);
         if (!image.isPresent()) {
-            images = imageCatalogProvider.getImageCatalogV2(catalogUrl, true).getImages();
-            image = getImage(imageId, images);
+            image = imageCatalogProvider.getImageCatalog(catalogUrl, true).getImage(imageId);
         }
         if (!image.isPresent()) {
             throw new CloudbreakImageNotFoundException(String.format("Could not find any image with id: '%s'.", imageId));
@@ -312,17 +288,6 @@ public class ImageCatalogService {
         return new Images(emptyList(), emptyList(), emptyList(), emptySet());
     }
 
-    private Optional<? extends Image> getImage(String imageId, Images images) {
-        Optional<? extends Image> image = findFirstWithImageId(imageId, images.getBaseImages());
-        if (!image.isPresent()) {
-            image = findFirstWithImageId(imageId, images.getHdpImages());
-        }
-        if (!image.isPresent()) {
-            image = findFirstWithImageId(imageId, images.getHdfImages());
-        }
-        return image;
-    }
-
     public StatedImages getImages(ImageCatalog imageCatalog, String platform, String cbVersion) throws CloudbreakImageCatalogException {
         return getImages(imageCatalog, ImmutableSet.of(platform), cbVersion);
     }
@@ -331,36 +296,9 @@ public class ImageCatalogService {
         LOGGER.info("Determine images for imageCatalogUrl: '{}', platforms: '{}' and Cloudbreak version: '{}'.",
                 imageCatalog.getImageCatalogUrl(), platforms, cbVersion);
         StatedImages images;
-        CloudbreakImageCatalogV2 imageCatalogV2 = imageCatalogProvider.getImageCatalogV2(imageCatalog.getImageCatalogUrl());
-        Set<String> suppertedVersions = Collections.singleton(cbVersion);
-        if (imageCatalogV2 != null) {
-            Set<String> vMImageUUIDs = new HashSet<>();
-            Set<String> defaultVMImageUUIDs = new HashSet<>();
-            List<CloudbreakVersion> cloudbreakVersions = imageCatalogV2.getVersions().getCloudbreakVersions();
-            String cbv = UNSPECIFIED_VERSION.equals(cbVersion) ? latestCloudbreakVersion(cloudbreakVersions) : cbVersion;
-            List<CloudbreakVersion> exactMatchedImgs = cloudbreakVersions.stream()
-                    .filter(cloudbreakVersion -> cloudbreakVersion.getVersions().contains(cbv)).collect(Collectors.toList());
-
-            if (!exactMatchedImgs.isEmpty()) {
-                for (CloudbreakVersion exactMatchedImg : exactMatchedImgs) {
-                    vMImageUUIDs.addAll(exactMatchedImg.getImageIds());
-                    defaultVMImageUUIDs.addAll(exactMatchedImg.getDefaults());
-                }
-                suppertedVersions = Collections.singleton(cbv);
-            } else {
-                PrefixMatchImages prefixMatchImages = prefixMatchForCBVersion(cbVersion, cloudbreakVersions);
-                vMImageUUIDs.addAll(prefixMatchImages.vMImageUUIDs);
-                defaultVMImageUUIDs.addAll(prefixMatchImages.defaultVMImageUUIDs);
-                suppertedVersions = prefixMatchImages.supportedVersions;
-            }
-
-            List<Image> baseImages = filterImagesByPlatforms(platforms, imageCatalogV2.getImages().getBaseImages(), vMImageUUIDs);
-            List<Image> hdpImages = filterImagesByPlatforms(platforms, imageCatalogV2.getImages().getHdpImages(), vMImageUUIDs);
-            List<Image> hdfImages = filterImagesByPlatforms(platforms, imageCatalogV2.getImages().getHdfImages(), vMImageUUIDs);
-            Stream.concat(Stream.concat(baseImages.stream(), hdpImages.stream()), hdfImages.stream()).collect(Collectors.toList())
-                .forEach(img -> img.setDefaultImage(defaultVMImageUUIDs.contains(img.getUuid())));
-
-            images = statedImages(new Images(baseImages, hdpImages, hdfImages, suppertedVersions),
+        IndexedImageCatalog indexedImageCatalog = imageCatalogProvider.getImageCatalog(imageCatalog.getImageCatalogUrl());
+        if (indexedImageCatalog != null) {
+            images = statedImages(indexedImageCatalog.getImages(platforms, cbVersion),
                     imageCatalog.getImageCatalogUrl(),
                     imageCatalog.getImageCatalogName());
         } else {
@@ -383,108 +321,10 @@ public class ImageCatalogService {
         return null;
     }
 
-    private Optional<? extends Image> findFirstWithImageId(String imageId, Collection<? extends Image> images) {
-        return images.stream()
-                .filter(img -> img.getUuid().equals(imageId))
-                .findFirst();
-    }
-
-    private List<Image> filterImagesByPlatforms(Collection<String> platforms, Collection<Image> images, Collection<String> vMImageUUIDs) {
-        return images.stream()
-                .filter(img -> vMImageUUIDs.contains(img.getUuid()))
-                .filter(img -> img.getImageSetsByProvider().keySet().stream().anyMatch(
-                        p -> platforms.stream().anyMatch(platform -> platform.equalsIgnoreCase(p))))
-                .collect(Collectors.toList());
-    }
-
     private List<Image> filterImagesByOs(List<Image> images, String os) {
         return images.stream().filter(img -> img.getOs().equalsIgnoreCase(os)).collect(Collectors.toList());
     }
 
-    private String latestCloudbreakVersion(Iterable<CloudbreakVersion> cloudbreakVersions) {
-        SortedMap<Versioned, CloudbreakVersion> sortedCloudbreakVersions = new TreeMap<>(new VersionComparator());
-        for (CloudbreakVersion cbv : cloudbreakVersions) {
-            cbv.getVersions().forEach(cbvs -> sortedCloudbreakVersions.put(() -> cbvs, cbv));
-        }
-        return sortedCloudbreakVersions.lastKey().getVersion();
-    }
-
-    private PrefixMatchImages prefixMatchForCBVersion(String cbVersion, Collection<CloudbreakVersion> cloudbreakVersions) {
-        Set<String> supportedVersions = new HashSet<>();
-        Set<String> vMImageUUIDs = new HashSet<>();
-        Set<String> defaultVMImageUUIDs = new HashSet<>();
-        String unReleasedVersion = extractCbVersion(UNRELEASED_VERSION_PATTERN, cbVersion);
-        boolean versionIsReleased = unReleasedVersion.equals(cbVersion);
-
-        if (!versionIsReleased) {
-            Set<CloudbreakVersion> unReleasedCbVersions = cloudbreakVersions.stream()
-                    .filter(cloudbreakVersion -> cloudbreakVersion.getVersions().stream().anyMatch(aVersion -> aVersion.startsWith(unReleasedVersion)))
-                    .collect(Collectors.toSet());
-            for (CloudbreakVersion unReleasedCbVersion : unReleasedCbVersions) {
-                vMImageUUIDs.addAll(unReleasedCbVersion.getImageIds());
-                defaultVMImageUUIDs.addAll(unReleasedCbVersion.getDefaults());
-            }
-            supportedVersions = unReleasedCbVersions.stream().map(CloudbreakVersion::getVersions).flatMap(List::stream).collect(Collectors.toSet());
-        }
-
-        if (versionIsReleased || vMImageUUIDs.isEmpty()) {
-            String releasedVersion = extractCbVersion(RELEASED_VERSION_PATTERN, cbVersion);
-            Set<CloudbreakVersion> releasedCbVersions = cloudbreakVersions.stream()
-                    .filter(cloudbreakVersion -> cloudbreakVersion.getVersions().contains(releasedVersion)).collect(Collectors.toSet());
-
-            Integer accumulatedImageCount = accumulateImageCount(releasedCbVersions);
-            if (releasedCbVersions.isEmpty() || accumulatedImageCount == 0) {
-                releasedCbVersions = previousCbVersion(releasedVersion, cloudbreakVersions);
-            }
-
-            for (CloudbreakVersion releasedCbVersion : releasedCbVersions) {
-                vMImageUUIDs.addAll(releasedCbVersion.getImageIds());
-                defaultVMImageUUIDs.addAll(releasedCbVersion.getDefaults());
-            }
-            supportedVersions = releasedCbVersions.stream().map(CloudbreakVersion::getVersions).flatMap(List::stream).collect(Collectors.toSet());
-        }
-        return new PrefixMatchImages(vMImageUUIDs, defaultVMImageUUIDs, supportedVersions);
-    }
-
-    private Set<CloudbreakVersion> previousCbVersion(String releasedVersion, Collection<CloudbreakVersion> cloudbreakVersions) {
-        List<String> versions = cloudbreakVersions.stream()
-                .map(CloudbreakVersion::getVersions)
-                .flatMap(List::stream)
-                .distinct()
-                .collect(Collectors.toList());
-
-        versions = versions.stream().sorted((o1, o2) -> new SemanticVersionComparator().compare(o2, o1)).collect(Collectors.toList());
-
-        Predicate<String> ealierVersionPredicate = ver -> new SemanticVersionComparator().compare(ver, releasedVersion) == -1;
-        Predicate<String> releaseVersionPredicate = ver -> extractCbVersion(EXTENDED_UNRELEASED_VERSION_PATTERN, ver).equals(ver);
-        Predicate<String> versionHasImagesPredicate = ver -> accumulateImageCount(cloudbreakVersions) > 0;
-        Optional<String> applicableVersion = versions.stream()
-                .filter(ealierVersionPredicate)
-                .filter(releaseVersionPredicate)
-                .filter(versionHasImagesPredicate)
-                .findAny();
-
-        return applicableVersion
-                .map(ver -> cloudbreakVersions.stream().filter(cbVer -> cbVer.getVersions().contains(ver)).collect(Collectors.toSet()))
-                .orElse(Collections.emptySet());
-    }
-
-    private Integer accumulateImageCount(Collection<CloudbreakVersion> cloudbreakVersions) {
-        return cloudbreakVersions.stream()
-                .map(CloudbreakVersion::getImageIds)
-                .map(List::size)
-                .reduce((x, y) -> x + y)
-                .orElse(0);
-    }
-
-    private String extractCbVersion(String pattern, String cbVersion) {
-        Matcher matcher = Pattern.compile(pattern).matcher(cbVersion);
-        if (matcher.find()) {
-            return matcher.group(0);
-        }
-        return cbVersion;
-    }
-
     private void removeDefaultFlag() {
         ImageCatalog imageCatalog = getDefaultImageCatalog();
         if (imageCatalog.getImageCatalogName() != null) {
@@ -533,18 +373,4 @@ public class ImageCatalogService {
                 return emptyList();
         }
     }
-
-    private static class PrefixMatchImages {
-        private final Set<String> vMImageUUIDs;
-
-        private final Set<String> defaultVMImageUUIDs;
-
-        private final Set<String> supportedVersions;
-
-        private PrefixMatchImages(Set<String> vMImageUUIDs, Set<String> defaultVMImageUUIDs, Set<String> supportedVersions) {
-            this.vMImageUUIDs = vMImageUUIDs;
-            this.defaultVMImageUUIDs = defaultVMImageUUIDs;
-            this.supportedVersions = supportedVersions;
-        }
-    }
 }
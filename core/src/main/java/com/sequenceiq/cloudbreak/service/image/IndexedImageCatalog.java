@@ -0,0 +1,220 @@
+package com.sequenceiq.cloudbreak.service.image;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sequenceiq.cloudbreak.cloud.VersionComparator;
+import com.sequenceiq.cloudbreak.cloud.model.Versioned;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV2;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakVersion;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.Images;
+import com.sequenceiq.cloudbreak.util.SemanticVersionComparator;
+
+/**
+ * Immutable view of a parsed image catalog, indexed once when the catalog is loaded. The images are looked up by uuid, the Cloudbreak
+ * versions by their exact value or prefix, and the images selected for a set of platforms and a Cloudbreak version are kept, so the
+ * repeated lookups do not scan the catalog. The images of the catalog are never modified, the selected default images are copies.
+ */
+public class IndexedImageCatalog {
+
+    static final String UNSPECIFIED_VERSION = "unspecified";
+
+    private static final Pattern RELEASED_VERSION_PATTERN = Pattern.compile("^\\d+\\.\\d+\\.\\d+");
+
+    private static final Pattern UNRELEASED_VERSION_PATTERN = Pattern.compile("^\\d+\\.\\d+\\.\\d+-[d,r][c,e][v]?");
+
+    private static final Pattern EXTENDED_UNRELEASED_VERSION_PATTERN = Pattern.compile("^\\d+\\.\\d+\\.\\d+-[d,r][c,e][v]?\\.\\d+");
+
+    private static final long MAX_SELECTIONS = 100L;
+
+    private final CloudbreakImageCatalogV2 catalog;
+
+    private final Map<String, Image> imagesByUuid = new HashMap<>();
+
+    private final NavigableMap<String, Set<CloudbreakVersion>> cloudbreakVersionsByVersion = new TreeMap<>();
+
+    private final List<String> versionsDescending;
+
+    private final String latestVersion;
+
+    private final int imageCount;
+
+    private final Cache<String, Images> selections = CacheBuilder.newBuilder().maximumSize(MAX_SELECTIONS).build();
+
+    public IndexedImageCatalog(CloudbreakImageCatalogV2 catalog) {
+        this.catalog = catalog;
+        Images images = catalog.getImages();
+        for (List<Image> imageList : Arrays.asList(images.getBaseImages(), images.getHdpImages(), images.getHdfImages())) {
+            for (Image image : imageList) {
+                imagesByUuid.putIfAbsent(image.getUuid(), image);
+            }
+        }
+        int count = 0;
+        Set<String> distinctVersions = new LinkedHashSet<>();
+        for (CloudbreakVersion cloudbreakVersion : catalog.getVersions().getCloudbreakVersions()) {
+            for (String version : cloudbreakVersion.getVersions()) {
+                cloudbreakVersionsByVersion.computeIfAbsent(version, key -> new LinkedHashSet<>()).add(cloudbreakVersion);
+                distinctVersions.add(version);
+            }
+            count += cloudbreakVersion.getImageIds().size();
+        }
+        imageCount = count;
+        List<String> versions = new ArrayList<>(distinctVersions);
+        SemanticVersionComparator semanticVersionComparator = new SemanticVersionComparator();
+        versions.sort((o1, o2) -> semanticVersionComparator.compare(o2, o1));
+        versionsDescending = Collections.unmodifiableList(versions);
+        latestVersion = latestCloudbreakVersion(catalog.getVersions().getCloudbreakVersions());
+    }
+
+    public CloudbreakImageCatalogV2 getCatalog() {
+        return catalog;
+    }
+
+    public Optional<Image> getImage(String uuid) {
+        return Optional.ofNullable(imagesByUuid.get(uuid));
+    }
+
+    /**
+     * The images of the given platforms that are supported by the given Cloudbreak version, or by the closest one of the catalog when the
+     * version is not listed. The returned lists must not be modified.
+     */
+    public Images getImages(Set<String> platforms, String cbVersion) {
+        String key = platforms.stream().map(platform -> platform.toLowerCase(Locale.ROOT)).sorted().collect(Collectors.joining(",", cbVersion + '|', ""));
+        Images images = selections.getIfPresent(key);
+        if (images == null) {
+            images = selectImages(platforms, cbVersion);
+            selections.put(key, images);
+        }
+        return images;
+    }
+
+    private Images selectImages(Collection<String> platforms, String cbVersion) {
+        Set<String> vMImageUUIDs = new HashSet<>();
+        Set<String> defaultVMImageUUIDs = new HashSet<>();
+        Set<String> supportedVersions;
+        String cbv = UNSPECIFIED_VERSION.equals(cbVersion) && latestVersion != null ? latestVersion : cbVersion;
+        Set<CloudbreakVersion> exactMatchedImgs = cloudbreakVersionsByVersion.getOrDefault(cbv, Collections.emptySet());
+        if (!exactMatchedImgs.isEmpty()) {
+            for (CloudbreakVersion exactMatchedImg : exactMatchedImgs) {
+                vMImageUUIDs.addAll(exactMatchedImg.getImageIds());
+                defaultVMImageUUIDs.addAll(exactMatchedImg.getDefaults());
+            }
+            supportedVersions = Collections.singleton(cbv);
+        } else {
+            supportedVersions = prefixMatchForCBVersion(cbVersion, vMImageUUIDs, defaultVMImageUUIDs);
+        }
+        Images images = catalog.getImages();
+        return new Images(
+                filterImagesByPlatforms(platforms, images.getBaseImages(), vMImageUUIDs, defaultVMImageUUIDs),
+                filterImagesByPlatforms(platforms, images.getHdpImages(), vMImageUUIDs, defaultVMImageUUIDs),
+                filterImagesByPlatforms(platforms, images.getHdfImages(), vMImageUUIDs, defaultVMImageUUIDs),
+                Collections.unmodifiableSet(supportedVersions));
+    }
+
+    private Set<String> prefixMatchForCBVersion(String cbVersion, Set<String> vMImageUUIDs, Set<String> defaultVMImageUUIDs) {
+        Set<String> supportedVersions = new HashSet<>();
+        String unReleasedVersion = extractCbVersion(UNRELEASED_VERSION_PATTERN, cbVersion);
+        boolean versionIsReleased = unReleasedVersion.equals(cbVersion);
+
+        if (!versionIsReleased) {
+            Set<CloudbreakVersion> unReleasedCbVersions = new HashSet<>();
+            cloudbreakVersionsByVersion.subMap(unReleasedVersion, true, unReleasedVersion + Character.MAX_VALUE, false).values()
+                    .forEach(unReleasedCbVersions::addAll);
+            collectImages(unReleasedCbVersions, vMImageUUIDs, defaultVMImageUUIDs, supportedVersions);
+        }
+
+        if (versionIsReleased || vMImageUUIDs.isEmpty()) {
+            String releasedVersion = extractCbVersion(RELEASED_VERSION_PATTERN, cbVersion);
+            Set<CloudbreakVersion> releasedCbVersions = cloudbreakVersionsByVersion.getOrDefault(releasedVersion, Collections.emptySet());
+            if (releasedCbVersions.isEmpty() || accumulateImageCount(releasedCbVersions) == 0) {
+                releasedCbVersions = previousCbVersion(releasedVersion);
+            }
+            supportedVersions = new HashSet<>();
+            collectImages(releasedCbVersions, vMImageUUIDs, defaultVMImageUUIDs, supportedVersions);
+        }
+        return supportedVersions;
+    }
+
+    private void collectImages(Collection<CloudbreakVersion> cloudbreakVersions, Set<String> vMImageUUIDs, Set<String> defaultVMImageUUIDs,
+            Set<String> supportedVersions) {
+        for (CloudbreakVersion cloudbreakVersion : cloudbreakVersions) {
+            vMImageUUIDs.addAll(cloudbreakVersion.getImageIds());
+            defaultVMImageUUIDs.addAll(cloudbreakVersion.getDefaults());
+            supportedVersions.addAll(cloudbreakVersion.getVersions());
+        }
+    }
+
+    private Set<CloudbreakVersion> previousCbVersion(String releasedVersion) {
+        SemanticVersionComparator semanticVersionComparator = new SemanticVersionComparator();
+        if (imageCount > 0) {
+            for (String version : versionsDescending) {
+                if (semanticVersionComparator.compare(version, releasedVersion) == -1
+                        && extractCbVersion(EXTENDED_UNRELEASED_VERSION_PATTERN, version).equals(version)) {
+                    return cloudbreakVersionsByVersion.get(version);
+                }
+            }
+        }
+        return Collections.emptySet();
+    }
+
+    private int accumulateImageCount(Collection<CloudbreakVersion> cloudbreakVersions) {
+        return cloudbreakVersions.stream().mapToInt(cloudbreakVersion -> cloudbreakVersion.getImageIds().size()).sum();
+    }
+
+    private List<Image> filterImagesByPlatforms(Collection<String> platforms, Collection<Image> images, Collection<String> vMImageUUIDs,
+            Collection<String> defaultVMImageUUIDs) {
+        return Collections.unmodifiableList(images.stream()
+                .filter(img -> vMImageUUIDs.contains(img.getUuid()))
+                .filter(img -> img.getImageSetsByProvider().keySet().stream().anyMatch(
+                        p -> platforms.stream().anyMatch(platform -> platform.equalsIgnoreCase(p))))
+                .map(img -> defaultVMImageUUIDs.contains(img.getUuid()) ? defaultImage(img) : img)
+                .collect(Collectors.toList()));
+    }
+
+    private Image defaultImage(Image image) {
+        Image defaultImage = new Image(image.getDate(), image.getDescription(), image.getOs(), image.getUuid(), image.getVersion(), image.getRepo(),
+                image.getImageSetsByProvider(), image.getStackDetails(), image.getOsType());
+        defaultImage.setDefaultImage(true);
+        return defaultImage;
+    }
+
+    private String latestCloudbreakVersion(Iterable<CloudbreakVersion> cloudbreakVersions) {
+        VersionComparator versionComparator = new VersionComparator();
+        Versioned latest = null;
+        for (CloudbreakVersion cbv : cloudbreakVersions) {
+            for (String version : cbv.getVersions()) {
+                Versioned versioned = () -> version;
+                if (latest == null || versionComparator.compare(versioned, latest) > 0) {
+                    latest = versioned;
+                }
+            }
+        }
+        return latest == null ? null : latest.getVersion();
+    }
+
+    private String extractCbVersion(Pattern pattern, String cbVersion) {
+        Matcher matcher = pattern.matcher(cbVersion);
+        if (matcher.find()) {
+            return matcher.group(0);
+        }
+        return cbVersion;
+    }
+}
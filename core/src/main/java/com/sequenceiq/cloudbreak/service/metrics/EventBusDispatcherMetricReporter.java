@@ -0,0 +1,34 @@
+package com.sequenceiq.cloudbreak.service.metrics;
+
+import javax.inject.Inject;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.cloud.reactor.StackShardedDispatcher;
+import com.sequenceiq.cloudbreak.common.type.MetricType;
+
+import reactor.core.Dispatcher;
+
+@Component
+public class EventBusDispatcherMetricReporter {
+
+    @Inject
+    private Dispatcher eventBusDispatcher;
+
+    @Inject
+    private MetricService metricService;
+
+    @Scheduled(fixedDelayString = "${cb.eventbus.dispatcher.metrics.interval:10000}")
+    public void reportDispatcherMetrics() {
+        if (eventBusDispatcher instanceof StackShardedDispatcher) {
+            StackShardedDispatcher dispatcher = (StackShardedDispatcher) eventBusDispatcher;
+            int[] laneBacklogSizes = dispatcher.getLaneBacklogSizes();
+            for (int i = 0; i < laneBacklogSizes.length; i++) {
+                metricService.submit(MetricType.EVENTBUS_LANE_BACKLOG.getMetricName() + '.' + i, laneBacklogSizes[i]);
+            }
+            metricService.submit(MetricType.EVENTBUS_BACKPRESSURE_WAITS.getMetricName(), dispatcher.getBackPressureWaits());
+            metricService.submit(MetricType.EVENTBUS_BACKPRESSURE_TIMEOUTS.getMetricName(), dispatcher.getBackPressureTimeouts());
+        }
+    }
+}
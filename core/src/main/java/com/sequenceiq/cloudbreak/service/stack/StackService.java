@@ -28,6 +28,7 @@ import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.api.client.repackaged.com.google.common.base.Strings;
+import com.sequenceiq.cloudbreak.api.model.AutoscaleStackChangesResponse;
 import com.sequenceiq.cloudbreak.api.model.AutoscaleStackResponse;
 import com.sequenceiq.cloudbreak.api.model.DetailedStackStatus;
 import com.sequenceiq.cloudbreak.api.model.StatusRequest;
@@ -173,6 +174,9 @@ public class StackService {
     @Value("${info.app.version:}")
     private String cbVersion;
 
+    @Value("${cb.autoscale.changes.overlap:60000}")
+    private long autoscaleChangesOverlap;
+
     @Autowired
     @Qualifier("conversionService")
     private ConversionService conversionService;
@@ -235,6 +239,18 @@ public class StackService {
         return convertStacksForAutoscale(aliveOnes);
     }
 
+    /**
+     * Returns the stacks modified since the given version of the change feed, or every alive stack without a version. The version is the
+     * start time of the query, and the stacks are looked up from an overlap before the requested version, so the changes committed by
+     * long transactions or by other nodes with a skewed clock are not lost. A stack can be returned more than once because of the overlap.
+     */
+    @PreAuthorize("#oauth2.hasScope('cloudbreak.autoscale')")
+    public AutoscaleStackChangesResponse getChangesForAutoscale(Long since) {
+        long version = System.currentTimeMillis();
+        Set<Stack> stacks = since == null ? stackRepository.findAliveOnes() : stackRepository.findModifiedSince(since - autoscaleChangesOverlap);
+        return new AutoscaleStackChangesResponse(version, convertStacksForAutoscale(stacks));
+    }
+
     public Set<Stack> findClustersConnectedToDatalake(Long stackId) {
         return stackRepository.findEphemeralClusters(stackId);
     }
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 
 import com.sequenceiq.cloudbreak.domain.Subscription;
 import com.sequenceiq.cloudbreak.repository.SubscriptionRepository;
+import com.sequenceiq.cloudbreak.service.notification.HttpNotificationSender;
 
 @Service
 public class SubscriptionService {
@@ -19,6 +20,9 @@ public class SubscriptionService {
     @Inject
     private SubscriptionRepository subscriptionRepository;
 
+    @Inject
+    private HttpNotificationSender notificationSender;
+
     public Long subscribe(Subscription subscription) {
         List<Subscription> clientSubscriptions = subscriptionRepository.findByClientIdAndEndpoint(subscription.getClientId(), subscription.getEndpoint());
         if (!clientSubscriptions.isEmpty()) {
@@ -26,6 +30,8 @@ public class SubscriptionService {
                     subscription.getClientId(), subscription.getEndpoint()));
             return clientSubscriptions.get(0).getId();
         }
-        return subscriptionRepository.save(subscription).getId();
+        Long id = subscriptionRepository.save(subscription).getId();
+        notificationSender.refreshSubscriptions();
+        return id;
     }
 }
@@ -0,0 +1,18 @@
+package com.sequenceiq.cloudbreak.util;
+
+import java.util.concurrent.CompletionException;
+
+import com.sequenceiq.cloudbreak.service.CloudbreakServiceException;
+
+public class CompletionExceptionUtil {
+
+    private CompletionExceptionUtil() { }
+
+    /**
+     * The exception a future was completed with, without the {@link CompletionException} wrapper of the dependent stages.
+     */
+    public static Exception getCause(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return cause instanceof Exception ? (Exception) cause : new CloudbreakServiceException(cause);
+    }
+}
@@ -0,0 +1,23 @@
+-- // autoscale stack change feed
+-- Migration SQL that makes the change goes here.
+
+ALTER TABLE stack ADD COLUMN lastmodified BIGINT;
+
+ALTER TABLE cluster ADD COLUMN lastmodified BIGINT;
+
+CREATE INDEX idx_stack_lastmodified ON stack (lastmodified);
+
+CREATE INDEX idx_cluster_lastmodified ON cluster (lastmodified);
+
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+
+DROP INDEX idx_cluster_lastmodified;
+
+DROP INDEX idx_stack_lastmodified;
+
+ALTER TABLE cluster DROP COLUMN lastmodified;
+
+ALTER TABLE stack DROP COLUMN lastmodified;
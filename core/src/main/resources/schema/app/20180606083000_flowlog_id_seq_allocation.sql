@@ -0,0 +1,11 @@
+-- // flowlog id sequence allocation
+-- Migration SQL that makes the change goes here.
+
+ALTER SEQUENCE flowlog_id_seq INCREMENT BY 50;
+
+
+-- //@UNDO
+-- SQL to undo the change goes here.
+
+
+ALTER SEQUENCE flowlog_id_seq INCREMENT BY 1;
@@ -98,8 +98,9 @@ public class StackRequestToStackConverterTest extends AbstractJsonConverterTest<
         assertAllFieldsNotNull(
                 stack,
                 Arrays.asList("description", "statusReason", "cluster", "credential", "gatewayPort", "template", "network", "securityConfig", "securityGroup",
-                        "version", "created", "platformVariant", "cloudPlatform", "saltPassword", "stackTemplate", "flexSubscription", "datalakeId",
-                        "customHostname", "customDomain", "clusterNameAsSubdomain", "hostgroupNameAsHostname", "loginUserName", "parameters", "rootVolumeSize"));
+                        "version", "lastModified", "created", "platformVariant", "cloudPlatform", "saltPassword", "stackTemplate", "flexSubscription",
+                        "datalakeId", "customHostname", "customDomain", "clusterNameAsSubdomain", "hostgroupNameAsHostname", "loginUserName", "parameters",
+                        "rootVolumeSize"));
         assertEquals("YARN", stack.getRegion());
     }
 
@@ -130,8 +131,9 @@ public class StackRequestToStackConverterTest extends AbstractJsonConverterTest<
         assertAllFieldsNotNull(
                 stack,
                 Arrays.asList("description", "statusReason", "cluster", "credential", "gatewayPort", "template", "network", "securityConfig", "securityGroup",
-                        "version", "created", "platformVariant", "cloudPlatform", "saltPassword", "stackTemplate", "flexSubscription", "datalakeId",
-                        "customHostname", "customDomain", "clusterNameAsSubdomain", "hostgroupNameAsHostname", "loginUserName", "rootVolumeSize"));
+                        "version", "lastModified", "created", "platformVariant", "cloudPlatform", "saltPassword", "stackTemplate", "flexSubscription",
+                        "datalakeId", "customHostname", "customDomain", "clusterNameAsSubdomain", "hostgroupNameAsHostname", "loginUserName",
+                        "rootVolumeSize"));
         assertEquals("eu-west-1", stack.getRegion());
     }
 
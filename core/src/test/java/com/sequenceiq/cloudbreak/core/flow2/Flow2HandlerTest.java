@@ -36,6 +36,7 @@ import org.springframework.statemachine.access.StateMachineAccessor;
 import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import com.cedarsoftware.util.io.JsonReader;
 import com.cedarsoftware.util.io.JsonWriter;
 import com.google.common.collect.Lists;
 import com.sequenceiq.cloudbreak.cloud.event.Payload;
@@ -51,6 +52,7 @@ import com.sequenceiq.cloudbreak.repository.FlowLogRepository;
 import com.sequenceiq.cloudbreak.service.TransactionService;
 import com.sequenceiq.cloudbreak.service.TransactionService.TransactionCallback;
 import com.sequenceiq.cloudbreak.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.cloudbreak.service.flowlog.FlowLogSerializerService;
 import com.sequenceiq.cloudbreak.service.flowlog.FlowLogService;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -125,6 +127,9 @@ public class Flow2HandlerTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private FlowLogSerializerService flowLogSerializerService;
+
     private FlowState flowState;
 
     private Event<? extends Payload> dummyEvent;
@@ -135,11 +140,13 @@ public class Flow2HandlerTest {
     public void setUp() throws TransactionExecutionException {
         underTest = new Flow2Handler();
         MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(underTest, "flowConfigs", Lists.newArrayList());
         Map<String, Object> headers = new HashMap<>();
         headers.put(Flow2Handler.FLOW_ID, FLOW_ID);
         dummyEvent = new Event<>(new Headers(headers), payload);
         flowState = new OwnFlowState();
         doAnswer(invocation -> ((TransactionCallback) invocation.getArgument(0)).get()).when(transactionService).required(any());
+        when(flowLogSerializerService.deserialize(anyString())).thenAnswer(invocation -> JsonReader.jsonToJava(invocation.getArgument(0)));
     }
 
     @Test
@@ -153,7 +160,7 @@ public class Flow2HandlerTest {
         event.setKey("KEY");
         underTest.accept(event);
         verify(flowConfigurationMap, times(1)).get(anyString());
-        verify(runningFlows, times(1)).put(eq(flow), isNull(String.class));
+        verify(runningFlows, times(1)).put(eq(flow), isNull(String.class), anyLong());
         verify(flowLogService, times(1))
                 .save(anyString(), nullable(String.class), eq("KEY"), any(Payload.class), any(), eq(flowConfig.getClass()), eq(flowState));
         verify(flow, times(1)).sendEvent(anyString(), any());
@@ -165,7 +172,7 @@ public class Flow2HandlerTest {
         event.setKey("KEY");
         underTest.accept(event);
         verify(flowConfigurationMap, times(1)).get(anyString());
-        verify(runningFlows, times(0)).put(any(Flow.class), isNull(String.class));
+        verify(runningFlows, times(0)).put(any(Flow.class), isNull(String.class), anyLong());
         verify(flowLogService, times(0)).save(anyString(), anyString(), anyString(), any(Payload.class), anyMap(), Matchers.<Class>any(), any(FlowState.class));
     }
 
@@ -199,11 +206,21 @@ public class Flow2HandlerTest {
         verify(flowLogService, times(1)).close(anyLong(), eq(FLOW_ID));
         verify(runningFlows, times(1)).remove(eq(FLOW_ID));
         verify(runningFlows, times(0)).get(eq(FLOW_ID));
-        verify(runningFlows, times(0)).put(any(Flow.class), isNull(String.class));
+        verify(runningFlows, times(0)).put(any(Flow.class), isNull(String.class), anyLong());
         verify(flowChains, times(0)).removeFlowChain(anyString());
         verify(flowChains, times(0)).triggerNextFlow(anyString());
     }
 
+    @Test
+    public void testFlowFinalReleasesFlowToItsConfiguration() throws TransactionExecutionException {
+        given(runningFlows.remove(FLOW_ID)).willReturn(flow);
+        BDDMockito.<Class>given(flow.getFlowConfigClass()).willReturn(flowConfig.getClass());
+        ReflectionTestUtils.setField(underTest, "flowConfigs", Lists.newArrayList(flowConfig));
+        dummyEvent.setKey(Flow2Handler.FLOW_FINAL);
+        underTest.accept(dummyEvent);
+        verify(flowConfig, times(1)).releaseFlow(flow);
+    }
+
     @Test
     public void testFlowFinalFlowChained() throws TransactionExecutionException {
         given(runningFlows.remove(FLOW_ID)).willReturn(flow);
@@ -213,7 +230,7 @@ public class Flow2HandlerTest {
         verify(flowLogService, times(1)).close(anyLong(), eq(FLOW_ID));
         verify(runningFlows, times(1)).remove(eq(FLOW_ID));
         verify(runningFlows, times(0)).get(eq(FLOW_ID));
-        verify(runningFlows, times(0)).put(any(Flow.class), isNull(String.class));
+        verify(runningFlows, times(0)).put(any(Flow.class), isNull(String.class), anyLong());
         verify(flowChains, times(0)).removeFlowChain(anyString());
         verify(flowChains, times(1)).triggerNextFlow(eq(FLOW_CHAIN_ID));
     }
@@ -228,7 +245,7 @@ public class Flow2HandlerTest {
         verify(flowLogService, times(1)).close(anyLong(), eq(FLOW_ID));
         verify(runningFlows, times(1)).remove(eq(FLOW_ID));
         verify(runningFlows, times(0)).get(eq(FLOW_ID));
-        verify(runningFlows, times(0)).put(any(Flow.class), isNull(String.class));
+        verify(runningFlows, times(0)).put(any(Flow.class), isNull(String.class), anyLong());
         verify(flowChains, times(0)).removeFullFlowChain(anyString());
         verify(flowChains, times(0)).triggerNextFlow(anyString());
     }
@@ -244,14 +261,14 @@ public class Flow2HandlerTest {
         verify(flowLogService, times(1)).close(anyLong(), eq(FLOW_ID));
         verify(runningFlows, times(1)).remove(eq(FLOW_ID));
         verify(runningFlows, times(0)).get(eq(FLOW_ID));
-        verify(runningFlows, times(0)).put(any(Flow.class), isNull(String.class));
+        verify(runningFlows, times(0)).put(any(Flow.class), isNull(String.class), anyLong());
         verify(flowChains, times(1)).removeFullFlowChain(anyString());
         verify(flowChains, times(0)).triggerNextFlow(anyString());
     }
 
     @Test
     public void testCancelRunningFlows() throws TransactionExecutionException {
-        given(flowLogRepository.findAllRunningNonTerminationFlowIdsByStackId(anyLong())).willReturn(Collections.singleton(FLOW_ID));
+        given(runningFlows.getLocalNonTerminationFlowIds(anyLong())).willReturn(Collections.singleton(FLOW_ID));
         given(runningFlows.remove(FLOW_ID)).willReturn(flow);
         given(runningFlows.getFlowChainId(eq(FLOW_ID))).willReturn(FLOW_CHAIN_ID);
         dummyEvent.setKey(Flow2Handler.FLOW_CANCEL);
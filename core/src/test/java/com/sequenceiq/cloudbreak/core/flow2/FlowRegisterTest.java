@@ -0,0 +1,66 @@
+package com.sequenceiq.cloudbreak.core.flow2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.collect.Sets;
+import com.sequenceiq.cloudbreak.core.flow2.config.FlowConfiguration;
+import com.sequenceiq.cloudbreak.core.flow2.stack.provision.StackCreationFlowConfig;
+import com.sequenceiq.cloudbreak.core.flow2.stack.termination.StackTerminationFlowConfig;
+import com.sequenceiq.cloudbreak.service.metrics.MetricService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FlowRegisterTest {
+
+    private static final Long STACK_ID = 1L;
+
+    @InjectMocks
+    private FlowRegister underTest;
+
+    @Mock
+    private MetricService metricService;
+
+    @Test
+    public void testIndexFollowsPutAndRemove() {
+        underTest.put(flow("creation", StackCreationFlowConfig.class), null, STACK_ID);
+        underTest.put(flow("termination", StackTerminationFlowConfig.class), "chain", STACK_ID);
+
+        assertEquals(Collections.singleton("creation"), underTest.getRunningNonTerminationFlowIds(STACK_ID));
+        assertTrue(underTest.getRunningNonTerminationFlowIds(2L).isEmpty());
+
+        underTest.remove("creation");
+
+        assertTrue(underTest.getRunningNonTerminationFlowIds(STACK_ID).isEmpty());
+        assertEquals("chain", underTest.getFlowChainId("termination"));
+    }
+
+    @Test
+    public void testOtherNodeFlowsAreOnlyReportedAsRunningFlows() {
+        underTest.put(flow("local", StackCreationFlowConfig.class), null, STACK_ID);
+        underTest.refreshOtherNodeFlows(Collections.singletonMap(STACK_ID, Collections.singleton("remote")));
+
+        assertEquals(Sets.newHashSet("local", "remote"), underTest.getRunningNonTerminationFlowIds(STACK_ID));
+        assertEquals(Collections.singleton("local"), underTest.getLocalNonTerminationFlowIds(STACK_ID));
+
+        underTest.refreshOtherNodeFlows(Collections.emptyMap());
+
+        assertEquals(Collections.singleton("local"), underTest.getRunningNonTerminationFlowIds(STACK_ID));
+    }
+
+    private Flow flow(String flowId, Class<? extends FlowConfiguration<?>> flowType) {
+        Flow flow = mock(Flow.class);
+        given(flow.getFlowId()).willReturn(flowId);
+        given(flow.getFlowConfigClass()).willAnswer(invocation -> flowType);
+        return flow;
+    }
+}
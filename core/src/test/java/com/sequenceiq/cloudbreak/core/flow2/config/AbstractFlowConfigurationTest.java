@@ -1,6 +1,9 @@
 package com.sequenceiq.cloudbreak.core.flow2.config;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
@@ -19,15 +22,18 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.messaging.Message;
+import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.config.builders.StateMachineConfigurationBuilder;
 import org.springframework.statemachine.config.builders.StateMachineStateBuilder;
 import org.springframework.statemachine.config.builders.StateMachineTransitionBuilder;
 import org.springframework.statemachine.config.common.annotation.ObjectPostProcessor;
 import org.springframework.statemachine.listener.StateMachineListener;
 import org.springframework.statemachine.listener.StateMachineListenerAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.sequenceiq.cloudbreak.core.flow2.AbstractAction;
 import com.sequenceiq.cloudbreak.core.flow2.Flow;
+import com.sequenceiq.cloudbreak.core.flow2.FlowAdapter;
 import com.sequenceiq.cloudbreak.core.flow2.FlowEvent;
 import com.sequenceiq.cloudbreak.core.flow2.FlowFinalizeAction;
 import com.sequenceiq.cloudbreak.core.flow2.FlowState;
@@ -126,6 +132,57 @@ public class AbstractFlowConfigurationTest {
         flow.sendEvent(Event.FAILURE.name(), null);
     }
 
+    @Test
+    public void testFinishedStateMachineIsReusedFromPool() {
+        ReflectionTestUtils.setField(underTest, "stateMachinePoolSize", 1);
+        flow.sendEvent(Event.START.name(), null);
+        flow.getVariables().put("key", "value");
+        flow.sendEvent(Event.CONTINUE.name(), null);
+        flow.sendEvent(Event.FINISHED.name(), null);
+        flow.sendEvent(Event.FINALIZED.name(), null);
+        StateMachine<?, ?> finishedMachine = ((FlowAdapter<?, ?>) flow).getFlowMachine();
+
+        underTest.releaseFlow(flow);
+        Flow reused = underTest.createFlow("flowId", 0L);
+        reused.initialize();
+
+        assertSame(finishedMachine, ((FlowAdapter<?, ?>) reused).getFlowMachine());
+        assertEquals(State.INIT, reused.getCurrentState());
+        assertTrue(reused.getVariables().isEmpty());
+        reused.sendEvent(Event.START.name(), null);
+        reused.sendEvent(Event.FAILURE.name(), null);
+        assertEquals(State.FAILED, reused.getCurrentState());
+        reused.sendEvent(Event.FAIL_HANDLED.name(), null);
+    }
+
+    @Test
+    public void testStateMachineIsNotPooledWhenPoolIsDisabled() {
+        StateMachine<?, ?> finishedMachine = ((FlowAdapter<?, ?>) flow).getFlowMachine();
+
+        underTest.releaseFlow(flow);
+        Flow next = underTest.createFlow("flowId", 0L);
+
+        assertNotSame(finishedMachine, ((FlowAdapter<?, ?>) next).getFlowMachine());
+    }
+
+    @Test
+    public void testPoolKeepsNoMoreStateMachinesThanItsSize() {
+        ReflectionTestUtils.setField(underTest, "stateMachinePoolSize", 1);
+        Flow other = underTest.createFlow("flowId", 0L);
+        other.initialize();
+        StateMachine<?, ?> firstMachine = ((FlowAdapter<?, ?>) flow).getFlowMachine();
+        StateMachine<?, ?> secondMachine = ((FlowAdapter<?, ?>) other).getFlowMachine();
+
+        underTest.releaseFlow(flow);
+        underTest.releaseFlow(other);
+        Flow reused = underTest.createFlow("flowId", 0L);
+        Flow created = underTest.createFlow("flowId", 0L);
+
+        assertSame(firstMachine, ((FlowAdapter<?, ?>) reused).getFlowMachine());
+        assertNotSame(firstMachine, ((FlowAdapter<?, ?>) created).getFlowMachine());
+        assertNotSame(secondMachine, ((FlowAdapter<?, ?>) created).getFlowMachine());
+    }
+
     enum State implements FlowState {
         INIT, DO, DO2, FINISH, FAILED, FAILED2, FINAL;
 
@@ -8,6 +8,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -26,7 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -39,9 +40,12 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import com.google.common.collect.Sets;
 import com.sequenceiq.cloudbreak.api.model.Status;
 import com.sequenceiq.cloudbreak.cloud.scheduler.PollGroup;
 import com.sequenceiq.cloudbreak.cloud.store.InMemoryStateStore;
@@ -58,6 +62,7 @@ import com.sequenceiq.cloudbreak.repository.FlowLogRepository;
 import com.sequenceiq.cloudbreak.repository.StackRepository;
 import com.sequenceiq.cloudbreak.service.TransactionService.TransactionCallback;
 import com.sequenceiq.cloudbreak.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.cloudbreak.service.ha.ConsistentHashFlowDistributor;
 import com.sequenceiq.cloudbreak.service.ha.FlowDistributor;
 import com.sequenceiq.cloudbreak.service.ha.HeartbeatService;
 
@@ -72,6 +77,14 @@ public class HeartbeatServiceTest {
 
     private static final LocalDateTime BASE_DATE_TIME = LocalDateTime.of(2018, 1, 1, 0, 0);
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(HeartbeatServiceTest.class);
+
+    private static final int BENCHMARK_ROWS = 100_000;
+
+    private static final int BENCHMARK_ROWS_PER_FLOW = 5;
+
+    private static final int FLOW_UPDATE_BATCH_SIZE = 1000;
+
     @InjectMocks
     private HeartbeatService heartbeatService;
 
@@ -106,7 +119,7 @@ public class HeartbeatServiceTest {
     private ArgumentCaptor<String> stringCaptor;
 
     @Captor
-    private ArgumentCaptor<List<FlowLog>> flowLogListCaptor;
+    private ArgumentCaptor<Collection<String>> flowIdsCaptor;
 
     @Before
     public void init() throws TransactionExecutionException {
@@ -135,37 +148,24 @@ public class HeartbeatServiceTest {
         when(clock.getCurrentTime()).thenReturn(200_000L);
 
         // all flows that need to be re-distributed
-        List<String> suspendedFlows = new ArrayList<>();
-
-        List<FlowLog> node1FlowLogs = getFlowLogs(2, 5000);
-        suspendedFlows.addAll(node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogRepository.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs));
-
-        Set<FlowLog> node2FlowLogs = new HashSet<>(getFlowLogs(3, 3000));
-        suspendedFlows.addAll(node2FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogRepository.findAllByCloudbreakNodeId(NODE_2_ID)).thenReturn(node2FlowLogs);
+        List<FlowLog> failedFlowLogs = new ArrayList<>(getFlowLogs(2, 5000));
+        failedFlowLogs.addAll(getFlowLogs(3, 3000));
+        List<String> suspendedFlows = getFlowIds(failedFlowLogs);
+        when(flowLogRepository.findAllPendingFlowsByCloudbreakNodeIds(anyCollection())).thenReturn(toPendingFlows(failedFlowLogs));
 
         Map<CloudbreakNode, List<String>> distribution = new HashMap<>();
-        distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
-                addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
-                        suspendedFlows.get(3), suspendedFlows.get(4)));
+        distribution.put(clusterNodes.get(0), suspendedFlows);
         when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
 
-        Set<FlowLog> myNewFlowLogs = new HashSet<>();
-        myNewFlowLogs.addAll(node1FlowLogs);
-        myNewFlowLogs.addAll(node2FlowLogs);
-        when(flowLogRepository.findAllByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlowLogs);
+        when(flowLogRepository.findAllFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(new HashSet<>(suspendedFlows));
 
         when(runningFlows.get(any())).thenReturn(null);
 
         heartbeatService.scheduledFlowDistribution();
 
-        verify(flowLogRepository).save(flowLogListCaptor.capture());
-        List<FlowLog> updatedFlows = flowLogListCaptor.getValue();
-        assertEquals(myNewFlowLogs.size(), updatedFlows.size());
-        for (FlowLog updatedFlow : updatedFlows) {
-            assertEquals(MY_ID, updatedFlow.getCloudbreakNodeId());
-        }
+        verify(flowLogRepository).reassignPendingFlows(flowIdsCaptor.capture(), eq(Sets.newHashSet(NODE_1_ID, NODE_2_ID)), eq(MY_ID));
+        assertEquals(new HashSet<>(suspendedFlows), new HashSet<>(flowIdsCaptor.getValue()));
+        verify(flowLogRepository, times(0)).finalizePendingFlows(anyCollection(), anyCollection(), any());
 
         verify(flow2Handler, times(5)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
@@ -188,37 +188,26 @@ public class HeartbeatServiceTest {
         when(clock.getCurrentTime()).thenReturn(200_000L);
 
         // all flows that need to be re-distributed
-        List<String> suspendedFlows = new ArrayList<>();
-
-        List<FlowLog> node1FlowLogs = getFlowLogs(2, 5000);
-        suspendedFlows.addAll(node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogRepository.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs)).thenReturn(Collections.emptySet());
-
-        Set<FlowLog> node2FlowLogs = new HashSet<>(getFlowLogs(3, 3000));
-        suspendedFlows.addAll(node2FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogRepository.findAllByCloudbreakNodeId(NODE_2_ID)).thenReturn(node2FlowLogs).thenReturn(Collections.emptySet());
+        List<FlowLog> failedFlowLogs = new ArrayList<>(getFlowLogs(2, 5000));
+        failedFlowLogs.addAll(getFlowLogs(3, 3000));
+        List<String> suspendedFlows = getFlowIds(failedFlowLogs);
+        when(flowLogRepository.findAllPendingFlowsByCloudbreakNodeIds(anyCollection())).thenReturn(toPendingFlows(failedFlowLogs));
+        when(flowLogRepository.findAllFlowIdsByCloudbreakNodeId(NODE_1_ID)).thenReturn(Collections.emptySet());
+        when(flowLogRepository.findAllFlowIdsByCloudbreakNodeId(NODE_2_ID)).thenReturn(Collections.emptySet());
 
         Map<CloudbreakNode, List<String>> distribution = new HashMap<>();
-        distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
-                addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
-                        suspendedFlows.get(3), suspendedFlows.get(4)));
+        distribution.put(clusterNodes.get(0), suspendedFlows);
         when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
 
-        Set<FlowLog> myNewFlowLogs = new HashSet<>();
-        myNewFlowLogs.addAll(node1FlowLogs);
-        myNewFlowLogs.addAll(node2FlowLogs);
-        when(flowLogRepository.findAllByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlowLogs);
+        when(flowLogRepository.findAllFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(new HashSet<>(suspendedFlows));
 
         when(runningFlows.get(any())).thenReturn(null);
 
         heartbeatService.scheduledFlowDistribution();
 
-        verify(flowLogRepository).save(flowLogListCaptor.capture());
-        List<FlowLog> updatedFlows = flowLogListCaptor.getValue();
-        assertEquals(myNewFlowLogs.size(), updatedFlows.size());
-        for (FlowLog updatedFlow : updatedFlows) {
-            assertEquals(MY_ID, updatedFlow.getCloudbreakNodeId());
-        }
+        verify(flowLogRepository).reassignPendingFlows(flowIdsCaptor.capture(), anyCollection(), eq(MY_ID));
+        assertEquals(new HashSet<>(suspendedFlows), new HashSet<>(flowIdsCaptor.getValue()));
+        verify(cloudbreakNodeRepository).delete(clusterNodes.subList(1, 3));
 
         verify(flow2Handler, times(5)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
@@ -241,56 +230,40 @@ public class HeartbeatServiceTest {
         when(clock.getCurrentTime()).thenReturn(200_000L);
 
         // all flows that need to be re-distributed
-        List<String> suspendedFlows = new ArrayList<>();
+        List<FlowLog> failedFlowLogs = new ArrayList<>(getFlowLogs(2, 5000));
+        failedFlowLogs.addAll(getFlowLogs(3, 3000));
+        when(flowLogRepository.findAllPendingFlowsByCloudbreakNodeIds(anyCollection())).thenReturn(toPendingFlows(failedFlowLogs));
 
-        List<FlowLog> node1FlowLogs = getFlowLogs(2, 5000);
-        suspendedFlows.addAll(node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogRepository.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs));
+        List<Long> stackIds = failedFlowLogs.stream().map(FlowLog::getStackId).distinct().collect(Collectors.toList());
+        List<Object[]> statusResponse = new ArrayList<>();
+        statusResponse.add(new Object[]{stackIds.get(0), Status.DELETE_IN_PROGRESS});
+        statusResponse.add(new Object[]{stackIds.get(2), Status.DELETE_IN_PROGRESS});
+        when(stackRepository.findStackStatuses(any())).thenReturn(statusResponse);
 
-        Set<FlowLog> node2FlowLogs = new HashSet<>(getFlowLogs(3, 3000));
-        suspendedFlows.addAll(node2FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogRepository.findAllByCloudbreakNodeId(NODE_2_ID)).thenReturn(node2FlowLogs);
+        Set<String> invalidFlows = failedFlowLogs.stream()
+                .filter(fl -> fl.getStackId().equals(stackIds.get(0)) || fl.getStackId().equals(stackIds.get(2)))
+                .map(FlowLog::getFlowId).collect(Collectors.toSet());
+        List<String> validFlows = getFlowIds(failedFlowLogs).stream().filter(f -> !invalidFlows.contains(f)).collect(Collectors.toList());
 
         Map<CloudbreakNode, List<String>> distribution = new HashMap<>();
-        distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
-                addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
-                        suspendedFlows.get(3), suspendedFlows.get(4)));
-        when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
+        distribution.put(clusterNodes.get(0), validFlows);
+        when(flowDistributor.distribute(eq(validFlows), any())).thenReturn(distribution);
 
-        Set<FlowLog> myNewFlowLogs = new HashSet<>();
-        myNewFlowLogs.addAll(node1FlowLogs);
-        myNewFlowLogs.addAll(node2FlowLogs);
-        when(flowLogRepository.findAllByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlowLogs);
+        when(flowLogRepository.findAllFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(new HashSet<>(validFlows));
 
         when(runningFlows.get(any())).thenReturn(null);
 
-        List<Long> stackIds = myNewFlowLogs.stream().map(FlowLog::getStackId).distinct().collect(Collectors.toList());
-        List<Object[]> statusResponse = new ArrayList<>();
-        statusResponse.add(new Object[]{stackIds.get(0), Status.DELETE_IN_PROGRESS});
-        statusResponse.add(new Object[]{stackIds.get(2), Status.DELETE_IN_PROGRESS});
-        when(stackRepository.findStackStatuses(any())).thenReturn(statusResponse);
-
-        List<FlowLog> invalidFlowLogs = myNewFlowLogs.stream()
-                .filter(fl -> fl.getStackId().equals(stackIds.get(0)) || fl.getStackId().equals(stackIds.get(2))).collect(Collectors.toList());
-
         heartbeatService.scheduledFlowDistribution();
 
-        verify(flowLogRepository).save(flowLogListCaptor.capture());
-        List<FlowLog> updatedFlows = flowLogListCaptor.getValue();
-        assertEquals(myNewFlowLogs.size(), updatedFlows.size());
-        for (FlowLog updatedFlow : updatedFlows) {
-            if (invalidFlowLogs.contains(updatedFlow)) {
-                assertEquals(StateStatus.SUCCESSFUL, updatedFlow.getStateStatus());
-                assertEquals(null, updatedFlow.getCloudbreakNodeId());
-            } else {
-                assertEquals(MY_ID, updatedFlow.getCloudbreakNodeId());
-            }
-        }
+        verify(flowLogRepository).finalizePendingFlows(flowIdsCaptor.capture(), anyCollection(), eq(StateStatus.SUCCESSFUL));
+        assertEquals(invalidFlows, new HashSet<>(flowIdsCaptor.getValue()));
+        verify(flowLogRepository).reassignPendingFlows(flowIdsCaptor.capture(), anyCollection(), eq(MY_ID));
+        assertEquals(new HashSet<>(validFlows), new HashSet<>(flowIdsCaptor.getValue()));
 
-        verify(flow2Handler, times(5)).restartFlow(stringCaptor.capture());
+        verify(flow2Handler, times(3)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
-        assertEquals(5, allFlowIds.size());
-        for (String flowId : suspendedFlows) {
+        assertEquals(3, allFlowIds.size());
+        for (String flowId : validFlows) {
             assertTrue(allFlowIds.contains(flowId));
         }
     }
@@ -308,32 +281,21 @@ public class HeartbeatServiceTest {
         when(clock.getCurrentTime()).thenReturn(200_000L);
 
         // all flows that need to be re-distributed
-        List<String> suspendedFlows = new ArrayList<>();
-
-        List<FlowLog> node1FlowLogs = getFlowLogs(2, 5000);
-        node1FlowLogs.forEach(fl -> fl.setFlowType(StackTerminationFlowConfig.class));
-        suspendedFlows.addAll(node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogRepository.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs));
-
-        Set<FlowLog> node2FlowLogs = new HashSet<>(getFlowLogs(3, 3000));
-        node2FlowLogs.forEach(fl -> fl.setFlowType(StackTerminationFlowConfig.class));
-        suspendedFlows.addAll(node2FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogRepository.findAllByCloudbreakNodeId(NODE_2_ID)).thenReturn(node2FlowLogs);
+        List<FlowLog> failedFlowLogs = new ArrayList<>(getFlowLogs(2, 5000));
+        failedFlowLogs.addAll(getFlowLogs(3, 3000));
+        failedFlowLogs.forEach(fl -> fl.setFlowType(StackTerminationFlowConfig.class));
+        List<String> suspendedFlows = getFlowIds(failedFlowLogs);
+        when(flowLogRepository.findAllPendingFlowsByCloudbreakNodeIds(anyCollection())).thenReturn(toPendingFlows(failedFlowLogs));
 
         Map<CloudbreakNode, List<String>> distribution = new HashMap<>();
-        distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
-                addAll(Arrays.asList(suspendedFlows.get(0), suspendedFlows.get(1), suspendedFlows.get(2),
-                        suspendedFlows.get(3), suspendedFlows.get(4)));
+        distribution.put(clusterNodes.get(0), suspendedFlows);
         when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
 
-        Set<FlowLog> myNewFlowLogs = new HashSet<>();
-        myNewFlowLogs.addAll(node1FlowLogs);
-        myNewFlowLogs.addAll(node2FlowLogs);
-        when(flowLogRepository.findAllByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlowLogs);
+        when(flowLogRepository.findAllFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(new HashSet<>(suspendedFlows));
 
         when(runningFlows.get(any())).thenReturn(null);
 
-        List<Long> stackIds = myNewFlowLogs.stream().map(FlowLog::getStackId).distinct().collect(Collectors.toList());
+        List<Long> stackIds = failedFlowLogs.stream().map(FlowLog::getStackId).distinct().collect(Collectors.toList());
         List<Object[]> statusResponse = new ArrayList<>();
         statusResponse.add(new Object[]{stackIds.get(0), Status.DELETE_IN_PROGRESS});
         statusResponse.add(new Object[]{stackIds.get(2), Status.DELETE_IN_PROGRESS});
@@ -341,12 +303,9 @@ public class HeartbeatServiceTest {
 
         heartbeatService.scheduledFlowDistribution();
 
-        verify(flowLogRepository).save(flowLogListCaptor.capture());
-        List<FlowLog> updatedFlows = flowLogListCaptor.getValue();
-        assertEquals(myNewFlowLogs.size(), updatedFlows.size());
-        for (FlowLog updatedFlow : updatedFlows) {
-            assertEquals(MY_ID, updatedFlow.getCloudbreakNodeId());
-        }
+        verify(flowLogRepository, times(0)).finalizePendingFlows(anyCollection(), anyCollection(), any());
+        verify(flowLogRepository).reassignPendingFlows(flowIdsCaptor.capture(), anyCollection(), eq(MY_ID));
+        assertEquals(new HashSet<>(suspendedFlows), new HashSet<>(flowIdsCaptor.getValue()));
 
         verify(flow2Handler, times(5)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
@@ -367,11 +326,9 @@ public class HeartbeatServiceTest {
         when(clock.getCurrentTime()).thenReturn(200_000L);
 
         // all flows that need to be re-distributed
-        List<String> suspendedFlows = new ArrayList<>();
-
         List<FlowLog> node1FlowLogs = getFlowLogs(3, 5000);
-        suspendedFlows.addAll(node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogRepository.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs));
+        List<String> suspendedFlows = getFlowIds(node1FlowLogs);
+        when(flowLogRepository.findAllPendingFlowsByCloudbreakNodeIds(anyCollection())).thenReturn(toPendingFlows(node1FlowLogs));
 
         Map<CloudbreakNode, List<String>> distribution = new HashMap<>();
         distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
@@ -380,22 +337,21 @@ public class HeartbeatServiceTest {
                 addAll(Collections.singletonList(suspendedFlows.get(1)));
         when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
 
-        Set<FlowLog> myNewFlowLogs = new HashSet<>();
-        myNewFlowLogs.addAll(node1FlowLogs.stream().filter(fl -> fl.getFlowId().equalsIgnoreCase(suspendedFlows.get(0))).collect(Collectors.toList()));
-        myNewFlowLogs.addAll(node1FlowLogs.stream().filter(fl -> fl.getFlowId().equalsIgnoreCase(suspendedFlows.get(2))).collect(Collectors.toList()));
-        when(flowLogRepository.findAllByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlowLogs);
+        Set<String> myNewFlows = Sets.newHashSet(suspendedFlows.get(0), suspendedFlows.get(2));
+        when(flowLogRepository.findAllFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(myNewFlows);
 
         when(runningFlows.get(any())).thenReturn(null);
 
-        when(flowLogRepository.save(anyCollection())).thenThrow(new OptimisticLockingFailureException("Someone already distributed the flows.."));
+        when(flowLogRepository.reassignPendingFlows(anyCollection(), anyCollection(), anyString()))
+                .thenThrow(new PessimisticLockingFailureException("Someone is already distributing the flows.."));
 
         heartbeatService.scheduledFlowDistribution();
 
         verify(flow2Handler, times(2)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
         assertEquals(2, allFlowIds.size());
-        for (FlowLog flowLog : myNewFlowLogs) {
-            assertTrue(allFlowIds.contains(flowLog.getFlowId()));
+        for (String flowId : myNewFlows) {
+            assertTrue(allFlowIds.contains(flowId));
         }
     }
 
@@ -410,11 +366,9 @@ public class HeartbeatServiceTest {
         when(clock.getCurrentTime()).thenReturn(200_000L);
 
         // all flows that need to be re-distributed
-        List<String> suspendedFlows = new ArrayList<>();
-
         List<FlowLog> node1FlowLogs = getFlowLogs(3, 5000);
-        suspendedFlows.addAll(node1FlowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList()));
-        when(flowLogRepository.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(new HashSet<>(node1FlowLogs));
+        List<String> suspendedFlows = getFlowIds(node1FlowLogs);
+        when(flowLogRepository.findAllPendingFlowsByCloudbreakNodeIds(anyCollection())).thenReturn(toPendingFlows(node1FlowLogs));
 
         Map<CloudbreakNode, List<String>> distribution = new HashMap<>();
         distribution.computeIfAbsent(clusterNodes.get(0), v -> new ArrayList<>()).
@@ -423,21 +377,17 @@ public class HeartbeatServiceTest {
                 addAll(Collections.singletonList(suspendedFlows.get(1)));
         when(flowDistributor.distribute(any(), any())).thenReturn(distribution);
 
-        List<FlowLog> myNewFlowLogs = node1FlowLogs.stream().filter(fl -> fl.getFlowId().equalsIgnoreCase(suspendedFlows.get(0))).collect(Collectors.toList());
-        when(flowLogRepository.findAllByCloudbreakNodeId(MY_ID)).thenReturn(new HashSet<>(myNewFlowLogs));
+        // another node has already taken over the rest of the flows, so the update of them does not match any row
+        when(flowLogRepository.reassignPendingFlows(anyCollection(), anyCollection(), anyString())).thenReturn(0);
+        when(flowLogRepository.findAllFlowIdsByCloudbreakNodeId(MY_ID)).thenReturn(Collections.singleton(suspendedFlows.get(0)));
 
         when(runningFlows.get(any())).thenReturn(null);
 
-        when(flowLogRepository.save(anyCollection())).thenThrow(new OptimisticLockingFailureException("Someone already distributed the flows.."));
-
         heartbeatService.scheduledFlowDistribution();
 
         verify(flow2Handler, times(1)).restartFlow(stringCaptor.capture());
         List<String> allFlowIds = stringCaptor.getAllValues();
-        assertEquals(1, allFlowIds.size());
-        for (FlowLog flowLog : myNewFlowLogs) {
-            assertTrue(allFlowIds.contains(flowLog.getFlowId()));
-        }
+        assertEquals(Collections.singletonList(suspendedFlows.get(0)), allFlowIds);
     }
 
     @Test
@@ -532,36 +482,73 @@ public class HeartbeatServiceTest {
         when(cloudbreakNodeRepository.findAll()).thenReturn(clusterNodes);
         when(clock.getCurrentTime()).thenReturn(BASE_DATE_TIME.plusMinutes(clusterNodes.size()).toEpochSecond(ZoneOffset.UTC));
 
-        Set<FlowLog> failedFLowLogs1 = new HashSet<>(getFlowLogs(2, 5000));
-        Set<FlowLog> failedFlowLogs2 = new HashSet<>(getFlowLogs(2, 5000));
-        when(flowLogRepository.findAllByCloudbreakNodeId(MY_ID)).thenReturn(failedFLowLogs1);
-        when(flowLogRepository.findAllByCloudbreakNodeId(NODE_1_ID)).thenReturn(failedFlowLogs2);
+        List<FlowLog> failedFlowLogs1 = getFlowLogs(2, 5000);
+        List<FlowLog> failedFlowLogs2 = getFlowLogs(2, 20000);
+        List<FlowLog> failedFlowLogs = new ArrayList<>(failedFlowLogs1);
+        failedFlowLogs.addAll(failedFlowLogs2);
+        when(flowLogRepository.findAllPendingFlowsByCloudbreakNodeIds(Sets.newHashSet(MY_ID, NODE_1_ID))).thenReturn(toPendingFlows(failedFlowLogs));
 
-        Map<CloudbreakNode, List<String>> flowDistribution = createFlowDistribution(failedFLowLogs1, failedFlowLogs2);
+        Map<CloudbreakNode, List<String>> flowDistribution = new HashMap<>();
+        flowDistribution.put(clusterNodes.get(2), getFlowIds(failedFlowLogs2));
         when(flowDistributor.distribute(anyList(), eq(clusterNodes.subList(2, clusterNodes.size())))).thenReturn(flowDistribution);
 
-        List<Object[]> stackStatuses = failedFLowLogs1.stream()
+        List<Object[]> stackStatuses = failedFlowLogs1.stream()
                 .map(FlowLog::getStackId)
+                .distinct()
                 .map(stackId -> new Object[]{stackId, Status.DELETE_IN_PROGRESS})
                 .collect(Collectors.toList());
         when(stackRepository.findStackStatuses(anySet())).thenReturn(stackStatuses);
 
         List<CloudbreakNode> cloudbreakNodes = heartbeatService.distributeFlows();
 
-        ArgumentCaptor<Collection<FlowLog>> updatedLogsCaptor = ArgumentCaptor.forClass(Collection.class);
-        verify(flowLogRepository, times(1)).save(updatedLogsCaptor.capture());
-        Collection<FlowLog> updatedFlowLogs = updatedLogsCaptor.getValue();
-        assertTrue(updatedFlowLogs.stream()
-                .map(FlowLog::getStateStatus)
-                .allMatch(StateStatus.SUCCESSFUL::equals));
+        verify(flowLogRepository, times(1)).finalizePendingFlows(flowIdsCaptor.capture(), anyCollection(), eq(StateStatus.SUCCESSFUL));
+        assertEquals(new HashSet<>(getFlowIds(failedFlowLogs1)), new HashSet<>(flowIdsCaptor.getValue()));
+        verify(flowLogRepository, times(1)).reassignPendingFlows(flowIdsCaptor.capture(), anyCollection(), eq(NODE_2_ID));
+        assertEquals(new HashSet<>(getFlowIds(failedFlowLogs2)), new HashSet<>(flowIdsCaptor.getValue()));
 
         assertEquals(clusterNodes.subList(0, 2), cloudbreakNodes);
     }
 
-    private Map<CloudbreakNode, List<String>> createFlowDistribution(Set<FlowLog> failedFLowLogs1, Set<FlowLog> failedFlowLogs2) {
-        Map<CloudbreakNode, List<String>> distribution = new HashMap<>();
+    @Test
+    public void testDistributeFlowsOfHundredThousandFlowLogRows() throws TransactionExecutionException {
+        ReflectionTestUtils.setField(heartbeatService, "flowDistributor", new ConsistentHashFlowDistributor());
+        List<CloudbreakNode> clusterNodes = getClusterNodes();
+        clusterNodes.get(0).setLastUpdated(200_000); // myself
+        clusterNodes.get(1).setLastUpdated(50_000); // failed node
+        clusterNodes.get(2).setLastUpdated(200_000); // active node
+        when(cloudbreakNodeRepository.findAll()).thenReturn(clusterNodes);
+        when(clock.getCurrentTime()).thenReturn(200_000L);
 
-        distribution.put(new CloudbreakNode(UUID.randomUUID().toString()), failedFLowLogs1.stream().map(FlowLog::getFlowId).collect(Collectors.toList()));
-        return distribution;
+        List<Object[]> pendingFlows = new ArrayList<>(BENCHMARK_ROWS);
+        for (int i = 0; i < BENCHMARK_ROWS; i++) {
+            int flow = i / BENCHMARK_ROWS_PER_FLOW;
+            pendingFlows.add(new Object[]{"flow-" + flow, (long) flow, StackCreationFlowConfig.class});
+        }
+        when(flowLogRepository.findAllPendingFlowsByCloudbreakNodeIds(anyCollection())).thenReturn(pendingFlows);
+        Set<String> reassignedFlows = new HashSet<>();
+        when(flowLogRepository.reassignPendingFlows(anyCollection(), anyCollection(), anyString())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            ids.forEach(id -> assertTrue("Flow is assigned twice: " + id, reassignedFlows.add(id)));
+            return ids.size();
+        });
+
+        long start = System.nanoTime();
+        heartbeatService.distributeFlows();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        LOGGER.info("Distribution of {} flow log rows took {} ms", BENCHMARK_ROWS, elapsedMillis);
+        assertEquals(BENCHMARK_ROWS / BENCHMARK_ROWS_PER_FLOW, reassignedFlows.size());
+        verify(flowLogRepository, atMost(2 * (BENCHMARK_ROWS / BENCHMARK_ROWS_PER_FLOW / FLOW_UPDATE_BATCH_SIZE + 1)))
+                .reassignPendingFlows(anyCollection(), anyCollection(), anyString());
+    }
+
+    private List<String> getFlowIds(Collection<FlowLog> flowLogs) {
+        return flowLogs.stream().map(FlowLog::getFlowId).distinct().collect(Collectors.toList());
+    }
+
+    private List<Object[]> toPendingFlows(Collection<FlowLog> flowLogs) {
+        return flowLogs.stream()
+                .map(fl -> new Object[]{fl.getFlowId(), fl.getStackId(), fl.getFlowType()})
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,218 @@
+package com.sequenceiq.cloudbreak.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.common.type.MetricType;
+import com.sequenceiq.cloudbreak.service.metrics.MetricService;
+
+import reactor.fn.Consumer;
+import reactor.fn.timer.Timer;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PollingServiceTest {
+
+    private static final long INTERVAL = 10L;
+
+    @InjectMocks
+    private PollingService<AtomicInteger> underTest;
+
+    @Mock
+    private Timer timer;
+
+    @Mock
+    private MetricService metricService;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(underTest, "maxWorkerThreads", 2);
+        underTest.init();
+    }
+
+    @After
+    public void tearDown() {
+        underTest.shutdown();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testPollSucceedsAfterAttempts() {
+        Pair<PollingResult, Exception> result = underTest.pollWithTimeout(new CountingTask(3, false), new AtomicInteger(), INTERVAL, 10, 1);
+
+        assertEquals(PollingResult.SUCCESS, result.getLeft());
+        assertNull(result.getRight());
+    }
+
+    @Test
+    public void testSyncPollChecksOnTheCallerThread() {
+        Thread caller = Thread.currentThread();
+        CountingTask task = new CountingTask(2, false) {
+            @Override
+            public boolean checkStatus(AtomicInteger checks) {
+                assertSame(caller, Thread.currentThread());
+                return super.checkStatus(checks);
+            }
+        };
+
+        assertEquals(PollingResult.SUCCESS, underTest.pollWithTimeout(task, new AtomicInteger(), INTERVAL, 10, 1).getLeft());
+    }
+
+    @Test
+    public void testAsyncPollSucceedsAfterAttempts() {
+        mockTimer();
+
+        Pair<PollingResult, Exception> result = underTest.pollWithTimeoutAsync(new CountingTask(3, false), new AtomicInteger(), INTERVAL, 10, 1).join();
+
+        assertEquals(PollingResult.SUCCESS, result.getLeft());
+        verify(metricService, atLeastOnce()).submit(eq(MetricType.POLLING_TICK_LAG.getMetricName()), anyLong());
+    }
+
+    @Test
+    public void testSlowCheckDoesNotDelayOtherPolls() {
+        mockTimer();
+        CountDownLatch release = new CountDownLatch(1);
+        CountingTask slowTask = new CountingTask(1, false) {
+            @Override
+            public boolean checkStatus(AtomicInteger checks) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.checkStatus(checks);
+            }
+        };
+
+        CompletableFuture<Pair<PollingResult, Exception>> slow = underTest.pollWithTimeoutAsync(slowTask, new AtomicInteger(), INTERVAL, 10, 1);
+        Pair<PollingResult, Exception> fast = underTest.pollWithTimeoutAsync(new CountingTask(3, false), new AtomicInteger(), INTERVAL, 10, 1).join();
+
+        assertEquals(PollingResult.SUCCESS, fast.getLeft());
+        release.countDown();
+        assertEquals(PollingResult.SUCCESS, slow.join().getLeft());
+    }
+
+    @Test
+    public void testPollTimesOut() {
+        AtomicInteger checks = new AtomicInteger();
+
+        Pair<PollingResult, Exception> result = underTest.pollWithTimeout(new CountingTask(Integer.MAX_VALUE, false), checks, INTERVAL, 3, 1);
+
+        assertEquals(PollingResult.TIMEOUT, result.getLeft());
+        assertEquals(3, checks.get());
+    }
+
+    @Test
+    public void testPollFailsWhenFailureLimitIsReached() {
+        Pair<PollingResult, Exception> result = underTest.pollWithTimeout(new CountingTask(Integer.MAX_VALUE, true), new AtomicInteger(), INTERVAL, 10, 2);
+
+        assertEquals(PollingResult.FAILURE, result.getLeft());
+        assertEquals("check failed", result.getRight().getMessage());
+    }
+
+    @Test
+    public void testExceptionOfTimeoutHandlerIsPropagated() {
+        CloudbreakServiceException timeoutException = new CloudbreakServiceException("timeout");
+        CountingTask task = new CountingTask(Integer.MAX_VALUE, false) {
+            @Override
+            public void handleTimeout(AtomicInteger checks) {
+                throw timeoutException;
+            }
+        };
+
+        try {
+            underTest.pollWithTimeout(task, new AtomicInteger(), INTERVAL, 2, 1);
+        } catch (CloudbreakServiceException e) {
+            assertSame(timeoutException, e);
+            return;
+        }
+        throw new AssertionError("Exception of the timeout handler is not propagated");
+    }
+
+    @Test
+    public void testManyPollsDoNotHoldThreadsBetweenAttempts() {
+        mockTimer();
+        int polls = 200;
+        CompletableFuture<?>[] results = new CompletableFuture<?>[polls];
+        for (int i = 0; i < polls; i++) {
+            results[i] = underTest.pollWithTimeoutAsync(new CountingTask(5, false), new AtomicInteger(), INTERVAL, 10, 1);
+        }
+
+        CompletableFuture.allOf(results).join();
+
+        for (CompletableFuture<?> result : results) {
+            assertEquals(PollingResult.SUCCESS, ((Pair<?, ?>) result.join()).getLeft());
+        }
+    }
+
+    private void mockTimer() {
+        doAnswer(invocation -> {
+            Consumer<Long> consumer = invocation.getArgument(0);
+            scheduler.schedule(() -> consumer.accept(System.currentTimeMillis()), invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(timer).submit(any(Consumer.class), anyLong(), any(TimeUnit.class));
+    }
+
+    private static class CountingTask implements StatusCheckerTask<AtomicInteger> {
+
+        private final int successAt;
+
+        private final boolean fail;
+
+        CountingTask(int successAt, boolean fail) {
+            this.successAt = successAt;
+            this.fail = fail;
+        }
+
+        @Override
+        public boolean checkStatus(AtomicInteger checks) {
+            if (fail) {
+                throw new CloudbreakServiceException("check failed");
+            }
+            return checks.incrementAndGet() >= successAt;
+        }
+
+        @Override
+        public void handleTimeout(AtomicInteger checks) {
+        }
+
+        @Override
+        public String successMessage(AtomicInteger checks) {
+            return "Success after " + checks.get() + " checks";
+        }
+
+        @Override
+        public boolean exitPolling(AtomicInteger checks) {
+            return false;
+        }
+
+        @Override
+        public void handleException(Exception e) {
+        }
+    }
+}
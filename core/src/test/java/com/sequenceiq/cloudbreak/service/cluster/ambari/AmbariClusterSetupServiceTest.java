@@ -8,7 +8,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import org.hamcrest.core.IsInstanceOf;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -27,6 +29,8 @@ import com.sequenceiq.cloudbreak.core.CloudbreakSecuritySetupException;
 import com.sequenceiq.cloudbreak.domain.stack.cluster.Cluster;
 import com.sequenceiq.cloudbreak.domain.stack.Stack;
 import com.sequenceiq.cloudbreak.repository.HostMetadataRepository;
+import com.sequenceiq.cloudbreak.service.CloudbreakException;
+import com.sequenceiq.cloudbreak.service.PollingResult;
 import com.sequenceiq.cloudbreak.service.cluster.ClusterService;
 import com.sequenceiq.cloudbreak.service.cluster.flow.AmbariOperationService;
 import com.sequenceiq.cloudbreak.service.cluster.flow.RecipeEngine;
@@ -138,6 +142,22 @@ public class AmbariClusterSetupServiceTest {
         Assert.assertFalse(available);
     }
 
+    @Test
+    public void testWaitForServerAsyncFailsWhenAmbariDoesNotStart() throws Exception {
+        Stack stack = TestUtil.stack();
+        stack.setCluster(TestUtil.cluster());
+        AmbariClient ambariClient = ambariClient();
+        when(clientFactory.getDefaultAmbariClient(stack)).thenReturn(ambariClient);
+        when(clientFactory.getAmbariClient(stack, stack.getCluster())).thenReturn(ambariClient);
+        when(ambariPollingServiceProvider.ambariStartupPollerObjectPollingServiceAsync(stack, ambariClient, ambariClient))
+                .thenReturn(CompletableFuture.completedFuture(PollingResult.TIMEOUT));
+
+        CompletableFuture<Void> result = underTest.waitForServerAsync(stack);
+
+        thrown.expectCause(IsInstanceOf.instanceOf(CloudbreakException.class));
+        result.join();
+    }
+
     private Map<String, List<String>> createStringListMap() {
         Map<String, List<String>> stringListMap = new HashMap<>();
         stringListMap.put("a1", Arrays.asList("assignment1", "assignment2"));
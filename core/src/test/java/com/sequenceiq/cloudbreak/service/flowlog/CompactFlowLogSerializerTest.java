@@ -0,0 +1,121 @@
+package com.sequenceiq.cloudbreak.service.flowlog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cedarsoftware.util.io.JsonWriter;
+import com.sequenceiq.cloudbreak.cloud.event.Selectable;
+import com.sequenceiq.cloudbreak.cloud.event.model.EventStatus;
+import com.sequenceiq.cloudbreak.common.type.ScalingType;
+import com.sequenceiq.cloudbreak.core.flow2.event.StackAndClusterUpscaleTriggerEvent;
+import com.sequenceiq.cloudbreak.reactor.api.event.StackEvent;
+import com.sequenceiq.cloudbreak.reactor.api.event.cluster.UpscaleClusterRequest;
+import com.sequenceiq.cloudbreak.reactor.api.event.cluster.UpscaleClusterResult;
+import com.sequenceiq.cloudbreak.service.CloudbreakServiceException;
+
+public class CompactFlowLogSerializerTest {
+
+    private static final Long STACK_ID = 1L;
+
+    private final CompactFlowLogSerializer underTest = new CompactFlowLogSerializer();
+
+    @Test
+    public void testStackEventRoundTrip() {
+        StackEvent stackEvent = (StackEvent) roundTrip(new StackEvent("SELECTOR", STACK_ID));
+
+        assertEquals(STACK_ID, stackEvent.getStackId());
+        assertEquals("SELECTOR", stackEvent.selector());
+        assertNotNull(stackEvent.accepted());
+    }
+
+    @Test
+    public void testUpscaleTriggerEventRoundTrip() {
+        StackAndClusterUpscaleTriggerEvent event = new StackAndClusterUpscaleTriggerEvent("SELECTOR", STACK_ID, "worker", 3,
+                ScalingType.UPSCALE_TOGETHER, new HashSet<>(Arrays.asList("host1", "host2")));
+
+        StackAndClusterUpscaleTriggerEvent result = (StackAndClusterUpscaleTriggerEvent) roundTrip(event);
+
+        assertEquals("worker", result.getInstanceGroup());
+        assertEquals(Integer.valueOf(3), result.getAdjustment());
+        assertEquals(ScalingType.UPSCALE_TOGETHER, result.getScalingType());
+        assertEquals(event.getHostNames(), result.getHostNames());
+    }
+
+    @Test
+    public void testFailedUpscaleClusterResultRoundTrip() {
+        UpscaleClusterResult failure = new UpscaleClusterResult("failed", new CloudbreakServiceException("ambari failed"),
+                new UpscaleClusterRequest(STACK_ID, "worker"));
+
+        UpscaleClusterResult result = (UpscaleClusterResult) roundTrip(failure);
+
+        assertEquals(EventStatus.FAILED, result.getStatus());
+        assertEquals("ambari failed", result.getErrorDetails().getMessage());
+        assertEquals("worker", result.getRequest().getHostGroupName());
+        assertEquals(STACK_ID, result.getStackId());
+    }
+
+    @Test
+    public void testFlowChainAndVariablesRoundTrip() {
+        Queue<Selectable> chain = new ConcurrentLinkedQueue<>();
+        chain.add(new StackEvent("FIRST", STACK_ID));
+        chain.add(new StackAndClusterUpscaleTriggerEvent("SECOND", STACK_ID, "worker", 1, ScalingType.UPSCALE_ONLY_CLUSTER));
+        Map<Object, Object> variables = new HashMap<>();
+        variables.put("INSTANCE_COUNT", 3);
+        variables.put("HOSTS", Collections.singletonList("host1"));
+
+        Queue<?> restoredChain = (Queue<?>) roundTrip(chain);
+        Map<?, ?> restoredVariables = (Map<?, ?>) roundTrip(variables);
+
+        assertEquals(2, restoredChain.size());
+        assertEquals("FIRST", ((Selectable) restoredChain.peek()).selector());
+        assertEquals(variables, restoredVariables);
+    }
+
+    @Test
+    public void testCompactFormIsSmallerThanJsonIo() {
+        Object[] payloads = {
+                new StackEvent("SELECTOR", STACK_ID),
+                new StackAndClusterUpscaleTriggerEvent("SELECTOR", STACK_ID, "worker", 3, ScalingType.UPSCALE_TOGETHER),
+                new UpscaleClusterResult(new UpscaleClusterRequest(STACK_ID, "worker"))
+        };
+        for (Object payload : payloads) {
+            String compact = underTest.serialize(payload);
+            String json = JsonWriter.objectToJson(payload);
+            assertTrue(String.format("%s: compact %d, json-io %d", payload.getClass().getSimpleName(), compact.length(), json.length()),
+                    compact.length() < json.length());
+        }
+    }
+
+    @Test
+    public void testSerializerServiceReadsLegacyJsonAndCompactValues() {
+        FlowLogSerializerService serializerService = new FlowLogSerializerService();
+        JsonIoFlowLogSerializer jsonIoFlowLogSerializer = new JsonIoFlowLogSerializer();
+        ReflectionTestUtils.setField(jsonIoFlowLogSerializer, "writeOptions", new HashMap<>());
+        ReflectionTestUtils.setField(serializerService, "serializers", Arrays.asList(jsonIoFlowLogSerializer, underTest));
+        ReflectionTestUtils.setField(serializerService, "serializerName", CompactFlowLogSerializer.NAME);
+        serializerService.init();
+
+        String legacy = JsonWriter.objectToJson(new StackEvent("LEGACY", STACK_ID));
+        String compact = serializerService.serialize(new StackEvent("COMPACT", STACK_ID));
+
+        assertEquals("LEGACY", ((StackEvent) serializerService.deserialize(legacy)).selector());
+        assertEquals("COMPACT", ((StackEvent) serializerService.deserialize(compact)).selector());
+        assertTrue(compact.startsWith(underTest.header()));
+    }
+
+    private Object roundTrip(Object object) {
+        return underTest.deserialize(underTest.serialize(object));
+    }
+}
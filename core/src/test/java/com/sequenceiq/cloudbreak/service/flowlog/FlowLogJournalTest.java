@@ -0,0 +1,195 @@
+package com.sequenceiq.cloudbreak.service.flowlog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sequenceiq.cloudbreak.core.flow2.service.ReactorFlowManager;
+import com.sequenceiq.cloudbreak.domain.FlowLog;
+import com.sequenceiq.cloudbreak.domain.StateStatus;
+import com.sequenceiq.cloudbreak.repository.FlowLogRepository;
+import com.sequenceiq.cloudbreak.service.TransactionService;
+import com.sequenceiq.cloudbreak.service.TransactionService.TransactionCallback;
+import com.sequenceiq.cloudbreak.service.TransactionService.TransactionExecutionException;
+import com.sequenceiq.cloudbreak.service.metrics.MetricService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FlowLogJournalTest {
+
+    private static final String FLOW_ID = "flowId";
+
+    private static final String OTHER_FLOW_ID = "otherFlowId";
+
+    private static final Long STACK_ID = 1L;
+
+    @InjectMocks
+    private FlowLogJournal underTest;
+
+    @Mock
+    private FlowLogRepository flowLogRepository;
+
+    @Mock
+    private ReactorFlowManager reactorFlowManager;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private MetricService metricService;
+
+    private final AtomicLong idSequence = new AtomicLong(100L);
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(underTest, "enabled", true);
+        ReflectionTestUtils.setField(underTest, "maxBatchSize", 1000);
+        ReflectionTestUtils.setField(underTest, "maxFlushAttempts", 2);
+    }
+
+    @Test
+    public void testFlushPersistsEveryFlowInOneBatchWithoutLookingUpTheLastFlowLog() throws TransactionExecutionException {
+        mockTransaction();
+        mockSave();
+        underTest.flowLogPersisted(persistedFlowLog(FLOW_ID, 1L));
+        underTest.flowLogPersisted(persistedFlowLog(OTHER_FLOW_ID, 2L));
+
+        FlowLog first = new FlowLog(STACK_ID, FLOW_ID, "STATE1", false, StateStatus.PENDING);
+        FlowLog second = new FlowLog(STACK_ID, FLOW_ID, "STATE2", false, StateStatus.PENDING);
+        FlowLog other = new FlowLog(STACK_ID, OTHER_FLOW_ID, "STATE1", false, StateStatus.PENDING);
+        underTest.append(first, StateStatus.SUCCESSFUL);
+        underTest.append(other, StateStatus.FAILED);
+        underTest.append(second, StateStatus.SUCCESSFUL);
+        underTest.flush();
+
+        verify(flowLogRepository, never()).findFirstByFlowIdOrderByCreatedDesc(anyString());
+        verify(flowLogRepository, times(1)).updateLastLogStatusInFlows(Collections.singletonList(1L), StateStatus.SUCCESSFUL);
+        verify(flowLogRepository, times(1)).updateLastLogStatusInFlows(Collections.singletonList(2L), StateStatus.FAILED);
+        ArgumentCaptor<List<FlowLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(flowLogRepository, times(1)).save(captor.capture());
+        assertEquals(3, captor.getValue().size());
+        assertEquals(StateStatus.SUCCESSFUL, first.getStateStatus());
+        assertEquals(StateStatus.PENDING, second.getStateStatus());
+        assertEquals(second.getId(), underTest.getLastFlowLogId(FLOW_ID));
+        assertEquals(other.getId(), underTest.getLastFlowLogId(OTHER_FLOW_ID));
+    }
+
+    @Test
+    public void testFlushLooksUpTheLastFlowLogOfUnknownFlow() throws TransactionExecutionException {
+        mockTransaction();
+        mockSave();
+        when(flowLogRepository.findFirstByFlowIdOrderByCreatedDesc(FLOW_ID)).thenReturn(persistedFlowLog(FLOW_ID, 5L));
+
+        underTest.append(new FlowLog(STACK_ID, FLOW_ID, "STATE1", false, StateStatus.PENDING), StateStatus.SUCCESSFUL);
+        underTest.flush();
+
+        verify(flowLogRepository, times(1)).updateLastLogStatusInFlows(Collections.singletonList(5L), StateStatus.SUCCESSFUL);
+    }
+
+    @Test
+    public void testFailedFlushIsRetriedWithTheNextFlush() throws TransactionExecutionException {
+        when(transactionService.required(any())).thenThrow(new TransactionExecutionException("failed", new RuntimeException()))
+                .then(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).get());
+        mockSave();
+        underTest.flowLogPersisted(persistedFlowLog(FLOW_ID, 1L));
+
+        FlowLog first = new FlowLog(STACK_ID, FLOW_ID, "STATE1", false, StateStatus.PENDING);
+        FlowLog second = new FlowLog(STACK_ID, FLOW_ID, "STATE2", false, StateStatus.PENDING);
+        underTest.append(first, StateStatus.SUCCESSFUL);
+        underTest.flush();
+        underTest.append(second, StateStatus.SUCCESSFUL);
+        underTest.flush();
+
+        ArgumentCaptor<List<FlowLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(flowLogRepository, times(1)).save(captor.capture());
+        assertEquals(Arrays.asList(first, second), captor.getValue());
+        verify(flowLogRepository, times(1)).updateLastLogStatusInFlows(Collections.singletonList(1L), StateStatus.SUCCESSFUL);
+        assertEquals(second.getId(), underTest.getLastFlowLogId(FLOW_ID));
+        verify(reactorFlowManager, never()).cancelRunningFlows(any());
+    }
+
+    @Test
+    public void testFlowsAreCancelledWhenTheFlushKeepsFailing() throws TransactionExecutionException {
+        when(transactionService.required(any())).thenThrow(new TransactionExecutionException("failed", new RuntimeException()));
+        underTest.flowLogPersisted(persistedFlowLog(FLOW_ID, 1L));
+
+        underTest.append(new FlowLog(STACK_ID, FLOW_ID, "STATE1", false, StateStatus.PENDING), StateStatus.SUCCESSFUL);
+        underTest.flush();
+        underTest.flush();
+        underTest.flush();
+
+        verify(transactionService, times(2)).required(any());
+        verify(reactorFlowManager, times(1)).cancelRunningFlows(STACK_ID);
+        assertEquals(null, underTest.getLastFlowLogId(FLOW_ID));
+    }
+
+    @Test
+    public void testFailedFlushIsReportedAndTheEntriesOfAFlowCanBeDropped() throws TransactionExecutionException {
+        when(transactionService.required(any())).thenThrow(new TransactionExecutionException("failed", new RuntimeException()))
+                .then(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).get());
+        mockSave();
+        underTest.flowLogPersisted(persistedFlowLog(FLOW_ID, 1L));
+        underTest.flowLogPersisted(persistedFlowLog(OTHER_FLOW_ID, 2L));
+        FlowLog other = new FlowLog(STACK_ID, OTHER_FLOW_ID, "STATE1", false, StateStatus.PENDING);
+        underTest.append(new FlowLog(STACK_ID, FLOW_ID, "STATE1", false, StateStatus.PENDING), StateStatus.SUCCESSFUL);
+        underTest.append(other, StateStatus.SUCCESSFUL);
+
+        assertFalse(underTest.flush());
+        assertEquals(1, underTest.discard(FLOW_ID));
+        assertTrue(underTest.flush());
+
+        ArgumentCaptor<List<FlowLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(flowLogRepository, times(1)).save(captor.capture());
+        assertEquals(Collections.singletonList(other), captor.getValue());
+    }
+
+    @Test
+    public void testDiscardDropsPendingEntries() throws TransactionExecutionException {
+        underTest.append(new FlowLog(STACK_ID, FLOW_ID, "STATE1", false, StateStatus.PENDING), StateStatus.SUCCESSFUL);
+
+        underTest.discard();
+        underTest.flush();
+
+        verify(transactionService, never()).required(any());
+        verify(flowLogRepository, never()).updateLastLogStatusInFlows(anyCollection(), any());
+    }
+
+    private void mockTransaction() throws TransactionExecutionException {
+        doAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).get()).when(transactionService).required(any());
+    }
+
+    private void mockSave() {
+        when(flowLogRepository.save(any(Iterable.class))).thenAnswer(invocation -> {
+            Iterable<FlowLog> flowLogs = invocation.getArgument(0);
+            flowLogs.forEach(flowLog -> flowLog.setId(idSequence.incrementAndGet()));
+            return flowLogs;
+        });
+    }
+
+    private FlowLog persistedFlowLog(String flowId, Long id) {
+        FlowLog flowLog = new FlowLog(STACK_ID, flowId, "STATE", false, StateStatus.PENDING);
+        flowLog.setId(id);
+        return flowLog;
+    }
+}
@@ -1,11 +1,16 @@
 package com.sequenceiq.cloudbreak.service.flowlog;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -13,7 +18,10 @@ import org.powermock.reflect.internal.WhiteboxImpl;
 
 import com.sequenceiq.cloudbreak.domain.FlowLog;
 import com.sequenceiq.cloudbreak.domain.StateStatus;
+import com.sequenceiq.cloudbreak.ha.CloudbreakNodeConfig;
 import com.sequenceiq.cloudbreak.repository.FlowLogRepository;
+import com.sequenceiq.cloudbreak.service.TransactionService;
+import com.sequenceiq.cloudbreak.service.TransactionService.TransactionCallback;
 
 @RunWith(MockitoJUnitRunner.class)
 public class FlowLogServiceTest {
@@ -22,12 +30,23 @@ public class FlowLogServiceTest {
 
     private static final long ID = 1L;
 
+    private static final long STACK_ID = 2L;
+
     @InjectMocks
     private FlowLogService underTest;
 
     @Mock
     private FlowLogRepository flowLogRepository;
 
+    @Mock
+    private FlowLogJournal flowLogJournal;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private CloudbreakNodeConfig cloudbreakNodeConfig;
+
     @Test
     public void updateLastFlowLogStatus() throws Exception {
         runUpdateLastFlowLogStatusTest(false, StateStatus.SUCCESSFUL);
@@ -38,6 +57,38 @@ public class FlowLogServiceTest {
         runUpdateLastFlowLogStatusTest(true, StateStatus.FAILED);
     }
 
+    @Test
+    public void testPendingTransitionsAreDroppedWhenTheJournalCannotBeFlushedBeforeClose() throws Exception {
+        mockFinalize();
+        when(flowLogJournal.flush()).thenReturn(false);
+
+        underTest.close(STACK_ID, FLOW_ID);
+
+        InOrder inOrder = inOrder(flowLogJournal, flowLogRepository);
+        inOrder.verify(flowLogJournal).flush();
+        inOrder.verify(flowLogJournal).discard(FLOW_ID);
+        inOrder.verify(flowLogRepository).finalizeByFlowId(FLOW_ID);
+        inOrder.verify(flowLogRepository).save(any(FlowLog.class));
+        inOrder.verify(flowLogJournal).forget(FLOW_ID);
+    }
+
+    @Test
+    public void testPendingTransitionsAreKeptWhenTheJournalIsFlushedBeforeClose() throws Exception {
+        mockFinalize();
+        when(flowLogJournal.flush()).thenReturn(true);
+
+        underTest.close(STACK_ID, FLOW_ID);
+
+        verify(flowLogJournal, never()).discard(FLOW_ID);
+        verify(flowLogRepository).finalizeByFlowId(FLOW_ID);
+    }
+
+    private void mockFinalize() throws Exception {
+        when(flowLogJournal.isEnabled()).thenReturn(true);
+        when(flowLogJournal.getLastFlowLogId(FLOW_ID)).thenReturn(ID);
+        doAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).get()).when(transactionService).required(any());
+    }
+
     private void runUpdateLastFlowLogStatusTest(boolean failureEvent, StateStatus successful) throws Exception {
         FlowLog flowLog = new FlowLog();
         flowLog.setId(ID);
@@ -0,0 +1,104 @@
+package com.sequenceiq.cloudbreak.service.ha;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.sequenceiq.cloudbreak.domain.CloudbreakNode;
+
+public class ConsistentHashFlowDistributorTest {
+
+    private static final String MY_ID = "E80C7BD9-61CD-442E-AFDA-C3B30FEDE88F";
+
+    private static final String NODE_1_ID = "5575B7AD-45CB-487D-BE14-E33C913F9394";
+
+    private static final String NODE_2_ID = "854506AC-A0D5-4C98-A47C-70F6251FC604";
+
+    private static final String NODE_3_ID = "65B623B9-9FE7-41F4-95A5-848DCB0C108E";
+
+    private static final int FLOW_COUNT = 10000;
+
+    private final ConsistentHashFlowDistributor flowDistributor = new ConsistentHashFlowDistributor();
+
+    @Test
+    public void testEveryFlowIsAssignedAndSpreadAcrossTheNodes() {
+        List<CloudbreakNode> nodes = getClusterNodes();
+        List<String> flows = getFlowIds();
+
+        Map<CloudbreakNode, List<String>> result = flowDistributor.distribute(flows, nodes);
+
+        assertEquals(FLOW_COUNT, result.values().stream().mapToInt(List::size).sum());
+        for (CloudbreakNode node : nodes) {
+            int assigned = result.get(node).size();
+            assertTrue("Unbalanced distribution: " + assigned, assigned > FLOW_COUNT / nodes.size() / 2 && assigned < FLOW_COUNT / nodes.size() * 2);
+        }
+    }
+
+    @Test
+    public void testAssignmentDoesNotDependOnTheOrderOfFlowsAndNodes() {
+        List<CloudbreakNode> nodes = getClusterNodes();
+        List<String> flows = getFlowIds();
+        List<CloudbreakNode> reversedNodes = new ArrayList<>(nodes);
+        Collections.reverse(reversedNodes);
+        List<String> reversedFlows = new ArrayList<>(flows);
+        Collections.reverse(reversedFlows);
+
+        assertEquals(toAssignment(flowDistributor.distribute(flows, nodes)), toAssignment(flowDistributor.distribute(reversedFlows, reversedNodes)));
+    }
+
+    @Test
+    public void testOnlyTheFlowsOfTheRemovedNodeAreMoved() {
+        List<CloudbreakNode> nodes = getClusterNodes();
+        List<String> flows = getFlowIds();
+        Map<String, CloudbreakNode> before = toAssignment(flowDistributor.distribute(flows, nodes));
+
+        CloudbreakNode removed = nodes.remove(3);
+        Map<String, CloudbreakNode> after = toAssignment(flowDistributor.distribute(flows, nodes));
+
+        for (String flow : flows) {
+            if (!before.get(flow).equals(removed)) {
+                assertEquals(before.get(flow), after.get(flow));
+            }
+        }
+    }
+
+    @Test
+    public void testFlowDistributionSingleNode() {
+        CloudbreakNode node = new CloudbreakNode(MY_ID);
+        Map<CloudbreakNode, List<String>> result = flowDistributor.distribute(getFlowIds(), Collections.singletonList(node));
+        assertEquals(FLOW_COUNT, result.get(node).size());
+    }
+
+    @Test
+    public void testFlowDistributionWithoutNodes() {
+        assertTrue(flowDistributor.distribute(getFlowIds(), Collections.emptyList()).isEmpty());
+    }
+
+    private Map<String, CloudbreakNode> toAssignment(Map<CloudbreakNode, List<String>> distribution) {
+        Map<String, CloudbreakNode> assignment = new HashMap<>();
+        distribution.forEach((node, flows) -> flows.forEach(flow -> assignment.put(flow, node)));
+        return assignment;
+    }
+
+    private List<CloudbreakNode> getClusterNodes() {
+        List<CloudbreakNode> nodes = new ArrayList<>();
+        nodes.add(new CloudbreakNode(MY_ID));
+        nodes.add(new CloudbreakNode(NODE_1_ID));
+        nodes.add(new CloudbreakNode(NODE_2_ID));
+        nodes.add(new CloudbreakNode(NODE_3_ID));
+        return nodes;
+    }
+
+    private List<String> getFlowIds() {
+        return IntStream.range(0, FLOW_COUNT).mapToObj(i -> "flow-" + i).collect(Collectors.toList());
+    }
+}
@@ -2,25 +2,44 @@ package com.sequenceiq.cloudbreak.service.image;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
-import org.apache.commons.io.FileUtils;
 import org.assertj.core.util.Lists;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -31,12 +50,15 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.sequenceiq.cloudbreak.TestUtil;
 import com.sequenceiq.cloudbreak.client.RestClientUtil;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV2;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakVersion;
 import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
+import com.sequenceiq.cloudbreak.common.type.MetricType;
 import com.sequenceiq.cloudbreak.core.CloudbreakImageCatalogException;
+import com.sequenceiq.cloudbreak.service.metrics.MetricService;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest(RestClientUtil.class)
@@ -64,6 +86,9 @@ public class ImageCatalogProviderTest {
 
     private static final List<String> CB_AMAZONLINUX_FILTER = Lists.newArrayList("amazonlinux");
 
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @InjectMocks
     private CachedImageCatalogProvider underTest;
 
@@ -82,6 +107,9 @@ public class ImageCatalogProviderTest {
     @Mock
     private Response.StatusType statusTypeMock;
 
+    @Mock
+    private MetricService metricService;
+
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
 
@@ -91,7 +119,7 @@ public class ImageCatalogProviderTest {
         String path = getPath(CB_IMAGE_CATALOG_V2_JSON);
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
 
-        CloudbreakImageCatalogV2 catalog = underTest.getImageCatalogV2(CB_IMAGE_CATALOG_V2_JSON);
+        CloudbreakImageCatalogV2 catalog = underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_V2_JSON).getCatalog();
 
         assertNotNull("Check that the parsed ImageCatalog not null.", catalog);
         Optional<CloudbreakVersion> ver = catalog.getVersions().getCloudbreakVersions().stream().filter(v -> v.getVersions().contains(CB_VERSION)).findFirst();
@@ -141,7 +169,7 @@ public class ImageCatalogProviderTest {
     public void testImageCatalogValid() throws CloudbreakImageCatalogException, IOException {
         String path = getPath(CB_IMAGE_CATALOG_VALID_JSON);
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
-        underTest.getImageCatalogV2(CB_IMAGE_CATALOG_VALID_JSON);
+        underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_VALID_JSON);
     }
 
     @Test
@@ -150,7 +178,7 @@ public class ImageCatalogProviderTest {
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
         ReflectionTestUtils.setField(underTest, "enabledLinuxTypes", Collections.emptyList());
 
-        CloudbreakImageCatalogV2 actualCatalog = underTest.getImageCatalogV2(CB_IMAGE_CATALOG_V2_JSON);
+        CloudbreakImageCatalogV2 actualCatalog = underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_V2_JSON).getCatalog();
 
         List<String> actualOsTypes = getImageCatalogOses(actualCatalog);
         assertEquals(CB_IMAGE_CATALOG_V2_OS_TYPES, actualOsTypes);
@@ -175,7 +203,7 @@ public class ImageCatalogProviderTest {
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
         ReflectionTestUtils.setField(underTest, "enabledLinuxTypes", CB_AMAZONLINUX_FILTER);
 
-        CloudbreakImageCatalogV2 actualCatalog = underTest.getImageCatalogV2(CB_IMAGE_CATALOG_V2_JSON);
+        CloudbreakImageCatalogV2 actualCatalog = underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_V2_JSON).getCatalog();
 
         List<String> actualOsTypes = getImageCatalogOses(actualCatalog);
         assertEquals(CB_AMAZONLINUX_FILTER, actualOsTypes);
@@ -211,11 +239,11 @@ public class ImageCatalogProviderTest {
         when(builderMock.get()).thenReturn(responseMock);
         when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
         when(statusTypeMock.getFamily()).thenReturn(Response.Status.Family.SUCCESSFUL);
-        when(responseMock.readEntity(String.class)).thenReturn(FileUtils.readFileToString(Paths.get(path, CB_IMAGE_CATALOG_V2_JSON).toFile()));
+        when(responseMock.readEntity(InputStream.class)).thenReturn(new FileInputStream(Paths.get(path, CB_IMAGE_CATALOG_V2_JSON).toFile()));
 
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
 
-        CloudbreakImageCatalogV2 actualCatalog = underTest.getImageCatalogV2(catalogUrl);
+        CloudbreakImageCatalogV2 actualCatalog = underTest.getIndexedImageCatalog(catalogUrl).getCatalog();
 
         CloudbreakImageCatalogV2 expectedCatalog = objectMapper.readValue(Paths.get(path, CB_IMAGE_CATALOG_V2_JSON).toFile(), CloudbreakImageCatalogV2.class);
 
@@ -237,11 +265,11 @@ public class ImageCatalogProviderTest {
         when(builderMock.get()).thenReturn(responseMock);
         when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
         when(statusTypeMock.getFamily()).thenReturn(Response.Status.Family.SUCCESSFUL);
-        when(responseMock.readEntity(String.class)).thenReturn("image catalog");
+        when(responseMock.readEntity(InputStream.class)).thenReturn(new ByteArrayInputStream("image catalog".getBytes()));
 
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
 
-        underTest.getImageCatalogV2(catalogUrl);
+        underTest.getIndexedImageCatalog(catalogUrl);
     }
 
     @Test
@@ -259,7 +287,7 @@ public class ImageCatalogProviderTest {
         String path = getPath(CB_IMAGE_CATALOG_FILTER_NULL_IMAGES_JSON);
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
 
-        CloudbreakImageCatalogV2 imageCatalogV2 = underTest.getImageCatalogV2(CB_IMAGE_CATALOG_FILTER_NULL_IMAGES_JSON);
+        CloudbreakImageCatalogV2 imageCatalogV2 = underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_FILTER_NULL_IMAGES_JSON).getCatalog();
         assertEquals(1, imageCatalogV2.getImages().getBaseImages().get(0).getImageSetsByProvider().values().size());
     }
 
@@ -268,7 +296,7 @@ public class ImageCatalogProviderTest {
         String path = getPath(CB_IMAGE_CATALOG_WITHOUT_HDF_IMAGES);
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
 
-        CloudbreakImageCatalogV2 imageCatalogV2 = underTest.getImageCatalogV2(CB_IMAGE_CATALOG_WITHOUT_HDF_IMAGES);
+        CloudbreakImageCatalogV2 imageCatalogV2 = underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_WITHOUT_HDF_IMAGES).getCatalog();
         assertNotNull(imageCatalogV2.getImages().getHdfImages());
     }
 
@@ -277,7 +305,7 @@ public class ImageCatalogProviderTest {
         String path = getPath(CB_IMAGE_CATALOG_WITHOUT_HDP_IMAGES);
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
 
-        CloudbreakImageCatalogV2 imageCatalogV2 = underTest.getImageCatalogV2(CB_IMAGE_CATALOG_WITHOUT_HDP_IMAGES);
+        CloudbreakImageCatalogV2 imageCatalogV2 = underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_WITHOUT_HDP_IMAGES).getCatalog();
         assertNotNull(imageCatalogV2.getImages().getHdpImages());
     }
 
@@ -286,14 +314,139 @@ public class ImageCatalogProviderTest {
         String path = getPath(CB_IMAGE_CATALOG_WITHOUT_BASE_IMAGES);
         ReflectionTestUtils.setField(underTest, "etcConfigDir", path);
 
-        CloudbreakImageCatalogV2 imageCatalogV2 = underTest.getImageCatalogV2(CB_IMAGE_CATALOG_WITHOUT_BASE_IMAGES);
+        CloudbreakImageCatalogV2 imageCatalogV2 = underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_WITHOUT_BASE_IMAGES).getCatalog();
         assertNotNull(imageCatalogV2.getImages().getBaseImages());
     }
 
+    @Test
+    public void testFileImageCatalogIsServedFromTheCacheAndReloadedOnlyWhenChanged() throws Exception {
+        Path catalogFile = temporaryFolder.getRoot().toPath().resolve(CB_IMAGE_CATALOG_V2_JSON);
+        Files.copy(Paths.get(getPath(CB_IMAGE_CATALOG_V2_JSON), CB_IMAGE_CATALOG_V2_JSON), catalogFile);
+        ReflectionTestUtils.setField(underTest, "etcConfigDir", temporaryFolder.getRoot().toString());
+        ReflectionTestUtils.setField(underTest, "idleMinutes", 60L);
+
+        IndexedImageCatalog catalog = underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_V2_JSON);
+        underTest.refreshImageCatalogs();
+
+        assertSame(catalog, underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_V2_JSON));
+
+        Files.setLastModifiedTime(catalogFile, FileTime.fromMillis(Files.getLastModifiedTime(catalogFile).toMillis() + 1000L));
+        underTest.refreshImageCatalogs();
+
+        assertNotSame(catalog, underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_V2_JSON));
+        verify(metricService, times(2)).submit(eq(MetricType.IMAGE_CATALOG_AGE.getMetricName()), anyDouble());
+    }
+
+    @Test
+    public void testHttpImageCatalogIsRefreshedWithConditionalRequest() throws Exception {
+        String catalogUrl = mockHttpImageCatalog();
+        when(responseMock.getHeaderString(HttpHeaders.ETAG)).thenReturn("\"v1\"");
+
+        ReflectionTestUtils.setField(underTest, "refreshExecutor", MoreExecutors.newDirectExecutorService());
+
+        IndexedImageCatalog catalog = underTest.getIndexedImageCatalog(catalogUrl);
+        when(responseMock.getStatus()).thenReturn(Response.Status.NOT_MODIFIED.getStatusCode());
+        underTest.refreshImageCatalog(catalogUrl);
+
+        verify(builderMock).header(HttpHeaders.IF_NONE_MATCH, "\"v1\"");
+        verify(responseMock, times(1)).readEntity(InputStream.class);
+        assertSame(catalog, underTest.getIndexedImageCatalog(catalogUrl));
+    }
+
+    @Test
+    public void testForcedRefreshRunsInTheBackgroundOncePerCatalog() throws Exception {
+        String catalogUrl = mockHttpImageCatalog();
+        ExecutorService refreshExecutor = mock(ExecutorService.class);
+        ReflectionTestUtils.setField(underTest, "refreshExecutor", refreshExecutor);
+
+        IndexedImageCatalog catalog = underTest.getIndexedImageCatalog(catalogUrl);
+        underTest.refreshImageCatalog(catalogUrl);
+        underTest.refreshImageCatalog(catalogUrl);
+
+        verify(refreshExecutor, times(1)).execute(any(Runnable.class));
+        verify(builderMock, times(1)).get();
+        assertSame(catalog, underTest.getIndexedImageCatalog(catalogUrl));
+    }
+
+    @Test
+    public void testWaitForTheRefreshIsBounded() throws Exception {
+        String catalogUrl = mockHttpImageCatalog();
+        ReflectionTestUtils.setField(underTest, "refreshExecutor", mock(ExecutorService.class));
+        ReflectionTestUtils.setField(underTest, "refreshWaitMs", 1L);
+
+        IndexedImageCatalog catalog = underTest.getIndexedImageCatalog(catalogUrl);
+        underTest.awaitImageCatalogRefresh(catalogUrl);
+
+        assertSame(catalog, underTest.getIndexedImageCatalog(catalogUrl));
+    }
+
+    @Test
+    public void testMissingImageWaitsForTheRefreshOfTheCatalog() throws Exception {
+        String catalogUrl = mockHttpImageCatalog();
+        ReflectionTestUtils.setField(underTest, "refreshExecutor", MoreExecutors.newDirectExecutorService());
+        ReflectionTestUtils.setField(underTest, "refreshWaitMs", 1000L);
+
+        IndexedImageCatalog catalog = underTest.getIndexedImageCatalog(catalogUrl);
+        when(responseMock.readEntity(InputStream.class))
+                .thenReturn(new FileInputStream(Paths.get(getPath(CB_IMAGE_CATALOG_V2_JSON), CB_IMAGE_CATALOG_V2_JSON).toFile()));
+        underTest.awaitImageCatalogRefresh(catalogUrl);
+
+        assertNotSame(catalog, underTest.getIndexedImageCatalog(catalogUrl));
+    }
+
+    @Test
+    public void testReloadedCatalogKeepsItsLastAccessTime() throws Exception {
+        Path catalogFile = temporaryFolder.getRoot().toPath().resolve(CB_IMAGE_CATALOG_V2_JSON);
+        Files.copy(Paths.get(getPath(CB_IMAGE_CATALOG_V2_JSON), CB_IMAGE_CATALOG_V2_JSON), catalogFile);
+        ReflectionTestUtils.setField(underTest, "etcConfigDir", temporaryFolder.getRoot().toString());
+        ReflectionTestUtils.setField(underTest, "idleMinutes", 60L);
+        underTest.getIndexedImageCatalog(CB_IMAGE_CATALOG_V2_JSON);
+        long lastAccessed = System.currentTimeMillis() - 1000000L;
+        ReflectionTestUtils.setField(cachedCatalog(), "lastAccessed", lastAccessed);
+
+        Files.setLastModifiedTime(catalogFile, FileTime.fromMillis(Files.getLastModifiedTime(catalogFile).toMillis() + 1000L));
+        underTest.refreshImageCatalogs();
+
+        assertEquals(Long.valueOf(lastAccessed), ReflectionTestUtils.getField(cachedCatalog(), "lastAccessed"));
+    }
+
+    @Test
+    public void testLastGoodImageCatalogIsKeptWhenRefreshFails() throws Exception {
+        String catalogUrl = mockHttpImageCatalog();
+        ReflectionTestUtils.setField(underTest, "idleMinutes", 60L);
+
+        IndexedImageCatalog catalog = underTest.getIndexedImageCatalog(catalogUrl);
+        when(builderMock.get()).thenThrow(new ProcessingException("read timed out"));
+        underTest.refreshImageCatalogs();
+
+        assertSame(catalog, underTest.getIndexedImageCatalog(catalogUrl));
+        verify(metricService).incrementMetricCounter(MetricType.IMAGE_CATALOG_REFRESH_FAILED);
+    }
+
+    private Object cachedCatalog() {
+        Map<String, ?> catalogs = (Map<String, ?>) ReflectionTestUtils.getField(underTest, "catalogs");
+        return catalogs.values().iterator().next();
+    }
+
+    private String mockHttpImageCatalog() throws IOException {
+        PowerMockito.mockStatic(RestClientUtil.class);
+        String path = getPath(CB_IMAGE_CATALOG_V2_JSON);
+        String catalogUrl = "http";
+        when(RestClientUtil.get()).thenReturn(clientMock);
+        when(clientMock.target(catalogUrl)).thenReturn(webTargetMock);
+        when(webTargetMock.request()).thenReturn(builderMock);
+        when(builderMock.get()).thenReturn(responseMock);
+        when(responseMock.getStatusInfo()).thenReturn(statusTypeMock);
+        when(statusTypeMock.getFamily()).thenReturn(Response.Status.Family.SUCCESSFUL);
+        InputStream catalogContent = new FileInputStream(Paths.get(path, CB_IMAGE_CATALOG_V2_JSON).toFile());
+        when(responseMock.readEntity(InputStream.class)).thenReturn(catalogContent);
+        return catalogUrl;
+    }
+
     private String getErrorMessage(String catalogUrl) {
         String errorMessage = "";
         try {
-            underTest.getImageCatalogV2(catalogUrl);
+            underTest.getIndexedImageCatalog(catalogUrl);
         } catch (CloudbreakImageCatalogException e) {
             errorMessage = e.getMessage();
         }
@@ -48,7 +48,7 @@ public class ImageCatalogServiceDefaultNotFoundTest {
     public void beforeTest() throws Exception {
         String catalogJson = FileReaderUtils.readFileFromClasspath("com/sequenceiq/cloudbreak/service/image/no-default-imagecatalog.json");
         CloudbreakImageCatalogV2 catalog = JsonUtil.readValue(catalogJson, CloudbreakImageCatalogV2.class);
-        when(imageCatalogProvider.getImageCatalogV2("")).thenReturn(catalog);
+        when(imageCatalogProvider.getImageCatalog("")).thenReturn(new IndexedImageCatalog(catalog));
 
         IdentityUser user = getIdentityUser();
         when(authenticatedUserService.getCbUser()).thenReturn(user);
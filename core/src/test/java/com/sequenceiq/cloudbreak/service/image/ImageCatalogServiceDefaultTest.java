@@ -104,7 +104,7 @@ public class ImageCatalogServiceDefaultTest {
         MockitoAnnotations.initMocks(this);
         String catalogJson = FileReaderUtils.readFileFromClasspath(catalogFile);
         CloudbreakImageCatalogV2 catalog = JsonUtil.readValue(catalogJson, CloudbreakImageCatalogV2.class);
-        when(imageCatalogProvider.getImageCatalogV2("")).thenReturn(catalog);
+        when(imageCatalogProvider.getImageCatalog("")).thenReturn(new IndexedImageCatalog(catalog));
 
         IdentityUser user = getIdentityUser();
         when(authenticatedUserService.getCbUser()).thenReturn(user);
@@ -80,7 +80,7 @@ public class ImageCatalogServiceTest {
     public void beforeTest() throws Exception {
         String catalogJson = FileReaderUtils.readFileFromClasspath("com/sequenceiq/cloudbreak/service/image/cb-image-catalog-v2.json");
         CloudbreakImageCatalogV2 catalog = JsonUtil.readValue(catalogJson, CloudbreakImageCatalogV2.class);
-        when(imageCatalogProvider.getImageCatalogV2("")).thenReturn(catalog);
+        when(imageCatalogProvider.getImageCatalog("")).thenReturn(new IndexedImageCatalog(catalog));
 
         IdentityUser user = getIdentityUser();
         when(authenticatedUserService.getCbUser()).thenReturn(user);
@@ -113,7 +113,7 @@ public class ImageCatalogServiceTest {
         UserProfile userProfile = new UserProfile();
         String catalogJson = FileReaderUtils.readFileFromClasspath("com/sequenceiq/cloudbreak/service/image/cb-image-catalog-v2.json");
         CloudbreakImageCatalogV2 catalog = JsonUtil.readValue(catalogJson, CloudbreakImageCatalogV2.class);
-        when(imageCatalogProvider.getImageCatalogV2("http://localhost/imagecatalog-url")).thenReturn(catalog);
+        when(imageCatalogProvider.getImageCatalog("http://localhost/imagecatalog-url")).thenReturn(new IndexedImageCatalog(catalog));
         when(userProfileService.get(user.getAccount(), user.getUserId())).thenReturn(userProfile);
         ReflectionTestUtils.setField(underTest, ImageCatalogService.class, "cbVersion", "2.1.0-dev.100", null);
 
@@ -129,7 +129,7 @@ public class ImageCatalogServiceTest {
         UserProfile userProfile = new UserProfile();
         String catalogJson = FileReaderUtils.readFileFromClasspath("com/sequenceiq/cloudbreak/service/image/cb-image-catalog-v2.json");
         CloudbreakImageCatalogV2 catalog = JsonUtil.readValue(catalogJson, CloudbreakImageCatalogV2.class);
-        when(imageCatalogProvider.getImageCatalogV2("http://localhost/imagecatalog-url")).thenReturn(catalog);
+        when(imageCatalogProvider.getImageCatalog("http://localhost/imagecatalog-url")).thenReturn(new IndexedImageCatalog(catalog));
         when(userProfileService.get(user.getAccount(), user.getUserId())).thenReturn(userProfile);
         ReflectionTestUtils.setField(underTest, ImageCatalogService.class, "cbVersion", "2.1.0-dev.200", null);
 
@@ -145,7 +145,7 @@ public class ImageCatalogServiceTest {
         UserProfile userProfile = new UserProfile();
         String catalogJson = FileReaderUtils.readFileFromClasspath("com/sequenceiq/cloudbreak/service/image/cb-image-catalog-v2.json");
         CloudbreakImageCatalogV2 catalog = JsonUtil.readValue(catalogJson, CloudbreakImageCatalogV2.class);
-        when(imageCatalogProvider.getImageCatalogV2("http://localhost/imagecatalog-url")).thenReturn(catalog);
+        when(imageCatalogProvider.getImageCatalog("http://localhost/imagecatalog-url")).thenReturn(new IndexedImageCatalog(catalog));
         when(userProfileService.get(user.getAccount(), user.getUserId())).thenReturn(userProfile);
         ReflectionTestUtils.setField(underTest, ImageCatalogService.class, "cbVersion", "2.1.0-dev.1", null);
 
@@ -161,7 +161,7 @@ public class ImageCatalogServiceTest {
         UserProfile userProfile = new UserProfile();
         String catalogJson = FileReaderUtils.readFileFromClasspath("com/sequenceiq/cloudbreak/service/image/cb-image-catalog-v2.json");
         CloudbreakImageCatalogV2 catalog = JsonUtil.readValue(catalogJson, CloudbreakImageCatalogV2.class);
-        when(imageCatalogProvider.getImageCatalogV2("http://localhost/imagecatalog-url")).thenReturn(catalog);
+        when(imageCatalogProvider.getImageCatalog("http://localhost/imagecatalog-url")).thenReturn(new IndexedImageCatalog(catalog));
         when(userProfileService.get(user.getAccount(), user.getUserId())).thenReturn(userProfile);
         ReflectionTestUtils.setField(underTest, ImageCatalogService.class, "cbVersion", "2.1.0-dev.2", null);
 
@@ -328,10 +328,10 @@ public class ImageCatalogServiceTest {
         ImageCatalog ret = new ImageCatalog();
         ret.setImageCatalogUrl("");
         when(imageCatalogRepository.findByName("name", "userId", "account")).thenReturn(ret);
-        when(imageCatalogProvider.getImageCatalogV2("")).thenReturn(null);
+        when(imageCatalogProvider.getImageCatalog("")).thenReturn(null);
         underTest.getImages("name", "aws");
 
-        verify(imageCatalogProvider, times(1)).getImageCatalogV2("");
+        verify(imageCatalogProvider, times(1)).getImageCatalog("");
 
     }
 
@@ -340,7 +340,7 @@ public class ImageCatalogServiceTest {
         when(imageCatalogRepository.findByName("name", "userId", "account")).thenReturn(null);
         Images images = underTest.getImages("name", "aws").getImages();
 
-        verify(imageCatalogProvider, times(0)).getImageCatalogV2("");
+        verify(imageCatalogProvider, times(0)).getImageCatalog("");
 
         Assert.assertTrue("Base images should be empty!", images.getBaseImages().isEmpty());
         Assert.assertTrue("HDF images should be empty!", images.getHdfImages().isEmpty());
@@ -0,0 +1,75 @@
+package com.sequenceiq.cloudbreak.service.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.CloudbreakImageCatalogV2;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.Image;
+import com.sequenceiq.cloudbreak.cloud.model.catalog.Images;
+import com.sequenceiq.cloudbreak.util.FileReaderUtils;
+import com.sequenceiq.cloudbreak.util.JsonUtil;
+
+public class IndexedImageCatalogTest {
+
+    private static final String DEFAULT_IMAGE_ID = "f6e778fc-7f17-4535-9021-515351df3691";
+
+    private CloudbreakImageCatalogV2 catalog;
+
+    private IndexedImageCatalog underTest;
+
+    @Before
+    public void setUp() throws IOException {
+        String catalogJson = FileReaderUtils.readFileFromClasspath("com/sequenceiq/cloudbreak/service/image/cb-image-catalog-v2.json");
+        catalog = JsonUtil.readValue(catalogJson, CloudbreakImageCatalogV2.class);
+        underTest = new IndexedImageCatalog(catalog);
+    }
+
+    @Test
+    public void testImageIsFoundByUuid() {
+        assertSame(catalog.getImages().getHdfImages().get(0), underTest.getImage("9958938a-1261-48e2-aff9-dbcb2cebf6cd").get());
+        assertFalse(underTest.getImage("unknown").isPresent());
+    }
+
+    @Test
+    public void testDefaultImagesAreCopiesAndTheCatalogIsNotModified() {
+        Images images = underTest.getImages(Collections.singleton("aws"), "2.1.0-dev.2");
+
+        Image selected = images.getBaseImages().stream().filter(img -> DEFAULT_IMAGE_ID.equals(img.getUuid())).findFirst().get();
+        assertTrue(selected.isDefaultImage());
+        assertFalse(underTest.getImage(DEFAULT_IMAGE_ID).get().isDefaultImage());
+        assertFalse(underTest.getImages(Collections.singleton("aws"), "2.0.0").getBaseImages().stream().anyMatch(Image::isDefaultImage));
+    }
+
+    @Test
+    public void testSelectionIsKeptForTheSamePlatformsAndVersion() {
+        Images images = underTest.getImages(ImmutableSet.of("AWS", "gcp"), "2.1.0-dev.1");
+
+        assertSame(images, underTest.getImages(ImmutableSet.of("gcp", "aws"), "2.1.0-dev.1"));
+    }
+
+    @Test
+    public void testUnreleasedVersionIsMatchedByPrefix() {
+        Images images = underTest.getImages(Collections.singleton("aws"), "2.1.0-dev.200");
+
+        assertEquals(ImmutableSet.of("2.1.0-dev.1", "2.1.0-dev.2", "2.0.0", "2.1.0-dev.100"), images.getSuppertedVersions());
+        assertEquals(ImmutableSet.of(DEFAULT_IMAGE_ID, "7aca1fa6-980c-44e2-a75e-3144b18a5993"),
+                images.getBaseImages().stream().filter(Image::isDefaultImage).map(Image::getUuid).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testUnlistedReleasedVersionFallsBackToThePreviousRelease() {
+        Images images = underTest.getImages(Collections.singleton("aws"), "1.16.6");
+
+        assertEquals(Collections.singleton("1.16.5"), images.getSuppertedVersions());
+    }
+}
@@ -3,4 +3,11 @@ package com.sequenceiq.cloudbreak.orchestrator;
 public interface OrchestratorBootstrap {
 
     Boolean call() throws Exception;
+
+    /**
+     * Waits before the next attempt. Implementations that know when their progress changes may return earlier than the timeout.
+     */
+    default void awaitNextAttempt(long timeoutMillis) throws InterruptedException {
+        Thread.sleep(timeoutMillis);
+    }
 }
@@ -154,7 +154,7 @@ public class OrchestratorBootstrapRunner implements Callable<Boolean> {
     private void trySleeping() {
         if (!Thread.interrupted()) {
             try {
-                Thread.sleep(sleepTime);
+                orchestratorBootstrap.awaitNextAttempt(sleepTime);
             } catch (InterruptedException ie) {
                 LOGGER.warn("The thread was interrupted during sleeping. Sleeping halted, continuing execution.", ie);
             }
@@ -18,10 +18,13 @@ import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import javax.inject.Inject;
+
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +37,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 import com.sequenceiq.cloudbreak.common.type.RecipeExecutionPhase;
 import com.sequenceiq.cloudbreak.orchestrator.OrchestratorBootstrap;
 import com.sequenceiq.cloudbreak.orchestrator.OrchestratorBootstrapRunner;
@@ -56,6 +60,7 @@ import com.sequenceiq.cloudbreak.orchestrator.salt.poller.PillarSave;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltBootstrap;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltCommandTracker;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltJobIdTracker;
+import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltJobWatcher;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltUpload;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.GrainAddRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.GrainRemoveRunner;
@@ -90,8 +95,13 @@ public class SaltOrchestrator implements HostOrchestrator {
     @Value("${cb.smartsense.configure:false}")
     private boolean configureSmartSense;
 
+    @Inject
+    private SaltJobWatcher saltJobWatcher;
+
     private ParallelOrchestratorComponentRunner parallelOrchestratorComponentRunner;
 
+    private volatile StateConfigZip stateConfigZip;
+
     private ExitCriteria exitCriteria;
 
     @Override
@@ -285,10 +295,8 @@ public class SaltOrchestrator implements HostOrchestrator {
                     return SaltStates.ambariReset(saltConnector, new Compound(getTarget(), CompoundType.HOST));
                 }
             };
-            OrchestratorBootstrap saltJobIdTracker = new SaltJobIdTracker(saltConnector, baseSaltJobRunner);
-            Callable<Boolean> saltJobRunBootstrapRunner = runner(saltJobIdTracker, exitCriteria, exitCriteriaModel);
-            Future<Boolean> saltJobRunBootstrapFuture = parallelOrchestratorComponentRunner.submit(saltJobRunBootstrapRunner);
-            saltJobRunBootstrapFuture.get();
+            OrchestratorBootstrap saltJobIdTracker = new SaltJobIdTracker(saltConnector, baseSaltJobRunner, true, saltJobWatcher);
+            runJobTracker(runner(saltJobIdTracker, exitCriteria, exitCriteriaModel));
         } catch (Exception e) {
             LOGGER.error("Error occurred during reset", e);
             throw new CloudbreakOrchestratorFailedException(e);
@@ -385,6 +393,29 @@ public class SaltOrchestrator implements HostOrchestrator {
 
     @Override
     public byte[] getStateConfigZip() throws IOException {
+        return getCachedStateConfigZip().content.clone();
+    }
+
+    /**
+     * The salt states are packaged in the jar, so they are zipped only once and the same immutable bundle is uploaded to every gateway.
+     */
+    private StateConfigZip getCachedStateConfigZip() throws IOException {
+        StateConfigZip zip = stateConfigZip;
+        if (zip == null) {
+            synchronized (this) {
+                zip = stateConfigZip;
+                if (zip == null) {
+                    byte[] content = buildStateConfigZip();
+                    zip = new StateConfigZip(content, Hashing.sha256().hashBytes(content).toString());
+                    LOGGER.info("Salt state config zip has been built, size: {} bytes, sha256: {}", content.length, zip.hash);
+                    stateConfigZip = zip;
+                }
+            }
+        }
+        return zip;
+    }
+
+    private byte[] buildStateConfigZip() throws IOException {
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             try (ZipOutputStream zout = new ZipOutputStream(baos)) {
                 ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
@@ -493,10 +524,18 @@ public class SaltOrchestrator implements HostOrchestrator {
 
     private void runNewService(SaltConnector sc, BaseSaltJobRunner baseSaltJobRunner, ExitCriteriaModel exitCriteriaModel, int maxRetry, boolean retryOnFail)
             throws ExecutionException, InterruptedException {
-        OrchestratorBootstrap saltJobIdTracker = new SaltJobIdTracker(sc, baseSaltJobRunner, retryOnFail);
-        Callable<Boolean> saltJobRunBootstrapRunner = runner(saltJobIdTracker, exitCriteria, exitCriteriaModel, maxRetry, true);
-        Future<Boolean> saltJobRunBootstrapFuture = parallelOrchestratorComponentRunner.submit(saltJobRunBootstrapRunner);
-        saltJobRunBootstrapFuture.get();
+        OrchestratorBootstrap saltJobIdTracker = new SaltJobIdTracker(sc, baseSaltJobRunner, retryOnFail, saltJobWatcher);
+        runJobTracker(runner(saltJobIdTracker, exitCriteria, exitCriteriaModel, maxRetry, true));
+    }
+
+    /**
+     * The job trackers wait on the job completion of the {@link SaltJobWatcher} between their attempts, so they are run on the calling
+     * thread, which is blocked until the job is done anyway, instead of holding a thread of the orchestrator pool for the whole job.
+     */
+    private void runJobTracker(Callable<Boolean> jobTrackerRunner) throws ExecutionException, InterruptedException {
+        FutureTask<Boolean> jobTrackerTask = new FutureTask<>(jobTrackerRunner);
+        jobTrackerTask.run();
+        jobTrackerTask.get();
     }
 
     private void runSaltCommand(SaltConnector sc, BaseSaltJobRunner baseSaltJobRunner, ExitCriteriaModel exitCriteriaModel) throws ExecutionException,
@@ -561,8 +600,14 @@ public class SaltOrchestrator implements HostOrchestrator {
     private void uploadSaltConfig(SaltConnector saltConnector, Set<String> targets, byte[] stateConfigZip, ExitCriteriaModel exitCriteriaModel)
             throws CloudbreakOrchestratorFailedException, IOException {
         byte[] byteArray;
-        byteArray = stateConfigZip == null || stateConfigZip.length == 0 ? getStateConfigZip() : stateConfigZip;
-        LOGGER.info("Upload salt.zip to gateways");
+        if (stateConfigZip == null || stateConfigZip.length == 0) {
+            StateConfigZip cachedStateConfigZip = getCachedStateConfigZip();
+            LOGGER.info("Upload salt.zip (sha256: {}) to gateways", cachedStateConfigZip.hash);
+            byteArray = cachedStateConfigZip.content;
+        } else {
+            LOGGER.info("Upload salt.zip to gateways");
+            byteArray = stateConfigZip;
+        }
         uploadFileToGateways(saltConnector, targets, exitCriteriaModel, "/srv", "salt.zip", byteArray);
     }
 
@@ -607,4 +652,16 @@ public class SaltOrchestrator implements HostOrchestrator {
             throw new CloudbreakOrchestratorFailedException(e);
         }
     }
-}
\ No newline at end of file
+
+    private static final class StateConfigZip {
+
+        private final byte[] content;
+
+        private final String hash;
+
+        private StateConfigZip(byte[] content, String hash) {
+            this.content = content;
+            this.hash = hash;
+        }
+    }
+}
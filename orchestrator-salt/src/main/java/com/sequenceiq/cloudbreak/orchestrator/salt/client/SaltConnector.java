@@ -61,6 +61,8 @@ public class SaltConnector implements Closeable {
 
     private static final List<Integer> ACCEPTED_STATUSES = Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_CREATED, HttpStatus.SC_ACCEPTED);
 
+    private final GatewayConfig gatewayConfig;
+
     private final Client restClient;
 
     private final WebTarget saltTarget;
@@ -70,6 +72,7 @@ public class SaltConnector implements Closeable {
     private final String signatureKey;
 
     public SaltConnector(GatewayConfig gatewayConfig, boolean debug) {
+        this.gatewayConfig = gatewayConfig;
         try {
             restClient = RestClientUtil.createClient(
                     gatewayConfig.getServerCert(), gatewayConfig.getClientCert(), gatewayConfig.getClientKey(), debug, SaltConnector.class);
@@ -229,6 +232,14 @@ public class SaltConnector implements Closeable {
         return form;
     }
 
+    public GatewayConfig getGatewayConfig() {
+        return gatewayConfig;
+    }
+
+    public String getSaltUrl() {
+        return saltTarget.getUri().toString();
+    }
+
     @Override
     public void close() {
         if (restClient != null) {
@@ -3,6 +3,12 @@ package com.sequenceiq.cloudbreak.orchestrator.salt.poller;
 import static com.sequenceiq.cloudbreak.orchestrator.salt.domain.JobId.jobId;
 
 import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,14 +33,23 @@ public class SaltJobIdTracker implements OrchestratorBootstrap {
 
     private final boolean retryOnFail;
 
+    private final SaltJobWatcher saltJobWatcher;
+
+    private volatile CompletableFuture<Void> jobCompletion;
+
     public SaltJobIdTracker(SaltConnector saltConnector, SaltJobRunner saltJobRunner) {
         this(saltConnector, saltJobRunner, true);
     }
 
     public SaltJobIdTracker(SaltConnector saltConnector, SaltJobRunner saltJobRunner, boolean retryOnFail) {
+        this(saltConnector, saltJobRunner, retryOnFail, null);
+    }
+
+    public SaltJobIdTracker(SaltConnector saltConnector, SaltJobRunner saltJobRunner, boolean retryOnFail, SaltJobWatcher saltJobWatcher) {
         this.saltConnector = saltConnector;
         this.saltJobRunner = saltJobRunner;
         this.retryOnFail = retryOnFail;
+        this.saltJobWatcher = saltJobWatcher;
     }
 
     @Override
@@ -69,8 +84,22 @@ public class SaltJobIdTracker implements OrchestratorBootstrap {
         return true;
     }
 
+    @Override
+    public void awaitNextAttempt(long timeoutMillis) throws InterruptedException {
+        CompletableFuture<Void> completion = jobCompletion;
+        if (completion == null) {
+            OrchestratorBootstrap.super.awaitNextAttempt(timeoutMillis);
+            return;
+        }
+        try {
+            completion.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | CancellationException | TimeoutException ignored) {
+            // the outcome is handled by the next attempt
+        }
+    }
+
     private void checkIsFinished(String jobId) throws CloudbreakOrchestratorFailedException {
-        boolean jobRunning = SaltStates.jobIsRunning(saltConnector, jobId);
+        boolean jobRunning = saltJobWatcher != null ? isWatchedJobRunning(jobId) : SaltStates.jobIsRunning(saltConnector, jobId);
         if (jobRunning) {
             LOGGER.info("Job: {} is running currently, waiting for next polling attempt.", jobId);
             saltJobRunner.setJobState(JobState.IN_PROGRESS);
@@ -80,6 +109,26 @@ public class SaltJobIdTracker implements OrchestratorBootstrap {
         }
     }
 
+    private boolean isWatchedJobRunning(String jobId) throws CloudbreakOrchestratorFailedException {
+        if (jobCompletion == null) {
+            jobCompletion = saltJobWatcher.watch(saltConnector, jobId);
+        } else {
+            saltJobWatcher.touch(saltConnector, jobId);
+        }
+        if (!jobCompletion.isDone()) {
+            return true;
+        }
+        CompletableFuture<Void> completion = jobCompletion;
+        jobCompletion = null;
+        try {
+            completion.join();
+            return false;
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new CloudbreakOrchestratorFailedException(String.format("Failed to check the state of the job (jid: %s): %s", jobId, cause.getMessage()));
+        }
+    }
+
     private String buildErrorMessage() {
         String jobId = saltJobRunner.getJid().getJobId();
         StringBuilder errorMessageBuilder = new StringBuilder();
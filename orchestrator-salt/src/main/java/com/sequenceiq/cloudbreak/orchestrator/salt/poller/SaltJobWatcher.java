@@ -0,0 +1,205 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.poller;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sequenceiq.cloudbreak.orchestrator.model.GatewayConfig;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+import com.sequenceiq.cloudbreak.orchestrator.salt.states.SaltStates;
+
+/**
+ * Watches the running salt jobs of every gateway with a single {@code jobs.active} query per gateway and tick, instead of one query per
+ * job. The watcher queries the gateway through its own connector, so it does not depend on the connectors of the job trackers, which are
+ * closed when their owner is done.
+ * <p>
+ * The completion of a job is completed when its jid is missing from the active jobs of its gateway queried after the job was watched,
+ * and completed exceptionally when the active jobs could not be queried {@code maxQueryFailures} times in a row. A completed job is not
+ * watched anymore.
+ */
+@Component
+public class SaltJobWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SaltJobWatcher.class);
+
+    @Value("${cb.salt.job.watcher.interval:5000}")
+    private long interval;
+
+    @Value("${cb.salt.job.watcher.stale.after:600000}")
+    private long staleAfter;
+
+    @Value("${cb.salt.job.watcher.max.query.failures:3}")
+    private int maxQueryFailures;
+
+    @Value("${rest.debug:false}")
+    private boolean restDebug;
+
+    private final Map<String, WatchedGateway> gateways = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "saltJobWatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkJobs, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        gateways.values().forEach(WatchedGateway::closeConnector);
+    }
+
+    /**
+     * Starts watching the job, or returns its completion if it is watched already.
+     */
+    public CompletableFuture<Void> watch(SaltConnector sc, String jid) {
+        WatchedJob[] job = new WatchedJob[1];
+        gateways.compute(sc.getSaltUrl(), (url, gateway) -> {
+            WatchedGateway watchedGateway = gateway == null ? new WatchedGateway(sc.getGatewayConfig()) : gateway;
+            job[0] = watchedGateway.jobs.computeIfAbsent(jid, id -> new WatchedJob());
+            job[0].touch();
+            return watchedGateway;
+        });
+        return job[0].completion;
+    }
+
+    /**
+     * Signals that the owner of the job is still waiting for it. Jobs that are not touched for {@code staleAfter} are not watched anymore.
+     */
+    public void touch(SaltConnector sc, String jid) {
+        WatchedGateway gateway = gateways.get(sc.getSaltUrl());
+        if (gateway != null) {
+            gateway.jobs.computeIfPresent(jid, (id, job) -> {
+                job.touch();
+                return job;
+            });
+        }
+    }
+
+    void checkJobs() {
+        for (String url : gateways.keySet()) {
+            try {
+                checkJobs(url);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to check the running salt jobs on gateway {}", url, e);
+            }
+        }
+    }
+
+    private void checkJobs(String url) {
+        WatchedGateway gateway = gateways.get(url);
+        if (gateway == null) {
+            return;
+        }
+        removeStaleJobs(url, gateway);
+        if (!gateway.jobs.isEmpty()) {
+            checkRunningJobs(url, gateway);
+        }
+        gateways.computeIfPresent(url, (key, watchedGateway) -> {
+            if (watchedGateway.jobs.isEmpty()) {
+                watchedGateway.closeConnector();
+                return null;
+            }
+            return watchedGateway;
+        });
+    }
+
+    private void removeStaleJobs(String url, WatchedGateway gateway) {
+        long now = System.currentTimeMillis();
+        for (Entry<String, WatchedJob> entry : gateway.jobs.entrySet()) {
+            WatchedJob job = entry.getValue();
+            if (now - job.lastAccess > staleAfter && gateway.jobs.remove(entry.getKey(), job)) {
+                LOGGER.info("Salt job {} on gateway {} is not watched anymore", entry.getKey(), url);
+                job.completion.cancel(false);
+            }
+        }
+    }
+
+    private void checkRunningJobs(String url, WatchedGateway gateway) {
+        // a job registered while the query is in flight may be missing from its result, only the jobs watched before it are completed
+        Map<String, WatchedJob> queriedJobs = new HashMap<>(gateway.jobs);
+        Set<String> runningJobIds;
+        try {
+            runningJobIds = SaltStates.runningJobIds(gateway.connector(restDebug));
+            gateway.failedQueries = 0;
+        } catch (RuntimeException e) {
+            gateway.failedQueries++;
+            LOGGER.warn("Failed to query the running salt jobs on gateway {} [{}/{}]", url, gateway.failedQueries, maxQueryFailures, e);
+            gateway.closeConnector();
+            if (gateway.failedQueries >= maxQueryFailures) {
+                gateway.failedQueries = 0;
+                gateway.jobs.forEach((jid, job) -> {
+                    if (gateway.jobs.remove(jid, job)) {
+                        job.completion.completeExceptionally(e);
+                    }
+                });
+            }
+            return;
+        }
+        queriedJobs.forEach((jid, job) -> {
+            if (!runningJobIds.contains(jid) && gateway.jobs.remove(jid, job)) {
+                LOGGER.info("Salt job {} finished on gateway {}", jid, url);
+                job.completion.complete(null);
+            }
+        });
+    }
+
+    private static class WatchedGateway {
+
+        private final GatewayConfig gatewayConfig;
+
+        private final Map<String, WatchedJob> jobs = new ConcurrentHashMap<>();
+
+        private SaltConnector connector;
+
+        private int failedQueries;
+
+        private WatchedGateway(GatewayConfig gatewayConfig) {
+            this.gatewayConfig = gatewayConfig;
+        }
+
+        private synchronized SaltConnector connector(boolean restDebug) {
+            if (connector == null) {
+                connector = new SaltConnector(gatewayConfig, restDebug);
+            }
+            return connector;
+        }
+
+        private synchronized void closeConnector() {
+            if (connector != null) {
+                connector.close();
+                connector = null;
+            }
+        }
+    }
+
+    private static class WatchedJob {
+
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        private volatile long lastAccess;
+
+        private void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+    }
+}
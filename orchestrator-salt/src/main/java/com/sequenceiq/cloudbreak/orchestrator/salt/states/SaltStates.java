@@ -5,9 +5,11 @@ import static com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltClientType.
 import static com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltClientType.RUNNER;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -107,16 +109,17 @@ public class SaltStates {
     }
 
     public static boolean jobIsRunning(SaltConnector sc, String jid) {
+        return runningJobIds(sc).contains(jid);
+    }
+
+    public static Set<String> runningJobIds(SaltConnector sc) {
         RunningJobsResponse runningInfo = sc.run("jobs.active", RUNNER, RunningJobsResponse.class);
         LOGGER.info("Active salt jobs: {}", runningInfo);
+        Set<String> jids = new HashSet<>();
         for (Map<String, Map<String, Object>> results : runningInfo.getResult()) {
-            for (Entry<String, Map<String, Object>> stringMapEntry : results.entrySet()) {
-                if (stringMapEntry.getKey().equals(jid)) {
-                    return true;
-                }
-            }
+            jids.addAll(results.keySet());
         }
-        return false;
+        return jids;
     }
 
     public static MinionIpAddressesResponse collectMinionIpAddresses(SaltConnector sc) {
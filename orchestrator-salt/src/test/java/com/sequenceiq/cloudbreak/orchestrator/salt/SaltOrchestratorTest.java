@@ -2,7 +2,9 @@ package com.sequenceiq.cloudbreak.orchestrator.salt;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.isNull;
@@ -59,6 +61,7 @@ import com.sequenceiq.cloudbreak.orchestrator.salt.poller.PillarSave;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltBootstrap;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltCommandTracker;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltJobIdTracker;
+import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltJobWatcher;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.SaltUpload;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.GrainAddRunner;
 import com.sequenceiq.cloudbreak.orchestrator.salt.poller.checker.HighStateRunner;
@@ -89,6 +92,9 @@ public class SaltOrchestratorTest {
     @Mock
     private HostDiscoveryService hostDiscoveryService;
 
+    @Mock
+    private SaltJobWatcher saltJobWatcher;
+
     @InjectMocks
     private SaltOrchestrator saltOrchestrator;
 
@@ -216,7 +222,7 @@ public class SaltOrchestratorTest {
         // verify run new service
         verifyNew(HighStateRunner.class, atLeastOnce()).withArguments(eq(allNodes),
                 eq(targets));
-        verifyNew(SaltJobIdTracker.class, atLeastOnce()).withArguments(eq(saltConnector), eq(highStateRunner), eq(true));
+        verifyNew(SaltJobIdTracker.class, atLeastOnce()).withArguments(eq(saltConnector), eq(highStateRunner), eq(true), eq(saltJobWatcher));
     }
 
     @Test
@@ -312,4 +318,16 @@ public class SaltOrchestratorTest {
         boolean bootstrapApiAvailable = saltOrchestrator.isBootstrapApiAvailable(gatewayConfig);
         assertFalse(bootstrapApiAvailable);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void stateConfigZipIsBuiltOnceTest() throws Exception {
+        SaltOrchestrator saltOrchestrator = new SaltOrchestrator();
+
+        byte[] first = saltOrchestrator.getStateConfigZip();
+        byte[] second = saltOrchestrator.getStateConfigZip();
+
+        assertTrue(first.length > 0);
+        assertArrayEquals(first, second);
+        assertNotSame(first, second);
+    }
+}
@@ -0,0 +1,151 @@
+package com.sequenceiq.cloudbreak.orchestrator.salt.poller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.whenNew;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
+
+import com.google.common.collect.Sets;
+import com.sequenceiq.cloudbreak.orchestrator.model.GatewayConfig;
+import com.sequenceiq.cloudbreak.orchestrator.salt.client.SaltConnector;
+import com.sequenceiq.cloudbreak.orchestrator.salt.states.SaltStates;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({SaltStates.class, SaltJobWatcher.class})
+public class SaltJobWatcherTest {
+
+    private final SaltJobWatcher underTest = new SaltJobWatcher();
+
+    private SaltConnector caller1;
+
+    private SaltConnector caller2;
+
+    private SaltConnector watcher1;
+
+    private SaltConnector watcher2;
+
+    @Before
+    public void setUp() throws Exception {
+        Whitebox.setInternalState(underTest, "staleAfter", 60000L);
+        Whitebox.setInternalState(underTest, "maxQueryFailures", 2);
+        GatewayConfig gatewayConfig1 = mock(GatewayConfig.class);
+        GatewayConfig gatewayConfig2 = mock(GatewayConfig.class);
+        caller1 = connector("https://10.0.0.1:9443", gatewayConfig1);
+        caller2 = connector("https://10.0.0.2:9443", gatewayConfig2);
+        watcher1 = mock(SaltConnector.class);
+        watcher2 = mock(SaltConnector.class);
+        whenNew(SaltConnector.class).withArguments(eq(gatewayConfig1), anyBoolean()).thenReturn(watcher1);
+        whenNew(SaltConnector.class).withArguments(eq(gatewayConfig2), anyBoolean()).thenReturn(watcher2);
+        PowerMockito.mockStatic(SaltStates.class);
+    }
+
+    @Test
+    public void testRunningJobsOfAGatewayAreQueriedOnceWithTheConnectorOfTheWatcher() {
+        CompletableFuture<Void> job1 = underTest.watch(caller1, "1");
+        CompletableFuture<Void> job2 = underTest.watch(caller1, "2");
+        CompletableFuture<Void> job3 = underTest.watch(caller2, "3");
+        PowerMockito.when(SaltStates.runningJobIds(watcher1)).thenReturn(Sets.newHashSet("2", "other"));
+        PowerMockito.when(SaltStates.runningJobIds(watcher2)).thenReturn(Sets.newHashSet());
+
+        underTest.checkJobs();
+
+        assertTrue(job1.isDone());
+        assertFalse(job2.isDone());
+        assertTrue(job3.isDone());
+        assertSame(job2, underTest.watch(caller1, "2"));
+        PowerMockito.verifyStatic(SaltStates.class, times(1));
+        SaltStates.runningJobIds(watcher1);
+        PowerMockito.verifyStatic(SaltStates.class, never());
+        SaltStates.runningJobIds(caller1);
+        verify(watcher1, never()).close();
+        verify(watcher2).close();
+    }
+
+    @Test
+    public void testFinishedJobIsNotWatchedAnymore() {
+        CompletableFuture<Void> job = underTest.watch(caller1, "1");
+        PowerMockito.when(SaltStates.runningJobIds(watcher1)).thenReturn(Sets.newHashSet());
+
+        underTest.checkJobs();
+
+        assertTrue(job.isDone());
+        assertNotSame(job, underTest.watch(caller1, "1"));
+    }
+
+    @Test
+    public void testJobWatchedWhileTheQueryIsInFlightIsNotCompleted() {
+        CompletableFuture<Void> job1 = underTest.watch(caller1, "1");
+        CompletableFuture<?>[] job2 = new CompletableFuture<?>[1];
+        PowerMockito.when(SaltStates.runningJobIds(watcher1)).thenAnswer(invocation -> {
+            job2[0] = underTest.watch(caller1, "2");
+            return Sets.newHashSet();
+        });
+
+        underTest.checkJobs();
+
+        assertTrue(job1.isDone());
+        assertFalse(job2[0].isDone());
+        assertSame(job2[0], underTest.watch(caller1, "2"));
+        verify(watcher1, never()).close();
+    }
+
+    @Test
+    public void testQueryFailuresAreReportedToEveryRunningJobOfTheGatewayAfterTheLimit() {
+        CompletableFuture<Void> job = underTest.watch(caller1, "1");
+        PowerMockito.when(SaltStates.runningJobIds(watcher1)).thenThrow(new IllegalStateException("salt-api is not available"));
+
+        underTest.checkJobs();
+
+        assertFalse(job.isDone());
+
+        underTest.checkJobs();
+
+        try {
+            job.join();
+            fail("Query failure is not reported");
+        } catch (CompletionException e) {
+            assertEquals("salt-api is not available", e.getCause().getMessage());
+        }
+        verify(watcher1, times(2)).close();
+        assertNotSame(job, underTest.watch(caller1, "1"));
+    }
+
+    @Test
+    public void testStaleJobsAreNotWatchedAnymore() {
+        Whitebox.setInternalState(underTest, "staleAfter", -1L);
+        CompletableFuture<Void> job = underTest.watch(caller1, "1");
+
+        underTest.checkJobs();
+
+        assertTrue(job.isCancelled());
+        PowerMockito.verifyZeroInteractions(SaltStates.class);
+    }
+
+    private SaltConnector connector(String url, GatewayConfig gatewayConfig) {
+        SaltConnector saltConnector = mock(SaltConnector.class);
+        when(saltConnector.getSaltUrl()).thenReturn(url);
+        when(saltConnector.getGatewayConfig()).thenReturn(gatewayConfig);
+        return saltConnector;
+    }
+}